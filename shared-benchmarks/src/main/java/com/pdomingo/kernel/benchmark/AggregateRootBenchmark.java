@@ -0,0 +1,76 @@
+package com.pdomingo.kernel.benchmark;
+
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdomingo.kernel.benchmark.Fixtures.Client;
+import com.pdomingo.kernel.benchmark.Fixtures.ClientId;
+import com.pdomingo.kernel.benchmark.Fixtures.OrderPlaced;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording, committing and replaying the events of an aggregate
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class AggregateRootBenchmark {
+
+	@Param({ "1", "64", "1024" })
+	private int batchSize;
+
+	private ClientId id;
+	private List<DomainEvent<ClientId>> history;
+
+	@Setup
+	public void setUp() {
+		id = new ClientId(1_000_000L);
+		history = new ArrayList<>(batchSize);
+		for (int i = 0; i < batchSize; i++) {
+			history.add(new OrderPlaced(id, i));
+		}
+	}
+
+	@Benchmark
+	public Client recordEvents() {
+		Client client = new Client(id);
+		for (int i = 0; i < batchSize; i++) {
+			client.placeOrder();
+		}
+		return client;
+	}
+
+	@Benchmark
+	public Client recordAndCommit(Blackhole blackhole) {
+		Client client = new Client(id);
+		for (int i = 0; i < batchSize; i++) {
+			client.placeOrder();
+		}
+		blackhole.consume(client.uncommittedEvents());
+		client.markEventsCommitted();
+		return client;
+	}
+
+	@Benchmark
+	public int replay() {
+		Client client = new Client(id);
+		client.replay(history);
+		return client.openOrders();
+	}
+}
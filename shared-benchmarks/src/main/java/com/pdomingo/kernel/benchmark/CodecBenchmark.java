@@ -0,0 +1,99 @@
+package com.pdomingo.kernel.benchmark;
+
+import com.pdoming.kernel.core.codec.BinaryReader;
+import com.pdoming.kernel.core.codec.BinaryWriter;
+import com.pdoming.kernel.core.codec.EventCodec;
+import com.pdoming.kernel.core.codec.ValueCodecs;
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.vobjects.Address;
+import com.pdoming.kernel.core.vobjects.Email;
+import com.pdoming.kernel.core.vobjects.PhoneNumber;
+import com.pdomingo.kernel.benchmark.Fixtures.ClientId;
+import com.pdomingo.kernel.benchmark.Fixtures.Registered;
+import com.pdomingo.kernel.benchmark.Fixtures.SerializableRegistered;
+import com.pdomingo.kernel.event.client.ClientRegisteredSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of events through the binary {@link EventCodec} compared with
+ * Java serialization
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CodecBenchmark {
+
+	@Param({ "1", "64", "1024" })
+	private int batchSize;
+
+	private EventCodec<ClientId> codec;
+	private BinaryWriter writer;
+	private BinaryReader reader;
+	private Registered[] events;
+	private SerializableRegistered[] serializableEvents;
+
+	@Setup
+	public void setUp() {
+		codec = EventCodec.of(ValueCodecs.mapped(ValueCodecs.varLong(), ClientId::getValue, ClientId::new),
+				ClientRegisteredSchema.<ClientId, Registered>of(Registered.class, Registered::new));
+		writer = BinaryWriter.growable(batchSize * 128);
+		reader = BinaryReader.wrapping(writer.buffer());
+		events = new Registered[batchSize];
+		serializableEvents = new SerializableRegistered[batchSize];
+		for (int i = 0; i < batchSize; i++) {
+			events[i] = new Registered(new ClientId(1_000_000L + i), i, Email.valueOf("client" + i + "@example.com"),
+					PhoneNumber.valueOf("+34 600 " + (100_000 + i)), Address.valueOf(i + " Main Street, Springfield"));
+			serializableEvents[i] = new SerializableRegistered(events[i]);
+		}
+	}
+
+	@Benchmark
+	public void codecRoundTrip(Blackhole blackhole) {
+		writer.clear();
+		for (int i = 0; i < batchSize; i++) {
+			codec.encode(events[i], writer);
+		}
+		reader.wrap(writer.buffer().flip());
+		for (int i = 0; i < batchSize; i++) {
+			DomainEvent<ClientId> event = codec.decode(reader);
+			blackhole.consume(event);
+		}
+	}
+
+	@Benchmark
+	public void javaSerializationRoundTrip(Blackhole blackhole) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(batchSize * 256);
+		try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+			for (int i = 0; i < batchSize; i++) {
+				// Written unshared, as events are sent one by one
+				output.writeUnshared(serializableEvents[i]);
+			}
+		}
+		try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			for (int i = 0; i < batchSize; i++) {
+				blackhole.consume(((SerializableRegistered) input.readUnshared()).toEvent());
+			}
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.pdomingo.kernel.benchmark;
+
+import com.pdoming.kernel.core.vobjects.Address;
+import com.pdoming.kernel.core.vobjects.Email;
+import com.pdoming.kernel.core.vobjects.PhoneNumber;
+import com.pdomingo.kernel.benchmark.Fixtures.ClientId;
+import com.pdomingo.kernel.benchmark.Fixtures.OrderPlaced;
+import com.pdomingo.kernel.benchmark.Fixtures.Registered;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of domain events, stamped by the event clock or given an
+ * explicit stamp or timestamp, and of events carrying value objects
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class EventConstructionBenchmark {
+
+	@Param({ "1", "64", "1024" })
+	private int batchSize;
+
+	private ClientId id;
+	private Instant timestamp;
+	private String[] emails;
+	private String[] addresses;
+
+	@Setup
+	public void setUp() {
+		id = new ClientId(1_000_000L);
+		timestamp = Instant.now();
+		// A small set of values, as with real clients, so that interning pays off
+		emails = new String[16];
+		addresses = new String[16];
+		for (int i = 0; i < emails.length; i++) {
+			emails[i] = "client" + i + "@example.com";
+			addresses[i] = i + " Main Street, Springfield";
+		}
+	}
+
+	@Benchmark
+	public void clockStamped(Blackhole blackhole) {
+		for (int i = 0; i < batchSize; i++) {
+			blackhole.consume(new OrderPlaced(id));
+		}
+	}
+
+	@Benchmark
+	public void explicitStamp(Blackhole blackhole) {
+		for (int i = 0; i < batchSize; i++) {
+			blackhole.consume(new OrderPlaced(id, i));
+		}
+	}
+
+	@Benchmark
+	public void explicitTimestamp(Blackhole blackhole) {
+		for (int i = 0; i < batchSize; i++) {
+			blackhole.consume(new OrderPlaced(id, timestamp));
+		}
+	}
+
+	@Benchmark
+	public void withValueObjects(Blackhole blackhole) {
+		for (int i = 0; i < batchSize; i++) {
+			int value = i & 15;
+			blackhole.consume(new Registered(id, i, Email.valueOf(emails[value]),
+					PhoneNumber.valueOf("+34 600 000 0" + (10 + value)), Address.valueOf(addresses[value])));
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package com.pdomingo.kernel.benchmark;
+
+import com.pdoming.kernel.core.ddd.AggregateRoot;
+import com.pdoming.kernel.core.ddd.DelegatedIdentifier;
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.ddd.EventId;
+import com.pdoming.kernel.core.ddd.LongIdentifier;
+import com.pdoming.kernel.core.vobjects.Address;
+import com.pdoming.kernel.core.vobjects.Email;
+import com.pdoming.kernel.core.vobjects.PhoneNumber;
+import com.pdomingo.kernel.event.client.ClientRegistered;
+import com.pdomingo.kernel.event.order.OrderCancelled;
+import com.pdomingo.kernel.event.order.OrderCreated;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Concrete identifiers, events and aggregates shared by the benchmarks
+ */
+final class Fixtures {
+
+	private Fixtures() {
+	}
+
+	static final class ClientId extends DelegatedIdentifier<Long> {
+		ClientId(Long value) {
+			super(value);
+		}
+	}
+
+	static final class OrderId extends LongIdentifier {
+		OrderId(long value) {
+			super(value);
+		}
+	}
+
+	static final class OrderPlaced extends OrderCreated<ClientId> {
+		OrderPlaced(ClientId sourceId) {
+			super(sourceId);
+		}
+
+		OrderPlaced(ClientId sourceId, long stamp) {
+			super(sourceId, stamp);
+		}
+
+		OrderPlaced(ClientId sourceId, Instant timestamp) {
+			super(sourceId, timestamp);
+		}
+	}
+
+	static final class OrderVoided extends OrderCancelled<ClientId> {
+		OrderVoided(ClientId sourceId) {
+			super(sourceId);
+		}
+	}
+
+	static final class Registered extends ClientRegistered<ClientId> {
+		Registered(ClientId sourceId, long stamp, Email email, PhoneNumber phoneNumber, Address shippingAddress) {
+			super(sourceId, stamp, email, phoneNumber, shippingAddress);
+		}
+
+		Registered(ClientId sourceId, EventId eventId, Email email, PhoneNumber phoneNumber, Address shippingAddress) {
+			super(sourceId, eventId, email, phoneNumber, shippingAddress);
+		}
+	}
+
+	/**
+	 * Event sourced aggregate counting the open orders of a client
+	 */
+	static final class Client extends AggregateRoot<ClientId> {
+
+		private final ClientId id;
+		private int openOrders;
+
+		Client(ClientId id) {
+			this.id = id;
+		}
+
+		@Override
+		public ClientId id() {
+			return id;
+		}
+
+		void placeOrder() {
+			record(new OrderPlaced(id));
+		}
+
+		void cancelOrder() {
+			if (openOrders == 0) throw new IllegalStateException("No open order");
+			record(new OrderVoided(id));
+		}
+
+		int openOrders() {
+			return openOrders;
+		}
+
+		@Override
+		protected void apply(DomainEvent<ClientId> event) {
+			if (event instanceof OrderPlaced) {
+				openOrders++;
+			} else if (event instanceof OrderVoided) {
+				openOrders--;
+			}
+		}
+	}
+
+	/**
+	 * Serializable copy of a {@link Registered} event, the kernel events
+	 * themselves are not serializable
+	 */
+	static final class SerializableRegistered implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		final long sourceId;
+		final long stamp;
+		final String email;
+		final long phoneNumber;
+		final String shippingAddress;
+
+		SerializableRegistered(Registered event) {
+			this.sourceId = event.getSourceId().getValue();
+			this.stamp = event.getStamp();
+			this.email = event.getEmail().toString();
+			this.phoneNumber = event.getPhoneNumber().packed();
+			this.shippingAddress = event.getShippingAddress().toString();
+		}
+
+		Registered toEvent() {
+			return new Registered(new ClientId(sourceId), stamp, Email.valueOf(email),
+					PhoneNumber.fromPacked(phoneNumber), Address.valueOf(shippingAddress));
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package com.pdomingo.kernel.benchmark;
+
+import com.pdomingo.kernel.benchmark.Fixtures.ClientId;
+import com.pdomingo.kernel.benchmark.Fixtures.OrderId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Equality, hashing and map lookups of boxed {@code DelegatedIdentifier}s
+ * compared with primitive {@code LongIdentifier}s
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class IdentifierBenchmark {
+
+	@Param({ "1", "64", "1024" })
+	private int batchSize;
+
+	private ClientId[] delegated;
+	private ClientId[] delegatedCopies;
+	private Map<ClientId, Integer> delegatedMap;
+	private OrderId[] primitive;
+	private OrderId[] primitiveCopies;
+	private Map<OrderId, Integer> primitiveMap;
+
+	@Setup
+	public void setUp() {
+		delegated = new ClientId[batchSize];
+		delegatedCopies = new ClientId[batchSize];
+		delegatedMap = new HashMap<>();
+		primitive = new OrderId[batchSize];
+		primitiveCopies = new OrderId[batchSize];
+		primitiveMap = new HashMap<>();
+		for (int i = 0; i < batchSize; i++) {
+			// Values outside the Long cache, so that copies are distinct boxes
+			long value = 1_000_000L + i * 7919L;
+			delegated[i] = new ClientId(value);
+			delegatedCopies[i] = new ClientId(value);
+			delegatedMap.put(delegated[i], i);
+			primitive[i] = new OrderId(value);
+			primitiveCopies[i] = new OrderId(value);
+			primitiveMap.put(primitive[i], i);
+		}
+	}
+
+	@Benchmark
+	public int delegatedEquals() {
+		int equal = 0;
+		for (int i = 0; i < batchSize; i++) {
+			if (delegated[i].equals(delegatedCopies[i])) equal++;
+		}
+		return equal;
+	}
+
+	@Benchmark
+	public int delegatedHashCode() {
+		int hash = 0;
+		for (int i = 0; i < batchSize; i++) {
+			hash += delegated[i].hashCode();
+		}
+		return hash;
+	}
+
+	@Benchmark
+	public int delegatedLookup() {
+		int sum = 0;
+		for (int i = 0; i < batchSize; i++) {
+			sum += delegatedMap.get(delegatedCopies[i]);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int primitiveEquals() {
+		int equal = 0;
+		for (int i = 0; i < batchSize; i++) {
+			if (primitive[i].equals(primitiveCopies[i])) equal++;
+		}
+		return equal;
+	}
+
+	@Benchmark
+	public int primitiveHashCode() {
+		int hash = 0;
+		for (int i = 0; i < batchSize; i++) {
+			hash += primitive[i].hashCode();
+		}
+		return hash;
+	}
+
+	@Benchmark
+	public int primitiveLookup() {
+		int sum = 0;
+		for (int i = 0; i < batchSize; i++) {
+			sum += primitiveMap.get(primitiveCopies[i]);
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,77 @@
+package com.pdomingo.kernel.benchmark;
+
+import com.pdoming.kernel.core.ddd.Repository;
+import com.pdoming.kernel.core.metrics.HistogramInstrumentation;
+import com.pdoming.kernel.core.metrics.Instrumentation;
+import com.pdoming.kernel.core.metrics.InstrumentedRepository;
+import com.pdomingo.kernel.benchmark.Fixtures.Client;
+import com.pdomingo.kernel.benchmark.Fixtures.ClientId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of an {@link InstrumentedRepository}, disabled and recording
+ * latencies, over the bare repository
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class InstrumentationBenchmark {
+
+	@Param({ "1", "64", "1024" })
+	private int batchSize;
+
+	private ClientId[] ids;
+	private Repository<Client, ClientId> bare;
+	private Repository<Client, ClientId> noop;
+	private Repository<Client, ClientId> recording;
+
+	@Setup
+	public void setUp() {
+		ids = new ClientId[batchSize];
+		for (int i = 0; i < batchSize; i++) {
+			ids[i] = new ClientId(1_000_000L + i);
+		}
+		Optional<Client> client = Optional.of(new Client(ids[0]));
+		bare = id -> client;
+		noop = new InstrumentedRepository<>(bare, Client.class, Instrumentation.noop());
+		recording = new InstrumentedRepository<>(bare, Client.class, new HistogramInstrumentation());
+	}
+
+	@Benchmark
+	public void bare(Blackhole blackhole) {
+		find(bare, blackhole);
+	}
+
+	@Benchmark
+	public void noop(Blackhole blackhole) {
+		find(noop, blackhole);
+	}
+
+	@Benchmark
+	public void recording(Blackhole blackhole) {
+		find(recording, blackhole);
+	}
+
+	private void find(Repository<Client, ClientId> repository, Blackhole blackhole) {
+		for (int i = 0; i < batchSize; i++) {
+			blackhole.consume(repository.findById(ids[i]));
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.pdomingo.kernel.benchmark;
+
+import com.pdoming.kernel.core.vobjects.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import javax.money.MonetaryAmount;
+import javax.money.MonetaryOperator;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sums and products of amounts with the kernel {@link Money} compared with
+ * the moneta {@code Money} and {@code FastMoney} implementations
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+	@Param({ "1", "64", "1024" })
+	private int batchSize;
+
+	private Money[] amounts;
+	private MonetaryAmount[] monetaAmounts;
+	private MonetaryAmount[] fastAmounts;
+	private Money zero;
+	private MonetaryAmount monetaZero;
+	private MonetaryAmount fastZero;
+	private MonetaryOperator rounding;
+
+	@Setup
+	public void setUp() {
+		Currency euro = Currency.getInstance("EUR");
+		CurrencyUnit euroUnit = Monetary.getCurrency("EUR");
+		amounts = new Money[batchSize];
+		monetaAmounts = new MonetaryAmount[batchSize];
+		fastAmounts = new MonetaryAmount[batchSize];
+		for (int i = 0; i < batchSize; i++) {
+			long cents = 100 + i * 37L;
+			amounts[i] = Money.ofMinor(cents, euro);
+			monetaAmounts[i] = org.javamoney.moneta.Money.of(BigDecimal.valueOf(cents, 2), euroUnit);
+			fastAmounts[i] = org.javamoney.moneta.FastMoney.of(BigDecimal.valueOf(cents, 2), euroUnit);
+		}
+		zero = Money.zero(euro);
+		monetaZero = org.javamoney.moneta.Money.zero(euroUnit);
+		fastZero = org.javamoney.moneta.FastMoney.zero(euroUnit);
+		rounding = Monetary.getDefaultRounding();
+	}
+
+	@Benchmark
+	public Money kernelSum() {
+		Money total = zero;
+		for (int i = 0; i < batchSize; i++) {
+			total = total.add(amounts[i]);
+		}
+		return total;
+	}
+
+	@Benchmark
+	public MonetaryAmount monetaSum() {
+		MonetaryAmount total = monetaZero;
+		for (int i = 0; i < batchSize; i++) {
+			total = total.add(monetaAmounts[i]);
+		}
+		return total;
+	}
+
+	@Benchmark
+	public MonetaryAmount fastMoneySum() {
+		MonetaryAmount total = fastZero;
+		for (int i = 0; i < batchSize; i++) {
+			total = total.add(fastAmounts[i]);
+		}
+		return total;
+	}
+
+	@Benchmark
+	public Money kernelTax() {
+		Money total = zero;
+		for (int i = 0; i < batchSize; i++) {
+			total = total.add(amounts[i].multiply(21, 100, RoundingMode.HALF_EVEN));
+		}
+		return total;
+	}
+
+	@Benchmark
+	public MonetaryAmount monetaTax() {
+		MonetaryAmount total = monetaZero;
+		for (int i = 0; i < batchSize; i++) {
+			total = total.add(monetaAmounts[i].multiply(0.21).with(rounding));
+		}
+		return total;
+	}
+}
@@ -0,0 +1,108 @@
+package com.pdomingo.kernel.benchmark;
+
+import com.pdoming.kernel.core.functional.Result;
+import com.pdoming.kernel.core.functional.StacklessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Result} on its success and error paths, including the cost of
+ * capturing exceptions with and without stack traces
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ResultBenchmark {
+
+	private static final Result.Error INVALID = Result.Error.of("Invalid value");
+
+	@Param({ "1", "64", "1024" })
+	private int batchSize;
+
+	private List<Integer> values;
+
+	@Setup
+	public void setUp() {
+		values = new ArrayList<>(batchSize);
+		for (int i = 0; i < batchSize; i++) {
+			values.add(i);
+		}
+	}
+
+	@Benchmark
+	public void okChain(Blackhole blackhole) {
+		for (int i = 0; i < batchSize; i++) {
+			blackhole.consume(Result.ok(values.get(i))
+					.map(value -> value + 1)
+					.flatMap(value -> Result.ok(value * 2))
+					.orElse(0));
+		}
+	}
+
+	@Benchmark
+	public void constantError(Blackhole blackhole) {
+		for (int i = 0; i < batchSize; i++) {
+			blackhole.consume(Result.<Integer>error(INVALID)
+					.map(value -> value + 1)
+					.orElse(0));
+		}
+	}
+
+	@Benchmark
+	public void messageError(Blackhole blackhole) {
+		for (int i = 0; i < batchSize; i++) {
+			blackhole.consume(Result.<Integer>error("Invalid value")
+					.map(value -> value + 1)
+					.orElse(0));
+		}
+	}
+
+	@Benchmark
+	public void captureException(Blackhole blackhole) {
+		for (int i = 0; i < batchSize; i++) {
+			int value = values.get(i);
+			blackhole.consume(Result.capture(() -> {
+				if (value >= 0) throw new IllegalArgumentException("Invalid value");
+				return value;
+			}));
+		}
+	}
+
+	@Benchmark
+	public void captureStacklessException(Blackhole blackhole) {
+		for (int i = 0; i < batchSize; i++) {
+			int value = values.get(i);
+			blackhole.consume(Result.capture(() -> {
+				if (value >= 0) throw new StacklessException("Invalid value");
+				return value;
+			}));
+		}
+	}
+
+	@Benchmark
+	public Result<List<Integer>> traverse() {
+		return Result.traverse(values, value -> Result.ok(value + 1));
+	}
+
+	@Benchmark
+	public Result<List<Integer>> traverseAll() {
+		return Result.traverseAll(values, value -> value % 2 == 0 ? Result.ok(value) : Result.error(INVALID));
+	}
+}
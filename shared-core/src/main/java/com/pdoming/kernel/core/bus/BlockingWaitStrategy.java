@@ -0,0 +1,59 @@
+package com.pdoming.kernel.core.bus;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * {@link WaitStrategy} that parks the readers on a condition. The producer
+ * only takes the lock when some reader is actually waiting
+ */
+final class BlockingWaitStrategy implements WaitStrategy {
+
+	private static final long HALT_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private final Lock lock = new ReentrantLock();
+	private final Condition published = lock.newCondition();
+	private final AtomicInteger waiters = new AtomicInteger();
+
+	@Override
+	public long waitFor(long sequence, Sequence cursor, BooleanSupplier halted) {
+		long available = cursor.get();
+		if (available >= sequence || Thread.currentThread().isInterrupted()) {
+			return available;
+		}
+
+		lock.lock();
+		waiters.incrementAndGet();
+		VarHandle.fullFence();
+		try {
+			while ((available = cursor.get()) < sequence && !halted.getAsBoolean()) {
+				published.awaitNanos(HALT_CHECK_NANOS);
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} finally {
+			waiters.decrementAndGet();
+			lock.unlock();
+		}
+		return cursor.get();
+	}
+
+	@Override
+	public void signalAllWhenBlocking() {
+		// Pairs with the fence in waitFor: either the reader sees the new cursor or we see the reader
+		VarHandle.fullFence();
+		if (waiters.get() > 0) {
+			lock.lock();
+			try {
+				published.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+}
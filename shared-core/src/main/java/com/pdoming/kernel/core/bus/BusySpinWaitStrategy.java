@@ -0,0 +1,30 @@
+package com.pdoming.kernel.core.bus;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * {@link WaitStrategy} that spins on the cursor of the producer
+ */
+final class BusySpinWaitStrategy implements WaitStrategy {
+
+	static final BusySpinWaitStrategy INSTANCE = new BusySpinWaitStrategy();
+
+	private BusySpinWaitStrategy() {
+	}
+
+	@Override
+	public long waitFor(long sequence, Sequence cursor, BooleanSupplier halted) {
+		long available;
+		while ((available = cursor.get()) < sequence) {
+			if (halted.getAsBoolean() || Thread.currentThread().isInterrupted()) {
+				return available;
+			}
+			Thread.onSpinWait();
+		}
+		return available;
+	}
+
+	@Override
+	public void signalAllWhenBlocking() {
+	}
+}
@@ -0,0 +1,324 @@
+package com.pdoming.kernel.core.bus;
+
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.util.DispatchTable;
+import com.pdoming.kernel.core.util.MoreExecutors;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Dispatches commands to their handlers, one aggregate at a time.
+ *
+ * Every command goes to the mailbox of its source aggregate. A mailbox is
+ * processed by a single task at a time, which handles its commands in the
+ * order they were sent, so the handlers of an aggregate never run
+ * concurrently and need no lock. Mailboxes of different aggregates are
+ * processed in parallel. By default tasks run on virtual threads, see
+ * {@link MoreExecutors#newVirtualThreadPerTaskExecutor(String)}.
+ *
+ * A task handles up to {@code batchSize} commands of its mailbox, then
+ * hands the mailbox over to a new task if commands are left, so that busy
+ * aggregates do not starve the others. Mailboxes are bounded: senders block
+ * while the mailbox of the aggregate is full, until its task frees some
+ * room, unless they use {@link #trySend(DomainEvent)}. Empty mailboxes are
+ * discarded.
+ *
+ * Handlers are resolved through a {@link DispatchTable} and must be
+ * registered before the first command is sent.
+ */
+public final class CommandBus implements AutoCloseable {
+
+	private static final int RETIRED = -1;
+
+	private final int mailboxCapacity;
+	private final int batchSize;
+	private final Executor executor;
+	private final boolean ownsExecutor;
+
+	private final Map<Class<?>, List<Consumer<Object>>> registrations = new LinkedHashMap<>();
+	private volatile DispatchTable<Consumer<Object>> table;
+
+	private final ConcurrentHashMap<Object, Mailbox> mailboxes = new ConcurrentHashMap<>();
+	private final LongAdder pending = new LongAdder();
+	private final CountDownLatch drained = new CountDownLatch(1);
+	private volatile boolean closed;
+
+	/**
+	 * Creates a new {@link CommandBus} that processes mailboxes on virtual
+	 * threads, where available, and shuts them down when closed
+	 * @param mailboxCapacity the maximum number of pending commands of an aggregate
+	 * @param batchSize the maximum number of commands handled by a task before
+	 *                  handing the mailbox over
+	 */
+	public CommandBus(int mailboxCapacity, int batchSize) {
+		this(mailboxCapacity, batchSize, MoreExecutors.newVirtualThreadPerTaskExecutor("command-bus-"), true);
+	}
+
+	/**
+	 * Creates a new {@link CommandBus}
+	 * @param mailboxCapacity the maximum number of pending commands of an aggregate
+	 * @param batchSize the maximum number of commands handled by a task before
+	 *                  handing the mailbox over
+	 * @param executor runs the tasks processing the mailboxes, it is not shut
+	 *                 down with the bus
+	 */
+	public CommandBus(int mailboxCapacity, int batchSize, Executor executor) {
+		this(mailboxCapacity, batchSize, executor, false);
+	}
+
+	private CommandBus(int mailboxCapacity, int batchSize, Executor executor, boolean ownsExecutor) {
+		if (mailboxCapacity < 1) throw new IllegalArgumentException("Mailbox capacity must be positive");
+		if (batchSize < 1) throw new IllegalArgumentException("Batch size must be positive");
+		this.mailboxCapacity = mailboxCapacity;
+		this.batchSize = batchSize;
+		this.executor = Objects.requireNonNull(executor);
+		this.ownsExecutor = ownsExecutor;
+	}
+
+	/* ------------------------ Configuration ------------------------ */
+
+	/**
+	 * Registers a handler of the commands of the given type and its subtypes
+	 * @param type the type of the commands
+	 * @param handler the function that handles a command
+	 * @param <C> the type of the commands
+	 * @throws IllegalStateException if a command has already been sent
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized <C extends DomainEvent<?>> void register(Class<C> type, Consumer<? super C> handler) {
+		Objects.requireNonNull(type);
+		Objects.requireNonNull(handler);
+		if (table != null) throw new IllegalStateException("Handlers must be registered before sending commands");
+		registrations.computeIfAbsent(type, key -> new ArrayList<>()).add((Consumer<Object>) handler);
+	}
+
+	/* ------------------------ Sending ------------------------ */
+
+	/**
+	 * Sends a command to the mailbox of its source aggregate, waiting while the mailbox is full
+	 * @param command a non null command
+	 * @return a future completed once the command is handled, exceptionally
+	 *         with the exception thrown by its handler or if it has no handler,
+	 *         or with a {@link RejectedExecutionException} if the sender is
+	 *         interrupted while waiting, its interrupt status being kept
+	 * @throws IllegalStateException if the bus is closed
+	 */
+	public CompletableFuture<Void> send(DomainEvent<?> command) {
+		return send(command, true);
+	}
+
+	/**
+	 * Sends a command to the mailbox of its source aggregate, unless the mailbox is full
+	 * @param command a non null command
+	 * @return a future completed once the command is handled, or completed
+	 *         exceptionally with a {@link RejectedExecutionException} if the mailbox is full
+	 * @throws IllegalStateException if the bus is closed
+	 */
+	public CompletableFuture<Void> trySend(DomainEvent<?> command) {
+		return send(command, false);
+	}
+
+	/**
+	 * @return the number of commands sent and not handled yet
+	 */
+	public long pendingCommands() {
+		return pending.sum();
+	}
+
+	/**
+	 * Stops accepting commands, waits for the pending ones to be handled and,
+	 * if the bus created its executor, shuts it down
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		boolean interrupted = false;
+		// Pairs with the check in Mailbox.handle: either the last command sees the bus closed or we see it pending
+		if (pending.sum() > 0) {
+			while (true) {
+				try {
+					drained.await();
+					break;
+				} catch (InterruptedException ex) {
+					interrupted = true;
+				}
+			}
+		}
+		if (ownsExecutor) {
+			((ExecutorService) executor).shutdown();
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/* ------------------------ Internals ------------------------ */
+
+	private CompletableFuture<Void> send(DomainEvent<?> command, boolean wait) {
+		Objects.requireNonNull(command);
+		Object key = Objects.requireNonNull(command.getSourceId(), "Command without source identifier");
+		if (table == null) {
+			freeze();
+		}
+		Envelope envelope = new Envelope(command);
+		while (true) {
+			if (closed) throw new IllegalStateException("The command bus is closed");
+			Mailbox mailbox = mailboxes.computeIfAbsent(key, Mailbox::new);
+			int count = mailbox.count.get();
+			if (count == RETIRED) {
+				// Its task is done with it, a new mailbox takes over
+				mailboxes.remove(key, mailbox);
+			} else if (count >= mailboxCapacity) {
+				if (!wait) {
+					envelope.future.completeExceptionally(new RejectedExecutionException("Mailbox of " + key + " is full"));
+					return envelope.future;
+				}
+				if (!mailbox.awaitRoom()) {
+					envelope.future.completeExceptionally(new RejectedExecutionException(
+							"Interrupted while waiting for the mailbox of " + key));
+					return envelope.future;
+				}
+			} else if (mailbox.count.compareAndSet(count, count + 1)) {
+				pending.increment();
+				mailbox.queue.offer(envelope);
+				if (count == 0) {
+					// The sender making the mailbox non empty schedules it
+					schedule(mailbox);
+				}
+				return envelope.future;
+			}
+		}
+	}
+
+	private synchronized void freeze() {
+		if (table == null) {
+			table = new DispatchTable<>(registrations);
+		}
+	}
+
+	private void schedule(Mailbox mailbox) {
+		try {
+			executor.execute(mailbox);
+		} catch (RejectedExecutionException ex) {
+			// The executor is shutting down, keep the commands of the aggregate in order
+			mailbox.run();
+		}
+	}
+
+	/**
+	 * Command waiting in a mailbox, with the future completed once it is handled
+	 */
+	private static final class Envelope {
+		private final DomainEvent<?> command;
+		private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+		private Envelope(DomainEvent<?> command) {
+			this.command = command;
+		}
+	}
+
+	/**
+	 * Pending commands of an aggregate. The count of accepted commands
+	 * decides who processes the mailbox: the sender raising it from zero
+	 * schedules a task, and the task runs until it brings it back to zero.
+	 * An empty mailbox is retired by its last task, so that no command can
+	 * be accepted by it anymore and it can be discarded
+	 */
+	private final class Mailbox implements Runnable {
+
+		private final Object key;
+		private final Queue<Envelope> queue = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger count = new AtomicInteger();
+
+		/* Senders blocked while the mailbox is full, the task only takes the lock when there are some */
+		private final Object lock = new Object();
+		private volatile int waiters;
+
+		private Mailbox(Object key) {
+			this.key = key;
+		}
+
+		@Override
+		public void run() {
+			int handled = 0;
+			while (handled < batchSize) {
+				Envelope envelope = queue.poll();
+				if (envelope == null) {
+					if (handled == count.get()) break;
+					// Accepted by a sender that has not enqueued it yet
+					Thread.onSpinWait();
+					continue;
+				}
+				handle(envelope);
+				handled++;
+			}
+			int left = count.addAndGet(-handled);
+			// Pairs with awaitRoom: either the sender sees the new count or we see the sender
+			if (handled > 0 && waiters > 0) {
+				synchronized (lock) {
+					lock.notifyAll();
+				}
+			}
+			if (left > 0) {
+				schedule(this);
+			} else if (count.compareAndSet(0, RETIRED)) {
+				mailboxes.remove(key, this);
+			}
+			// Otherwise a sender raised the count from zero again and scheduled a task
+		}
+
+		/**
+		 * Blocks until the mailbox is no longer full, or it is retired
+		 * @return false if the thread was interrupted while waiting
+		 */
+		private boolean awaitRoom() {
+			synchronized (lock) {
+				waiters++;
+				try {
+					while (count.get() >= mailboxCapacity) {
+						lock.wait();
+					}
+					return true;
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					return false;
+				} finally {
+					waiters--;
+				}
+			}
+		}
+
+		private void handle(Envelope envelope) {
+			try {
+				List<Consumer<Object>> handlers = table.handlersFor(envelope.command.getClass());
+				if (handlers.isEmpty()) throw new IllegalStateException("No handler for " + envelope.command.getClass().getName());
+				for (int i = 0, n = handlers.size(); i < n; i++) {
+					handlers.get(i).accept(envelope.command);
+				}
+				envelope.future.complete(null);
+			} catch (Throwable error) {
+				envelope.future.completeExceptionally(error);
+			} finally {
+				pending.decrement();
+				if (closed && pending.sum() == 0) {
+					drained.countDown();
+				}
+			}
+		}
+	}
+}
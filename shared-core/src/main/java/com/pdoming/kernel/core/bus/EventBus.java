@@ -0,0 +1,375 @@
+package com.pdoming.kernel.core.bus;
+
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.metrics.Instrumentation;
+import com.pdoming.kernel.core.metrics.Instrumentation.Operation;
+import com.pdoming.kernel.core.metrics.Instrumentation.Timer;
+import com.pdoming.kernel.core.util.DispatchTable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * In-process bus that delivers {@link DomainEvent}s to the subscribers of
+ * their class, or of any of its supertypes.
+ *
+ * Events go through a pre-allocated ring buffer, in the style of the LMAX
+ * Disruptor: the producer claims the next slot, stores the event and moves
+ * its cursor forward, while every reader thread follows the cursor with its
+ * own {@link Sequence}. Nothing is allocated nor locked per event and readers
+ * consume all the events available in a single pass. The producer only waits
+ * when it is a full lap ahead of the slowest reader. Slots are not cleared
+ * once delivered, which would take a write per reader and event: an event
+ * stays reachable until the producer reuses its slot a lap later, so up to
+ * {@code bufferSize} delivered events are retained, and the buffer should
+ * not be sized larger than the bursts it must absorb.
+ *
+ * Subscribers are spread among the readers and must be registered before
+ * the bus is {@link #start() started}. Each reader resolves the subscribers
+ * of an event class once, through a {@link DispatchTable}, so dispatching an
+ * event does not involve reflection nor {@code instanceof} chains.
+ *
+ * A bus built with {@link #singleProducer(int, int, WaitStrategy)} follows
+ * the single writer principle: events must be published by one thread at a
+ * time. {@link #multiProducer(int, int, WaitStrategy)} serializes concurrent
+ * publishers with a lock.
+ *
+ * The latencies of publication and delivery are reported, per event class,
+ * to the {@link Instrumentation} set with {@link #instrument(Instrumentation)}.
+ */
+public final class EventBus implements AutoCloseable {
+
+	/* Delivered events are only released when their slot is reused */
+	private final Object[] ring;
+	private final int mask;
+	private final WaitStrategy waitStrategy;
+	private final ReentrantLock publishLock;
+	private final Sequence cursor = new Sequence();
+
+	private final List<Map<Class<?>, List<Consumer<Object>>>> subscriptions;
+	private int subscriberCount;
+	private BiConsumer<DomainEvent<?>, Throwable> exceptionHandler = EventBus::reportUncaught;
+	private Instrumentation instrumentation = Instrumentation.noop();
+
+	private Reader[] readers;
+	private Sequence[] gatingSequences;
+
+	/* Owned by the producer */
+	private long claimedSequence = Sequence.INITIAL_VALUE;
+	private long cachedGatingSequence = Sequence.INITIAL_VALUE;
+
+	private volatile boolean started;
+	private volatile boolean halted;
+	private volatile String stoppedReader;
+
+	private EventBus(int bufferSize, int readerCount, WaitStrategy waitStrategy, boolean multiProducer) {
+		if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1)
+			throw new IllegalArgumentException("Buffer size must be a power of 2");
+		if (readerCount < 1)
+			throw new IllegalArgumentException("There must be at least one reader");
+		this.ring = new Object[bufferSize];
+		this.mask = bufferSize - 1;
+		this.waitStrategy = Objects.requireNonNull(waitStrategy);
+		this.publishLock = multiProducer ? new ReentrantLock() : null;
+		this.subscriptions = new ArrayList<>(readerCount);
+		for (int i = 0; i < readerCount; i++) {
+			subscriptions.add(new LinkedHashMap<>());
+		}
+	}
+
+	/* ------------------------ Static constructors ------------------------ */
+
+	/**
+	 * Creates a new {@link EventBus} whose events are published by a single thread
+	 * @param bufferSize the number of slots of the ring buffer, a power of 2
+	 * @param readerCount the maximum number of threads delivering events
+	 * @param waitStrategy the strategy of the readers waiting for events
+	 * @return a new, not started, bus
+	 */
+	public static EventBus singleProducer(int bufferSize, int readerCount, WaitStrategy waitStrategy) {
+		return new EventBus(bufferSize, readerCount, waitStrategy, false);
+	}
+
+	/**
+	 * Creates a new {@link EventBus} whose events may be published by any thread
+	 * @param bufferSize the number of slots of the ring buffer, a power of 2
+	 * @param readerCount the maximum number of threads delivering events
+	 * @param waitStrategy the strategy of the readers waiting for events
+	 * @return a new, not started, bus
+	 */
+	public static EventBus multiProducer(int bufferSize, int readerCount, WaitStrategy waitStrategy) {
+		return new EventBus(bufferSize, readerCount, waitStrategy, true);
+	}
+
+	/* ------------------------ Configuration ------------------------ */
+
+	/**
+	 * Registers a subscriber of the events of the given type and its subtypes
+	 * @param type the type of the events
+	 * @param subscriber the function to apply to every event of that type
+	 * @param <E> the type of the events
+	 * @throws IllegalStateException if the bus has already been started
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized <E extends DomainEvent<?>> void subscribe(Class<E> type, Consumer<? super E> subscriber) {
+		Objects.requireNonNull(type);
+		Objects.requireNonNull(subscriber);
+		if (started) throw new IllegalStateException("Subscribers must be registered before starting the bus");
+		subscriptions.get(subscriberCount++ % subscriptions.size())
+				.computeIfAbsent(type, key -> new ArrayList<>())
+				.add((Consumer<Object>) subscriber);
+	}
+
+	/**
+	 * Sets the function that handles the exceptions thrown by subscribers.
+	 * By default they are reported to the uncaught exception handler of the
+	 * reader thread, and the delivery goes on
+	 * @param exceptionHandler the handler of the exceptions
+	 */
+	public synchronized void onError(BiConsumer<DomainEvent<?>, Throwable> exceptionHandler) {
+		if (started) throw new IllegalStateException("The exception handler must be set before starting the bus");
+		this.exceptionHandler = Objects.requireNonNull(exceptionHandler);
+	}
+
+	/**
+	 * Sets the instrumentation that the latencies of publication and delivery
+	 * are reported to, per event class. By default nothing is recorded
+	 * @param instrumentation the instrumentation
+	 */
+	public synchronized void instrument(Instrumentation instrumentation) {
+		if (started) throw new IllegalStateException("The instrumentation must be set before starting the bus");
+		this.instrumentation = Objects.requireNonNull(instrumentation);
+	}
+
+	/**
+	 * Starts the reader threads. No subscriber can be added from now on
+	 */
+	public synchronized void start() {
+		if (started) throw new IllegalStateException("The bus is already started");
+
+		List<Reader> active = new ArrayList<>();
+		for (Map<Class<?>, List<Consumer<Object>>> readerSubscriptions : subscriptions) {
+			if (!readerSubscriptions.isEmpty()) {
+				active.add(new Reader(new DispatchTable<>(readerSubscriptions)));
+			}
+		}
+		this.readers = active.toArray(new Reader[0]);
+		this.gatingSequences = new Sequence[readers.length];
+		for (int i = 0; i < readers.length; i++) {
+			gatingSequences[i] = readers[i].sequence;
+			Thread thread = new Thread(readers[i], "event-bus-reader-" + i);
+			thread.setDaemon(true);
+			readers[i].thread = thread;
+		}
+		started = true;
+		for (Reader reader : readers) {
+			reader.thread.start();
+		}
+	}
+
+	/* ------------------------ Publication ------------------------ */
+
+	/**
+	 * Publishes an event to its subscribers
+	 * @param event a non null event
+	 * @throws IllegalStateException if the bus is not running, or one of its readers was interrupted
+	 */
+	public void publish(DomainEvent<?> event) {
+		Objects.requireNonNull(event);
+		long start = instrumentation.start();
+		lockIfShared();
+		try {
+			ensureRunning();
+			long next = claimedSequence + 1;
+			awaitCapacity(next);
+			ring[(int) next & mask] = event;
+			claimedSequence = next;
+			cursor.set(next);
+			waitStrategy.signalAllWhenBlocking();
+		} finally {
+			unlockIfShared();
+		}
+		instrumentation.timer(Operation.PUBLISH, event.getClass()).stop(start);
+	}
+
+	/**
+	 * Publishes a batch of events, in order, advancing the cursor once for as
+	 * many events as fit in the ring buffer
+	 * @param events the events to publish
+	 * @throws NullPointerException if an event is null, in which case none is published
+	 * @throws IllegalStateException if the bus is not running, or one of its readers was interrupted
+	 */
+	public void publishAll(Iterable<? extends DomainEvent<?>> events) {
+		Objects.requireNonNull(events);
+		// Checked before claiming any slot, claimed slots are only seen once the cursor moves past them
+		for (DomainEvent<?> event : events) {
+			Objects.requireNonNull(event);
+		}
+		lockIfShared();
+		try {
+			ensureRunning();
+			long next = claimedSequence;
+			try {
+				for (DomainEvent<?> event : events) {
+					long start = instrumentation.start();
+					next++;
+					if (next - ring.length > cachedGatingSequence && next - 1 > cursor.get()) {
+						// Let the readers see what we have so far before waiting for them
+						cursor.set(next - 1);
+						waitStrategy.signalAllWhenBlocking();
+					}
+					awaitCapacity(next);
+					ring[(int) next & mask] = event;
+					claimedSequence = next;
+					instrumentation.timer(Operation.PUBLISH, event.getClass()).stop(start);
+				}
+			} finally {
+				// Also publishes the events claimed before the bus was closed while waiting for capacity
+				cursor.set(claimedSequence);
+				waitStrategy.signalAllWhenBlocking();
+			}
+		} finally {
+			unlockIfShared();
+		}
+	}
+
+	/**
+	 * Stops accepting events, waits for the readers to deliver the events
+	 * already published and stops them
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (halted) return;
+			halted = true;
+		}
+		waitStrategy.signalAllWhenBlocking();
+		if (readers == null) return;
+		boolean interrupted = false;
+		for (Reader reader : readers) {
+			while (true) {
+				try {
+					reader.thread.join();
+					break;
+				} catch (InterruptedException ex) {
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/* ------------------------ Internals ------------------------ */
+
+	private void awaitCapacity(long next) {
+		long wrapPoint = next - ring.length;
+		if (wrapPoint > cachedGatingSequence) {
+			long minimum;
+			while (wrapPoint > (minimum = minimumGatingSequence())) {
+				if (halted) throw new IllegalStateException("The bus has been closed");
+				LockSupport.parkNanos(1L);
+			}
+			cachedGatingSequence = minimum;
+		}
+	}
+
+	private long minimumGatingSequence() {
+		long minimum = Long.MAX_VALUE;
+		for (Sequence sequence : gatingSequences) {
+			minimum = Math.min(minimum, sequence.get());
+		}
+		return minimum == Long.MAX_VALUE ? claimedSequence : minimum;
+	}
+
+	private void ensureRunning() {
+		if (!started) throw new IllegalStateException("The bus has not been started");
+		if (halted) throw new IllegalStateException("The bus has been closed");
+		String stopped = stoppedReader;
+		if (stopped != null)
+			throw new IllegalStateException("The reader " + stopped + " was interrupted, its subscribers no longer receive events");
+	}
+
+	private void lockIfShared() {
+		if (publishLock != null) publishLock.lock();
+	}
+
+	private void unlockIfShared() {
+		if (publishLock != null) publishLock.unlock();
+	}
+
+	private static void reportUncaught(DomainEvent<?> event, Throwable error) {
+		Thread current = Thread.currentThread();
+		current.getUncaughtExceptionHandler().uncaughtException(current, error);
+	}
+
+	/**
+	 * Follows the cursor of the producer and delivers every event to the
+	 * subscribers registered in its dispatch table. An interrupted reader
+	 * stops once it has delivered the events published so far, and the bus
+	 * then refuses new events, which its subscribers would miss
+	 */
+	private final class Reader implements Runnable {
+
+		private final Sequence sequence = new Sequence();
+		private final DispatchTable<Consumer<Object>> table;
+		private final BooleanSupplier halting = () -> halted;
+		private Thread thread;
+
+		private Reader(DispatchTable<Consumer<Object>> table) {
+			this.table = table;
+		}
+
+		@Override
+		public void run() {
+			long next = sequence.get() + 1;
+			while (true) {
+				long available = waitStrategy.waitFor(next, cursor, halting);
+				if (available < next) {
+					if (halted && cursor.get() < next) return;
+					if (Thread.currentThread().isInterrupted()) {
+						stoppedReader = thread.getName();
+						// Stopped for good, a producer waiting for capacity must not wait for this reader anymore
+						sequence.set(Long.MAX_VALUE);
+						return;
+					}
+					continue;
+				}
+				for (long current = next; current <= available; current++) {
+					dispatch((DomainEvent<?>) ring[(int) current & mask]);
+				}
+				sequence.set(available);
+				next = available + 1;
+			}
+		}
+
+		private void dispatch(DomainEvent<?> event) {
+			long start = instrumentation.start();
+			boolean failed = false;
+			List<Consumer<Object>> subscribers = table.handlersFor(event.getClass());
+			for (int i = 0, n = subscribers.size(); i < n; i++) {
+				try {
+					subscribers.get(i).accept(event);
+				} catch (Throwable error) {
+					failed = true;
+					exceptionHandler.accept(event, error);
+				}
+			}
+			Timer timer = instrumentation.timer(Operation.DISPATCH, event.getClass());
+			if (failed) {
+				timer.fail(start);
+			} else {
+				timer.stop(start);
+			}
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.pdoming.kernel.core.bus;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+abstract class SequenceLeftPadding {
+	protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+abstract class SequenceValue extends SequenceLeftPadding {
+	protected volatile long value;
+}
+
+abstract class SequenceRightPadding extends SequenceValue {
+	protected long p9, p10, p11, p12, p13, p14, p15;
+}
+
+/**
+ * Position of a producer or a reader in the ring buffer of an {@link EventBus}.
+ *
+ * The value is padded on both sides so that sequences updated by different
+ * threads never share a cache line.
+ */
+public final class Sequence extends SequenceRightPadding {
+
+	static final long INITIAL_VALUE = -1L;
+
+	private static final VarHandle VALUE;
+
+	static {
+		try {
+			VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+		} catch (ReflectiveOperationException ex) {
+			throw new ExceptionInInitializerError(ex);
+		}
+	}
+
+	Sequence() {
+		this.value = INITIAL_VALUE;
+	}
+
+	/**
+	 * @return the current value, with acquire semantics
+	 */
+	public long get() {
+		return (long) VALUE.getAcquire(this);
+	}
+
+	/**
+	 * Publishes a new value, with release semantics
+	 * @param value the new value
+	 */
+	void set(long value) {
+		VALUE.setRelease(this, value);
+	}
+
+	@Override
+	public String toString() {
+		return Long.toString(get());
+	}
+}
@@ -0,0 +1,54 @@
+package com.pdoming.kernel.core.bus;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Strategy followed by the readers of an {@link EventBus} while they wait
+ * for new events to be published.
+ *
+ * The choice trades latency for CPU usage: {@link #busySpin()} gives the
+ * lowest and most predictable latency at the cost of a fully used core per
+ * reader, {@link #blocking()} frees the CPU at the cost of a wake-up.
+ *
+ * Every strategy stops waiting when the reader thread is interrupted, and
+ * leaves its interrupt status set.
+ */
+public interface WaitStrategy {
+
+	/**
+	 * Waits until the given sequence has been published
+	 * @param sequence the sequence to wait for
+	 * @param cursor the sequence of the producer
+	 * @param halted tells whether the bus is shutting down
+	 * @return the highest published sequence, lower than {@code sequence}
+	 *         only if the bus was halted or the reader interrupted while waiting
+	 */
+	long waitFor(long sequence, Sequence cursor, BooleanSupplier halted);
+
+	/**
+	 * Wakes up the readers blocked in {@link #waitFor(long, Sequence, BooleanSupplier)}
+	 * after the producer has advanced its cursor
+	 */
+	void signalAllWhenBlocking();
+
+	/**
+	 * @return a strategy that spins on the cursor
+	 */
+	static WaitStrategy busySpin() {
+		return BusySpinWaitStrategy.INSTANCE;
+	}
+
+	/**
+	 * @return a strategy that spins for a while and then yields the CPU
+	 */
+	static WaitStrategy yielding() {
+		return new YieldingWaitStrategy();
+	}
+
+	/**
+	 * @return a strategy that parks the readers until signaled by the producer
+	 */
+	static WaitStrategy blocking() {
+		return new BlockingWaitStrategy();
+	}
+}
@@ -0,0 +1,34 @@
+package com.pdoming.kernel.core.bus;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * {@link WaitStrategy} that spins a bounded number of times and then
+ * yields the CPU between checks of the cursor
+ */
+final class YieldingWaitStrategy implements WaitStrategy {
+
+	private static final int SPIN_TRIES = 100;
+
+	@Override
+	public long waitFor(long sequence, Sequence cursor, BooleanSupplier halted) {
+		int counter = SPIN_TRIES;
+		long available;
+		while ((available = cursor.get()) < sequence) {
+			if (halted.getAsBoolean() || Thread.currentThread().isInterrupted()) {
+				return available;
+			}
+			if (counter > 0) {
+				counter--;
+				Thread.onSpinWait();
+			} else {
+				Thread.yield();
+			}
+		}
+		return available;
+	}
+
+	@Override
+	public void signalAllWhenBlocking() {
+	}
+}
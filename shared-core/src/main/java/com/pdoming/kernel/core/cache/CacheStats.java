@@ -0,0 +1,89 @@
+package com.pdoming.kernel.core.cache;
+
+/**
+ * Immutable snapshot of the counters of a {@link CachingRepository}
+ */
+public final class CacheStats {
+
+	private final long hitCount;
+	private final long missCount;
+	private final long evictionCount;
+	private final long expirationCount;
+	private final long invalidationCount;
+	private final long estimatedSize;
+	private final long weightedSize;
+
+	CacheStats(long hitCount, long missCount, long evictionCount, long expirationCount,
+	           long invalidationCount, long estimatedSize, long weightedSize) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+		this.expirationCount = expirationCount;
+		this.invalidationCount = invalidationCount;
+		this.estimatedSize = estimatedSize;
+		this.weightedSize = weightedSize;
+	}
+
+	public long hitCount() {
+		return hitCount;
+	}
+
+	public long missCount() {
+		return missCount;
+	}
+
+	public long requestCount() {
+		return hitCount + missCount;
+	}
+
+	/**
+	 * @return the ratio of lookups served from the cache, 1 when there were none
+	 */
+	public double hitRate() {
+		long requests = requestCount();
+		return requests == 0 ? 1.0 : (double) hitCount / requests;
+	}
+
+	/**
+	 * @return the number of entries removed to keep the cache within its maximum weight
+	 */
+	public long evictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * @return the number of entries removed because their time to live elapsed
+	 */
+	public long expirationCount() {
+		return expirationCount;
+	}
+
+	/**
+	 * @return the number of entries removed explicitly or because of a domain event
+	 */
+	public long invalidationCount() {
+		return invalidationCount;
+	}
+
+	public long estimatedSize() {
+		return estimatedSize;
+	}
+
+	public long weightedSize() {
+		return weightedSize;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStats{" +
+				"hitCount=" + hitCount +
+				", missCount=" + missCount +
+				", hitRate=" + hitRate() +
+				", evictionCount=" + evictionCount +
+				", expirationCount=" + expirationCount +
+				", invalidationCount=" + invalidationCount +
+				", estimatedSize=" + estimatedSize +
+				", weightedSize=" + weightedSize +
+				'}';
+	}
+}
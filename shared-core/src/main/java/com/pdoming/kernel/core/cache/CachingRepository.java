@@ -0,0 +1,431 @@
+package com.pdoming.kernel.core.cache;
+
+import com.pdoming.kernel.core.ddd.AggregateRoot;
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.ddd.Identifiable;
+import com.pdoming.kernel.core.ddd.Repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link Repository} decorator that keeps the most valuable aggregates in
+ * memory, bounded by a maximum weight.
+ *
+ * Eviction follows the W-TinyLFU policy: new entries land in a small LRU
+ * window and, when they leave it, compete with the least recently used entry
+ * of the main segmented LRU region. The one seen more often recently, as
+ * estimated by a {@link FrequencySketch}, stays. This keeps a hot subset of
+ * aggregates cached under scans and bursts of one-off lookups.
+ *
+ * Lookups are served from a {@link ConcurrentHashMap} without locking. The
+ * policy is updated under a lock, which readers only try to take: under
+ * contention an access is not recorded, which barely affects the hit rate.
+ *
+ * Aggregates are mutable and record their events in place, so a cached
+ * instance is not safe to share: two commands working on it would append to
+ * the same event log, and the version check of the decorated repository
+ * could not catch their conflict. The cached instances are therefore never
+ * handed out, every caller gets its own copy, made by the copier given at
+ * construction, which must copy the whole state of the aggregate and its
+ * version. A successful save caches a copy of the saved aggregate. Entries
+ * are also invalidated through {@link #onEvent(DomainEvent)}, typically
+ * subscribed to the events emitted by the aggregates, so the next lookup
+ * reloads them. Concurrent misses of the same identifier may load it more
+ * than once.
+ *
+ * @param <AGG> the type of the aggregate
+ * @param <ID> the type of the identifier of the aggregate
+ */
+public class CachingRepository<AGG extends AggregateRoot<ID>, ID extends Identifiable> implements Repository<AGG, ID> {
+
+	private static final int WINDOW = 0, PROBATION = 1, PROTECTED = 2;
+
+	private static final double WINDOW_PERCENTAGE = 0.01;
+	private static final double PROTECTED_PERCENTAGE = 0.80;
+
+	private final Repository<AGG, ID> delegate;
+	private final UnaryOperator<AGG> copier;
+	private final ToIntFunction<? super AGG> weigher;
+	private final long timeToLiveNanos;
+
+	private final long maximumWeight;
+	private final long windowMaximum;
+	private final long protectedMaximum;
+
+	private final ConcurrentHashMap<ID, Node<AGG, ID>> data = new ConcurrentHashMap<>();
+	private final AtomicLong invalidationEpoch = new AtomicLong();
+
+	/* Guarded by policyLock */
+	private final ReentrantLock policyLock = new ReentrantLock();
+	private final FrequencySketch sketch;
+	private final NodeDeque<AGG, ID> window = new NodeDeque<>();
+	private final NodeDeque<AGG, ID> probation = new NodeDeque<>();
+	private final NodeDeque<AGG, ID> protectedRegion = new NodeDeque<>();
+	private long windowWeight;
+	private long protectedWeight;
+	private volatile long weightedSize;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder expirations = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+
+	/**
+	 * Creates a new {@link CachingRepository} holding up to {@code maximumSize}
+	 * aggregates, which never expire
+	 * @param delegate the repository to decorate
+	 * @param maximumSize the maximum number of cached aggregates
+	 * @param copier copies an aggregate without uncommitted events, see the class documentation
+	 */
+	public CachingRepository(Repository<AGG, ID> delegate, long maximumSize, UnaryOperator<AGG> copier) {
+		this(delegate, maximumSize, aggregate -> 1, null, copier);
+	}
+
+	/**
+	 * Creates a new {@link CachingRepository}
+	 * @param delegate the repository to decorate
+	 * @param maximumWeight the maximum total weight of the cached aggregates
+	 * @param weigher computes the weight of an aggregate, a positive number
+	 * @param timeToLive how long an aggregate stays cached since it was loaded,
+	 *                   null if it must stay until evicted or invalidated
+	 * @param copier copies an aggregate without uncommitted events, see the class documentation
+	 */
+	public CachingRepository(Repository<AGG, ID> delegate,
+	                         long maximumWeight,
+	                         ToIntFunction<? super AGG> weigher,
+	                         Duration timeToLive,
+	                         UnaryOperator<AGG> copier) {
+		if (maximumWeight <= 0) throw new IllegalArgumentException("Maximum weight must be positive");
+		this.delegate = Objects.requireNonNull(delegate);
+		this.copier = Objects.requireNonNull(copier);
+		this.weigher = Objects.requireNonNull(weigher);
+		this.timeToLiveNanos = timeToLive == null ? Long.MAX_VALUE : timeToLive.toNanos();
+		this.maximumWeight = maximumWeight;
+		this.windowMaximum = Math.max(1, (long) (maximumWeight * WINDOW_PERCENTAGE));
+		this.protectedMaximum = (long) ((maximumWeight - windowMaximum) * PROTECTED_PERCENTAGE);
+		this.sketch = new FrequencySketch(maximumWeight);
+	}
+
+	@Override
+	public Optional<AGG> findById(ID id) {
+		Objects.requireNonNull(id);
+		AGG cached = lookup(id);
+		if (cached != null) {
+			return Optional.of(copier.apply(cached));
+		}
+
+		misses.increment();
+		long epoch = invalidationEpoch.get();
+		Optional<AGG> loaded = delegate.findById(id);
+		loaded.ifPresent(aggregate -> put(id, copier.apply(aggregate), epoch));
+		return loaded;
+	}
+
+	/**
+	 * Serves the cached aggregates, and loads all the others with a single
+	 * call to the decorated repository
+	 */
+	@Override
+	public Map<ID, AGG> findAllById(Collection<? extends ID> ids) {
+		Objects.requireNonNull(ids);
+		Map<ID, AGG> found = new HashMap<>();
+		List<ID> missing = new ArrayList<>();
+		for (ID id : ids) {
+			AGG cached = lookup(Objects.requireNonNull(id));
+			if (cached != null) {
+				found.put(id, copier.apply(cached));
+			} else {
+				missing.add(id);
+			}
+		}
+		if (missing.isEmpty()) {
+			return found;
+		}
+
+		misses.add(missing.size());
+		long epoch = invalidationEpoch.get();
+		delegate.findAllById(missing).forEach((id, aggregate) -> {
+			put(id, copier.apply(aggregate), epoch);
+			found.put(id, aggregate);
+		});
+		return found;
+	}
+
+	/**
+	 * Streams the aggregates of the decorated repository. They are not cached,
+	 * so that a scan does not evict the aggregates used the most
+	 */
+	@Override
+	public Flow.Publisher<AGG> findAll() {
+		return delegate.findAll();
+	}
+
+	/**
+	 * Saves the aggregate through the decorated repository. The cached
+	 * instance of the aggregate is stale once it is saved, and may be if the
+	 * save is rejected, so it is invalidated. After a successful save, a copy
+	 * of the saved aggregate is cached instead
+	 */
+	@Override
+	public void save(AGG aggregate) {
+		Objects.requireNonNull(aggregate);
+		long epoch = invalidationEpoch.get();
+		boolean saved = false;
+		try {
+			delegate.save(aggregate);
+			saved = true;
+		} finally {
+			invalidate(aggregate.id());
+		}
+		// Any other invalidation meanwhile, by a concurrent save for instance, may have made the copy stale
+		if (saved && invalidationEpoch.get() == epoch + 1) {
+			put(aggregate.id(), copier.apply(aggregate), epoch + 1);
+		}
+	}
+
+	/**
+	 * Invalidates the aggregate that emitted the given event
+	 * @param event an event emitted by an aggregate of this repository
+	 */
+	public void onEvent(DomainEvent<? extends ID> event) {
+		invalidate(event.getSourceId());
+	}
+
+	/**
+	 * Removes an aggregate from the cache
+	 * @param id the identifier of the aggregate
+	 */
+	public void invalidate(ID id) {
+		invalidationEpoch.incrementAndGet();
+		Node<AGG, ID> node = data.get(Objects.requireNonNull(id));
+		if (node != null && removeNode(node)) {
+			invalidations.increment();
+		}
+	}
+
+	/**
+	 * Removes every aggregate from the cache
+	 */
+	public void invalidateAll() {
+		invalidationEpoch.incrementAndGet();
+		for (Node<AGG, ID> node : data.values()) {
+			if (removeNode(node)) {
+				invalidations.increment();
+			}
+		}
+	}
+
+	/**
+	 * @return a snapshot of the counters of this cache
+	 */
+	public CacheStats stats() {
+		return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(),
+				invalidations.sum(), data.size(), weightedSize);
+	}
+
+	/* ------------------------ Policy ------------------------ */
+
+	/**
+	 * @return the cached aggregate, or null if absent or expired
+	 */
+	private AGG lookup(ID id) {
+		Node<AGG, ID> node = data.get(id);
+		if (node == null) return null;
+		if (System.nanoTime() - node.writeTime < timeToLiveNanos) {
+			hits.increment();
+			recordAccess(node);
+			return node.value;
+		}
+		if (removeNode(node)) {
+			expirations.increment();
+		}
+		return null;
+	}
+
+	private void put(ID id, AGG aggregate, long epoch) {
+		int weight = weigher.applyAsInt(aggregate);
+		if (weight < 0) throw new IllegalArgumentException("Negative weight for aggregate " + id);
+		if (weight > maximumWeight) return;
+
+		policyLock.lock();
+		try {
+			// An invalidation during the load may mean the loaded state is already stale
+			if (invalidationEpoch.get() != epoch || data.containsKey(id)) return;
+			Node<AGG, ID> node = new Node<>(id, aggregate, weight, System.nanoTime());
+			data.put(id, node);
+			sketch.increment(id.hashCode());
+			window.addLast(node);
+			windowWeight += weight;
+			weightedSize += weight;
+			evictEntries();
+		} finally {
+			policyLock.unlock();
+		}
+	}
+
+	private void recordAccess(Node<AGG, ID> node) {
+		if (!policyLock.tryLock()) return;
+		try {
+			if (node.queue < 0) return;
+			sketch.increment(node.key.hashCode());
+			if (node.queue == WINDOW) {
+				window.moveToLast(node);
+			} else if (node.queue == PROBATION) {
+				probation.remove(node);
+				node.queue = PROTECTED;
+				protectedRegion.addLast(node);
+				protectedWeight += node.weight;
+				while (protectedWeight > protectedMaximum) {
+					Node<AGG, ID> demoted = protectedRegion.pollFirst();
+					protectedWeight -= demoted.weight;
+					demoted.queue = PROBATION;
+					probation.addLast(demoted);
+				}
+			} else {
+				protectedRegion.moveToLast(node);
+			}
+		} finally {
+			policyLock.unlock();
+		}
+	}
+
+	private void evictEntries() {
+		// Entries leaving the window become candidates at the tail of the probation region
+		while (windowWeight > windowMaximum) {
+			Node<AGG, ID> candidate = window.pollFirst();
+			windowWeight -= candidate.weight;
+			candidate.queue = PROBATION;
+			probation.addLast(candidate);
+		}
+
+		while (weightedSize > maximumWeight) {
+			Node<AGG, ID> victim = probation.peekFirst();
+			Node<AGG, ID> candidate = probation.peekLast();
+			Node<AGG, ID> evicted;
+			if (victim == null) {
+				evicted = protectedRegion.peekFirst() != null ? protectedRegion.peekFirst() : window.peekFirst();
+			} else if (candidate == victim) {
+				evicted = victim;
+			} else {
+				int candidateFrequency = sketch.frequency(candidate.key.hashCode());
+				int victimFrequency = sketch.frequency(victim.key.hashCode());
+				evicted = candidateFrequency > victimFrequency ? victim : candidate;
+			}
+			unlink(evicted);
+			data.remove(evicted.key, evicted);
+			evictions.increment();
+		}
+	}
+
+	private boolean removeNode(Node<AGG, ID> node) {
+		policyLock.lock();
+		try {
+			if (node.queue < 0) return false;
+			unlink(node);
+			data.remove(node.key, node);
+			return true;
+		} finally {
+			policyLock.unlock();
+		}
+	}
+
+	private void unlink(Node<AGG, ID> node) {
+		switch (node.queue) {
+			case WINDOW:
+				window.remove(node);
+				windowWeight -= node.weight;
+				break;
+			case PROBATION:
+				probation.remove(node);
+				break;
+			case PROTECTED:
+				protectedRegion.remove(node);
+				protectedWeight -= node.weight;
+				break;
+			default:
+				return;
+		}
+		node.queue = -1;
+		weightedSize -= node.weight;
+	}
+
+	/* ------------------------ Internals ------------------------ */
+
+	/**
+	 * Entry of the cache, linked in the deque of the region it belongs to
+	 */
+	private static final class Node<AGG, ID> {
+		private final ID key;
+		private final AGG value;
+		private final int weight;
+		private final long writeTime;
+
+		/* Guarded by policyLock, -1 once removed */
+		private int queue = WINDOW;
+		private Node<AGG, ID> prev, next;
+
+		private Node(ID key, AGG value, int weight, long writeTime) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+			this.writeTime = writeTime;
+		}
+	}
+
+	/**
+	 * Intrusive doubly linked list of nodes, ordered from the least to the
+	 * most recently used
+	 */
+	private static final class NodeDeque<AGG, ID> {
+		private Node<AGG, ID> head, tail;
+
+		private Node<AGG, ID> peekFirst() {
+			return head;
+		}
+
+		private Node<AGG, ID> peekLast() {
+			return tail;
+		}
+
+		private Node<AGG, ID> pollFirst() {
+			Node<AGG, ID> first = head;
+			if (first != null) remove(first);
+			return first;
+		}
+
+		private void addLast(Node<AGG, ID> node) {
+			node.prev = tail;
+			node.next = null;
+			if (tail == null) head = node; else tail.next = node;
+			tail = node;
+		}
+
+		private void remove(Node<AGG, ID> node) {
+			if (node.prev == null) head = node.next; else node.prev.next = node.next;
+			if (node.next == null) tail = node.prev; else node.next.prev = node.prev;
+			node.prev = node.next = null;
+		}
+
+		private void moveToLast(Node<AGG, ID> node) {
+			if (node != tail) {
+				remove(node);
+				addLast(node);
+			}
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.pdoming.kernel.core.cache;
+
+/**
+ * Count-Min sketch that estimates how often a key has been seen recently,
+ * the admission filter of the W-TinyLFU policy.
+ *
+ * Every {@code long} of the table packs sixteen 4-bit counters and a key
+ * is mapped to one counter in each of four rows. When the number of
+ * increments reaches ten times the table size all counters are halved, so
+ * the popularity of keys that are no longer accessed decays over time.
+ * Not thread safe.
+ */
+final class FrequencySketch {
+
+	private static final long[] SEEDS = {
+			0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+	private static final long RESET_MASK = 0x7777777777777777L;
+	private static final long ONE_MASK = 0x1111111111111111L;
+
+	private final long[] table;
+	private final int tableMask;
+	private final int sampleSize;
+	private int size;
+
+	/**
+	 * Creates a new {@link FrequencySketch}
+	 * @param expectedEntries the expected number of entries of the cache
+	 */
+	FrequencySketch(long expectedEntries) {
+		int capacity = (int) Math.min(Math.max(expectedEntries, 16), 1 << 24);
+		capacity = Integer.highestOneBit(capacity - 1) << 1;
+		this.table = new long[capacity];
+		this.tableMask = capacity - 1;
+		this.sampleSize = 10 * capacity;
+	}
+
+	/**
+	 * @param keyHash the hash code of a key
+	 * @return the estimated number of recent occurrences of the key, up to 15
+	 */
+	int frequency(int keyHash) {
+		int hash = spread(keyHash);
+		int start = (hash & 3) << 2;
+		int frequency = Integer.MAX_VALUE;
+		for (int i = 0; i < 4; i++) {
+			int count = (int) ((table[indexOf(hash, i)] >>> ((start + i) << 2)) & 0xFL);
+			frequency = Math.min(frequency, count);
+		}
+		return frequency;
+	}
+
+	/**
+	 * Records an occurrence of a key
+	 * @param keyHash the hash code of the key
+	 */
+	void increment(int keyHash) {
+		int hash = spread(keyHash);
+		int start = (hash & 3) << 2;
+		boolean added = false;
+		for (int i = 0; i < 4; i++) {
+			added |= incrementAt(indexOf(hash, i), start + i);
+		}
+		if (added && ++size >= sampleSize) {
+			reset();
+		}
+	}
+
+	private boolean incrementAt(int index, int counter) {
+		int offset = counter << 2;
+		long mask = 0xFL << offset;
+		if ((table[index] & mask) != mask) {
+			table[index] += 1L << offset;
+			return true;
+		}
+		return false;
+	}
+
+	private void reset() {
+		int odd = 0;
+		for (int i = 0; i < table.length; i++) {
+			odd += Long.bitCount(table[i] & ONE_MASK);
+			table[i] = (table[i] >>> 1) & RESET_MASK;
+		}
+		size = (size >>> 1) - (odd >>> 2);
+	}
+
+	private int indexOf(int hash, int row) {
+		long h = (hash + SEEDS[row]) * SEEDS[row];
+		h += h >>> 32;
+		return (int) h & tableMask;
+	}
+
+	private static int spread(int x) {
+		x = ((x >>> 16) ^ x) * 0x45d9f3b;
+		x = ((x >>> 16) ^ x) * 0x45d9f3b;
+		return (x >>> 16) ^ x;
+	}
+}
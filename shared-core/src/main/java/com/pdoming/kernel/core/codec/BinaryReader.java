@@ -0,0 +1,134 @@
+package com.pdoming.kernel.core.codec;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Reads the values written by a {@link BinaryWriter} from a {@link ByteBuffer}.
+ *
+ * A reader is meant to be reused: point it to the next message with
+ * {@link #wrap(ByteBuffer)} instead of creating one per message. Strings are
+ * decoded through a scratch array kept by the reader, so the only allocation
+ * is the resulting {@link String}. Readers are not thread safe.
+ */
+public final class BinaryReader {
+
+	private ByteBuffer buffer;
+	private char[] scratch = new char[64];
+
+	private BinaryReader(ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Creates a new {@link BinaryReader} that reads the given buffer from its
+	 * current position up to its limit
+	 * @param buffer the source buffer
+	 * @return a new reader
+	 */
+	public static BinaryReader wrapping(ByteBuffer buffer) {
+		return new BinaryReader(Objects.requireNonNull(buffer));
+	}
+
+	/**
+	 * Points this reader to another buffer
+	 * @param buffer the new source buffer
+	 * @return this reader
+	 */
+	public BinaryReader wrap(ByteBuffer buffer) {
+		this.buffer = Objects.requireNonNull(buffer);
+		return this;
+	}
+
+	/**
+	 * @return the buffer being read, positioned at the next byte to read
+	 */
+	public ByteBuffer buffer() {
+		return buffer;
+	}
+
+	/**
+	 * @return whether there are bytes left to read
+	 */
+	public boolean hasRemaining() {
+		return buffer.hasRemaining();
+	}
+
+	/* ------------------------ Primitive values ------------------------ */
+
+	public byte readByte() {
+		return buffer.get();
+	}
+
+	public boolean readBoolean() {
+		return buffer.get() != 0;
+	}
+
+	public long readFixedLong() {
+		return buffer.getLong();
+	}
+
+	public long readVarLong() {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Malformed varint");
+	}
+
+	public int readVarInt() {
+		long value = readVarLong();
+		if ((value >>> 32) != 0) throw new IllegalArgumentException("Varint overflows an int");
+		return (int) value;
+	}
+
+	public long readSignedVarLong() {
+		long value = readVarLong();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	public Instant readInstant() {
+		long seconds = readSignedVarLong();
+		return Instant.ofEpochSecond(seconds, readVarInt());
+	}
+
+	public String readString() {
+		int utf8Length = readVarInt();
+		if (utf8Length > buffer.remaining()) throw new IllegalArgumentException("Truncated string");
+		if (scratch.length < utf8Length) {
+			scratch = new char[Math.max(utf8Length, scratch.length << 1)];
+		}
+		char[] chars = scratch;
+		int count = 0;
+		int end = buffer.position() + utf8Length;
+		while (buffer.position() < end) {
+			int b = buffer.get();
+			if (b >= 0) {
+				chars[count++] = (char) b;
+			} else if ((b & 0xE0) == 0xC0) {
+				chars[count++] = (char) (((b & 0x1F) << 6) | (buffer.get() & 0x3F));
+			} else if ((b & 0xF0) == 0xE0) {
+				chars[count++] = (char) (((b & 0x0F) << 12) | ((buffer.get() & 0x3F) << 6) | (buffer.get() & 0x3F));
+			} else {
+				int codePoint = ((b & 0x07) << 18) | ((buffer.get() & 0x3F) << 12)
+						| ((buffer.get() & 0x3F) << 6) | (buffer.get() & 0x3F);
+				chars[count++] = Character.highSurrogate(codePoint);
+				chars[count++] = Character.lowSurrogate(codePoint);
+			}
+		}
+		return new String(chars, 0, count);
+	}
+
+	/**
+	 * Skips a string without decoding it
+	 */
+	public void skipString() {
+		int utf8Length = readVarInt();
+		buffer.position(buffer.position() + utf8Length);
+	}
+}
@@ -0,0 +1,208 @@
+package com.pdoming.kernel.core.codec;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Writes primitive values to a {@link ByteBuffer} in a compact binary form.
+ *
+ * Integers are written as base 128 varints, signed ones after a zig-zag
+ * transformation so that small negative values stay small. Strings are
+ * written as their UTF-8 length followed by their UTF-8 bytes, encoded
+ * straight into the buffer.
+ *
+ * A writer is meant to be reused: {@link #clear()} it, or point it to a new
+ * buffer with {@link #wrap(ByteBuffer)}, instead of creating one per message.
+ * Writers created with {@link #growable(int)} reallocate their buffer when it
+ * is full, writers wrapping a given buffer throw a {@link BufferOverflowException}.
+ * Writers are not thread safe.
+ */
+public final class BinaryWriter {
+
+	private ByteBuffer buffer;
+	private final boolean growable;
+
+	private BinaryWriter(ByteBuffer buffer, boolean growable) {
+		this.buffer = buffer;
+		this.growable = growable;
+	}
+
+	/* ------------------------ Static constructors ------------------------ */
+
+	/**
+	 * Creates a new {@link BinaryWriter} over a heap buffer that grows as needed
+	 * @param initialCapacity the initial capacity of the buffer
+	 * @return a new writer
+	 */
+	public static BinaryWriter growable(int initialCapacity) {
+		return new BinaryWriter(ByteBuffer.allocate(Math.max(16, initialCapacity)), true);
+	}
+
+	/**
+	 * Creates a new {@link BinaryWriter} that writes to the given buffer,
+	 * starting at its current position
+	 * @param buffer the target buffer
+	 * @return a new writer
+	 */
+	public static BinaryWriter wrapping(ByteBuffer buffer) {
+		return new BinaryWriter(Objects.requireNonNull(buffer), false);
+	}
+
+	/* ------------------------ Buffer management ------------------------ */
+
+	/**
+	 * Points this writer, which must not be growable, to another buffer
+	 * @param buffer the new target buffer
+	 * @return this writer
+	 */
+	public BinaryWriter wrap(ByteBuffer buffer) {
+		if (growable) throw new IllegalStateException("A growable writer owns its buffer");
+		this.buffer = Objects.requireNonNull(buffer);
+		return this;
+	}
+
+	/**
+	 * Discards everything written so far
+	 * @return this writer
+	 */
+	public BinaryWriter clear() {
+		buffer.clear();
+		return this;
+	}
+
+	/**
+	 * @return the buffer being written, positioned after the last written byte
+	 */
+	public ByteBuffer buffer() {
+		return buffer;
+	}
+
+	/**
+	 * @return the number of bytes written since the buffer was last cleared
+	 */
+	public int position() {
+		return buffer.position();
+	}
+
+	/* ------------------------ Primitive values ------------------------ */
+
+	public BinaryWriter writeByte(int value) {
+		ensureCapacity(1);
+		buffer.put((byte) value);
+		return this;
+	}
+
+	public BinaryWriter writeBoolean(boolean value) {
+		return writeByte(value ? 1 : 0);
+	}
+
+	/**
+	 * Writes a long in 8 bytes, big-endian. Better than a varint for values
+	 * spread over the whole range, such as hashes or random identifiers
+	 */
+	public BinaryWriter writeFixedLong(long value) {
+		ensureCapacity(Long.BYTES);
+		buffer.putLong(value);
+		return this;
+	}
+
+	/**
+	 * Writes a long as an unsigned varint, 1 to 10 bytes
+	 */
+	public BinaryWriter writeVarLong(long value) {
+		ensureCapacity((63 - Long.numberOfLeadingZeros(value | 1)) / 7 + 1);
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+		return this;
+	}
+
+	/**
+	 * Writes an int as an unsigned varint, 1 to 5 bytes
+	 */
+	public BinaryWriter writeVarInt(int value) {
+		return writeVarLong(value & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Writes a signed long as a zig-zag encoded varint
+	 */
+	public BinaryWriter writeSignedVarLong(long value) {
+		return writeVarLong((value << 1) ^ (value >> 63));
+	}
+
+	/**
+	 * Writes an instant as its zig-zag encoded epoch seconds followed by
+	 * the varint encoded nanoseconds
+	 */
+	public BinaryWriter writeInstant(Instant instant) {
+		writeSignedVarLong(instant.getEpochSecond());
+		return writeVarInt(instant.getNano());
+	}
+
+	/**
+	 * Writes a string as its varint encoded UTF-8 length followed by its UTF-8 bytes
+	 */
+	public BinaryWriter writeString(CharSequence value) {
+		int length = value.length();
+		int utf8Length = utf8Length(value, length);
+		writeVarInt(utf8Length);
+		ensureCapacity(utf8Length);
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				buffer.put((byte) c);
+			} else if (c < 0x800) {
+				buffer.put((byte) (0xC0 | (c >> 6)));
+				buffer.put((byte) (0x80 | (c & 0x3F)));
+			} else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				buffer.put((byte) (0xF0 | (codePoint >> 18)));
+				buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+				buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+				buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+			} else if (Character.isSurrogate(c)) {
+				buffer.put((byte) '?');
+			} else {
+				buffer.put((byte) (0xE0 | (c >> 12)));
+				buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+				buffer.put((byte) (0x80 | (c & 0x3F)));
+			}
+		}
+		return this;
+	}
+
+	/* ------------------------ Internals ------------------------ */
+
+	private static int utf8Length(CharSequence value, int length) {
+		int utf8Length = length;
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c >= 0x800) {
+				if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+					utf8Length += 2;
+					i++;
+				} else if (!Character.isSurrogate(c)) {
+					utf8Length += 2;
+				}
+			} else if (c >= 0x80) {
+				utf8Length += 1;
+			}
+		}
+		return utf8Length;
+	}
+
+	private void ensureCapacity(int bytes) {
+		if (buffer.remaining() >= bytes) return;
+		if (!growable) throw new BufferOverflowException();
+		int capacity = Math.max(buffer.capacity() << 1, buffer.position() + bytes);
+		ByteBuffer grown = ByteBuffer.allocate(capacity);
+		buffer.flip();
+		grown.put(buffer);
+		buffer = grown;
+	}
+}
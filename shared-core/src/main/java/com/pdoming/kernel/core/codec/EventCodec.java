@@ -0,0 +1,192 @@
+package com.pdoming.kernel.core.codec;
+
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.ddd.EventId;
+import com.pdoming.kernel.core.ddd.Identifiable;
+import com.pdoming.kernel.core.eventstore.EventSerializer;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Schema-driven binary codec of {@link DomainEvent}s.
+ *
+ * Every event is framed as {@code [typeId][stamp][origin][sourceId][payload]}:
+ * the varint encoded identifier of its {@link EventSchema}, its varint encoded
+ * {@link DomainEvent#getStamp() stamp} and {@link EventId#origin() origin},
+ * which make up its {@link EventId}, its source identifier as written by the
+ * identifier codec and the payload written by the schema.
+ *
+ * The set of schemas is fixed when the codec is created. The schema of an
+ * event class, or of its closest registered superclass, is resolved once and
+ * cached, so encoding involves no reflection. A codec is thread safe, the
+ * {@link BinaryWriter}s and {@link BinaryReader}s given to it are not.
+ *
+ * @param <ID> the type of the source identifier of the events
+ */
+public final class EventCodec<ID extends Identifiable> {
+
+	private static final int MAX_TYPE_ID = 0xFFFF;
+
+	private final ValueCodec<ID> idCodec;
+	private final EventSchema<ID, ?>[] schemasById;
+
+	private final ClassValue<EventSchema<ID, ?>> schemasByClass = new ClassValue<>() {
+		@Override
+		protected EventSchema<ID, ?> computeValue(Class<?> type) {
+			for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+				for (EventSchema<ID, ?> schema : schemasById) {
+					if (schema != null && schema.type() == current) {
+						return schema;
+					}
+				}
+			}
+			return null;
+		}
+	};
+
+	@SuppressWarnings("unchecked")
+	private EventCodec(ValueCodec<ID> idCodec, List<? extends EventSchema<ID, ?>> schemas) {
+		this.idCodec = Objects.requireNonNull(idCodec);
+		int maxTypeId = 0;
+		for (EventSchema<ID, ?> schema : schemas) {
+			if (schema.typeId() < 0 || schema.typeId() > MAX_TYPE_ID)
+				throw new IllegalArgumentException("Type id " + schema.typeId() + " is out of range");
+			maxTypeId = Math.max(maxTypeId, schema.typeId());
+		}
+		this.schemasById = (EventSchema<ID, ?>[]) new EventSchema<?, ?>[maxTypeId + 1];
+		for (EventSchema<ID, ?> schema : schemas) {
+			if (schemasById[schema.typeId()] != null)
+				throw new IllegalArgumentException("Type id " + schema.typeId() + " is registered twice");
+			schemasById[schema.typeId()] = schema;
+		}
+	}
+
+	/**
+	 * Creates a new {@link EventCodec}
+	 * @param idCodec the codec of the source identifiers
+	 * @param schemas the schemas of the supported events
+	 * @param <ID> the type of the source identifier of the events
+	 * @return a new codec
+	 */
+	@SafeVarargs
+	@SuppressWarnings("varargs")
+	public static <ID extends Identifiable> EventCodec<ID> of(ValueCodec<ID> idCodec, EventSchema<ID, ?>... schemas) {
+		return new EventCodec<>(idCodec, List.of(schemas));
+	}
+
+	/**
+	 * Writes an event
+	 * @param event the event to encode
+	 * @param writer the target writer
+	 * @throws IllegalArgumentException if there is no schema for the event
+	 */
+	public void encode(DomainEvent<ID> event, BinaryWriter writer) {
+		EventSchema<ID, DomainEvent<ID>> schema = schemaOf(event);
+		writer.writeVarInt(schema.typeId());
+		writer.writeVarLong(event.getStamp());
+		writer.writeVarLong(event.getEventId().origin());
+		idCodec.write(event.getSourceId(), writer);
+		schema.writePayload(event, writer);
+	}
+
+	/**
+	 * Reads an event written by {@link #encode(DomainEvent, BinaryWriter)}
+	 * @param reader the source reader
+	 * @return the decoded event
+	 * @throws IllegalArgumentException if the type of the event is unknown
+	 */
+	public DomainEvent<ID> decode(BinaryReader reader) {
+		EventSchema<ID, ?> schema = schemaOf(reader.readVarInt());
+		long stamp = reader.readVarLong();
+		long origin = reader.readVarLong();
+		return schema.read(idCodec.read(reader), EventId.of(stamp, origin), reader);
+	}
+
+	/**
+	 * Creates a new {@link EventView}, to be reused across the events it is
+	 * pointed to
+	 * @return a new view over no event
+	 */
+	public EventView<ID> view() {
+		return new EventView<>(this);
+	}
+
+	/**
+	 * Returns a view of this codec as the {@link EventSerializer} of a
+	 * {@link com.pdoming.kernel.core.eventstore.MappedEventStore}. Store records
+	 * keep the source identifier first, followed by the type identifier,
+	 * the stamp, the origin and the payload
+	 * @return a serializer backed by this codec
+	 */
+	public EventSerializer<ID> asSerializer() {
+		return new EventSerializer<>() {
+
+			private final ThreadLocal<BinaryWriter> writers = ThreadLocal.withInitial(() -> BinaryWriter.wrapping(ByteBuffer.allocate(0)));
+			private final ThreadLocal<BinaryReader> readers = ThreadLocal.withInitial(() -> BinaryReader.wrapping(ByteBuffer.allocate(0)));
+
+			@Override
+			public void writeSourceId(ID sourceId, ByteBuffer target) {
+				idCodec.write(sourceId, writers.get().wrap(target));
+			}
+
+			@Override
+			public ID readSourceId(ByteBuffer source) {
+				return idCodec.read(readers.get().wrap(source));
+			}
+
+			@Override
+			public void writeEvent(DomainEvent<ID> event, ByteBuffer target) {
+				EventSchema<ID, DomainEvent<ID>> schema = schemaOf(event);
+				BinaryWriter writer = writers.get().wrap(target);
+				writer.writeVarInt(schema.typeId());
+				writer.writeVarLong(event.getStamp());
+				writer.writeVarLong(event.getEventId().origin());
+				schema.writePayload(event, writer);
+			}
+
+			@Override
+			public DomainEvent<ID> readEvent(ID sourceId, ByteBuffer source) {
+				BinaryReader reader = readers.get().wrap(source);
+				EventSchema<ID, ?> schema = schemaOf(reader.readVarInt());
+				long stamp = reader.readVarLong();
+				long origin = reader.readVarLong();
+				return schema.read(sourceId, EventId.of(stamp, origin), reader);
+			}
+		};
+	}
+
+	/**
+	 * @param typeId the identifier of a type on the wire
+	 * @return the schema registered for the type
+	 * @throws IllegalArgumentException if the type is unknown
+	 */
+	public EventSchema<ID, ?> schemaOf(int typeId) {
+		EventSchema<ID, ?> schema = findSchema(typeId);
+		if (schema == null) throw new IllegalArgumentException("Unknown event type id " + typeId);
+		return schema;
+	}
+
+	/**
+	 * @param typeId the identifier of a type on the wire
+	 * @return the schema registered for the type, or null if the type is unknown
+	 */
+	EventSchema<ID, ?> findSchema(int typeId) {
+		return typeId >= 0 && typeId < schemasById.length ? schemasById[typeId] : null;
+	}
+
+	/**
+	 * @return the codec of the source identifiers
+	 */
+	public ValueCodec<ID> idCodec() {
+		return idCodec;
+	}
+
+	@SuppressWarnings("unchecked")
+	private EventSchema<ID, DomainEvent<ID>> schemaOf(DomainEvent<ID> event) {
+		EventSchema<ID, ?> schema = schemasByClass.get(event.getClass());
+		if (schema == null) throw new IllegalArgumentException("No schema registered for " + event.getClass().getName());
+		return (EventSchema<ID, DomainEvent<ID>>) schema;
+	}
+}
@@ -0,0 +1,91 @@
+package com.pdoming.kernel.core.codec;
+
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.ddd.EventId;
+import com.pdoming.kernel.core.ddd.Identifiable;
+
+import java.util.Objects;
+
+/**
+ * Binary layout of the payload of one type of {@link DomainEvent}, that is,
+ * of everything but the header written by the {@link EventCodec}: the type
+ * identifier, the stamp, the origin of the {@link EventId} and the source
+ * identifier.
+ *
+ * @param <ID> the type of the source identifier of the events
+ * @param <E> the type of the events
+ */
+public interface EventSchema<ID extends Identifiable, E extends DomainEvent<ID>> {
+
+	/**
+	 * @return the identifier of the type on the wire, stable across versions
+	 */
+	int typeId();
+
+	/**
+	 * @return the class of the events, subclasses included
+	 */
+	Class<E> type();
+
+	/**
+	 * Writes the fields specific to the event
+	 * @param event the event to encode
+	 * @param writer the target writer
+	 */
+	void writePayload(E event, BinaryWriter writer);
+
+	/**
+	 * Reads the fields specific to an event and builds it, typically through
+	 * a constructor passing the identifier of the event to the decoding
+	 * constructor of {@link com.pdoming.kernel.core.ddd.BaseDomainEvent}
+	 * @param sourceId the decoded source identifier
+	 * @param eventId the decoded identifier of the event, holding its stamp
+	 * @param reader the source reader, positioned at the payload
+	 * @return the event
+	 */
+	E read(ID sourceId, EventId eventId, BinaryReader reader);
+
+	/**
+	 * Creates the schema of events without any field besides the header
+	 * @param typeId the identifier of the type on the wire
+	 * @param type the class of the events
+	 * @param factory builds an event from its source identifier and identifier
+	 * @param <ID> the type of the source identifier of the events
+	 * @param <E> the type of the events
+	 * @return a new schema
+	 */
+	static <ID extends Identifiable, E extends DomainEvent<ID>> EventSchema<ID, E> headerOnly(int typeId,
+	                                                                                            Class<E> type,
+	                                                                                            HeaderFactory<ID, E> factory) {
+		Objects.requireNonNull(type);
+		Objects.requireNonNull(factory);
+		return new EventSchema<>() {
+			@Override
+			public int typeId() {
+				return typeId;
+			}
+
+			@Override
+			public Class<E> type() {
+				return type;
+			}
+
+			@Override
+			public void writePayload(E event, BinaryWriter writer) {
+			}
+
+			@Override
+			public E read(ID sourceId, EventId eventId, BinaryReader reader) {
+				return factory.create(sourceId, eventId);
+			}
+		};
+	}
+
+	/**
+	 * Builds an event from the fields of its header
+	 */
+	@FunctionalInterface
+	interface HeaderFactory<ID extends Identifiable, E extends DomainEvent<ID>> {
+		E create(ID sourceId, EventId eventId);
+	}
+}
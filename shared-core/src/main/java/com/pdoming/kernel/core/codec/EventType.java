@@ -0,0 +1,40 @@
+package com.pdoming.kernel.core.codec;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an event class whose {@link EventSchema} is generated at build time
+ * by the {@code shared-processor} annotation processor, as the class
+ * {@code <Event>Schema} of the same package.
+ *
+ * For a concrete class, that class is the schema itself. For an abstract
+ * class, such as the shared events that every service subclasses, it holds
+ * factories of schemas given the concrete class and a factory calling its
+ * decoding constructor, the annotated type identifier being the default one.
+ * Fields whose type is a type variable of the abstract class are written by
+ * a {@link ValueCodec} given to the factory.
+ *
+ * The schema builds events through the constructor whose parameters are the
+ * source identifier, the {@link com.pdoming.kernel.core.ddd.EventId} and then
+ * the fields of the event, passing the first two to the decoding constructor
+ * of {@link com.pdoming.kernel.core.ddd.BaseDomainEvent}. Each field is
+ * written from the getter of the same name: a parameter {@code email} is
+ * written from {@code getEmail()}, {@code isEmail()} or {@code email()}.
+ * Fields may be primitives, enums, {@link String}s, {@link Long}s,
+ * {@link java.time.Instant}s, {@link java.util.UUID}s and the value objects
+ * supported by {@link ValueCodecs}, and may be null unless primitive.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface EventType {
+
+	/**
+	 * @return the identifier of the type on the wire, see {@link EventSchema#typeId()}
+	 */
+	int value();
+}
@@ -0,0 +1,239 @@
+package com.pdoming.kernel.core.codec;
+
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.ddd.EventId;
+import com.pdoming.kernel.core.ddd.Identifiable;
+import com.pdoming.kernel.core.time.EventClock;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Flyweight over an encoded {@link DomainEvent}, which decodes its fields
+ * only when they are accessed.
+ *
+ * A view wraps either a frame written by {@link EventCodec#encode(DomainEvent, BinaryWriter)}
+ * or a record of a {@link com.pdoming.kernel.core.eventstore.MappedEventStore}
+ * written through {@link EventCodec#asSerializer()}, as given by
+ * {@link com.pdoming.kernel.core.eventstore.MappedEventStore#scanRecords}.
+ * Reading the type, the stamp or the {@link EventId} of the event costs a
+ * few varints, and its source identifier or its payload are decoded only if
+ * requested, so consumers that discard most events allocate nothing for
+ * them. The full event is built by {@link #materialize()}.
+ *
+ * A view is meant to be reused: point it to the next event with
+ * {@link #wrap(ByteBuffer)} or {@link #wrapRecord(ByteBuffer)}. It reads the
+ * bytes of the buffer between its position and its limit when wrapped, and
+ * moves the position of the buffer as it decodes, so the buffer must not be
+ * changed until the view is pointed elsewhere. Views are not thread safe.
+ *
+ * @param <ID> the type of the source identifier of the events
+ */
+public final class EventView<ID extends Identifiable> {
+
+	private static final int UNKNOWN = -1;
+
+	private final EventCodec<ID> codec;
+	private final BinaryReader reader = BinaryReader.wrapping(ByteBuffer.allocate(0));
+
+	private ByteBuffer buffer;
+	private boolean record;
+	private int start;
+	private int end;
+
+	/* Decoded lazily, reset by every wrap */
+	private int typeId = UNKNOWN;
+	private long stamp;
+	private long origin;
+	private int sourceIdOffset;
+	private int payloadOffset;
+	private ID sourceId;
+
+	EventView(EventCodec<ID> codec) {
+		this.codec = codec;
+	}
+
+	/**
+	 * Points this view to a frame written by {@link EventCodec#encode(DomainEvent, BinaryWriter)}
+	 * @param frame the frame, from its position to its limit
+	 * @return this view
+	 */
+	public EventView<ID> wrap(ByteBuffer frame) {
+		return reset(frame, false);
+	}
+
+	/**
+	 * Points this view to a record of a {@link com.pdoming.kernel.core.eventstore.MappedEventStore}
+	 * whose serializer is this codec {@link EventCodec#asSerializer() as a serializer}
+	 * @param record the record, from its position to its limit
+	 * @return this view
+	 */
+	public EventView<ID> wrapRecord(ByteBuffer record) {
+		return reset(record, true);
+	}
+
+	/* ------------------------ Header ------------------------ */
+
+	/**
+	 * @return the identifier of the type of the event on the wire
+	 */
+	public int typeId() {
+		if (typeId == UNKNOWN) {
+			readHeader();
+		}
+		return typeId;
+	}
+
+	/**
+	 * @return the schema of the event
+	 * @throws IllegalArgumentException if the type of the event is unknown
+	 */
+	public EventSchema<ID, ?> schema() {
+		return codec.schemaOf(typeId());
+	}
+
+	/**
+	 * @return the class the event materializes to
+	 * @throws IllegalArgumentException if the type of the event is unknown
+	 */
+	public Class<? extends DomainEvent<ID>> type() {
+		return schema().type();
+	}
+
+	/**
+	 * @param type a class of events, possibly abstract
+	 * @return whether the event materializes to an instance of that class,
+	 *         false if the type of the event is unknown to the codec
+	 */
+	public boolean is(Class<?> type) {
+		EventSchema<ID, ?> schema = codec.findSchema(typeId());
+		return schema != null && type.isAssignableFrom(schema.type());
+	}
+
+	/**
+	 * @return the stamp of the event, see {@link EventClock}
+	 */
+	public long getStamp() {
+		if (typeId == UNKNOWN) {
+			readHeader();
+		}
+		return stamp;
+	}
+
+	/**
+	 * @return the identifier of the event, created on every call
+	 */
+	public EventId getEventId() {
+		if (typeId == UNKNOWN) {
+			readHeader();
+		}
+		return EventId.of(stamp, origin);
+	}
+
+	/**
+	 * @return the timestamp of the event, created on every call
+	 */
+	public Instant getTimestamp() {
+		return EventClock.toInstant(getStamp());
+	}
+
+	/**
+	 * @return the identifier of the aggregate that emitted the event,
+	 *         decoded once per wrap
+	 */
+	public ID getSourceId() {
+		ID result = sourceId;
+		if (result == null) {
+			if (typeId == UNKNOWN) {
+				readHeader();
+			}
+			result = sourceId = codec.idCodec().read(readerAt(sourceIdOffset));
+			if (payloadOffset == UNKNOWN) {
+				payloadOffset = buffer.position();
+			}
+		}
+		return result;
+	}
+
+	/* ------------------------ Payload ------------------------ */
+
+	/**
+	 * Returns a reader of the fields written by the {@link EventSchema} of the
+	 * event, for views of specific events to decode only the fields they need.
+	 * The reader is shared by all the calls, and is positioned again at the
+	 * start of the payload by every call
+	 * @return the reader of the payload
+	 */
+	public BinaryReader payload() {
+		if (typeId == UNKNOWN) {
+			readHeader();
+		}
+		if (payloadOffset == UNKNOWN) {
+			// Frames keep the identifier before the payload
+			codec.idCodec().skip(readerAt(sourceIdOffset));
+			payloadOffset = buffer.position();
+		}
+		return readerAt(payloadOffset);
+	}
+
+	/**
+	 * Decodes the whole event
+	 * @return a new event
+	 * @throws IllegalArgumentException if the type of the event is unknown
+	 */
+	public DomainEvent<ID> materialize() {
+		EventSchema<ID, ?> schema = schema();
+		ID id = getSourceId();
+		return schema.read(id, EventId.of(stamp, origin), payload());
+	}
+
+	@Override
+	public String toString() {
+		if (buffer == null) return "EventView[]";
+		return "EventView[typeId=" + typeId() + ", sourceId=" + getSourceId() + ", stamp=" + getStamp() + "]";
+	}
+
+	/* ------------------------ Internals ------------------------ */
+
+	private EventView<ID> reset(ByteBuffer source, boolean record) {
+		this.buffer = Objects.requireNonNull(source);
+		this.record = record;
+		this.start = source.position();
+		this.end = source.limit();
+		this.typeId = UNKNOWN;
+		this.stamp = 0;
+		this.origin = 0;
+		this.sourceIdOffset = UNKNOWN;
+		this.payloadOffset = UNKNOWN;
+		this.sourceId = null;
+		return this;
+	}
+
+	private void readHeader() {
+		if (buffer == null) throw new IllegalStateException("The view wraps no event");
+		BinaryReader in;
+		if (record) {
+			// Records keep the identifier first, it is skipped unless already decoded
+			sourceIdOffset = start;
+			in = readerAt(start);
+			codec.idCodec().skip(in);
+		} else {
+			in = readerAt(start);
+		}
+		int type = in.readVarInt();
+		stamp = in.readVarLong();
+		origin = in.readVarLong();
+		if (record) {
+			payloadOffset = buffer.position();
+		} else {
+			sourceIdOffset = buffer.position();
+		}
+		typeId = type;
+	}
+
+	private BinaryReader readerAt(int offset) {
+		buffer.limit(end).position(offset);
+		return reader.wrap(buffer);
+	}
+}
@@ -0,0 +1,59 @@
+package com.pdoming.kernel.core.codec;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Encodes and decodes values of a given type with a {@link BinaryWriter}
+ * and a {@link BinaryReader}. Common codecs are provided by {@link ValueCodecs}.
+ *
+ * @param <T> the type of the values
+ */
+public interface ValueCodec<T> {
+
+	/**
+	 * Writes a value
+	 * @param value a non null value
+	 * @param writer the target writer
+	 */
+	void write(T value, BinaryWriter writer);
+
+	/**
+	 * Reads a value previously written by {@link #write(Object, BinaryWriter)}
+	 * @param reader the source reader
+	 * @return the value
+	 */
+	T read(BinaryReader reader);
+
+	/**
+	 * Skips a value. Codecs override it when they can skip without decoding
+	 * @param reader the source reader
+	 */
+	default void skip(BinaryReader reader) {
+		read(reader);
+	}
+
+	/**
+	 * Creates a new {@link ValueCodec} from a pair of functions
+	 * @param writer writes a value
+	 * @param reader reads a value
+	 * @param <T> the type of the values
+	 * @return a new codec
+	 */
+	static <T> ValueCodec<T> of(BiConsumer<? super T, BinaryWriter> writer, Function<BinaryReader, ? extends T> reader) {
+		Objects.requireNonNull(writer);
+		Objects.requireNonNull(reader);
+		return new ValueCodec<>() {
+			@Override
+			public void write(T value, BinaryWriter target) {
+				writer.accept(value, target);
+			}
+
+			@Override
+			public T read(BinaryReader source) {
+				return reader.apply(source);
+			}
+		};
+	}
+}
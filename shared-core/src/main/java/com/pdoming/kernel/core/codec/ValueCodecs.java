@@ -0,0 +1,146 @@
+package com.pdoming.kernel.core.codec;
+
+import com.pdoming.kernel.core.vobjects.Address;
+import com.pdoming.kernel.core.vobjects.Email;
+import com.pdoming.kernel.core.vobjects.PhoneNumber;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * {@link ValueCodec}s of the common types of the kernel
+ */
+public final class ValueCodecs {
+
+	private static final ValueCodec<String> STRING = new ValueCodec<>() {
+		@Override
+		public void write(String value, BinaryWriter writer) {
+			writer.writeString(value);
+		}
+
+		@Override
+		public String read(BinaryReader reader) {
+			return reader.readString();
+		}
+
+		@Override
+		public void skip(BinaryReader reader) {
+			reader.skipString();
+		}
+	};
+
+	private static final ValueCodec<Long> LONG = ValueCodec.of(
+			(value, writer) -> writer.writeSignedVarLong(value), BinaryReader::readSignedVarLong);
+
+	private static final ValueCodec<Instant> INSTANT = ValueCodec.of(
+			(value, writer) -> writer.writeInstant(value), BinaryReader::readInstant);
+
+	private static final ValueCodec<UUID> UUID_CODEC = ValueCodec.of(
+			(value, writer) -> writer.writeFixedLong(value.getMostSignificantBits()).writeFixedLong(value.getLeastSignificantBits()),
+			reader -> new UUID(reader.readFixedLong(), reader.readFixedLong()));
+
+	private static final ValueCodec<Email> EMAIL = mapped(STRING, Email::toString, Email::valueOf);
+	private static final ValueCodec<PhoneNumber> PHONE_NUMBER = ValueCodec.of(
+			(value, writer) -> writer.writeVarLong(value.packed()), reader -> PhoneNumber.fromPacked(reader.readVarLong()));
+	private static final ValueCodec<Address> ADDRESS = mapped(STRING, Address::toString, Address::valueOf);
+
+	private ValueCodecs() {
+	}
+
+	public static ValueCodec<String> string() {
+		return STRING;
+	}
+
+	/**
+	 * @return a codec of longs as zig-zag encoded varints
+	 */
+	public static ValueCodec<Long> varLong() {
+		return LONG;
+	}
+
+	public static ValueCodec<Instant> instant() {
+		return INSTANT;
+	}
+
+	public static ValueCodec<UUID> uuid() {
+		return UUID_CODEC;
+	}
+
+	public static ValueCodec<Email> email() {
+		return EMAIL;
+	}
+
+	public static ValueCodec<PhoneNumber> phoneNumber() {
+		return PHONE_NUMBER;
+	}
+
+	public static ValueCodec<Address> address() {
+		return ADDRESS;
+	}
+
+	/**
+	 * Creates a codec of a type that is converted from and to another type
+	 * @param codec the codec of the underlying type
+	 * @param to converts values to the underlying type
+	 * @param from converts values from the underlying type
+	 * @param <T> the type of the values
+	 * @param <U> the underlying type
+	 * @return a new codec
+	 */
+	public static <T, U> ValueCodec<T> mapped(ValueCodec<U> codec,
+	                                          Function<? super T, ? extends U> to,
+	                                          Function<? super U, ? extends T> from) {
+		Objects.requireNonNull(codec);
+		Objects.requireNonNull(to);
+		Objects.requireNonNull(from);
+		return new ValueCodec<>() {
+			@Override
+			public void write(T value, BinaryWriter writer) {
+				codec.write(to.apply(value), writer);
+			}
+
+			@Override
+			public T read(BinaryReader reader) {
+				return from.apply(codec.read(reader));
+			}
+
+			@Override
+			public void skip(BinaryReader reader) {
+				codec.skip(reader);
+			}
+		};
+	}
+
+	/**
+	 * Creates a codec that accepts null values, at the cost of one byte
+	 * @param codec the codec of non null values
+	 * @param <T> the type of the values
+	 * @return a new codec
+	 */
+	public static <T> ValueCodec<T> nullable(ValueCodec<T> codec) {
+		Objects.requireNonNull(codec);
+		return new ValueCodec<>() {
+			@Override
+			public void write(T value, BinaryWriter writer) {
+				writer.writeBoolean(value != null);
+				if (value != null) {
+					codec.write(value, writer);
+				}
+			}
+
+			@Override
+			public T read(BinaryReader reader) {
+				return reader.readBoolean() ? codec.read(reader) : null;
+			}
+
+			@Override
+			public void skip(BinaryReader reader) {
+				if (reader.readBoolean()) {
+					codec.skip(reader);
+				}
+			}
+		};
+	}
+}
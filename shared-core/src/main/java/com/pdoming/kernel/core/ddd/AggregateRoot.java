@@ -2,6 +2,7 @@ package com.pdoming.kernel.core.ddd;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.stream.Stream;
 
 public abstract class AggregateRoot<ID extends Identifiable> {
@@ -10,6 +11,8 @@ public abstract class AggregateRoot<ID extends Identifiable> {
 
 	protected Collection<DomainEvent<ID>> eventLog;
 
+	private long committedVersion;
+
 	public AggregateRoot() {
 		this.eventLog = new ArrayList<>(2);
 	}
@@ -18,6 +21,111 @@ public abstract class AggregateRoot<ID extends Identifiable> {
 		return eventLog.stream();
 	};
 
+	/**
+	 * Applies a new event to this aggregate and adds it to the {@link #eventLog},
+	 * where it stays until it is committed
+	 * @param event the event emitted by this aggregate
+	 */
+	protected void record(DomainEvent<ID> event) {
+		apply(event);
+		eventLog.add(event);
+	}
+
+	/**
+	 * @return a read-only view of the events emitted by this aggregate that
+	 *         are not committed yet, in the order they were emitted
+	 */
+	public Collection<DomainEvent<ID>> uncommittedEvents() {
+		return Collections.unmodifiableCollection(eventLog);
+	}
+
+	/**
+	 * @return whether this aggregate emitted events that are not committed yet
+	 */
+	public boolean hasUncommittedEvents() {
+		return !eventLog.isEmpty();
+	}
+
+	/**
+	 * Clears the {@link #eventLog}, once its events have been stored, and
+	 * advances the {@link #committedVersion() committed version} past them
+	 */
+	public void markEventsCommitted() {
+		committedVersion += eventLog.size();
+		eventLog.clear();
+	}
+
+	/**
+	 * Clears the {@link #eventLog} without storing its events, leaving the
+	 * {@link #committedVersion() committed version} as is. The state of this
+	 * aggregate still reflects the discarded events
+	 */
+	public void discardUncommittedEvents() {
+		eventLog.clear();
+	}
+
+	/**
+	 * @return the number of events of this aggregate, replayed or recorded,
+	 *         committed or not
+	 */
+	public long version() {
+		return committedVersion + eventLog.size();
+	}
+
+	/**
+	 * @return the number of events of this aggregate that were replayed or
+	 *         committed, which a {@link Repository} expects to be the stored
+	 *         one when saving it
+	 */
+	public long committedVersion() {
+		return committedVersion;
+	}
+
+	/**
+	 * Rebuilds the state of this aggregate from its past events, in the
+	 * order they were recorded. Replayed events are applied but not added
+	 * to the {@link #eventLog}
+	 * @param history the events previously emitted by this aggregate
+	 */
+	public void replay(Iterable<? extends DomainEvent<ID>> history) {
+		for (DomainEvent<ID> event : history) {
+			apply(event);
+			committedVersion++;
+		}
+	}
+
+	/**
+	 * Rebuilds the state of this aggregate from a snapshot of its first
+	 * events, then replays the events after them
+	 * @param snapshot the state of this aggregate at the version of the snapshot
+	 * @param tail the events emitted by this aggregate after the snapshot was taken
+	 * @throws IllegalStateException if this aggregate already has events
+	 */
+	public void replay(Snapshot snapshot, Iterable<? extends DomainEvent<ID>> tail) {
+		if (version() != 0) throw new IllegalStateException("Aggregate " + id() + " is already at version " + version());
+		restore(snapshot);
+		committedVersion = snapshot.version();
+		replay(tail);
+	}
+
+	/**
+	 * Sets the state of this aggregate to the one of a snapshot. Aggregates
+	 * loaded from snapshots override this method, the default throws
+	 * @param snapshot the state of this aggregate at the version of the snapshot
+	 * @throws UnsupportedOperationException if the aggregate has no snapshots
+	 */
+	protected void restore(Snapshot snapshot) {
+		throw new UnsupportedOperationException(getClass().getName() + " cannot be restored from a snapshot");
+	}
+
+	/**
+	 * Mutates the state of this aggregate according to the given event.
+	 * Event-sourced aggregates override this method, the default does nothing
+	 * @param event a past event of this aggregate
+	 */
+	protected void apply(DomainEvent<ID> event) {
+	}
+
 	@Override
 	public int hashCode() {
 		return id().hashCode();
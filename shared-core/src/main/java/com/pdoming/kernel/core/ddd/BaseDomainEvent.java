@@ -1,15 +1,74 @@
 package com.pdoming.kernel.core.ddd;
 
+import com.pdoming.kernel.core.time.EventClock;
+import com.pdoming.kernel.core.time.EventClocks;
+
 import java.time.Instant;
 
+/**
+ * Base class of domain events, stamped by an {@link EventClock}.
+ *
+ * The stamp is kept as a packed long and the {@link Instant} of the event is
+ * only created when requested, so stamping a new event allocates nothing.
+ * Likewise the {@link EventId} of the event is kept as its origin, drawn
+ * when the event is created, or given back to the decoding constructor.
+ */
 public abstract class BaseDomainEvent<ID extends Identifiable> implements DomainEvent<ID> {
 
-	protected ID      sourceId;
-	protected Instant timestamp;
+	protected ID sourceId;
+
+	/**
+	 * Only changed by {@link #setTimestamp(Instant)}, while the event is built
+	 */
+	private long stamp;
+
+	/**
+	 * The origin of the {@link EventId}
+	 */
+	private final long origin;
+
+	/**
+	 * The timestamp, once requested. No longer a protected field, since it is
+	 * only set lazily: subclasses read it through {@link #getTimestamp()} and
+	 * set it through {@link #setTimestamp(Instant)} or a constructor
+	 */
+	private Instant timestamp;
+
+	/**
+	 * Creates an event happening now, stamped by the {@link EventClocks#get() clock in use}
+	 * @param sourceId the identifier of the aggregate emitting the event
+	 */
+	public BaseDomainEvent(ID sourceId) {
+		this(sourceId, EventClocks.stamp());
+	}
+
+	/**
+	 * @param sourceId the identifier of the aggregate emitting the event
+	 * @param stamp the stamp of the event, see {@link EventClock}
+	 */
+	public BaseDomainEvent(ID sourceId, long stamp) {
+		this.sourceId = sourceId;
+		this.stamp = stamp;
+		this.origin = EventId.nextOrigin();
+	}
 
 	public BaseDomainEvent(ID sourceId, Instant timestamp) {
 		this.sourceId = sourceId;
+		this.stamp = EventClock.fromInstant(timestamp);
 		this.timestamp = timestamp;
+		this.origin = EventId.nextOrigin();
+	}
+
+	/**
+	 * Rebuilds an event previously created, with the identifier it was
+	 * created with. Meant for codecs, see {@link com.pdoming.kernel.core.codec.EventSchema}
+	 * @param sourceId the identifier of the aggregate that emitted the event
+	 * @param eventId the identifier of the event, holding its stamp
+	 */
+	protected BaseDomainEvent(ID sourceId, EventId eventId) {
+		this.sourceId = sourceId;
+		this.stamp = eventId.stamp();
+		this.origin = eventId.origin();
 	}
 
 	@Override
@@ -17,8 +76,36 @@ public abstract class BaseDomainEvent<ID extends Identifiable> implements Domain
 		return sourceId;
 	}
 
+	@Override
+	public long getStamp() {
+		return stamp;
+	}
+
+	@Override
+	public EventId getEventId() {
+		return EventId.of(stamp, origin);
+	}
+
+	/**
+	 * Sets the timestamp of this event, in place of the one it was stamped
+	 * with, for subclasses that assigned the former protected field. Meant to
+	 * be called while the event is built, before it is shared
+	 * @param timestamp the timestamp of the event
+	 */
+	protected void setTimestamp(Instant timestamp) {
+		this.stamp = EventClock.fromInstant(timestamp);
+		this.timestamp = timestamp;
+	}
+
+	/**
+	 * @return the timestamp of the event, created from its stamp on the first call
+	 */
 	@Override
 	public Instant getTimestamp() {
-		return timestamp;
+		Instant result = timestamp;
+		if (result == null) {
+			timestamp = result = EventClock.toInstant(stamp);
+		}
+		return result;
 	}
 }
@@ -10,6 +10,10 @@ public abstract class DelegatedIdentifier<T> implements Identifiable {
 		this.value = value;
 	}
 
+	public T getValue() {
+		return value;
+	}
+
 	@Override
 	public String toString() {
 		return value.toString();
@@ -1,8 +1,25 @@
 package com.pdoming.kernel.core.ddd;
 
+import com.pdoming.kernel.core.time.EventClock;
+
 import java.time.Instant;
 
 public interface DomainEvent<ID extends Identifiable> {
 	ID getSourceId();
 	Instant getTimestamp();
+
+	/**
+	 * @return the timestamp of the event packed in a long, see {@link EventClock}
+	 */
+	default long getStamp() {
+		return EventClock.fromInstant(getTimestamp());
+	}
+
+	/**
+	 * @return the unique identifier of the event. Events without an
+	 *         identifier of their own are identified by their stamp only
+	 */
+	default EventId getEventId() {
+		return EventId.of(getStamp(), EventId.NO_ORIGIN);
+	}
 }
@@ -0,0 +1,179 @@
+package com.pdoming.kernel.core.ddd;
+
+import com.pdoming.kernel.core.time.EventClock;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.System.Logger.Level.WARNING;
+
+/**
+ * Unique identifier of a {@link DomainEvent}, for consumers to detect the
+ * events delivered more than once.
+ *
+ * An identifier is the stamp of the event, see {@link EventClock}, and its
+ * origin: a sequence number drawn by the process that created the event,
+ * followed by the 16-bit identifier of its node. Origins never repeat within
+ * a process, and the stamps of a restarted process follow those issued
+ * before, so identifiers are unique as long as every running process has a
+ * node of its own. The node is read from the {@value #NODE_PROPERTY} system
+ * property. When it is not set a random node is picked and a warning logged:
+ * 16 bits are too few for random nodes not to collide across a fleet, and
+ * colliding identifiers make deduplicating consumers drop genuine events,
+ * so the components relying on unique identifiers, like the
+ * {@link com.pdoming.kernel.core.dedup.Deduplicator}, call
+ * {@link #requireConfiguredNode()}. Setting the property to
+ * {@value #RANDOM_NODE} picks a random node on purpose, which is only meant
+ * for tests and single-process tools.
+ *
+ * On the wire an identifier costs the stamp already written for the event
+ * plus the origin, a varint of a few bytes. Identifiers compare by stamp,
+ * then by origin.
+ */
+public final class EventId implements Comparable<EventId> {
+
+	/**
+	 * System property holding the node of this process, within [0, 65535]
+	 */
+	public static final String NODE_PROPERTY = "pdomingo.kernel.node";
+
+	/**
+	 * Value of the {@value #NODE_PROPERTY} property that picks a random node
+	 */
+	public static final String RANDOM_NODE = "random";
+
+	/**
+	 * Origin of the events that have no identifier of their own
+	 */
+	public static final long NO_ORIGIN = 0;
+
+	private static final int NODE_BITS = 16;
+	private static final boolean NODE_CONFIGURED = System.getProperty(NODE_PROPERTY) != null;
+	private static final int NODE = initialNode();
+	private static final AtomicLong SEQUENCE = new AtomicLong(1);
+
+	private final long stamp;
+	private final long origin;
+
+	private EventId(long stamp, long origin) {
+		this.stamp = stamp;
+		this.origin = origin;
+	}
+
+	/* ------------------------ Static constructors ------------------------ */
+
+	/**
+	 * @param stamp the stamp of the event
+	 * @param origin the origin of the event, see {@link #origin()}
+	 * @return the identifier
+	 */
+	public static EventId of(long stamp, long origin) {
+		return new EventId(stamp, origin);
+	}
+
+	/**
+	 * @return a new origin, unique within this process, for a new event
+	 */
+	public static long nextOrigin() {
+		return (SEQUENCE.getAndIncrement() << NODE_BITS) | NODE;
+	}
+
+	/**
+	 * @return the node of this process
+	 */
+	public static int localNode() {
+		return NODE;
+	}
+
+	/**
+	 * Ensures the identifiers created by this process are unique among the
+	 * running processes, i.e. its node was set through {@value #NODE_PROPERTY}
+	 * @throws IllegalStateException if the node of this process is not configured
+	 */
+	public static void requireConfiguredNode() {
+		if (!NODE_CONFIGURED)
+			throw new IllegalStateException("The node of this process is not configured, set the system property "
+					+ NODE_PROPERTY + " to a node in [0, 65535] unique among the running processes");
+	}
+
+	/* ------------------------ Accessors ------------------------ */
+
+	public long stamp() {
+		return stamp;
+	}
+
+	/**
+	 * @return the sequence number and the node that created the event, packed
+	 *         as {@code [sequence: 48 bits][node: 16 bits]}, or {@link #NO_ORIGIN}
+	 */
+	public long origin() {
+		return origin;
+	}
+
+	public int node() {
+		return (int) origin & 0xFFFF;
+	}
+
+	public long sequence() {
+		return origin >>> NODE_BITS;
+	}
+
+	/**
+	 * @return a well mixed 64-bit hash of this identifier, e.g. for probabilistic filters
+	 */
+	public long hash64() {
+		return mix(stamp * 0x9E3779B97F4A7C15L ^ origin);
+	}
+
+	@Override
+	public int compareTo(EventId that) {
+		int byStamp = Long.compare(stamp, that.stamp);
+		return byStamp != 0 ? byStamp : Long.compare(origin, that.origin);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		EventId that = (EventId) o;
+		return stamp == that.stamp && origin == that.origin;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(hash64());
+	}
+
+	/**
+	 * @return the identifier as {@code stamp-origin}, both in hexadecimal
+	 */
+	@Override
+	public String toString() {
+		return Long.toHexString(stamp) + '-' + Long.toHexString(origin);
+	}
+
+	/* ------------------------ Internals ------------------------ */
+
+	private static long mix(long h) {
+		h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+		h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return h ^ (h >>> 33);
+	}
+
+	private static int initialNode() {
+		String configured = System.getProperty(NODE_PROPERTY);
+		if (configured == null) {
+			int node = new SecureRandom().nextInt(1 << NODE_BITS);
+			System.getLogger(EventId.class.getName()).log(WARNING, "The system property " + NODE_PROPERTY
+					+ " is not set, using the random node " + node + ": event ids may collide with other processes");
+			return node;
+		}
+		if (configured.trim().equals(RANDOM_NODE)) {
+			return new SecureRandom().nextInt(1 << NODE_BITS);
+		}
+		int node = Integer.parseInt(configured.trim());
+		if (node < 0 || node >= 1 << NODE_BITS)
+			throw new IllegalArgumentException("Node " + node + " is out of range [0, 65535]");
+		return node;
+	}
+}
@@ -0,0 +1,157 @@
+package com.pdoming.kernel.core.ddd;
+
+import com.pdoming.kernel.core.util.IteratorPublisher;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+/**
+ * {@link Repository} of event-sourced aggregates that keeps their events in
+ * memory, for tests and for services whose aggregates need not survive a
+ * restart.
+ *
+ * Saves check the version of the aggregate and append its events under a
+ * lock picked by the hash of its identifier among a set of stripes, so saves
+ * of unrelated aggregates very rarely contend. The history of an aggregate
+ * has a single writer at a time and is published through a volatile size,
+ * so lookups never lock.
+ *
+ * @param <AGG> the type of the aggregate
+ * @param <ID> the type of the identifier of the aggregate
+ */
+public class InMemoryRepository<AGG extends AggregateRoot<ID>, ID extends Identifiable> implements Repository<AGG, ID> {
+
+	private final Function<ID, AGG> factory;
+	private final ConcurrentHashMap<ID, History<ID>> histories = new ConcurrentHashMap<>();
+	private final Object[] locks;
+	private final int mask;
+
+	/**
+	 * Creates a new {@link InMemoryRepository} with a number of lock stripes
+	 * suited to the available processors
+	 * @param factory creates an aggregate, without history, for a given identifier
+	 */
+	public InMemoryRepository(Function<ID, AGG> factory) {
+		this(factory, 4 * Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a new {@link InMemoryRepository}
+	 * @param factory creates an aggregate, without history, for a given identifier
+	 * @param concurrency the expected number of threads saving at once,
+	 *                    rounded up to a power of 2 to get the number of lock stripes
+	 */
+	public InMemoryRepository(Function<ID, AGG> factory, int concurrency) {
+		if (concurrency <= 0) throw new IllegalArgumentException("Concurrency must be positive");
+		this.factory = Objects.requireNonNull(factory);
+		int count = concurrency == 1 ? 1 : Integer.highestOneBit(concurrency - 1) << 1;
+		this.locks = new Object[count];
+		for (int i = 0; i < count; i++) {
+			locks[i] = new Object();
+		}
+		this.mask = count - 1;
+	}
+
+	@Override
+	public Optional<AGG> findById(ID id) {
+		History<ID> history = histories.get(Objects.requireNonNull(id));
+		if (history == null) {
+			return Optional.empty();
+		}
+		AGG aggregate = factory.apply(id);
+		aggregate.replay(history.events());
+		return Optional.of(aggregate);
+	}
+
+	@Override
+	public Flow.Publisher<AGG> findAll() {
+		return new IteratorPublisher<>(() -> {
+			Iterator<ID> ids = histories.keySet().iterator();
+			return new Iterator<AGG>() {
+				@Override
+				public boolean hasNext() {
+					return ids.hasNext();
+				}
+
+				@Override
+				public AGG next() {
+					ID id = ids.next();
+					AGG aggregate = factory.apply(id);
+					aggregate.replay(histories.get(id).events());
+					return aggregate;
+				}
+			};
+		});
+	}
+
+	@Override
+	public void save(AGG aggregate) {
+		Objects.requireNonNull(aggregate);
+		if (!aggregate.hasUncommittedEvents()) return;
+		ID id = aggregate.id();
+		long expectedVersion = aggregate.committedVersion();
+		int hash = id.hashCode();
+		synchronized (locks[(hash ^ (hash >>> 16)) & mask]) {
+			History<ID> history = histories.get(id);
+			long actualVersion = history == null ? 0 : history.size;
+			if (actualVersion != expectedVersion) {
+				throw new StaleAggregateException(id, expectedVersion, actualVersion);
+			}
+			if (history == null) {
+				// Published once it has events, so lookups never see an empty history
+				history = new History<>();
+				history.addAll(aggregate.uncommittedEvents());
+				histories.put(id, history);
+			} else {
+				history.addAll(aggregate.uncommittedEvents());
+			}
+		}
+		aggregate.markEventsCommitted();
+	}
+
+	/**
+	 * @return the number of aggregates with stored events
+	 */
+	public int size() {
+		return histories.size();
+	}
+
+	/**
+	 * Growable list of the events of an aggregate. It has a single writer,
+	 * readers see a consistent prefix by reading the volatile {@link #size}
+	 * before the array. The array is volatile too and replaced only once
+	 * filled, so a reader seeing a grown array also sees its contents
+	 */
+	private static final class History<ID extends Identifiable> {
+
+		private volatile DomainEvent<?>[] events = new DomainEvent<?>[4];
+		private volatile int size;
+
+		private void addAll(Collection<DomainEvent<ID>> added) {
+			int n = size;
+			int total = n + added.size();
+			DomainEvent<?>[] target = events;
+			if (total > target.length) {
+				target = Arrays.copyOf(target, Math.max(total, n << 1));
+			}
+			for (DomainEvent<ID> event : added) {
+				target[n++] = event;
+			}
+			events = target;
+			size = total;
+		}
+
+		@SuppressWarnings("unchecked")
+		private List<DomainEvent<ID>> events() {
+			int n = size;
+			return (List<DomainEvent<ID>>) (List<?>) Arrays.asList(events).subList(0, n);
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package com.pdoming.kernel.core.ddd;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Map of aggregates by their {@link LongIdentifier}, with primitive keys.
+ *
+ * Entries are stored in two parallel arrays, the keys in a {@code long[]}
+ * and the aggregates in an {@code Object[]}, using open addressing with
+ * linear probing. There are no entry objects nor boxed keys, so an entry
+ * costs about 17 bytes against the 50 or more of a {@code HashMap}. Removals
+ * shift the following entries back instead of leaving tombstones, so lookups
+ * never slow down after many removals.
+ *
+ * This class is not thread safe.
+ *
+ * @param <AGG> the type of the aggregates
+ */
+public final class LongAggregateMap<AGG extends AggregateRoot<? extends LongIdentifier>> {
+
+	private static final int MINIMUM_CAPACITY = 16;
+	private static final int MAXIMUM_CAPACITY = 1 << 30;
+	private static final double LOAD_FACTOR = 0.7;
+
+	private long[] keys;
+	private Object[] values;
+	private int mask;
+	private int resizeThreshold;
+	private int size;
+
+	/**
+	 * Creates a new, empty, {@link LongAggregateMap}
+	 */
+	public LongAggregateMap() {
+		this(MINIMUM_CAPACITY);
+	}
+
+	/**
+	 * Creates a new, empty, {@link LongAggregateMap}
+	 * @param expectedSize the number of aggregates it will hold without growing
+	 */
+	public LongAggregateMap(int expectedSize) {
+		if (expectedSize < 0) throw new IllegalArgumentException("Expected size cannot be negative");
+		allocate(capacityFor(expectedSize));
+	}
+
+	/**
+	 * @param id the value of an identifier
+	 * @return the aggregate with that identifier, null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public AGG get(long id) {
+		int index = indexOf(id);
+		return index < 0 ? null : (AGG) values[index];
+	}
+
+	/**
+	 * @param id an identifier
+	 * @return the aggregate with that identifier, null if there is none
+	 */
+	public AGG get(LongIdentifier id) {
+		return get(id.getValue());
+	}
+
+	/**
+	 * @param id the value of an identifier
+	 * @return whether there is an aggregate with that identifier
+	 */
+	public boolean containsId(long id) {
+		return indexOf(id) >= 0;
+	}
+
+	/**
+	 * Adds an aggregate, replacing the one with the same identifier
+	 * @param aggregate the aggregate to add
+	 * @return the replaced aggregate, null if there was none
+	 */
+	@SuppressWarnings("unchecked")
+	public AGG put(AGG aggregate) {
+		long key = aggregate.id().getValue();
+		int index = slot(key);
+		Object value;
+		while ((value = values[index]) != null) {
+			if (keys[index] == key) {
+				values[index] = aggregate;
+				return (AGG) value;
+			}
+			index = (index + 1) & mask;
+		}
+		keys[index] = key;
+		values[index] = aggregate;
+		if (++size > resizeThreshold) {
+			rehash(values.length << 1);
+		}
+		return null;
+	}
+
+	/**
+	 * Removes an aggregate
+	 * @param id the value of the identifier of the aggregate
+	 * @return the removed aggregate, null if there was none
+	 */
+	@SuppressWarnings("unchecked")
+	public AGG remove(long id) {
+		int index = indexOf(id);
+		if (index < 0) return null;
+		AGG removed = (AGG) values[index];
+		size--;
+
+		// Shift back the entries that would not be found past the gap
+		int gap = index;
+		int next = index;
+		while (true) {
+			next = (next + 1) & mask;
+			Object value = values[next];
+			if (value == null) break;
+			int home = slot(keys[next]);
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				values[gap] = value;
+				gap = next;
+			}
+		}
+		values[gap] = null;
+		return removed;
+	}
+
+	/**
+	 * Removes an aggregate
+	 * @param id the identifier of the aggregate
+	 * @return the removed aggregate, null if there was none
+	 */
+	public AGG remove(LongIdentifier id) {
+		return remove(id.getValue());
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes every aggregate, keeping the allocated capacity
+	 */
+	public void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	/**
+	 * Applies an action to every aggregate, in no particular order
+	 * @param action the action to apply
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(Consumer<? super AGG> action) {
+		Objects.requireNonNull(action);
+		for (Object value : values) {
+			if (value != null) action.accept((AGG) value);
+		}
+	}
+
+	/* ------------------------ Internals ------------------------ */
+
+	private int indexOf(long key) {
+		int index = slot(key);
+		while (values[index] != null) {
+			if (keys[index] == key) return index;
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	private int slot(long key) {
+		// Fibonacci hashing, so sequential ids spread over the whole table
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	private void allocate(int capacity) {
+		this.keys = new long[capacity];
+		this.values = new Object[capacity];
+		this.mask = capacity - 1;
+		this.resizeThreshold = capacity == MAXIMUM_CAPACITY ? capacity - 1 : (int) (capacity * LOAD_FACTOR);
+	}
+
+	private void rehash(int capacity) {
+		if (values.length == MAXIMUM_CAPACITY) throw new IllegalStateException("Maximum capacity reached");
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldValues.length; i++) {
+			if (oldValues[i] != null) {
+				int index = slot(oldKeys[i]);
+				while (values[index] != null) {
+					index = (index + 1) & mask;
+				}
+				keys[index] = oldKeys[i];
+				values[index] = oldValues[i];
+			}
+		}
+	}
+
+	private static int capacityFor(int expectedSize) {
+		long needed = (long) Math.ceil(expectedSize / LOAD_FACTOR) + 1;
+		if (needed > MAXIMUM_CAPACITY) return MAXIMUM_CAPACITY;
+		return Math.max(MINIMUM_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+	}
+}
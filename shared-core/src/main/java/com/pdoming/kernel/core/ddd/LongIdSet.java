@@ -0,0 +1,215 @@
+package com.pdoming.kernel.core.ddd;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+/**
+ * Set of {@link LongIdentifier} values, with primitive keys, e.g. to track
+ * the aggregates loaded or modified without holding them.
+ *
+ * The values are stored in a {@code long[]} using open addressing with
+ * linear probing, so an element costs about 11 bytes against the 50 or more
+ * of a {@code HashSet<Long>}. Free slots hold zero, so the zero identifier
+ * is kept apart in a flag. Removals shift the following elements back
+ * instead of leaving tombstones, as in {@link LongAggregateMap}.
+ *
+ * This class is not thread safe.
+ */
+public final class LongIdSet {
+
+	private static final int MINIMUM_CAPACITY = 16;
+	private static final int MAXIMUM_CAPACITY = 1 << 30;
+	private static final double LOAD_FACTOR = 0.7;
+
+	private static final long FREE = 0;
+
+	private long[] keys;
+	private boolean containsFree;
+	private int mask;
+	private int resizeThreshold;
+	private int size;
+
+	/**
+	 * Creates a new, empty, {@link LongIdSet}
+	 */
+	public LongIdSet() {
+		this(MINIMUM_CAPACITY);
+	}
+
+	/**
+	 * Creates a new, empty, {@link LongIdSet}
+	 * @param expectedSize the number of identifiers it will hold without growing
+	 */
+	public LongIdSet(int expectedSize) {
+		if (expectedSize < 0) throw new IllegalArgumentException("Expected size cannot be negative");
+		allocate(capacityFor(expectedSize));
+	}
+
+	/**
+	 * @param id the value of an identifier
+	 * @return whether the set holds that identifier
+	 */
+	public boolean contains(long id) {
+		if (id == FREE) return containsFree;
+		return indexOf(id) >= 0;
+	}
+
+	/**
+	 * @param id an identifier
+	 * @return whether the set holds that identifier
+	 */
+	public boolean contains(LongIdentifier id) {
+		return contains(id.getValue());
+	}
+
+	/**
+	 * Adds an identifier
+	 * @param id the value of the identifier
+	 * @return whether it was added, false if the set already held it
+	 */
+	public boolean add(long id) {
+		if (id == FREE) {
+			if (containsFree) return false;
+			containsFree = true;
+			size++;
+			return true;
+		}
+		int index = slot(id);
+		long key;
+		while ((key = keys[index]) != FREE) {
+			if (key == id) return false;
+			index = (index + 1) & mask;
+		}
+		keys[index] = id;
+		if (++size > resizeThreshold) {
+			rehash(keys.length << 1);
+		}
+		return true;
+	}
+
+	/**
+	 * Adds an identifier
+	 * @param id the identifier
+	 * @return whether it was added, false if the set already held it
+	 */
+	public boolean add(LongIdentifier id) {
+		return add(id.getValue());
+	}
+
+	/**
+	 * Removes an identifier
+	 * @param id the value of the identifier
+	 * @return whether it was removed, false if the set did not hold it
+	 */
+	public boolean remove(long id) {
+		if (id == FREE) {
+			if (!containsFree) return false;
+			containsFree = false;
+			size--;
+			return true;
+		}
+		int index = indexOf(id);
+		if (index < 0) return false;
+		size--;
+
+		// Shift back the elements that would not be found past the gap
+		int gap = index;
+		int next = index;
+		while (true) {
+			next = (next + 1) & mask;
+			long key = keys[next];
+			if (key == FREE) break;
+			int home = slot(key);
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = key;
+				gap = next;
+			}
+		}
+		keys[gap] = FREE;
+		return true;
+	}
+
+	/**
+	 * Removes an identifier
+	 * @param id the identifier
+	 * @return whether it was removed, false if the set did not hold it
+	 */
+	public boolean remove(LongIdentifier id) {
+		return remove(id.getValue());
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes every identifier, keeping the allocated capacity
+	 */
+	public void clear() {
+		Arrays.fill(keys, FREE);
+		containsFree = false;
+		size = 0;
+	}
+
+	/**
+	 * Applies an action to every identifier, in no particular order
+	 * @param action the action to apply
+	 */
+	public void forEach(LongConsumer action) {
+		Objects.requireNonNull(action);
+		if (containsFree) action.accept(FREE);
+		for (long key : keys) {
+			if (key != FREE) action.accept(key);
+		}
+	}
+
+	/* ------------------------ Internals ------------------------ */
+
+	private int indexOf(long id) {
+		int index = slot(id);
+		long key;
+		while ((key = keys[index]) != FREE) {
+			if (key == id) return index;
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	private int slot(long key) {
+		// Fibonacci hashing, so sequential ids spread over the whole table
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	private void allocate(int capacity) {
+		this.keys = new long[capacity];
+		this.mask = capacity - 1;
+		this.resizeThreshold = capacity == MAXIMUM_CAPACITY ? capacity - 1 : (int) (capacity * LOAD_FACTOR);
+	}
+
+	private void rehash(int capacity) {
+		if (keys.length == MAXIMUM_CAPACITY) throw new IllegalStateException("Maximum capacity reached");
+		long[] oldKeys = keys;
+		allocate(capacity);
+		for (long key : oldKeys) {
+			if (key != FREE) {
+				int index = slot(key);
+				while (keys[index] != FREE) {
+					index = (index + 1) & mask;
+				}
+				keys[index] = key;
+			}
+		}
+	}
+
+	private static int capacityFor(int expectedSize) {
+		long needed = (long) Math.ceil(expectedSize / LOAD_FACTOR) + 1;
+		if (needed > MAXIMUM_CAPACITY) return MAXIMUM_CAPACITY;
+		return Math.max(MINIMUM_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+	}
+}
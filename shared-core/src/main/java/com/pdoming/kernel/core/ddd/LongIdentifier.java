@@ -0,0 +1,42 @@
+package com.pdoming.kernel.core.ddd;
+
+/**
+ * Identifier backed by a primitive {@code long}, the unboxed counterpart of
+ * a {@code DelegatedIdentifier<Long>}.
+ *
+ * The hash code is computed once, in a field that fits in the padding of
+ * the object, so an identifier takes the same memory as a boxed {@link Long}
+ * alone. See {@link LongAggregateMap} to index aggregates by these ids, and
+ * {@link LongIdSet} to collect them.
+ */
+public abstract class LongIdentifier implements Identifiable {
+
+	private final long value;
+	private final int hash;
+
+	public LongIdentifier(long value) {
+		this.value = value;
+		this.hash = Long.hashCode(value);
+	}
+
+	public long getValue() {
+		return value;
+	}
+
+	@Override
+	public String toString() {
+		return Long.toString(value);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		return value == ((LongIdentifier) o).value;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+}
@@ -1,8 +1,51 @@
 package com.pdoming.kernel.core.ddd;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Flow;
 
 public interface Repository<AGG extends AggregateRoot<ID>, ID extends Identifiable> {
 
 	Optional<AGG> findById(ID id);
+
+	/**
+	 * Looks up several aggregates in a single call. The default looks them up
+	 * one by one, repositories override it when they can batch the lookups
+	 * @param ids the identifiers of the aggregates
+	 * @return the aggregates found, by identifier, without the unknown identifiers
+	 */
+	default Map<ID, AGG> findAllById(Collection<? extends ID> ids) {
+		Map<ID, AGG> found = new HashMap<>();
+		for (ID id : ids) {
+			findById(id).ifPresent(aggregate -> found.put(id, aggregate));
+		}
+		return found;
+	}
+
+	/**
+	 * Streams every aggregate of this repository. Aggregates are loaded as
+	 * the subscriber requests them, so that they are never all in memory
+	 * @return a publisher of the aggregates, whose subscribers may each go
+	 *         through all of them
+	 * @throws UnsupportedOperationException if the repository cannot list its aggregates
+	 */
+	default Flow.Publisher<AGG> findAll() {
+		throw new UnsupportedOperationException(getClass().getName() + " cannot list its aggregates");
+	}
+
+	/**
+	 * Stores the uncommitted events of an aggregate and marks them as committed,
+	 * provided the stored version of the aggregate is still its
+	 * {@link AggregateRoot#committedVersion() committed version}. Saving an
+	 * aggregate without uncommitted events does nothing
+	 * @param aggregate the aggregate to save
+	 * @throws StaleAggregateException if the aggregate was saved by someone else
+	 *                                 since it was loaded, nothing is stored then
+	 * @throws UnsupportedOperationException if the repository is read-only
+	 */
+	default void save(AGG aggregate) {
+		throw new UnsupportedOperationException(getClass().getName() + " is read-only");
+	}
 }
@@ -0,0 +1,16 @@
+package com.pdoming.kernel.core.ddd;
+
+/**
+ * State of an {@link AggregateRoot} folded from its first events, so that
+ * loading the aggregate only replays the events after them.
+ *
+ * @see AggregateRoot#replay(Snapshot, Iterable)
+ */
+public interface Snapshot {
+
+	/**
+	 * @return the number of events of the aggregate folded into this snapshot,
+	 *         that is, the version of the aggregate it was taken at
+	 */
+	long version();
+}
@@ -0,0 +1,40 @@
+package com.pdoming.kernel.core.ddd;
+
+/**
+ * Thrown when saving an aggregate whose stored version changed since it was
+ * loaded, because another save of the same aggregate happened in between.
+ * The command is expected to be retried on a freshly loaded aggregate.
+ */
+public class StaleAggregateException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Identifiable aggregateId;
+	private final long expectedVersion;
+	private final long actualVersion;
+
+	public StaleAggregateException(Identifiable aggregateId, long expectedVersion, long actualVersion) {
+		super("Aggregate " + aggregateId + " is at version " + actualVersion + ", expected " + expectedVersion);
+		this.aggregateId = aggregateId;
+		this.expectedVersion = expectedVersion;
+		this.actualVersion = actualVersion;
+	}
+
+	public Identifiable getAggregateId() {
+		return aggregateId;
+	}
+
+	/**
+	 * @return the committed version of the aggregate being saved
+	 */
+	public long getExpectedVersion() {
+		return expectedVersion;
+	}
+
+	/**
+	 * @return the stored version of the aggregate when the save was rejected
+	 */
+	public long getActualVersion() {
+		return actualVersion;
+	}
+}
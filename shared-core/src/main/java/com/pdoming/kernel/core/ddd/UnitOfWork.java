@@ -0,0 +1,191 @@
+package com.pdoming.kernel.core.ddd;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Tracks the aggregates changed while handling a command and commits all
+ * their new events at once.
+ *
+ * On {@link #commit()} the uncommitted events of every registered aggregate
+ * are gathered, in registration order, into a single batch that is handed
+ * once to the {@link Writer}, such as {@code MappedEventStore::appendChanges},
+ * and then once to the publisher, such as {@code EventBus::publishAll}. This
+ * makes a single round trip per request instead of one per aggregate and
+ * event. The writer gets the committed version of every aggregate along with
+ * its events, so it rejects the batch if another save of one of them
+ * happened since it was loaded.
+ *
+ * A unit of work is meant to be used by a single thread, within a
+ * try-with-resources block: closing it without committing rolls it back.
+ *
+ * @param <ID> the type of the identifiers of the aggregates
+ */
+public final class UnitOfWork<ID extends Identifiable> implements AutoCloseable {
+
+	private final Writer<ID> writer;
+	private final Consumer<? super List<DomainEvent<ID>>> publisher;
+
+	private final List<AggregateRoot<ID>> aggregates = new ArrayList<>();
+	private final Map<AggregateRoot<ID>, Boolean> registered = new IdentityHashMap<>();
+
+	/**
+	 * Creates a new {@link UnitOfWork} whose events are written but not published
+	 * @param writer stores the new events of the aggregates
+	 */
+	public UnitOfWork(Writer<ID> writer) {
+		this(writer, events -> {});
+	}
+
+	/**
+	 * Creates a new {@link UnitOfWork}
+	 * @param writer stores the new events of the aggregates
+	 * @param publisher publishes a batch of events once stored
+	 */
+	public UnitOfWork(Writer<ID> writer, Consumer<? super List<DomainEvent<ID>>> publisher) {
+		this.writer = Objects.requireNonNull(writer);
+		this.publisher = Objects.requireNonNull(publisher);
+	}
+
+	/**
+	 * Tracks an aggregate, whose uncommitted events will be committed by
+	 * this unit of work. Registering the same instance again has no effect
+	 * @param aggregate the aggregate to track
+	 * @param <AGG> the type of the aggregate
+	 * @return the same aggregate
+	 */
+	public <AGG extends AggregateRoot<ID>> AGG register(AGG aggregate) {
+		Objects.requireNonNull(aggregate);
+		if (registered.put(aggregate, Boolean.TRUE) == null) {
+			aggregates.add(aggregate);
+		}
+		return aggregate;
+	}
+
+	/**
+	 * @return the number of aggregates tracked
+	 */
+	public int size() {
+		return aggregates.size();
+	}
+
+	/**
+	 * Writes the uncommitted events of the tracked aggregates as a single
+	 * batch, marks them as committed and publishes them. If the writer fails,
+	 * e.g. with a {@link StaleAggregateException}, nothing is committed and
+	 * the exception is propagated, the unit of work may then be rolled back.
+	 * Once the events are written the unit of work is cleared, even if the
+	 * publisher fails
+	 * @return the events committed, in the order they were written
+	 */
+	public List<DomainEvent<ID>> commit() {
+		List<Changes<ID>> changes = new ArrayList<>(aggregates.size());
+		int count = 0;
+		for (AggregateRoot<ID> aggregate : aggregates) {
+			if (!aggregate.hasUncommittedEvents()) continue;
+			Changes<ID> change = new Changes<>(aggregate.id(), aggregate.committedVersion(),
+					List.copyOf(aggregate.uncommittedEvents()));
+			changes.add(change);
+			count += change.events.size();
+		}
+		if (count == 0) {
+			clear();
+			return Collections.emptyList();
+		}
+
+		writer.write(Collections.unmodifiableList(changes));
+		List<DomainEvent<ID>> batch = new ArrayList<>(count);
+		for (Changes<ID> change : changes) {
+			batch.addAll(change.events);
+		}
+		List<DomainEvent<ID>> events = Collections.unmodifiableList(batch);
+		for (AggregateRoot<ID> aggregate : aggregates) {
+			aggregate.markEventsCommitted();
+		}
+		clear();
+		publisher.accept(events);
+		return events;
+	}
+
+	/**
+	 * Discards the uncommitted events of the tracked aggregates and stops
+	 * tracking them. The state of those instances still reflects the
+	 * discarded events, so they must not be used anymore
+	 */
+	public void rollback() {
+		for (AggregateRoot<ID> aggregate : aggregates) {
+			aggregate.discardUncommittedEvents();
+		}
+		clear();
+	}
+
+	/**
+	 * Rolls back the changes not committed yet
+	 */
+	@Override
+	public void close() {
+		rollback();
+	}
+
+	private void clear() {
+		aggregates.clear();
+		registered.clear();
+	}
+
+	/**
+	 * Stores the new events of the aggregates of a unit of work
+	 * @param <ID> the type of the identifiers of the aggregates
+	 */
+	@FunctionalInterface
+	public interface Writer<ID extends Identifiable> {
+
+		/**
+		 * Stores the new events of several aggregates, all or none, provided
+		 * every aggregate has exactly its expected version stored
+		 * @param changes the new events of every aggregate, in registration order
+		 * @throws StaleAggregateException if an aggregate has another version
+		 *                                 stored, in which case nothing is stored
+		 */
+		void write(List<Changes<ID>> changes);
+	}
+
+	/**
+	 * The new events of an aggregate, along with the version it was loaded at
+	 * @param <ID> the type of the identifier of the aggregate
+	 */
+	public static final class Changes<ID extends Identifiable> {
+
+		private final ID aggregateId;
+		private final long expectedVersion;
+		private final List<DomainEvent<ID>> events;
+
+		Changes(ID aggregateId, long expectedVersion, List<DomainEvent<ID>> events) {
+			this.aggregateId = aggregateId;
+			this.expectedVersion = expectedVersion;
+			this.events = events;
+		}
+
+		public ID aggregateId() {
+			return aggregateId;
+		}
+
+		/**
+		 * @return the committed version of the aggregate, which must be the stored one
+		 */
+		public long expectedVersion() {
+			return expectedVersion;
+		}
+
+		/**
+		 * @return the uncommitted events of the aggregate, in the order they were emitted
+		 */
+		public List<DomainEvent<ID>> events() {
+			return events;
+		}
+	}
+}
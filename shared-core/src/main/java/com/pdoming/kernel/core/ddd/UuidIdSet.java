@@ -0,0 +1,229 @@
+package com.pdoming.kernel.core.ddd;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Set of {@link UuidIdentifier} values, with primitive keys, e.g. to track
+ * the aggregates loaded or modified without holding them.
+ *
+ * The two halves of every value are stored next to each other in a
+ * {@code long[]}, using open addressing with linear probing, so an element
+ * costs about 23 bytes against the 80 or more of a {@code HashSet<UUID>}.
+ * Free slots hold the nil UUID, so that one is kept apart in a flag.
+ * Removals shift the following elements back instead of leaving tombstones,
+ * as in {@link UuidAggregateMap}.
+ *
+ * This class is not thread safe.
+ */
+public final class UuidIdSet {
+
+	private static final int MINIMUM_CAPACITY = 16;
+	private static final int MAXIMUM_CAPACITY = 1 << 29;
+	private static final double LOAD_FACTOR = 0.7;
+
+	private long[] keys;
+	private boolean containsNil;
+	private int mask;
+	private int resizeThreshold;
+	private int size;
+
+	/**
+	 * Creates a new, empty, {@link UuidIdSet}
+	 */
+	public UuidIdSet() {
+		this(MINIMUM_CAPACITY);
+	}
+
+	/**
+	 * Creates a new, empty, {@link UuidIdSet}
+	 * @param expectedSize the number of identifiers it will hold without growing
+	 */
+	public UuidIdSet(int expectedSize) {
+		if (expectedSize < 0) throw new IllegalArgumentException("Expected size cannot be negative");
+		allocate(capacityFor(expectedSize));
+	}
+
+	/**
+	 * @param mostSignificantBits the most significant bits of an identifier
+	 * @param leastSignificantBits the least significant bits of an identifier
+	 * @return whether the set holds that identifier
+	 */
+	public boolean contains(long mostSignificantBits, long leastSignificantBits) {
+		if (isNil(mostSignificantBits, leastSignificantBits)) return containsNil;
+		return indexOf(mostSignificantBits, leastSignificantBits) >= 0;
+	}
+
+	/**
+	 * @param id an identifier
+	 * @return whether the set holds that identifier
+	 */
+	public boolean contains(UuidIdentifier id) {
+		return contains(id.getMostSignificantBits(), id.getLeastSignificantBits());
+	}
+
+	/**
+	 * Adds an identifier
+	 * @param mostSignificantBits the most significant bits of the identifier
+	 * @param leastSignificantBits the least significant bits of the identifier
+	 * @return whether it was added, false if the set already held it
+	 */
+	public boolean add(long mostSignificantBits, long leastSignificantBits) {
+		if (isNil(mostSignificantBits, leastSignificantBits)) {
+			if (containsNil) return false;
+			containsNil = true;
+			size++;
+			return true;
+		}
+		int index = slot(mostSignificantBits, leastSignificantBits);
+		while (!isFree(index)) {
+			if (keys[index << 1] == mostSignificantBits && keys[(index << 1) + 1] == leastSignificantBits) return false;
+			index = (index + 1) & mask;
+		}
+		keys[index << 1] = mostSignificantBits;
+		keys[(index << 1) + 1] = leastSignificantBits;
+		if (++size > resizeThreshold) {
+			rehash((mask + 1) << 1);
+		}
+		return true;
+	}
+
+	/**
+	 * Adds an identifier
+	 * @param id the identifier
+	 * @return whether it was added, false if the set already held it
+	 */
+	public boolean add(UuidIdentifier id) {
+		return add(id.getMostSignificantBits(), id.getLeastSignificantBits());
+	}
+
+	/**
+	 * Removes an identifier
+	 * @param mostSignificantBits the most significant bits of the identifier
+	 * @param leastSignificantBits the least significant bits of the identifier
+	 * @return whether it was removed, false if the set did not hold it
+	 */
+	public boolean remove(long mostSignificantBits, long leastSignificantBits) {
+		if (isNil(mostSignificantBits, leastSignificantBits)) {
+			if (!containsNil) return false;
+			containsNil = false;
+			size--;
+			return true;
+		}
+		int index = indexOf(mostSignificantBits, leastSignificantBits);
+		if (index < 0) return false;
+		size--;
+
+		// Shift back the elements that would not be found past the gap
+		int gap = index;
+		int next = index;
+		while (true) {
+			next = (next + 1) & mask;
+			if (isFree(next)) break;
+			int home = slot(keys[next << 1], keys[(next << 1) + 1]);
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap << 1] = keys[next << 1];
+				keys[(gap << 1) + 1] = keys[(next << 1) + 1];
+				gap = next;
+			}
+		}
+		keys[gap << 1] = 0;
+		keys[(gap << 1) + 1] = 0;
+		return true;
+	}
+
+	/**
+	 * Removes an identifier
+	 * @param id the identifier
+	 * @return whether it was removed, false if the set did not hold it
+	 */
+	public boolean remove(UuidIdentifier id) {
+		return remove(id.getMostSignificantBits(), id.getLeastSignificantBits());
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes every identifier, keeping the allocated capacity
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		containsNil = false;
+		size = 0;
+	}
+
+	/**
+	 * Applies an action to every identifier, in no particular order
+	 * @param action the action to apply
+	 */
+	public void forEach(Consumer<? super UUID> action) {
+		Objects.requireNonNull(action);
+		if (containsNil) action.accept(new UUID(0, 0));
+		for (int i = 0; i <= mask; i++) {
+			if (!isFree(i)) action.accept(new UUID(keys[i << 1], keys[(i << 1) + 1]));
+		}
+	}
+
+	/* ------------------------ Internals ------------------------ */
+
+	private static boolean isNil(long high, long low) {
+		return (high | low) == 0;
+	}
+
+	private boolean isFree(int index) {
+		return isNil(keys[index << 1], keys[(index << 1) + 1]);
+	}
+
+	private int indexOf(long high, long low) {
+		int index = slot(high, low);
+		while (!isFree(index)) {
+			if (keys[index << 1] == high && keys[(index << 1) + 1] == low) return index;
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	private int slot(long high, long low) {
+		// Fibonacci hashing, so time-based ids that differ in few bits spread over the whole table
+		long hash = (high ^ Long.rotateLeft(low, 32)) * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	private void allocate(int capacity) {
+		this.keys = new long[capacity << 1];
+		this.mask = capacity - 1;
+		this.resizeThreshold = capacity == MAXIMUM_CAPACITY ? capacity - 1 : (int) (capacity * LOAD_FACTOR);
+	}
+
+	private void rehash(int capacity) {
+		if (mask + 1 == MAXIMUM_CAPACITY) throw new IllegalStateException("Maximum capacity reached");
+		long[] oldKeys = keys;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i += 2) {
+			long high = oldKeys[i];
+			long low = oldKeys[i + 1];
+			if (!isNil(high, low)) {
+				int index = slot(high, low);
+				while (!isFree(index)) {
+					index = (index + 1) & mask;
+				}
+				keys[index << 1] = high;
+				keys[(index << 1) + 1] = low;
+			}
+		}
+	}
+
+	private static int capacityFor(int expectedSize) {
+		long needed = (long) Math.ceil(expectedSize / LOAD_FACTOR) + 1;
+		if (needed > MAXIMUM_CAPACITY) return MAXIMUM_CAPACITY;
+		return Math.max(MINIMUM_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+	}
+}
@@ -0,0 +1,65 @@
+package com.pdoming.kernel.core.ddd;
+
+import java.util.UUID;
+
+/**
+ * Identifier backed by the two {@code long}s of a {@link UUID}, the unboxed
+ * counterpart of a {@code DelegatedIdentifier<UUID>}.
+ *
+ * The hash code is computed once, in a field that fits in the padding of
+ * the object. See {@link UuidAggregateMap} to index aggregates by these ids,
+ * and {@link UuidIdSet} to collect them.
+ */
+public abstract class UuidIdentifier implements Identifiable {
+
+	private final long mostSignificantBits;
+	private final long leastSignificantBits;
+	private final int hash;
+
+	public UuidIdentifier(long mostSignificantBits, long leastSignificantBits) {
+		this.mostSignificantBits = mostSignificantBits;
+		this.leastSignificantBits = leastSignificantBits;
+		long bits = mostSignificantBits ^ leastSignificantBits;
+		this.hash = (int) (bits >> 32) ^ (int) bits;
+	}
+
+	public UuidIdentifier(UUID value) {
+		this(value.getMostSignificantBits(), value.getLeastSignificantBits());
+	}
+
+	public long getMostSignificantBits() {
+		return mostSignificantBits;
+	}
+
+	public long getLeastSignificantBits() {
+		return leastSignificantBits;
+	}
+
+	/**
+	 * @return a new {@link UUID} with the value of this identifier
+	 */
+	public UUID getValue() {
+		return new UUID(mostSignificantBits, leastSignificantBits);
+	}
+
+	@Override
+	public String toString() {
+		return getValue().toString();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		UuidIdentifier that = (UuidIdentifier) o;
+		return mostSignificantBits == that.mostSignificantBits && leastSignificantBits == that.leastSignificantBits;
+	}
+
+	/**
+	 * @return the same hash code as the {@link UUID} of this identifier
+	 */
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+}
@@ -0,0 +1,221 @@
+package com.pdoming.kernel.core.dedup;
+
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.ddd.EventId;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Detects the events delivered more than once to a consumer, by their {@link EventId}.
+ *
+ * Every event seen is added to a {@link ScalableBloomFilter} and to an exact
+ * window of the most recent identifiers. An event unknown to the filter is
+ * new for sure, which is the usual case and costs a few bit tests. An event
+ * the filter knows is confirmed against the window, which catches the
+ * redeliveries of recent events. Only when the window does not hold it,
+ * either because it is a false positive of the filter or because it was
+ * seen long ago, the fallback is asked, typically a lookup in the store of
+ * the consumer.
+ *
+ * A deduplicator may be shared by the threads of a consumer. Its state is
+ * guarded by its monitor, which is not held while the fallback is asked, so
+ * a slow fallback does not hold back the other threads. Identifiers must be unique across processes, so building a
+ * deduplicator requires the node of this process to be configured, see
+ * {@link EventId}.
+ */
+public final class Deduplicator {
+
+	/* Outcomes of a check */
+	private static final int NEW = 0;
+	private static final int DUPLICATE = 1;
+	private static final int UNKNOWN = 2;
+
+	private final ScalableBloomFilter filter;
+	private final Predicate<? super EventId> fallback;
+
+	/* Ring of the most recent identifiers, mirrored by a set */
+	private final EventId[] window;
+	private final Set<EventId> windowSet;
+	private int next;
+
+	/* Identifiers being handled by an idempotent handler */
+	private final Set<EventId> inFlight = new HashSet<>();
+
+	private long checkCount;
+	private long negativeCount;
+	private long windowHitCount;
+	private long fallbackCount;
+
+	/**
+	 * Creates a new {@link Deduplicator}
+	 * @param windowSize the number of recent identifiers kept exactly
+	 * @param expectedEvents the number of events the first stage of the filter is sized for
+	 * @param falsePositiveRate the bound of the false positive rate of the filter
+	 * @param fallback tells whether an event the filter knows but the window does
+	 *                 not was already handled, e.g. {@code id -> false} to treat
+	 *                 them as new if the consumer can tolerate it
+	 * @throws IllegalStateException if the node of this process is not configured
+	 */
+	public Deduplicator(int windowSize, long expectedEvents, double falsePositiveRate, Predicate<? super EventId> fallback) {
+		if (windowSize < 1) throw new IllegalArgumentException("Window size must be positive");
+		EventId.requireConfiguredNode();
+		this.filter = new ScalableBloomFilter(expectedEvents, falsePositiveRate);
+		this.fallback = Objects.requireNonNull(fallback);
+		this.window = new EventId[windowSize];
+		this.windowSet = new HashSet<>(windowSize * 4 / 3 + 1);
+	}
+
+	/**
+	 * @param eventId the identifier of a received event
+	 * @return whether the event was already seen
+	 */
+	public boolean isDuplicate(EventId eventId) {
+		int state;
+		synchronized (this) {
+			state = check(eventId);
+		}
+		return state == UNKNOWN ? fallback.test(eventId) : state == DUPLICATE;
+	}
+
+	/**
+	 * Records an event as seen, once it has been handled
+	 * @param eventId the identifier of the event
+	 */
+	public synchronized void markSeen(EventId eventId) {
+		filter.put(eventId.hash64());
+		if (!windowSet.add(eventId)) return;
+		EventId evicted = window[next];
+		if (evicted != null) {
+			windowSet.remove(evicted);
+		}
+		window[next] = eventId;
+		next = next + 1 == window.length ? 0 : next + 1;
+	}
+
+	/**
+	 * Records an event as seen unless it is a duplicate
+	 * @param eventId the identifier of a received event
+	 * @return whether the event is new
+	 */
+	public boolean markIfNew(EventId eventId) {
+		if (!claim(eventId)) return false;
+		release(eventId, true);
+		return true;
+	}
+
+	/**
+	 * Wraps a handler so that it ignores duplicated events. An event is
+	 * claimed before it is handled, so a copy delivered concurrently to
+	 * another thread is ignored, and only recorded as seen once the handler
+	 * returns. If the handler fails the claim is released, so the event is
+	 * handled again when redelivered
+	 * @param handler the handler of the events
+	 * @param <E> the type of the events
+	 * @return the idempotent handler
+	 */
+	public <E extends DomainEvent<?>> Consumer<E> idempotent(Consumer<? super E> handler) {
+		Objects.requireNonNull(handler);
+		return event -> {
+			EventId eventId = event.getEventId();
+			if (!claim(eventId)) return;
+			boolean handled = false;
+			try {
+				handler.accept(event);
+				handled = true;
+			} finally {
+				release(eventId, handled);
+			}
+		};
+	}
+
+	/**
+	 * Claims an event unless it is a duplicate or already claimed. The claim
+	 * is taken before the fallback is asked, outside of the lock, so that
+	 * another thread receiving the same event meanwhile ignores it
+	 */
+	private boolean claim(EventId eventId) {
+		synchronized (this) {
+			if (inFlight.contains(eventId)) return false;
+			int state = check(eventId);
+			if (state == DUPLICATE) return false;
+			inFlight.add(eventId);
+			if (state == NEW) return true;
+		}
+		boolean duplicate = true;
+		try {
+			duplicate = fallback.test(eventId);
+		} finally {
+			if (duplicate) {
+				synchronized (this) {
+					inFlight.remove(eventId);
+				}
+			}
+		}
+		return !duplicate;
+	}
+
+	private synchronized void release(EventId eventId, boolean handled) {
+		inFlight.remove(eventId);
+		if (handled) {
+			markSeen(eventId);
+		}
+	}
+
+	/**
+	 * Checks an event against the filter and the window, with the lock held
+	 * @return {@link #NEW}, {@link #DUPLICATE}, or {@link #UNKNOWN} if the fallback must be asked
+	 */
+	private int check(EventId eventId) {
+		checkCount++;
+		if (!filter.mightContain(eventId.hash64())) {
+			negativeCount++;
+			return NEW;
+		}
+		if (windowSet.contains(eventId)) {
+			windowHitCount++;
+			return DUPLICATE;
+		}
+		fallbackCount++;
+		return UNKNOWN;
+	}
+
+	/* ------------------------ Statistics ------------------------ */
+
+	/**
+	 * @return the number of events checked
+	 */
+	public synchronized long checkCount() {
+		return checkCount;
+	}
+
+	/**
+	 * @return the number of events found new by the filter alone
+	 */
+	public synchronized long negativeCount() {
+		return negativeCount;
+	}
+
+	/**
+	 * @return the number of duplicates found in the window
+	 */
+	public synchronized long windowHitCount() {
+		return windowHitCount;
+	}
+
+	/**
+	 * @return the number of events the fallback was asked about
+	 */
+	public synchronized long fallbackCount() {
+		return fallbackCount;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "Deduplicator[checks=" + checkCount + ", negatives=" + negativeCount + ", windowHits=" + windowHitCount
+				+ ", fallbacks=" + fallbackCount + ", " + filter + "]";
+	}
+}
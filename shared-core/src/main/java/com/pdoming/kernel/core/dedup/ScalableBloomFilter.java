@@ -0,0 +1,169 @@
+package com.pdoming.kernel.core.dedup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bloom filter that grows with the number of its elements while keeping
+ * its false positive rate bounded, after Almeida et al., "Scalable Bloom Filters".
+ *
+ * The filter is a series of plain Bloom filters, the stages. Elements are
+ * added to the last stage until it reaches its capacity, then a new stage
+ * is appended, twice as large and with half the false positive rate, so
+ * the rate of the whole series stays below the given one however many
+ * elements are added. A lookup tests the stages from the newest, which
+ * holds the most recent elements. There are no false negatives.
+ *
+ * Elements are given as well mixed 64-bit hashes, from which the bits of
+ * every stage are derived by double hashing, mapped to the bits of the stage
+ * with a multiplication instead of a division. Not thread safe.
+ */
+public final class ScalableBloomFilter {
+
+	private static final double LN2 = Math.log(2);
+	private static final int GROWTH_FACTOR = 2;
+	private static final double TIGHTENING_RATIO = 0.5;
+	private static final long MAX_STAGE_BITS = 1L << 37;
+
+	private final double falsePositiveRate;
+	private final List<Stage> stages = new ArrayList<>();
+	private Stage current;
+	private long size;
+
+	/**
+	 * Creates a new {@link ScalableBloomFilter}
+	 * @param initialCapacity the number of elements of the first stage
+	 * @param falsePositiveRate the bound of the false positive rate, within (0, 1)
+	 */
+	public ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+		if (initialCapacity < 1) throw new IllegalArgumentException("Initial capacity must be positive");
+		if (!(falsePositiveRate > 0 && falsePositiveRate < 1))
+			throw new IllegalArgumentException("False positive rate must be within (0, 1)");
+		this.falsePositiveRate = falsePositiveRate;
+		// The rates of the stages are a geometric series that adds up to the given one
+		this.current = new Stage(initialCapacity, falsePositiveRate * (1 - TIGHTENING_RATIO));
+		stages.add(current);
+	}
+
+	/**
+	 * @param hash the 64-bit hash of an element
+	 * @return false if the element was never added, true if it probably was
+	 */
+	public boolean mightContain(long hash) {
+		long step = step(hash);
+		for (int i = stages.size() - 1; i >= 0; i--) {
+			if (stages.get(i).mightContain(hash, step)) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Adds an element
+	 * @param hash the 64-bit hash of the element
+	 * @return whether the element was added, false if it probably was already
+	 */
+	public boolean put(long hash) {
+		if (mightContain(hash)) return false;
+		if (current.count == current.capacity) {
+			current = new Stage(current.capacity * GROWTH_FACTOR, current.falsePositiveRate * TIGHTENING_RATIO);
+			stages.add(current);
+		}
+		current.put(hash, step(hash));
+		size++;
+		return true;
+	}
+
+	/**
+	 * @return the number of elements added
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of stages
+	 */
+	public int stageCount() {
+		return stages.size();
+	}
+
+	/**
+	 * @return the number of bits of all the stages
+	 */
+	public long bitSize() {
+		long bits = 0;
+		for (Stage stage : stages) {
+			bits += stage.bits;
+		}
+		return bits;
+	}
+
+	/**
+	 * @return the bound of the false positive rate
+	 */
+	public double falsePositiveRate() {
+		return falsePositiveRate;
+	}
+
+	@Override
+	public String toString() {
+		return "ScalableBloomFilter[size=" + size + ", stages=" + stages.size() + ", bits=" + bitSize() + "]";
+	}
+
+	/* ------------------------ Internals ------------------------ */
+
+	/**
+	 * @return the odd increment of the double hashing, derived from the other half of the hash
+	 */
+	private static long step(long hash) {
+		return (Long.rotateLeft(hash, 32) * 0x9E3779B97F4A7C15L) | 1;
+	}
+
+	/**
+	 * Plain Bloom filter sized for a capacity and a false positive rate
+	 */
+	private static final class Stage {
+
+		private final long capacity;
+		private final double falsePositiveRate;
+		private final long[] words;
+		private final long bits;
+		private final int hashes;
+		private long count;
+
+		private Stage(long capacity, double falsePositiveRate) {
+			this.capacity = capacity;
+			this.falsePositiveRate = falsePositiveRate;
+			double optimalBits = Math.ceil(capacity * -Math.log(falsePositiveRate) / (LN2 * LN2));
+			if (optimalBits > MAX_STAGE_BITS) throw new IllegalStateException("Bloom filter stage of " + capacity + " elements is too large");
+			this.words = new long[(int) Math.max(1, ((long) optimalBits + 63) >>> 6)];
+			this.bits = (long) words.length << 6;
+			this.hashes = Math.max(1, (int) Math.ceil(-Math.log(falsePositiveRate) / LN2));
+		}
+
+		private boolean mightContain(long hash, long step) {
+			long index = hash;
+			for (int i = 0; i < hashes; i++, index += step) {
+				long bit = bitOf(index);
+				if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+			}
+			return true;
+		}
+
+		private void put(long hash, long step) {
+			long index = hash;
+			for (int i = 0; i < hashes; i++, index += step) {
+				long bit = bitOf(index);
+				words[(int) (bit >>> 6)] |= 1L << bit;
+			}
+			count++;
+		}
+
+		/**
+		 * Maps a hash to [0, bits), as {@code (hash / 2^63) * bits}
+		 */
+		private long bitOf(long hash) {
+			return Math.multiplyHigh(hash & Long.MAX_VALUE, bits << 1);
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package com.pdoming.kernel.core.eventstore;
+
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.ddd.Identifiable;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Translates {@link DomainEvent}s from and to the binary records kept by
+ * a {@link MappedEventStore}.
+ *
+ * Implementations write straight into the (memory-mapped) target buffer,
+ * starting at its current position, so no intermediate copy of the record
+ * is made for a single event. Batches are written to a staging buffer first,
+ * so that they are appended all or none. When the event does not fit in the remaining space they must
+ * let the {@link BufferOverflowException} propagate; the store will then roll
+ * over to a new segment and retry.
+ *
+ * @param <ID> the type of the source identifier of the events
+ */
+public interface EventSerializer<ID extends Identifiable> {
+
+	/**
+	 * Writes the identifier of the aggregate that emitted an event
+	 * @param sourceId a non null identifier
+	 * @param target the buffer to write to
+	 * @throws BufferOverflowException if there is not enough space left
+	 */
+	void writeSourceId(ID sourceId, ByteBuffer target) throws BufferOverflowException;
+
+	/**
+	 * Reads an identifier previously written by {@link #writeSourceId(Identifiable, ByteBuffer)}
+	 * @param source the buffer to read from
+	 * @return the identifier
+	 */
+	ID readSourceId(ByteBuffer source);
+
+	/**
+	 * Writes the body of an event, its source identifier excluded
+	 * @param event a non null event
+	 * @param target the buffer to write to
+	 * @throws BufferOverflowException if there is not enough space left
+	 */
+	void writeEvent(DomainEvent<ID> event, ByteBuffer target) throws BufferOverflowException;
+
+	/**
+	 * Reads an event previously written by {@link #writeEvent(DomainEvent, ByteBuffer)}
+	 * @param sourceId the already decoded identifier of the source aggregate
+	 * @param source the buffer to read from, limited to the event record
+	 * @return the event
+	 */
+	DomainEvent<ID> readEvent(ID sourceId, ByteBuffer source);
+}
@@ -0,0 +1,44 @@
+package com.pdoming.kernel.core.eventstore;
+
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.ddd.Identifiable;
+
+/**
+ * Log of {@link DomainEvent}s that can be read sequentially from a position,
+ * such as a {@link MappedEventStore}.
+ *
+ * @param <ID> the type of the source identifier of the events
+ */
+public interface EventSource<ID extends Identifiable> {
+
+	/**
+	 * Reads the events from the given position up to the end of the log, as
+	 * it is when the scan starts, in the order they were appended
+	 * @param fromPosition 0, or a position returned by a previous scan
+	 * @param visitor receives every event with its position, and returns
+	 *                whether the scan must go on
+	 * @return the position right after the last event visited, where a later
+	 *         scan must start to read the following events
+	 */
+	long scan(long fromPosition, Visitor<ID> visitor);
+
+	/**
+	 * @return the position right after the last event of the log
+	 */
+	long position();
+
+	/**
+	 * Receives the events read by a scan
+	 * @param <ID> the type of the source identifier of the events
+	 */
+	@FunctionalInterface
+	interface Visitor<ID extends Identifiable> {
+
+		/**
+		 * @param position the position of the event in the log
+		 * @param event the event
+		 * @return whether the scan must go on
+		 */
+		boolean visit(long position, DomainEvent<ID> event);
+	}
+}
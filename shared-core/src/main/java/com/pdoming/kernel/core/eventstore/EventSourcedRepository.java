@@ -0,0 +1,158 @@
+package com.pdoming.kernel.core.eventstore;
+
+import com.pdoming.kernel.core.ddd.AggregateRoot;
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.ddd.Identifiable;
+import com.pdoming.kernel.core.ddd.Repository;
+import com.pdoming.kernel.core.ddd.Snapshot;
+import com.pdoming.kernel.core.ddd.StaleAggregateException;
+import com.pdoming.kernel.core.util.IteratorPublisher;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+/**
+ * {@link Repository} of event-sourced aggregates backed by a {@link MappedEventStore}.
+ *
+ * Aggregates are rehydrated by creating an empty instance through the given
+ * factory and replaying on it the events stored for its identifier. When
+ * the repository is given a source of {@link Snapshot}s, an aggregate with a
+ * snapshot is restored from it instead, and only the events stored after
+ * the snapshot are replayed, so loading it costs the same regardless of the
+ * length of its history.
+ *
+ * @param <AGG> the type of the aggregate
+ * @param <ID> the type of the identifier of the aggregate
+ */
+public class EventSourcedRepository<AGG extends AggregateRoot<ID>, ID extends Identifiable> implements Repository<AGG, ID> {
+
+	private final MappedEventStore<ID> store;
+	private final Function<ID, AGG> factory;
+	private final Function<? super ID, ? extends Snapshot> snapshots;
+
+	/**
+	 * Creates a new {@link EventSourcedRepository}
+	 * @param store the store holding the events of the aggregates
+	 * @param factory creates an aggregate, without history, for a given identifier
+	 */
+	public EventSourcedRepository(MappedEventStore<ID> store, Function<ID, AGG> factory) {
+		this(store, factory, null);
+	}
+
+	/**
+	 * Creates a new {@link EventSourcedRepository} that loads the aggregates
+	 * from their snapshots
+	 * @param store the store holding the events of the aggregates
+	 * @param factory creates an aggregate, without history, for a given identifier
+	 * @param snapshots returns the latest snapshot of an aggregate, or null.
+	 *                  Snapshots ahead of the store are ignored
+	 */
+	public EventSourcedRepository(MappedEventStore<ID> store,
+	                              Function<ID, AGG> factory,
+	                              Function<? super ID, ? extends Snapshot> snapshots) {
+		this.store = Objects.requireNonNull(store);
+		this.factory = Objects.requireNonNull(factory);
+		this.snapshots = snapshots;
+	}
+
+	@Override
+	public Optional<AGG> findById(ID id) {
+		if (snapshots != null) {
+			return store.count(Objects.requireNonNull(id)) == 0 ? Optional.empty() : Optional.of(load(id));
+		}
+		List<DomainEvent<ID>> history = store.read(id);
+		if (history.isEmpty()) {
+			return Optional.empty();
+		}
+		return Optional.of(rehydrate(id, history));
+	}
+
+	/**
+	 * Reads the histories of all the aggregates in a single pass over the
+	 * store, or loads every aggregate from its snapshot
+	 */
+	@Override
+	public Map<ID, AGG> findAllById(Collection<? extends ID> ids) {
+		if (snapshots != null) {
+			Map<ID, AGG> found = new HashMap<>();
+			for (ID id : ids) {
+				if (store.count(Objects.requireNonNull(id)) > 0 && !found.containsKey(id)) {
+					found.put(id, load(id));
+				}
+			}
+			return found;
+		}
+		Map<ID, List<DomainEvent<ID>>> histories = store.readAll(ids);
+		Map<ID, AGG> found = new HashMap<>(histories.size() * 4 / 3 + 1);
+		histories.forEach((id, history) -> found.put(id, rehydrate(id, history)));
+		return found;
+	}
+
+	/**
+	 * Streams the aggregates with stored events. Each aggregate is rehydrated
+	 * when the subscriber requests it, in the thread requesting it
+	 */
+	@Override
+	public Flow.Publisher<AGG> findAll() {
+		return new IteratorPublisher<>(() -> {
+			Iterator<ID> ids = store.sourceIds().iterator();
+			return new Iterator<AGG>() {
+				@Override
+				public boolean hasNext() {
+					return ids.hasNext();
+				}
+
+				@Override
+				public AGG next() {
+					return load(ids.next());
+				}
+			};
+		});
+	}
+
+	/**
+	 * Appends the uncommitted events of the aggregate to the store as a
+	 * single batch, provided no event of the aggregate was stored since it
+	 * was loaded, and marks them as committed. To save several aggregates at
+	 * once, use a {@link com.pdoming.kernel.core.ddd.UnitOfWork} writing to
+	 * the store through {@link MappedEventStore#appendChanges(List)} instead
+	 * @param aggregate the aggregate to save
+	 * @throws StaleAggregateException if the stored version of the aggregate
+	 *                                 is not its committed version
+	 */
+	@Override
+	public void save(AGG aggregate) {
+		Objects.requireNonNull(aggregate);
+		if (!aggregate.hasUncommittedEvents()) return;
+		ID id = aggregate.id();
+		long expectedVersion = aggregate.committedVersion();
+		if (!store.appendAll(id, expectedVersion, aggregate.uncommittedEvents())) {
+			throw new StaleAggregateException(id, expectedVersion, store.count(id));
+		}
+		aggregate.markEventsCommitted();
+	}
+
+	private AGG load(ID id) {
+		Snapshot snapshot = snapshots != null ? snapshots.apply(id) : null;
+		// A snapshot taken from another store may be ahead of this one
+		if (snapshot == null || snapshot.version() > store.count(id)) {
+			return rehydrate(id, store.read(id));
+		}
+		AGG aggregate = factory.apply(id);
+		aggregate.replay(snapshot, store.read(id, snapshot.version()));
+		return aggregate;
+	}
+
+	private AGG rehydrate(ID id, List<DomainEvent<ID>> history) {
+		AGG aggregate = factory.apply(id);
+		aggregate.replay(history);
+		return aggregate;
+	}
+}
@@ -0,0 +1,688 @@
+package com.pdoming.kernel.core.eventstore;
+
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.ddd.Identifiable;
+import com.pdoming.kernel.core.ddd.StaleAggregateException;
+import com.pdoming.kernel.core.ddd.UnitOfWork;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only log of {@link DomainEvent}s stored in segmented,
+ * memory-mapped files.
+ *
+ * Events are written sequentially, straight into the mapped segments, by a
+ * single writer at a time. A batch is appended all or none: its events are
+ * first serialized into a staging buffer, so an event that cannot be
+ * serialized leaves the log untouched. An in-memory index keeps the position of the
+ * events of every source aggregate, so reading the history of an aggregate
+ * only touches its own records. The index is rebuilt by scanning the
+ * segments when the store is opened.
+ *
+ * Durability follows a group commit scheme: when several threads append
+ * concurrently, a single {@code fsync} covers the records of all of them.
+ *
+ * A position in the log is a {@code long} that combines the index of the
+ * segment and the offset of the record inside it. The whole log is read in
+ * order with {@link #scan(long, Visitor)}.
+ *
+ * @param <ID> the type of the source identifier of the events
+ */
+public final class MappedEventStore<ID extends Identifiable> implements EventSource<ID>, Closeable {
+
+	public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+	private static final String SEGMENT_SUFFIX = ".log";
+
+	private final Path directory;
+	private final int segmentSize;
+	private final boolean syncOnAppend;
+	private final EventSerializer<ID> serializer;
+
+	private final List<Segment> segments = new CopyOnWriteArrayList<>();
+	private final Map<ID, Offsets> index = new ConcurrentHashMap<>();
+
+	private final Object writeLock = new Object();
+	private final Object syncLock = new Object();
+
+	/* Guarded by writeLock */
+	private final CRC32C crc = new CRC32C();
+	private ByteBuffer writeBuffer;
+	private int activeSegment;
+	private int writeOffset;
+	private ByteBuffer staging = ByteBuffer.allocate(4096);
+	private int[] stagedEnds = new int[16];
+
+	private volatile long writePosition;
+	private volatile long syncedPosition;
+	private volatile boolean closed;
+
+	private MappedEventStore(Path directory, int segmentSize, boolean syncOnAppend, EventSerializer<ID> serializer) {
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.syncOnAppend = syncOnAppend;
+		this.serializer = serializer;
+	}
+
+	/* ------------------------ Static constructors ------------------------ */
+
+	/**
+	 * Opens the store kept in the given directory, creating it if needed, with
+	 * the default segment size and flushing every append to disk
+	 * @param directory the directory holding the segments
+	 * @param serializer the serializer of the events
+	 * @param <ID> the type of the source identifier of the events
+	 * @return an open store
+	 */
+	public static <ID extends Identifiable> MappedEventStore<ID> open(Path directory, EventSerializer<ID> serializer) {
+		return open(directory, DEFAULT_SEGMENT_SIZE, true, serializer);
+	}
+
+	/**
+	 * Opens the store kept in the given directory, creating it if needed.
+	 * When the directory already holds segments, their size prevails over
+	 * the given {@code segmentSize}
+	 * @param directory the directory holding the segments
+	 * @param segmentSize the size in bytes of new segments
+	 * @param syncOnAppend whether appends wait for their records to reach the disk
+	 * @param serializer the serializer of the events
+	 * @param <ID> the type of the source identifier of the events
+	 * @return an open store
+	 */
+	public static <ID extends Identifiable> MappedEventStore<ID> open(Path directory,
+	                                                                   int segmentSize,
+	                                                                   boolean syncOnAppend,
+	                                                                   EventSerializer<ID> serializer) {
+		Objects.requireNonNull(directory);
+		Objects.requireNonNull(serializer);
+		if (segmentSize < 4096)
+			throw new IllegalArgumentException("Segment size must be at least 4096 bytes");
+
+		try {
+			Files.createDirectories(directory);
+			List<Path> files;
+			try (Stream<Path> listing = Files.list(directory)) {
+				files = listing.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+						.sorted()
+						.collect(Collectors.toList());
+			}
+			int size = files.isEmpty() ? segmentSize : Math.toIntExact(Files.size(files.get(0)));
+			MappedEventStore<ID> store = new MappedEventStore<>(directory, size, syncOnAppend, serializer);
+			store.recover(files);
+			return store;
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Cannot open event store at " + directory, ex);
+		}
+	}
+
+	/* ------------------------ Writes ------------------------ */
+
+	/**
+	 * Appends an event to the log
+	 * @param event a non null event
+	 * @return the position of the event in the log
+	 */
+	public long append(DomainEvent<ID> event) {
+		Objects.requireNonNull(event);
+		long position, end;
+		synchronized (writeLock) {
+			ensureOpen();
+			position = write(event);
+			end = writePosition;
+		}
+		if (syncOnAppend) {
+			awaitDurable(end);
+		}
+		return position;
+	}
+
+	/**
+	 * Appends a batch of events to the log as a single sequential write,
+	 * flushed to disk at most once. If an event cannot be serialized nothing
+	 * is appended
+	 * @param events the events to append, in order
+	 */
+	public void appendAll(Collection<? extends DomainEvent<ID>> events) {
+		Objects.requireNonNull(events);
+		if (events.isEmpty()) return;
+		long end;
+		synchronized (writeLock) {
+			ensureOpen();
+			writeStaged(events, stage(events));
+			end = writePosition;
+		}
+		if (syncOnAppend) {
+			awaitDurable(end);
+		}
+	}
+
+	/**
+	 * Appends a batch of events of a single aggregate, like
+	 * {@link #appendAll(Collection)}, provided the aggregate has exactly the
+	 * expected number of events stored
+	 * @param sourceId the identifier of the aggregate
+	 * @param expectedVersion the number of events of the aggregate expected to be stored
+	 * @param events the events to append, in order, all emitted by the aggregate
+	 * @return whether the events were appended, false if the aggregate has
+	 *         another number of events, in which case nothing is appended
+	 */
+	public boolean appendAll(ID sourceId, long expectedVersion, Collection<? extends DomainEvent<ID>> events) {
+		Objects.requireNonNull(sourceId);
+		Objects.requireNonNull(events);
+		for (DomainEvent<ID> event : events) {
+			if (!sourceId.equals(event.getSourceId()))
+				throw new IllegalArgumentException("Event " + event + " was not emitted by aggregate " + sourceId);
+		}
+		long end;
+		synchronized (writeLock) {
+			ensureOpen();
+			// Only writers update the index, so the count cannot change until the lock is released
+			if (count(sourceId) != expectedVersion) return false;
+			writeStaged(events, stage(events));
+			end = writePosition;
+		}
+		if (syncOnAppend) {
+			awaitDurable(end);
+		}
+		return true;
+	}
+
+	/**
+	 * Appends the new events of several aggregates as a single batch, like
+	 * {@link #appendAll(Collection)}, provided every aggregate has exactly
+	 * the expected number of events stored. Meant as the {@link UnitOfWork.Writer}
+	 * of a unit of work
+	 * @param changes the new events of every aggregate, all emitted by it
+	 * @throws StaleAggregateException if an aggregate has another number of
+	 *                                 events, in which case nothing is appended
+	 */
+	public void appendChanges(List<? extends UnitOfWork.Changes<ID>> changes) {
+		Objects.requireNonNull(changes);
+		List<DomainEvent<ID>> events = new ArrayList<>();
+		for (UnitOfWork.Changes<ID> change : changes) {
+			for (DomainEvent<ID> event : change.events()) {
+				if (!change.aggregateId().equals(event.getSourceId()))
+					throw new IllegalArgumentException("Event " + event + " was not emitted by aggregate " + change.aggregateId());
+				events.add(event);
+			}
+		}
+		if (events.isEmpty()) return;
+		long end;
+		synchronized (writeLock) {
+			ensureOpen();
+			// Two instances of the same aggregate conflict, as if saved one after the other
+			Map<ID, Integer> pending = new HashMap<>();
+			for (UnitOfWork.Changes<ID> change : changes) {
+				ID id = change.aggregateId();
+				int stored = count(id) + pending.getOrDefault(id, 0);
+				if (stored != change.expectedVersion())
+					throw new StaleAggregateException(id, change.expectedVersion(), stored);
+				pending.merge(id, change.events().size(), Integer::sum);
+			}
+			writeStaged(events, stage(events));
+			end = writePosition;
+		}
+		if (syncOnAppend) {
+			awaitDurable(end);
+		}
+	}
+
+	/**
+	 * Flushes to disk every record appended so far
+	 */
+	public void sync() {
+		awaitDurable(writePosition);
+	}
+
+	/* ------------------------ Reads ------------------------ */
+
+	/**
+	 * Reads the events of a source aggregate in the order they were appended
+	 * @param sourceId the identifier of the aggregate
+	 * @return the history of the aggregate, empty if it is unknown
+	 */
+	public List<DomainEvent<ID>> read(ID sourceId) {
+		Objects.requireNonNull(sourceId);
+		Offsets offsets = index.get(sourceId);
+		if (offsets == null) {
+			return Collections.emptyList();
+		}
+		return read(sourceId, offsets, 0, new ByteBuffer[segments.size()]);
+	}
+
+	/**
+	 * Reads the events of a source aggregate after the given number of its
+	 * events, for instance those following a {@link com.pdoming.kernel.core.ddd.Snapshot}
+	 * @param sourceId the identifier of the aggregate
+	 * @param fromVersion the number of events of the aggregate to skip
+	 * @return the events of the aggregate after the first {@code fromVersion},
+	 *         in the order they were appended, empty if there are no more
+	 */
+	public List<DomainEvent<ID>> read(ID sourceId, long fromVersion) {
+		Objects.requireNonNull(sourceId);
+		if (fromVersion < 0) throw new IllegalArgumentException("Negative version " + fromVersion);
+		Offsets offsets = index.get(sourceId);
+		if (offsets == null || fromVersion >= offsets.size) {
+			return Collections.emptyList();
+		}
+		return read(sourceId, offsets, (int) fromVersion, new ByteBuffer[segments.size()]);
+	}
+
+	/**
+	 * Reads the events of several source aggregates at once, reusing the views
+	 * of the segments among aggregates
+	 * @param sourceIds the identifiers of the aggregates
+	 * @return the history of every known aggregate, in the order its events
+	 *         were appended, without the unknown identifiers
+	 */
+	public Map<ID, List<DomainEvent<ID>>> readAll(Collection<? extends ID> sourceIds) {
+		Objects.requireNonNull(sourceIds);
+		Map<ID, List<DomainEvent<ID>>> histories = new HashMap<>();
+		ByteBuffer[] views = new ByteBuffer[segments.size()];
+		for (ID sourceId : sourceIds) {
+			Offsets offsets = index.get(Objects.requireNonNull(sourceId));
+			if (offsets != null && !histories.containsKey(sourceId)) {
+				histories.put(sourceId, read(sourceId, offsets, 0, views));
+			}
+		}
+		return histories;
+	}
+
+	/**
+	 * @return a read-only view of the identifiers of the aggregates with
+	 *         stored events. Its iterators are weakly consistent and may
+	 *         reflect the aggregates appended while iterating
+	 */
+	public Set<ID> sourceIds() {
+		return Collections.unmodifiableSet(index.keySet());
+	}
+
+	/**
+	 * @param sourceId the identifier of an aggregate
+	 * @return the number of events stored for the aggregate
+	 */
+	public int count(ID sourceId) {
+		Offsets offsets = index.get(Objects.requireNonNull(sourceId));
+		return offsets == null ? 0 : offsets.size;
+	}
+
+	@Override
+	public long scan(long fromPosition, Visitor<ID> visitor) {
+		Objects.requireNonNull(visitor);
+		return scanRecords(fromPosition, (position, record) ->
+				visitor.visit(position, serializer.readEvent(serializer.readSourceId(record), record)));
+	}
+
+	/**
+	 * Reads the raw records from the given position up to the end of the log,
+	 * like {@link #scan(long, Visitor)} but without decoding them, so that
+	 * consumers can look at a record, e.g. through an
+	 * {@link com.pdoming.kernel.core.codec.EventView}, before paying for its event
+	 * @param fromPosition 0, or a position returned by a previous scan
+	 * @param visitor receives every record with its position, and returns
+	 *                whether the scan must go on
+	 * @return the position right after the last record visited
+	 */
+	public long scanRecords(long fromPosition, RecordVisitor visitor) {
+		Objects.requireNonNull(visitor);
+		if (fromPosition < 0) throw new IllegalArgumentException("Negative position " + fromPosition);
+		long end = writePosition;
+		long position = fromPosition;
+		ByteBuffer view = null;
+		int viewSegment = -1;
+		while (position < end) {
+			int segment = segmentOf(position);
+			int offset = offsetOf(position);
+			if (segment != viewSegment) {
+				view = segments.get(segment).view();
+				viewSegment = segment;
+			}
+			view.limit(segmentSize);
+			int length = offset + Segment.HEADER_SIZE <= segmentSize ? view.getInt(offset) : 0;
+			if (length <= 0) {
+				// The rest of the segment was left empty, records go on in the next one
+				position = (long) (segment + 1) * segmentSize;
+				continue;
+			}
+			long next = position + Segment.HEADER_SIZE + length;
+			int payload = offset + Segment.HEADER_SIZE;
+			view.limit(payload + length).position(payload);
+			if (!visitor.visit(position, view)) {
+				return next;
+			}
+			position = next;
+		}
+		return position;
+	}
+
+	/**
+	 * @return the position right after the last appended record
+	 */
+	@Override
+	public long position() {
+		return writePosition;
+	}
+
+	@Override
+	public void close() {
+		synchronized (writeLock) {
+			if (closed) return;
+			closed = true;
+		}
+		sync();
+		segments.forEach(Segment::close);
+	}
+
+	/* ------------------------ Internals ------------------------ */
+
+	private long write(DomainEvent<ID> event) {
+		if (writeOffset + Segment.HEADER_SIZE > segmentSize) {
+			roll();
+		}
+		try {
+			return writeAt(event);
+		} catch (BufferOverflowException ex) {
+			if (writeOffset == 0)
+				throw new IllegalArgumentException("Event does not fit in a segment of " + segmentSize + " bytes", ex);
+			roll();
+			try {
+				return writeAt(event);
+			} catch (BufferOverflowException tooLarge) {
+				throw new IllegalArgumentException("Event does not fit in a segment of " + segmentSize + " bytes", tooLarge);
+			}
+		}
+	}
+
+	private long writeAt(DomainEvent<ID> event) {
+		ByteBuffer buffer = writeBuffer;
+		int offset = writeOffset;
+		int payload = offset + Segment.HEADER_SIZE;
+		buffer.limit(segmentSize).position(payload);
+		try {
+			serializer.writeSourceId(event.getSourceId(), buffer);
+			serializer.writeEvent(event, buffer);
+		} catch (RuntimeException ex) {
+			// Leave no partial record behind, so recovery never mistakes it for a real one
+			for (int i = payload, end = buffer.position(); i < end; i++) {
+				buffer.put(i, (byte) 0);
+			}
+			throw ex;
+		}
+
+		int end = buffer.position();
+		crc.reset();
+		buffer.limit(end).position(payload);
+		crc.update(buffer);
+		buffer.putInt(offset + 4, (int) crc.getValue());
+		// The length goes last: a record is not visible until it is complete
+		buffer.putInt(offset, end - payload);
+		return advance(event.getSourceId(), offset, end);
+	}
+
+	/**
+	 * Serializes a batch of events into the staging buffer, one record after
+	 * the other, without touching the log
+	 * @return the number of records staged
+	 */
+	private int stage(Collection<? extends DomainEvent<ID>> events) {
+		int maxRecord = segmentSize - Segment.HEADER_SIZE;
+		ByteBuffer buffer = staging.clear();
+		int count = 0;
+		for (DomainEvent<ID> event : events) {
+			Objects.requireNonNull(event);
+			int start = buffer.position();
+			while (true) {
+				try {
+					serializer.writeSourceId(event.getSourceId(), buffer);
+					serializer.writeEvent(event, buffer);
+					break;
+				} catch (BufferOverflowException ex) {
+					if (buffer.capacity() - start >= maxRecord)
+						throw new IllegalArgumentException("Event does not fit in a segment of " + segmentSize + " bytes", ex);
+					staging = buffer = grow(buffer, start);
+				}
+			}
+			if (buffer.position() - start > maxRecord)
+				throw new IllegalArgumentException("Event does not fit in a segment of " + segmentSize + " bytes");
+			if (count == stagedEnds.length) {
+				stagedEnds = Arrays.copyOf(stagedEnds, count << 1);
+			}
+			stagedEnds[count++] = buffer.position();
+		}
+		return count;
+	}
+
+	/**
+	 * Copies the staged records to the log. Every record fits in a segment,
+	 * so this cannot fail halfway because of an event
+	 */
+	private void writeStaged(Collection<? extends DomainEvent<ID>> events, int count) {
+		ByteBuffer records = staging;
+		Iterator<? extends DomainEvent<ID>> iterator = events.iterator();
+		int start = 0;
+		for (int i = 0; i < count; i++) {
+			int end = stagedEnds[i];
+			records.limit(end).position(start);
+			writeRecord(iterator.next().getSourceId(), records);
+			start = end;
+		}
+	}
+
+	private void writeRecord(ID sourceId, ByteBuffer record) {
+		int length = record.remaining();
+		if (writeOffset + Segment.HEADER_SIZE + length > segmentSize) {
+			roll();
+		}
+		ByteBuffer buffer = writeBuffer;
+		int offset = writeOffset;
+		int payload = offset + Segment.HEADER_SIZE;
+		crc.reset();
+		crc.update(record.duplicate());
+		buffer.limit(segmentSize).position(payload);
+		buffer.put(record);
+		buffer.putInt(offset + 4, (int) crc.getValue());
+		buffer.putInt(offset, length);
+		advance(sourceId, offset, payload + length);
+	}
+
+	/**
+	 * Moves the write position past a record just written and indexes it
+	 * @return the position of the record
+	 */
+	private long advance(ID sourceId, int offset, int end) {
+		long position = (long) activeSegment * segmentSize + offset;
+		writeOffset = end;
+		writePosition = position + (end - offset);
+		index.computeIfAbsent(sourceId, id -> new Offsets()).add(position);
+		return position;
+	}
+
+	private static ByteBuffer grow(ByteBuffer buffer, int length) {
+		ByteBuffer grown = ByteBuffer.allocate((int) Math.min((long) buffer.capacity() << 1, Integer.MAX_VALUE - 8));
+		buffer.limit(length).position(0);
+		return grown.put(buffer);
+	}
+
+	private void roll() {
+		int next = activeSegment + 1;
+		Segment segment = Segment.open(segmentPath(next), segmentSize);
+		segments.add(segment);
+		activeSegment = next;
+		writeOffset = 0;
+		writeBuffer = segment.view();
+		writePosition = (long) next * segmentSize;
+	}
+
+	/**
+	 * Flushes to disk the records up to {@code position}. The thread that gets
+	 * the lock flushes every record written so far, so threads waiting behind it
+	 * usually find their records already durable
+	 */
+	private void awaitDurable(long position) {
+		if (syncedPosition >= position) return;
+		synchronized (syncLock) {
+			long from = syncedPosition;
+			if (from >= position) return;
+			long to = writePosition;
+			int first = segmentOf(from), last = segmentOf(to - 1);
+			for (int i = first; i <= last; i++) {
+				int start = i == first ? offsetOf(from) : 0;
+				int end = i == last ? offsetOf(to - 1) + 1 : segmentSize;
+				segments.get(i).force(start, end - start);
+			}
+			syncedPosition = to;
+		}
+	}
+
+	private void recover(List<Path> files) {
+		for (int i = 0; i < files.size(); i++) {
+			if (!files.get(i).equals(segmentPath(i)))
+				throw new IllegalStateException("Missing segment " + segmentPath(i));
+			segments.add(Segment.open(files.get(i), segmentSize));
+		}
+		if (segments.isEmpty()) {
+			segments.add(Segment.open(segmentPath(0), segmentSize));
+		}
+
+		CRC32C checksum = new CRC32C();
+		int end = 0;
+		for (int i = 0; i < segments.size(); i++) {
+			ByteBuffer view = segments.get(i).view();
+			end = 0;
+			while (end + Segment.HEADER_SIZE <= segmentSize) {
+				int length = view.getInt(end);
+				int payload = end + Segment.HEADER_SIZE;
+				if (length <= 0 || length > segmentSize - payload) break;
+
+				view.limit(payload + length).position(payload);
+				checksum.reset();
+				checksum.update(view);
+				if ((int) checksum.getValue() != view.getInt(end + 4)) break;
+
+				view.position(payload);
+				ID sourceId = serializer.readSourceId(view);
+				index.computeIfAbsent(sourceId, id -> new Offsets()).add((long) i * segmentSize + end);
+				view.limit(segmentSize);
+				end = payload + length;
+			}
+		}
+
+		activeSegment = segments.size() - 1;
+		writeOffset = end;
+		writeBuffer = segments.get(activeSegment).view();
+		writePosition = (long) activeSegment * segmentSize + end;
+		syncedPosition = writePosition;
+	}
+
+	/**
+	 * Reads the records of an aggregate, creating the views of the segments
+	 * it spans that are not in the given cache yet
+	 */
+	private List<DomainEvent<ID>> read(ID sourceId, Offsets offsets, int from, ByteBuffer[] views) {
+		int count = offsets.size;
+		long[] positions = offsets.positions;
+		List<DomainEvent<ID>> history = new ArrayList<>(Math.max(count - from, 0));
+		for (int i = from; i < count; i++) {
+			int segment = segmentOf(positions[i]);
+			// Segments created since the cache was sized are not cached
+			ByteBuffer view = segment < views.length ? views[segment] : null;
+			if (view == null) {
+				view = segments.get(segment).view();
+				if (segment < views.length) views[segment] = view;
+			}
+			history.add(readAt(view, offsetOf(positions[i]), sourceId));
+		}
+		return history;
+	}
+
+	/**
+	 * Reads the event of a record. The source identifier of the record is
+	 * always decoded, to skip it, and the given one is used instead when not null
+	 */
+	private DomainEvent<ID> readAt(ByteBuffer view, int offset, ID sourceId) {
+		int payload = offset + Segment.HEADER_SIZE;
+		view.limit(segmentSize);
+		view.limit(payload + view.getInt(offset)).position(payload);
+		ID decoded = serializer.readSourceId(view);
+		return serializer.readEvent(sourceId != null ? sourceId : decoded, view);
+	}
+
+	private Path segmentPath(int segment) {
+		return directory.resolve(String.format("%020d", segment) + SEGMENT_SUFFIX);
+	}
+
+	private int segmentOf(long position) {
+		return (int) (position / segmentSize);
+	}
+
+	private int offsetOf(long position) {
+		return (int) (position % segmentSize);
+	}
+
+	private void ensureOpen() {
+		if (closed) throw new IllegalStateException("Event store " + directory + " is closed");
+	}
+
+	/**
+	 * Growable list of record positions. It has a single writer, readers
+	 * see a consistent prefix by reading the volatile {@link #size} before
+	 * the array. The array is volatile too and replaced only once filled, so
+	 * a reader seeing a grown array also sees its contents
+	 */
+	private static final class Offsets {
+
+		private volatile long[] positions = new long[4];
+		private volatile int size;
+
+		private void add(long position) {
+			int n = size;
+			long[] current = positions;
+			if (n == current.length) {
+				long[] grown = Arrays.copyOf(current, n << 1);
+				grown[n] = position;
+				positions = grown;
+			} else {
+				current[n] = position;
+			}
+			size = n + 1;
+		}
+	}
+
+	/**
+	 * Receives the raw records read by {@link #scanRecords(long, RecordVisitor)}
+	 */
+	@FunctionalInterface
+	public interface RecordVisitor {
+
+		/**
+		 * @param position the position of the record in the log
+		 * @param record the record, the source identifier followed by the body
+		 *               of the event as written by the {@link EventSerializer},
+		 *               from its position to its limit. The buffer is reused for
+		 *               the following records, so it is only valid during the call
+		 * @return whether the scan must go on
+		 */
+		boolean visit(long position, ByteBuffer record);
+	}
+}
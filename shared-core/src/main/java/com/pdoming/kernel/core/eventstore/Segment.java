@@ -0,0 +1,78 @@
+package com.pdoming.kernel.core.eventstore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A fixed size, memory-mapped file holding a contiguous range of the log
+ * of a {@link MappedEventStore}.
+ *
+ * Every record is laid out as {@code [int length][int crc32c][payload]}. The
+ * file is zero-filled when created, so a zero length marks the end of the
+ * written records.
+ */
+final class Segment {
+
+	static final int HEADER_SIZE = 8;
+
+	private final Path path;
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+
+	private Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+		this.path = path;
+		this.channel = channel;
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Opens, creating it if needed, the segment stored at the given path
+	 * @param path the segment file
+	 * @param size the size of the segment in bytes
+	 * @return the mapped segment
+	 */
+	static Segment open(Path path, int size) {
+		try {
+			FileChannel channel = FileChannel.open(path,
+					StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			return new Segment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Cannot map segment " + path, ex);
+		}
+	}
+
+	/**
+	 * @return a view of the mapped file with its own position and limit
+	 */
+	ByteBuffer view() {
+		return buffer.duplicate();
+	}
+
+	/**
+	 * Flushes to the storage device the changes made to the given range
+	 * @param offset the first byte of the range
+	 * @param length the number of bytes of the range
+	 */
+	void force(int offset, int length) {
+		if (length > 0) {
+			buffer.force(offset, length);
+		}
+	}
+
+	Path path() {
+		return path;
+	}
+
+	void close() {
+		try {
+			channel.close();
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Cannot close segment " + path, ex);
+		}
+	}
+}
@@ -0,0 +1,363 @@
+package com.pdoming.kernel.core.functional;
+
+import com.pdoming.kernel.core.util.MoreExecutors;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * An AsyncResult<T> represents a computation running in the background
+ * that will eventually yield a {@link Result}.
+ *
+ * It is the asynchronous counterpart of {@link Result#capture(Callable)}:
+ * {@link #capture(Callable)} runs the computation on a virtual thread, where
+ * the runtime supports them, so blocking calls such as repository lookups
+ * can overlap instead of blocking the caller. Results are composed with
+ * {@link #map(Function)} and {@link #flatMap(Function)} without blocking.
+ *
+ * An AsyncResult never fails: exceptions thrown by the computation, time
+ * outs and cancellations all end in an error {@link Result}.
+ *
+ * @param <T> the type of the result
+ */
+public final class AsyncResult<T> {
+
+	private static final Result.Error CANCELLED = Result.Error.of("Cancelled");
+
+	private final CompletableFuture<Result<T>> future;
+
+	/**
+	 * Stops the computation behind this result, once it is cancelled
+	 */
+	private final Runnable canceller;
+
+	private AsyncResult(CompletableFuture<Result<T>> future, Runnable canceller) {
+		this.future = future;
+		this.canceller = canceller;
+	}
+
+	/* ------------------------ Static constructors ------------------------ */
+
+	/**
+	 * Runs a computation in a virtual thread, or a pooled thread where they
+	 * are not available, see {@link MoreExecutors#sharedVirtualThreadExecutor()}
+	 * @param callable the computation to perform
+	 * @param <T> the type returned by the {@link Callable}
+	 * @return the eventual result of the computation
+	 */
+	public static <T> AsyncResult<T> capture(Callable<T> callable) {
+		return capture(callable, MoreExecutors.sharedVirtualThreadExecutor());
+	}
+
+	/**
+	 * Runs a computation with the given {@link Executor}
+	 * @param callable the computation to perform
+	 * @param executor the executor that runs the computation
+	 * @param <T> the type returned by the {@link Callable}
+	 * @return the eventual result of the computation
+	 */
+	public static <T> AsyncResult<T> capture(Callable<T> callable, Executor executor) {
+		Objects.requireNonNull(callable);
+		Objects.requireNonNull(executor);
+		CompletableFuture<Result<T>> future = new CompletableFuture<>();
+		FutureTask<Void> task = new FutureTask<>(() -> future.complete(Result.capture(callable)), null);
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException ex) {
+			future.complete(Result.error(ex));
+		}
+		return new AsyncResult<>(future, () -> task.cancel(true));
+	}
+
+	/**
+	 * Create a new {@link AsyncResult} that is already complete
+	 * @param result the result
+	 * @param <T> the type of the result
+	 * @return a complete {@link AsyncResult}
+	 */
+	public static <T> AsyncResult<T> of(Result<T> result) {
+		Objects.requireNonNull(result);
+		return new AsyncResult<>(CompletableFuture.completedFuture(result), () -> {});
+	}
+
+	/**
+	 * Adapts a {@link CompletionStage}, whose exceptional completion becomes
+	 * an error {@link Result}. Cancelling the adapted result cancels the stage
+	 * if it is a {@link Future}
+	 * @param stage the stage to adapt
+	 * @param <T> the type of the value of the stage
+	 * @return the eventual result of the stage
+	 */
+	public static <T> AsyncResult<T> fromStage(CompletionStage<? extends T> stage) {
+		Objects.requireNonNull(stage);
+		CompletableFuture<Result<T>> future = new CompletableFuture<>();
+		stage.whenComplete((value, failure) -> future.complete(failure == null
+				? Result.capture(() -> value)
+				: Result.error(unwrap(failure))));
+		return new AsyncResult<>(future, () -> {
+			if (stage instanceof Future) ((Future<?>) stage).cancel(true);
+		});
+	}
+
+	/* ------------------------ Fan out ------------------------ */
+
+	/**
+	 * Runs a group of computations concurrently, at most {@code parallelism}
+	 * at a time, on the shared virtual thread executor
+	 * @param callables the computations to perform
+	 * @param parallelism the maximum number of computations running at once
+	 * @param <T> the type returned by the computations
+	 * @return the eventual values, in the order of the computations, or the first error that happens
+	 */
+	public static <T> AsyncResult<List<T>> captureAll(Collection<? extends Callable<? extends T>> callables,
+	                                                  int parallelism) {
+		return captureAll(callables, parallelism, MoreExecutors.sharedVirtualThreadExecutor());
+	}
+
+	/**
+	 * Runs a group of computations concurrently, at most {@code parallelism}
+	 * at a time. No new computation starts once one fails or the result is
+	 * cancelled, but those already running are not interrupted
+	 * @param callables the computations to perform
+	 * @param parallelism the maximum number of computations running at once
+	 * @param executor the executor that runs the computations
+	 * @param <T> the type returned by the computations
+	 * @return the eventual values, in the order of the computations, or the first error that happens
+	 */
+	public static <T> AsyncResult<List<T>> captureAll(Collection<? extends Callable<? extends T>> callables,
+	                                                  int parallelism,
+	                                                  Executor executor) {
+		List<? extends Callable<? extends T>> tasks = indexed(callables);
+		return fanOut(tasks.size(), tasks::get, parallelism, executor);
+	}
+
+	/**
+	 * Applies a blocking function to every element of a group concurrently,
+	 * at most {@code parallelism} at a time, on the shared virtual thread
+	 * executor. For instance, to look up many aggregates at once:
+	 * <pre>{@code AsyncResult.traverse(ids, repository::findById, 64)}</pre>
+	 * @param elements the elements to transform
+	 * @param function the function to apply to every element
+	 * @param parallelism the maximum number of elements transformed at once
+	 * @param <A> the type of the elements
+	 * @param <T> the type of the values
+	 * @return the eventual values, in the order of the elements, or the first error that happens
+	 */
+	public static <A, T> AsyncResult<List<T>> traverse(Collection<? extends A> elements,
+	                                                   Function<? super A, ? extends T> function,
+	                                                   int parallelism) {
+		return traverse(elements, function, parallelism, MoreExecutors.sharedVirtualThreadExecutor());
+	}
+
+	/**
+	 * Applies a blocking function to every element of a group concurrently,
+	 * like {@link #traverse(Collection, Function, int)}, with the given executor
+	 * @param elements the elements to transform
+	 * @param function the function to apply to every element
+	 * @param parallelism the maximum number of elements transformed at once
+	 * @param executor the executor that runs the function
+	 * @param <A> the type of the elements
+	 * @param <T> the type of the values
+	 * @return the eventual values, in the order of the elements, or the first error that happens
+	 */
+	public static <A, T> AsyncResult<List<T>> traverse(Collection<? extends A> elements,
+	                                                   Function<? super A, ? extends T> function,
+	                                                   int parallelism,
+	                                                   Executor executor) {
+		Objects.requireNonNull(function);
+		List<? extends A> inputs = indexed(elements);
+		return fanOut(inputs.size(), index -> () -> function.apply(inputs.get(index)), parallelism, executor);
+	}
+
+	/* ------------------------ Main methods ------------------------ */
+
+	/**
+	 * Applies the given {@link Function} to the value once it is available,
+	 * in the thread that completes this result. An exception thrown by the
+	 * function ends in an error {@link Result}
+	 * @param mapper the function to apply to the value
+	 * @param <U> the type of the new value
+	 * @return the eventual result of the function, or this error
+	 */
+	public <U> AsyncResult<U> map(Function<? super T, ? extends U> mapper) {
+		Objects.requireNonNull(mapper);
+		return new AsyncResult<>(future.thenApply(result -> result.isOk()
+				? Result.capture(() -> mapper.apply(result.get()))
+				: Result.error(Result.errorOf(result))), this::cancel);
+	}
+
+	/**
+	 * Chains another asynchronous computation once the value is available
+	 * @param mapper the function that starts the next computation
+	 * @param <U> the type of the new value
+	 * @return the eventual result of the next computation, or this error
+	 */
+	@SuppressWarnings("unchecked")
+	public <U> AsyncResult<U> flatMap(Function<? super T, ? extends AsyncResult<? extends U>> mapper) {
+		Objects.requireNonNull(mapper);
+		return new AsyncResult<>(future.thenCompose(result -> {
+			if (result.isError()) return CompletableFuture.completedFuture(Result.error(Result.errorOf(result)));
+			try {
+				return ((AsyncResult<U>) Objects.requireNonNull(mapper.apply(result.get()))).future;
+			} catch (RuntimeException ex) {
+				return CompletableFuture.completedFuture(Result.error(ex));
+			}
+		}), this::cancel);
+	}
+
+	/**
+	 * Limits how long the computation may take. Once the time is out the
+	 * returned result holds an error and this one is {@link #cancel() cancelled}
+	 * @param timeout the maximum time to wait for the result
+	 * @return a result that completes at most after the given time
+	 */
+	public AsyncResult<T> withTimeout(Duration timeout) {
+		Objects.requireNonNull(timeout);
+		CompletableFuture<Result<T>> timed = future.copy().completeOnTimeout(
+				Result.error("Timed out after " + timeout), timeout.toNanos(), TimeUnit.NANOSECONDS);
+		timed.thenRun(() -> {
+			if (!future.isDone()) cancel();
+		});
+		return new AsyncResult<>(timed, this::cancel);
+	}
+
+	/**
+	 * Cancels the computation, interrupting it if it is running. This result
+	 * holds an error from now on
+	 * @return whether the result was cancelled, false if it was already complete
+	 */
+	public boolean cancel() {
+		boolean cancelled = future.complete(Result.error(CANCELLED));
+		if (cancelled) {
+			canceller.run();
+		}
+		return cancelled;
+	}
+
+	/**
+	 * @return whether the result is available
+	 */
+	public boolean isDone() {
+		return future.isDone();
+	}
+
+	/**
+	 * Waits for the result
+	 * @return the result of the computation
+	 */
+	public Result<T> join() {
+		return future.join();
+	}
+
+	/**
+	 * @return a new {@link CompletableFuture} completed with the result
+	 */
+	public CompletableFuture<Result<T>> toCompletableFuture() {
+		return future.copy();
+	}
+
+	/**
+	 * @return a new {@link CompletionStage} completed with the value, or
+	 *         completed exceptionally with the error of the result
+	 */
+	public CompletionStage<T> toStage() {
+		return future.thenApply(Result::orElsePropagate);
+	}
+
+	/* ------------------------ Internals ------------------------ */
+
+	private static <T> AsyncResult<List<T>> fanOut(int size,
+	                                              IntFunction<Callable<? extends T>> tasks,
+	                                              int parallelism,
+	                                              Executor executor) {
+		if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive");
+		Objects.requireNonNull(executor);
+		if (size == 0) return of(Result.ok(Collections.emptyList()));
+		FanOut<T> fanOut = new FanOut<>(size, tasks, executor);
+		for (int i = 0, n = Math.min(parallelism, size); i < n; i++) {
+			fanOut.startNext();
+		}
+		// Running computations are left to finish, but no new one starts
+		return new AsyncResult<>(fanOut.future, () -> {});
+	}
+
+	private static <E> List<? extends E> indexed(Collection<? extends E> elements) {
+		Objects.requireNonNull(elements);
+		return elements instanceof List && elements instanceof RandomAccess
+				? (List<? extends E>) elements
+				: new ArrayList<>(elements);
+	}
+
+	private static Throwable unwrap(Throwable failure) {
+		return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+	}
+
+	/**
+	 * State of a group of computations run with bounded parallelism. Every
+	 * computation that finishes starts the next one, so no thread waits
+	 */
+	private static final class FanOut<T> {
+
+		private final int size;
+		private final IntFunction<Callable<? extends T>> tasks;
+		private final Executor executor;
+		private final CompletableFuture<Result<List<T>>> future = new CompletableFuture<>();
+
+		private final Object[] values;
+		private final AtomicInteger nextIndex = new AtomicInteger();
+		private final AtomicInteger completed = new AtomicInteger();
+
+		private FanOut(int size, IntFunction<Callable<? extends T>> tasks, Executor executor) {
+			this.size = size;
+			this.tasks = tasks;
+			this.executor = executor;
+			this.values = new Object[size];
+		}
+
+		private void startNext() {
+			if (future.isDone()) return;
+			int index = nextIndex.getAndIncrement();
+			if (index >= size) return;
+			try {
+				executor.execute(() -> run(index));
+			} catch (RejectedExecutionException ex) {
+				future.complete(Result.error(ex));
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private void run(int index) {
+			if (future.isDone()) return;
+			Result<? extends T> result = Result.capture(() -> tasks.apply(index).call());
+			if (result.isError()) {
+				future.complete(Result.error(Result.errorOf(result)));
+				return;
+			}
+			values[index] = Result.valueOf(result);
+			// The last increment happens after every value is stored
+			if (completed.incrementAndGet() == size) {
+				future.complete(Result.ok((List<T>) Collections.unmodifiableList(Arrays.asList(values))));
+			} else {
+				startNext();
+			}
+		}
+	}
+}
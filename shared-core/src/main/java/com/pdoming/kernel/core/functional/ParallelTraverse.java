@@ -0,0 +1,103 @@
+package com.pdoming.kernel.core.functional;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Fork-join task behind {@link Result#traverseParallel(List, Function)}.
+ *
+ * The input is split in halves until the ranges are small enough to spread
+ * them evenly among the workers. Every range writes its values straight into
+ * the shared output array. The lowest index of a failed element is tracked,
+ * so that the elements after it are skipped while the ones before it, which
+ * may hold an earlier error, are still evaluated.
+ *
+ * @param <A> the type of the elements
+ */
+final class ParallelTraverse<A> extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int CHUNKS_PER_WORKER = 4;
+
+	private final Shared<A> shared;
+	private final int from;
+	private final int to;
+
+	ParallelTraverse(List<? extends A> inputs,
+	                 Function<? super A, ? extends Result<?>> mapper,
+	                 Object[] values,
+	                 int parallelism) {
+		this(new Shared<>(inputs, mapper, values,
+				Math.max(1, inputs.size() / Math.max(1, parallelism * CHUNKS_PER_WORKER))), 0, inputs.size());
+	}
+
+	private ParallelTraverse(Shared<A> shared, int from, int to) {
+		this.shared = shared;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * @return the error of the first failed element, null if none failed
+	 */
+	Result.Error firstError() {
+		synchronized (shared) {
+			return shared.firstError;
+		}
+	}
+
+	@Override
+	protected void compute() {
+		if (from >= shared.firstErrorIndex.get()) return;
+		if (to - from > shared.threshold) {
+			int middle = (from + to) >>> 1;
+			invokeAll(new ParallelTraverse<>(shared, from, middle), new ParallelTraverse<>(shared, middle, to));
+			return;
+		}
+		for (int i = from; i < to; i++) {
+			if (i >= shared.firstErrorIndex.get()) return;
+			Result<?> result = shared.mapper.apply(shared.inputs.get(i));
+			if (result == null) throw new NullPointerException("Null result for element " + i);
+			if (result.isOk()) {
+				shared.values[i] = Result.valueOf(result);
+			} else {
+				shared.fail(i, Result.errorOf(result));
+				return;
+			}
+		}
+	}
+
+	/**
+	 * State shared by all the subtasks of a traversal
+	 */
+	private static final class Shared<A> {
+		private final List<? extends A> inputs;
+		private final Function<? super A, ? extends Result<?>> mapper;
+		private final Object[] values;
+		private final int threshold;
+		private final AtomicInteger firstErrorIndex = new AtomicInteger(Integer.MAX_VALUE);
+
+		/* Guarded by this */
+		private Result.Error firstError;
+
+		private Shared(List<? extends A> inputs,
+		               Function<? super A, ? extends Result<?>> mapper,
+		               Object[] values,
+		               int threshold) {
+			this.inputs = inputs;
+			this.mapper = mapper;
+			this.values = values;
+			this.threshold = threshold;
+		}
+
+		private synchronized void fail(int index, Result.Error error) {
+			if (index < firstErrorIndex.get()) {
+				firstError = error;
+				firstErrorIndex.set(index);
+			}
+		}
+	}
+}
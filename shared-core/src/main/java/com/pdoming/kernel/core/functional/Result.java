@@ -1,11 +1,20 @@
 package com.pdoming.kernel.core.functional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * A Result<T> represents the result a computation that either yield a
@@ -36,6 +45,13 @@ public final class Result<T> {
 
 	private static final Result<?> EMPTY_OK_RESULT = new Result<>(new Object(), null);
 
+	/**
+	 * Whether the {@link InvalidResultException}s thrown by results skip
+	 * capturing their stack trace, set through the system property
+	 * {@code com.pdoming.kernel.core.functional.Result.stackless}
+	 */
+	static final boolean STACKLESS = Boolean.getBoolean(Result.class.getName() + ".stackless");
+
 	/**
 	 * Private constructor of {@link Result}
 	 * @param value the result of a computation
@@ -118,6 +134,22 @@ public final class Result<T> {
         return new Result<>(null, new NestedError( message, error ));
     }
 
+	/**
+	 * Create a new {@link Result} that describes the given {@link Error}.
+	 * Errors created with {@link Error#of(String)} always yield the same
+	 * {@link Result} instance, so returning them allocates nothing
+	 * @param error a non null error
+	 * @param <K> the type of the value
+	 * @return an error {@link Result}
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K> Result<K> error(Error error) {
+		Objects.requireNonNull(error);
+		if (error instanceof ConstantError)
+			return (Result<K>) ((ConstantError) error).result;
+		return new Result<>(null, error);
+	}
+
     /* ------------------------ Main methods ------------------------ */
 
 	/**
@@ -152,23 +184,32 @@ public final class Result<T> {
 	 * Applies the given {@link Function} to the result if it's
 	 * present and wrap it around another {@link Result} or do nothing
 	 * @param mapper the function to apply to the result
+	 * @param <U> the type of the new value
 	 * @return a new {@link Result}, either ok or error
 	 */
-	public Result<T> map(Function<? super T, ? extends T> mapper) {
+	public <U> Result<U> map(Function<? super T, ? extends U> mapper) {
         Objects.requireNonNull(mapper);
         if (isOk())
             return Result.ok( mapper.apply(value) );
         else {
-            return this;
+            return castError();
         }
     }
 
-    public Result<T> flatMap(Function<? super T, Result<T>> mapper) {
+	/**
+	 * Applies the given {@link Function} to the result if it's
+	 * present and returns the {@link Result} it yields, or do nothing
+	 * @param mapper the function to apply to the result
+	 * @param <U> the type of the new value
+	 * @return the {@link Result} of the function, or this error
+	 */
+	@SuppressWarnings("unchecked")
+    public <U> Result<U> flatMap(Function<? super T, ? extends Result<? extends U>> mapper) {
         Objects.requireNonNull(mapper);
         if (isOk())
-            return mapper.apply(value);
+            return (Result<U>) Objects.requireNonNull(mapper.apply(value));
         else {
-            return this;
+            return castError();
         }
     }
 
@@ -268,6 +309,185 @@ public final class Result<T> {
         }
     }
 
+    /* ------------------------ Bulk combinators ------------------------ */
+
+	/**
+	 * Turns a group of results into a single result holding their values,
+	 * in iteration order, or the first error found. Iteration stops at the
+	 * first error
+	 * @param results the results to combine
+	 * @param <T> the type of the values
+	 * @return an ok {@link Result} holding an unmodifiable list of the values, or the first error
+	 */
+	public static <T> Result<List<T>> sequence(Iterable<? extends Result<? extends T>> results) {
+		return traverse(results, Function.identity());
+	}
+
+	/**
+	 * Turns a stream of results into a single result holding their values,
+	 * in encounter order, or the first error found. The stream is not
+	 * consumed past the first error
+	 * @param results the results to combine
+	 * @param <T> the type of the values
+	 * @return an ok {@link Result} holding an unmodifiable list of the values, or the first error
+	 */
+	public static <T> Result<List<T>> sequence(Stream<? extends Result<? extends T>> results) {
+		return traverse(results, Function.identity());
+	}
+
+	/**
+	 * Applies a fallible function to every element of a group and combines
+	 * the results, like {@link #sequence(Iterable)} without building the
+	 * intermediate results
+	 * @param elements the elements to transform
+	 * @param mapper the function to apply to every element
+	 * @param <A> the type of the elements
+	 * @param <T> the type of the values
+	 * @return an ok {@link Result} holding an unmodifiable list of the values, or the first error
+	 */
+	public static <A, T> Result<List<T>> traverse(Iterable<? extends A> elements,
+	                                              Function<? super A, ? extends Result<? extends T>> mapper) {
+		Objects.requireNonNull(elements);
+		return traverse(elements.iterator(), sizeHint(elements), mapper);
+	}
+
+	/**
+	 * Applies a fallible function to every element of a stream and combines
+	 * the results, stopping at the first error
+	 * @param elements the elements to transform
+	 * @param mapper the function to apply to every element
+	 * @param <A> the type of the elements
+	 * @param <T> the type of the values
+	 * @return an ok {@link Result} holding an unmodifiable list of the values, or the first error
+	 */
+	public static <A, T> Result<List<T>> traverse(Stream<? extends A> elements,
+	                                              Function<? super A, ? extends Result<? extends T>> mapper) {
+		Objects.requireNonNull(elements);
+		return traverse(elements.iterator(), 10, mapper);
+	}
+
+	/**
+	 * Turns a group of results into a single result holding either all their
+	 * values or all their errors, combined into an {@link AccumulatedError}
+	 * @param results the results to combine
+	 * @param <T> the type of the values
+	 * @return an ok {@link Result} holding an unmodifiable list of the values, or the errors
+	 */
+	public static <T> Result<List<T>> sequenceAll(Iterable<? extends Result<? extends T>> results) {
+		return traverseAll(results, Function.identity());
+	}
+
+	/**
+	 * Applies a fallible function to every element of a group and combines
+	 * either all the values or all the errors, into an {@link AccumulatedError}
+	 * @param elements the elements to transform
+	 * @param mapper the function to apply to every element
+	 * @param <A> the type of the elements
+	 * @param <T> the type of the values
+	 * @return an ok {@link Result} holding an unmodifiable list of the values, or the errors
+	 */
+	public static <A, T> Result<List<T>> traverseAll(Iterable<? extends A> elements,
+	                                                 Function<? super A, ? extends Result<? extends T>> mapper) {
+		Objects.requireNonNull(elements);
+		Objects.requireNonNull(mapper);
+		List<T> values = new ArrayList<>(sizeHint(elements));
+		List<Error> errors = null;
+		for (A element : elements) {
+			Result<? extends T> result = Objects.requireNonNull(mapper.apply(element));
+			if (result.isOk()) {
+				if (errors == null) values.add(result.value);
+			} else {
+				if (errors == null) errors = new ArrayList<>();
+				errors.add(result.error);
+			}
+		}
+		return errors == null
+				? new Result<>(Collections.unmodifiableList(values), null)
+				: new Result<>(null, new AccumulatedError(errors));
+	}
+
+	/**
+	 * Applies a fallible function to every element of a list in parallel,
+	 * splitting it across the {@link ForkJoinPool#commonPool() common pool},
+	 * and combines the results. Elements past an error already found are
+	 * skipped, but the error reported is always the one of the first failed
+	 * element, as in {@link #traverse(Iterable, Function)}
+	 * @param elements the elements to transform
+	 * @param mapper the function to apply to every element, safe to call concurrently
+	 * @param <A> the type of the elements
+	 * @param <T> the type of the values
+	 * @return an ok {@link Result} holding an unmodifiable list of the values, or the first error
+	 */
+	public static <A, T> Result<List<T>> traverseParallel(List<? extends A> elements,
+	                                                      Function<? super A, ? extends Result<? extends T>> mapper) {
+		return traverseParallel(elements, mapper, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Applies a fallible function to every element of a list in parallel,
+	 * like {@link #traverseParallel(List, Function)}, in the given pool
+	 * @param elements the elements to transform
+	 * @param mapper the function to apply to every element, safe to call concurrently
+	 * @param pool the pool that runs the function
+	 * @param <A> the type of the elements
+	 * @param <T> the type of the values
+	 * @return an ok {@link Result} holding an unmodifiable list of the values, or the first error
+	 */
+	@SuppressWarnings("unchecked")
+	public static <A, T> Result<List<T>> traverseParallel(List<? extends A> elements,
+	                                                      Function<? super A, ? extends Result<? extends T>> mapper,
+	                                                      ForkJoinPool pool) {
+		Objects.requireNonNull(elements);
+		Objects.requireNonNull(mapper);
+		Objects.requireNonNull(pool);
+		List<? extends A> inputs = elements instanceof RandomAccess ? elements : new ArrayList<>(elements);
+		Object[] values = new Object[inputs.size()];
+		ParallelTraverse<A> task = new ParallelTraverse<>(inputs, mapper, values, pool.getParallelism());
+		pool.invoke(task);
+		Error error = task.firstError();
+		return error == null
+				? new Result<>((List<T>) Collections.unmodifiableList(Arrays.asList(values)), null)
+				: new Result<>(null, error);
+	}
+
+	private static <A, T> Result<List<T>> traverse(Iterator<? extends A> elements, int sizeHint,
+	                                               Function<? super A, ? extends Result<? extends T>> mapper) {
+		Objects.requireNonNull(mapper);
+		List<T> values = new ArrayList<>(sizeHint);
+		while (elements.hasNext()) {
+			Result<? extends T> result = Objects.requireNonNull(mapper.apply(elements.next()));
+			if (result.isError()) return new Result<>(null, result.error);
+			values.add(result.value);
+		}
+		return new Result<>(Collections.unmodifiableList(values), null);
+	}
+
+	private static int sizeHint(Iterable<?> elements) {
+		return elements instanceof Collection ? ((Collection<?>) elements).size() : 10;
+	}
+
+	/**
+	 * Returns this error result with another type of value, which it does not hold
+	 */
+	@SuppressWarnings("unchecked")
+	private <U> Result<U> castError() {
+		return (Result<U>) this;
+	}
+
+	/**
+	 * Error of a result, for {@link ParallelTraverse}
+	 */
+	static Error errorOf(Result<?> result) {
+		return result.error;
+	}
+
+	/**
+	 * Value of a result, for {@link ParallelTraverse}
+	 */
+	static Object valueOf(Result<?> result) {
+		return result.value;
+	}
+
     // ----------------------------------------------------------------------------------------
 
     /**
@@ -282,7 +502,7 @@ public final class Result<T> {
 	     * @param cause the cause that produced this exception
 	     */
         public InvalidResultException(String message, Throwable cause) {
-            super(message, cause);
+            super(message, cause, true, !STACKLESS);
         }
 
 	    /**
@@ -291,7 +511,7 @@ public final class Result<T> {
 	     * @param message the error message
 	     */
         public InvalidResultException(String message) {
-            super(message);
+            super(message, null, true, !STACKLESS);
         }
 
 	    /**
@@ -300,7 +520,7 @@ public final class Result<T> {
 	     * @param cause the cause that produced this exception
 	     */
         public InvalidResultException(Throwable cause) {
-            super(cause);
+            super(cause == null ? null : cause.toString(), cause, true, !STACKLESS);
         }
 
         /**
@@ -336,6 +556,26 @@ public final class Result<T> {
          */
         String getCause();
 
+        /**
+         * Creates an {@link Error} meant to be stored in a constant and reused,
+         * see {@link Result#error(Error)}
+         * @param message a non null message
+         * @return a new error
+         */
+        static Error of(String message) {
+            return new ConstantError(Objects.requireNonNull(message));
+        }
+
+        /**
+         * Creates an {@link Error} whose message is only composed the first
+         * time it is requested, if ever
+         * @param message the supplier of the message
+         * @return a new error
+         */
+        static Error lazy(Supplier<String> message) {
+            return new LazyError(Objects.requireNonNull(message));
+        }
+
         /**
          * Return this error transformed as a suitable {@link InvalidResultException}
          * @return the error in the form of an {@link InvalidResultException}
@@ -369,6 +609,45 @@ public final class Result<T> {
 		}
 	}
 
+	/**
+	 * Implementor of {@link Error} that owns the single {@link Result} describing it
+	 */
+	private static final class ConstantError extends SimpleError {
+
+		private final Result<?> result = new Result<>(null, this);
+
+		private ConstantError(String message) {
+			super(message);
+		}
+	}
+
+	/**
+	 * Implementor of {@link Error} whose message is supplied on demand
+	 */
+	private static final class LazyError implements Error {
+
+		private final Supplier<String> supplier;
+
+		/**
+		 * The message, once supplied. Strings are immutable, so a racy read
+		 * at worst supplies the message again
+		 */
+		private String message;
+
+		private LazyError(Supplier<String> supplier) {
+			this.supplier = supplier;
+		}
+
+		@Override
+		public String getCause() {
+			String result = message;
+			if (result == null) {
+				message = result = supplier.get();
+			}
+			return result;
+		}
+	}
+
     /**
      * Implementor of {@link Error} formed by an {@link Throwable}
      */
@@ -384,6 +663,11 @@ public final class Result<T> {
          */
         private final X throwable;
 
+        /**
+         * The composed cause, once requested
+         */
+        private String cause;
+
         /**
          * Creates a new {@link ExceptionError}
          * @param message a non null error message
@@ -404,14 +688,58 @@ public final class Result<T> {
 
         @Override
         public String getCause() {
-            Throwable root, cause = root = throwable;
-            while ((cause = cause.getCause()) != null) {
-                root = cause;
+            String result = cause;
+            if (result == null) {
+                Throwable root, next = root = throwable;
+                while ((next = next.getCause()) != null) {
+                    root = next;
+                }
+                result = message.isEmpty() ? root.getMessage() : message + " - " + root.getMessage();
+                cause = result;
             }
-            return message.isEmpty() ? root.getMessage() : message + " - " + root.getMessage();
+            return result;
         }
     }
 
+	/**
+	 * Implementor of {@link Error} composed of the errors of several results,
+	 * see {@link Result#sequenceAll(Iterable)}
+	 */
+	public static final class AccumulatedError implements Error {
+
+		private final List<Error> errors;
+
+		/**
+		 * The composed cause, once requested
+		 */
+		private String cause;
+
+		private AccumulatedError(List<Error> errors) {
+			this.errors = Collections.unmodifiableList(errors);
+		}
+
+		/**
+		 * @return the accumulated errors, in iteration order
+		 */
+		public List<Error> getErrors() {
+			return errors;
+		}
+
+		@Override
+		public String getCause() {
+			String result = cause;
+			if (result == null) {
+				StringBuilder builder = new StringBuilder();
+				for (Error error : errors) {
+					if (builder.length() > 0) builder.append("; ");
+					builder.append(error.getCause());
+				}
+				cause = result = builder.toString();
+			}
+			return result;
+		}
+	}
+
     /**
      * Implementor of {@link Error} composed of another {@link Error} and a message
      */
@@ -427,6 +755,11 @@ public final class Result<T> {
          */
         private final Error error;
 
+        /**
+         * The composed cause, once requested
+         */
+        private String cause;
+
         /**
          * Creates a new {@link NestedError}
          * @param message a non null message
@@ -439,7 +772,11 @@ public final class Result<T> {
 
         @Override
         public String getCause() {
-            return message + " - " + error.getCause();
+            String result = cause;
+            if (result == null) {
+                cause = result = message + " - " + error.getCause();
+            }
+            return result;
         }
     }
 }
@@ -0,0 +1,31 @@
+package com.pdoming.kernel.core.functional;
+
+/**
+ * Exception that does not capture a stack trace, for computations that
+ * report expected failures through exceptions, typically captured into a
+ * {@link Result} with {@link Result#capture(java.util.concurrent.Callable)}.
+ *
+ * Filling in the stack trace dominates the cost of creating an exception,
+ * so instances of this class are cheap to create and may even be shared.
+ */
+public class StacklessException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Creates a new {@link StacklessException}
+	 * @param message the error message
+	 */
+	public StacklessException(String message) {
+		super(message, null, false, false);
+	}
+
+	/**
+	 * Creates a new {@link StacklessException}
+	 * @param message the error message
+	 * @param cause the cause of this exception
+	 */
+	public StacklessException(String message, Throwable cause) {
+		super(message, cause, false, false);
+	}
+}
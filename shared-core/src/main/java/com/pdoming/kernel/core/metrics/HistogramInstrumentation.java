@@ -0,0 +1,100 @@
+package com.pdoming.kernel.core.metrics;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link Instrumentation} that records the latencies of every operation and
+ * type in a {@link LatencyHistogram}, along with the number of failures.
+ *
+ * The timer of a type is created the first time it is requested and cached
+ * in a {@link ClassValue}, so resolving it later is a plain field read.
+ * Throughputs are measured since the creation of each timer.
+ */
+public final class HistogramInstrumentation implements Instrumentation {
+
+	private final Map<Operation, ClassValue<Metric>> timers = new EnumMap<>(Operation.class);
+	private final Queue<Metric> metrics = new ConcurrentLinkedQueue<>();
+
+	public HistogramInstrumentation() {
+		for (Operation operation : Operation.values()) {
+			timers.put(operation, new ClassValue<>() {
+				@Override
+				protected Metric computeValue(Class<?> type) {
+					Metric metric = new Metric(operation, type);
+					metrics.add(metric);
+					return metric;
+				}
+			});
+		}
+	}
+
+	@Override
+	public long start() {
+		return System.nanoTime();
+	}
+
+	@Override
+	public Timer timer(Operation operation, Class<?> type) {
+		return timers.get(operation).get(type);
+	}
+
+	/**
+	 * @return the metrics of every operation and type recorded so far
+	 */
+	public List<MetricSnapshot> snapshot() {
+		List<MetricSnapshot> snapshots = new ArrayList<>();
+		long now = System.nanoTime();
+		for (Metric metric : metrics) {
+			snapshots.add(new MetricSnapshot(metric.operation, metric.type, metric.histogram.snapshot(),
+					metric.failures.sum(), now - metric.createdNanos));
+		}
+		return snapshots;
+	}
+
+	/**
+	 * @param operation an operation
+	 * @param type the type of the aggregate or event involved
+	 * @return the metrics of the operation on that type
+	 */
+	public MetricSnapshot snapshot(Operation operation, Class<?> type) {
+		Objects.requireNonNull(type);
+		Metric metric = timers.get(Objects.requireNonNull(operation)).get(type);
+		return new MetricSnapshot(operation, type, metric.histogram.snapshot(), metric.failures.sum(),
+				System.nanoTime() - metric.createdNanos);
+	}
+
+	/**
+	 * Timer of an operation on a type
+	 */
+	private static final class Metric implements Timer {
+
+		private final Operation operation;
+		private final Class<?> type;
+		private final long createdNanos = System.nanoTime();
+		private final LatencyHistogram histogram = new LatencyHistogram();
+		private final LongAdder failures = new LongAdder();
+
+		private Metric(Operation operation, Class<?> type) {
+			this.operation = operation;
+			this.type = type;
+		}
+
+		@Override
+		public void stop(long start) {
+			histogram.record(System.nanoTime() - start);
+		}
+
+		@Override
+		public void fail(long start) {
+			histogram.record(System.nanoTime() - start);
+			failures.increment();
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.pdoming.kernel.core.metrics;
+
+/**
+ * Service provider interface through which the kernel reports how long its
+ * operations take, without depending on a metrics framework.
+ *
+ * An instrumented operation reads the clock with {@link #start()} and reports
+ * its outcome to the {@link Timer} of the operation and of the type involved,
+ * an aggregate or an event class:
+ *
+ * <pre>{@code
+ * long start = instrumentation.start();
+ * ...
+ * instrumentation.timer(Operation.FIND, type).stop(start);
+ * }</pre>
+ *
+ * When instrumentation is disabled the {@link #noop() no-op} implementation
+ * is the only one seen by those call sites, so the JIT inlines its empty
+ * methods and removes the calls altogether, the clock included.
+ */
+public interface Instrumentation {
+
+	/**
+	 * Instrumented operations of the kernel
+	 */
+	enum Operation {
+		/** Lookup of an aggregate by its identifier, per aggregate type */
+		FIND,
+		/** Batched lookup of aggregates by their identifiers, per aggregate type */
+		FIND_ALL,
+		/** Save of an aggregate, per aggregate type */
+		SAVE,
+		/** Publication of an event to a bus, per event type */
+		PUBLISH,
+		/** Delivery of an event to its subscribers, per event type */
+		DISPATCH
+	}
+
+	/**
+	 * Records the outcome of the executions of an operation
+	 */
+	interface Timer {
+
+		/**
+		 * Records a successful execution
+		 * @param start the value returned by {@link Instrumentation#start()} before the execution
+		 */
+		void stop(long start);
+
+		/**
+		 * Records a failed execution
+		 * @param start the value returned by {@link Instrumentation#start()} before the execution
+		 */
+		void fail(long start);
+	}
+
+	/**
+	 * @return the current time in nanoseconds, from an arbitrary origin
+	 */
+	long start();
+
+	/**
+	 * @param operation an operation
+	 * @param type the type of the aggregate or event involved
+	 * @return the timer of the operation on that type
+	 */
+	Timer timer(Operation operation, Class<?> type);
+
+	/**
+	 * @return an instrumentation that records nothing
+	 */
+	static Instrumentation noop() {
+		return NoopInstrumentation.INSTANCE;
+	}
+}
@@ -0,0 +1,94 @@
+package com.pdoming.kernel.core.metrics;
+
+import com.pdoming.kernel.core.ddd.AggregateRoot;
+import com.pdoming.kernel.core.ddd.Identifiable;
+import com.pdoming.kernel.core.ddd.Repository;
+import com.pdoming.kernel.core.metrics.Instrumentation.Operation;
+import com.pdoming.kernel.core.metrics.Instrumentation.Timer;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+
+/**
+ * {@link Repository} decorator that reports the latency of the lookups and
+ * saves of the decorated repository, per aggregate type, to an
+ * {@link Instrumentation}. Calls that throw, such as rejected saves of stale
+ * aggregates, are reported as failures
+ *
+ * @param <AGG> the type of the aggregate
+ * @param <ID> the type of the identifier of the aggregate
+ */
+public class InstrumentedRepository<AGG extends AggregateRoot<ID>, ID extends Identifiable> implements Repository<AGG, ID> {
+
+	private final Repository<AGG, ID> delegate;
+	private final Instrumentation instrumentation;
+	private final Timer findTimer;
+	private final Timer findAllTimer;
+	private final Timer saveTimer;
+
+	/**
+	 * Creates a new {@link InstrumentedRepository}
+	 * @param delegate the repository to decorate
+	 * @param aggregateType the type of the aggregates, which the metrics are reported for
+	 * @param instrumentation the instrumentation the lookups are reported to
+	 */
+	public InstrumentedRepository(Repository<AGG, ID> delegate, Class<AGG> aggregateType, Instrumentation instrumentation) {
+		this.delegate = Objects.requireNonNull(delegate);
+		this.instrumentation = Objects.requireNonNull(instrumentation);
+		this.findTimer = instrumentation.timer(Operation.FIND, Objects.requireNonNull(aggregateType));
+		this.findAllTimer = instrumentation.timer(Operation.FIND_ALL, aggregateType);
+		this.saveTimer = instrumentation.timer(Operation.SAVE, aggregateType);
+	}
+
+	@Override
+	public Optional<AGG> findById(ID id) {
+		long start = instrumentation.start();
+		Optional<AGG> aggregate;
+		try {
+			aggregate = delegate.findById(id);
+		} catch (RuntimeException | Error ex) {
+			findTimer.fail(start);
+			throw ex;
+		}
+		findTimer.stop(start);
+		return aggregate;
+	}
+
+	@Override
+	public Map<ID, AGG> findAllById(Collection<? extends ID> ids) {
+		long start = instrumentation.start();
+		Map<ID, AGG> aggregates;
+		try {
+			aggregates = delegate.findAllById(ids);
+		} catch (RuntimeException | Error ex) {
+			findAllTimer.fail(start);
+			throw ex;
+		}
+		findAllTimer.stop(start);
+		return aggregates;
+	}
+
+	@Override
+	public void save(AGG aggregate) {
+		long start = instrumentation.start();
+		try {
+			delegate.save(aggregate);
+		} catch (RuntimeException | Error ex) {
+			saveTimer.fail(start);
+			throw ex;
+		}
+		saveTimer.stop(start);
+	}
+
+	/**
+	 * Streams the aggregates of the decorated repository, which is not timed
+	 * as aggregates are loaded at the pace of the subscriber
+	 */
+	@Override
+	public Flow.Publisher<AGG> findAll() {
+		return delegate.findAll();
+	}
+}
@@ -0,0 +1,137 @@
+package com.pdoming.kernel.core.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies in nanoseconds, recorded concurrently without locking.
+ *
+ * Buckets follow the layout of HdrHistogram: values below 128 have a bucket
+ * each, and every power of two above is split in 64 linear sub-buckets. Any
+ * recorded value is thus reported with a relative error below 1.6%, up to
+ * about 36 minutes, with a fixed footprint of a few thousand counters.
+ * Recording a value is a couple of shifts and an atomic increment.
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 6;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int LINEAR_LIMIT = SUB_BUCKETS << 1;
+	private static final long MAX_VALUE = (1L << 41) - 1;
+	private static final int BUCKETS = indexOf(MAX_VALUE) + 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Records a latency
+	 * @param nanos the latency in nanoseconds, negative values count as 0 and
+	 *              values above the highest trackable one as that value
+	 */
+	public void record(long nanos) {
+		long value = nanos < 0 ? 0 : Math.min(nanos, MAX_VALUE);
+		counts.getAndIncrement(indexOf(value));
+		sum.add(value);
+		max.accumulate(value);
+	}
+
+	/**
+	 * @return a copy of the current counts. Values recorded while it is
+	 *         taken may be partially reflected
+	 */
+	public Snapshot snapshot() {
+		long[] copy = new long[BUCKETS];
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			copy[i] = counts.get(i);
+			count += copy[i];
+		}
+		return new Snapshot(copy, count, sum.sum(), max.get());
+	}
+
+	/* ------------------------ Internals ------------------------ */
+
+	private static int indexOf(long value) {
+		if (value < LINEAR_LIMIT) return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+	}
+
+	private static long highestValueOf(int index) {
+		if (index < LINEAR_LIMIT) return index;
+		int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+		long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	/**
+	 * Immutable copy of a {@link LatencyHistogram}
+	 */
+	public static final class Snapshot {
+
+		private final long[] counts;
+		private final long count;
+		private final long sum;
+		private final long max;
+
+		private Snapshot(long[] counts, long count, long sum, long max) {
+			this.counts = counts;
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		public long count() {
+			return count;
+		}
+
+		/**
+		 * @return the highest recorded latency, in nanoseconds
+		 */
+		public long max() {
+			return max;
+		}
+
+		/**
+		 * @return the mean latency, in nanoseconds
+		 */
+		public double mean() {
+			return count == 0 ? 0 : (double) sum / count;
+		}
+
+		/**
+		 * @param percentile a percentile, between 0 and 100
+		 * @return the latency, in nanoseconds, that the given percentage of the
+		 *         recorded latencies do not exceed, 0 if nothing was recorded
+		 */
+		public long valueAtPercentile(double percentile) {
+			if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("Invalid percentile " + percentile);
+			if (count == 0) return 0;
+			long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= target) return Math.min(highestValueOf(i), max);
+			}
+			return max;
+		}
+
+		@Override
+		public String toString() {
+			return "count=" + count
+					+ ", mean=" + micros((long) mean())
+					+ ", p50=" + micros(valueAtPercentile(50))
+					+ ", p90=" + micros(valueAtPercentile(90))
+					+ ", p99=" + micros(valueAtPercentile(99))
+					+ ", p999=" + micros(valueAtPercentile(99.9))
+					+ ", max=" + micros(max);
+		}
+
+		private static String micros(long nanos) {
+			return String.format("%.1fus", nanos / (double) TimeUnit.MICROSECONDS.toNanos(1));
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.pdoming.kernel.core.metrics;
+
+import com.pdoming.kernel.core.metrics.Instrumentation.Operation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of an operation on a type, as recorded by a {@link HistogramInstrumentation}
+ */
+public final class MetricSnapshot {
+
+	private final Operation operation;
+	private final Class<?> type;
+	private final LatencyHistogram.Snapshot latencies;
+	private final long failures;
+	private final long elapsedNanos;
+
+	MetricSnapshot(Operation operation, Class<?> type, LatencyHistogram.Snapshot latencies, long failures, long elapsedNanos) {
+		this.operation = operation;
+		this.type = type;
+		this.latencies = latencies;
+		this.failures = failures;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public Operation operation() {
+		return operation;
+	}
+
+	/**
+	 * @return the type of the aggregate or event involved
+	 */
+	public Class<?> type() {
+		return type;
+	}
+
+	/**
+	 * @return the latencies of the executions, successful or not
+	 */
+	public LatencyHistogram.Snapshot latencies() {
+		return latencies;
+	}
+
+	public long count() {
+		return latencies.count();
+	}
+
+	public long failures() {
+		return failures;
+	}
+
+	/**
+	 * @return the executions per second since the metric was created
+	 */
+	public double throughput() {
+		return elapsedNanos <= 0 ? 0 : latencies.count() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return operation + " " + type.getSimpleName()
+				+ ": " + latencies
+				+ ", failures=" + failures
+				+ ", throughput=" + String.format("%.1f/s", throughput());
+	}
+}
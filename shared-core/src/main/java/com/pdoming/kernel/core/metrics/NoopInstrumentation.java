@@ -0,0 +1,27 @@
+package com.pdoming.kernel.core.metrics;
+
+/**
+ * {@link Instrumentation} that records nothing, also acting as its own timer
+ */
+enum NoopInstrumentation implements Instrumentation, Instrumentation.Timer {
+
+	INSTANCE;
+
+	@Override
+	public long start() {
+		return 0;
+	}
+
+	@Override
+	public Timer timer(Operation operation, Class<?> type) {
+		return this;
+	}
+
+	@Override
+	public void stop(long start) {
+	}
+
+	@Override
+	public void fail(long start) {
+	}
+}
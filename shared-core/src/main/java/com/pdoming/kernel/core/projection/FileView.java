@@ -0,0 +1,264 @@
+package com.pdoming.kernel.core.projection;
+
+import com.pdoming.kernel.core.codec.BinaryReader;
+import com.pdoming.kernel.core.codec.BinaryWriter;
+import com.pdoming.kernel.core.codec.ValueCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * {@link View} kept in memory and persisted in a journal file, so that a
+ * projection restarted later resumes from its last commit instead of
+ * rebuilding the view from the start of the log.
+ *
+ * The changes of a batch are buffered and appended to the journal as a
+ * single frame on commit, along with the new position, with one write and
+ * one flush to disk per batch. Every frame is checksummed: a frame torn by
+ * a crash is dropped when the view is opened, along with everything after it.
+ * Once the journal holds many more changes than entries it is compacted into
+ * a single frame, written to a temporary file and moved over the journal.
+ *
+ * Frame layout: {@code [length: int][crc32c: int][position: varlong]([1][key][value] | [2][key])*}
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public final class FileView<K, V> implements View<K, V>, Closeable {
+
+	private static final int HEADER_SIZE = 8;
+	private static final byte PUT = 1;
+	private static final byte REMOVE = 2;
+	private static final long MIN_COMPACTION_CHANGES = 1 << 16;
+
+	private final Path file;
+	private final ValueCodec<K> keyCodec;
+	private final ValueCodec<V> valueCodec;
+	private final MapView<K, V> memory = new MapView<>();
+	private final BinaryWriter batch = BinaryWriter.growable(4096);
+	private final BinaryWriter prefix = BinaryWriter.wrapping(ByteBuffer.allocate(10));
+	private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+	private final CRC32C crc = new CRC32C();
+	private FileChannel channel;
+	private int batchChanges;
+	private long journalChanges;
+
+	private FileView(Path file, ValueCodec<K> keyCodec, ValueCodec<V> valueCodec) {
+		this.file = file;
+		this.keyCodec = keyCodec;
+		this.valueCodec = valueCodec;
+	}
+
+	/**
+	 * Opens a view, loading the entries committed to its journal
+	 * @param file the journal, created if it does not exist
+	 * @param keyCodec the codec of the keys
+	 * @param valueCodec the codec of the values
+	 * @param <K> the type of the keys
+	 * @param <V> the type of the values
+	 * @return the view
+	 * @throws UncheckedIOException if the journal cannot be read
+	 */
+	public static <K, V> FileView<K, V> open(Path file, ValueCodec<K> keyCodec, ValueCodec<V> valueCodec) {
+		FileView<K, V> view = new FileView<>(Objects.requireNonNull(file),
+				Objects.requireNonNull(keyCodec), Objects.requireNonNull(valueCodec));
+		try {
+			view.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			view.load();
+		} catch (IOException ex) {
+			view.closeQuietly();
+			throw new UncheckedIOException("Cannot open view " + file, ex);
+		}
+		return view;
+	}
+
+	/* ------------------------ Entries ------------------------ */
+
+	@Override
+	public V get(K key) {
+		return memory.get(key);
+	}
+
+	@Override
+	public void put(K key, V value) {
+		memory.put(key, value);
+		batch.writeByte(PUT);
+		keyCodec.write(key, batch);
+		valueCodec.write(value, batch);
+		batchChanges++;
+	}
+
+	@Override
+	public void remove(K key) {
+		if (memory.get(key) == null) return;
+		memory.remove(key);
+		batch.writeByte(REMOVE);
+		keyCodec.write(key, batch);
+		batchChanges++;
+	}
+
+	@Override
+	public int size() {
+		return memory.size();
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		memory.forEach(action);
+	}
+
+	/**
+	 * @return a read only view of the entries
+	 */
+	public Map<K, V> asMap() {
+		return memory.asMap();
+	}
+
+	/* ------------------------ Commits ------------------------ */
+
+	@Override
+	public long position() {
+		return memory.position();
+	}
+
+	@Override
+	public void commit(long position) {
+		if (position < memory.position()) throw new IllegalArgumentException("Position " + position + " is behind " + memory.position());
+		if (batchChanges == 0 && position == memory.position()) return;
+		try {
+			if (journalChanges + batchChanges > Math.max(MIN_COMPACTION_CHANGES, 2L * memory.size())) {
+				compact(position);
+			} else {
+				writeFrame(channel, position, batch.buffer().flip());
+				channel.force(false);
+				journalChanges += batchChanges;
+			}
+			memory.commit(position);
+		} catch (IOException ex) {
+			rollback();
+			throw new UncheckedIOException("Cannot commit view " + file, ex);
+		} finally {
+			batch.clear();
+			batchChanges = 0;
+		}
+	}
+
+	@Override
+	public void rollback() {
+		memory.rollback();
+		batch.clear();
+		batchChanges = 0;
+	}
+
+	@Override
+	public void close() {
+		rollback();
+		try {
+			channel.close();
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Cannot close view " + file, ex);
+		}
+	}
+
+	/* ------------------------ Internals ------------------------ */
+
+	private void writeFrame(FileChannel target, long position, ByteBuffer changes) throws IOException {
+		ByteBuffer prefix = this.prefix.clear().writeVarLong(position).buffer().flip();
+		crc.reset();
+		crc.update(prefix.duplicate());
+		crc.update(changes.duplicate());
+		header.clear();
+		header.putInt(prefix.remaining() + changes.remaining()).putInt((int) crc.getValue()).flip();
+		ByteBuffer[] buffers = { header, prefix, changes };
+		while (header.hasRemaining() || prefix.hasRemaining() || changes.hasRemaining()) {
+			target.write(buffers);
+		}
+	}
+
+	private void compact(long position) throws IOException {
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		BinaryWriter snapshot = BinaryWriter.growable(Math.max(4096, memory.size() * 32));
+		memory.forEach((key, value) -> {
+			snapshot.writeByte(PUT);
+			keyCodec.write(key, snapshot);
+			valueCodec.write(value, snapshot);
+		});
+		try (FileChannel target = FileChannel.open(temporary, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeFrame(target, position, snapshot.buffer().flip());
+			target.force(true);
+		}
+		try {
+			Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException ex) {
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+		channel.close();
+		channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		channel.position(channel.size());
+		journalChanges = memory.size();
+	}
+
+	private void load() throws IOException {
+		long size = channel.size();
+		if (size > Integer.MAX_VALUE) throw new IOException("Journal is too large, " + size + " bytes");
+		ByteBuffer content = ByteBuffer.allocate((int) size);
+		while (content.hasRemaining()) {
+			if (channel.read(content, content.position()) < 0) break;
+		}
+		content.flip();
+
+		BinaryReader reader = BinaryReader.wrapping(content);
+		int valid = 0;
+		while (content.remaining() >= HEADER_SIZE) {
+			int length = content.getInt(valid);
+			int checksum = content.getInt(valid + 4);
+			if (length <= 0 || length > content.limit() - valid - HEADER_SIZE) break;
+			ByteBuffer changes = content.duplicate().position(valid + HEADER_SIZE).limit(valid + HEADER_SIZE + length);
+			crc.reset();
+			crc.update(changes.duplicate());
+			if ((int) crc.getValue() != checksum) break;
+
+			reader.wrap(changes);
+			long position = reader.readVarLong();
+			while (reader.hasRemaining()) {
+				byte change = reader.readByte();
+				K key = keyCodec.read(reader);
+				if (change == PUT) {
+					memory.put(key, valueCodec.read(reader));
+				} else if (change == REMOVE) {
+					memory.remove(key);
+				} else {
+					throw new IOException("Unknown change " + change + " in journal " + file);
+				}
+				journalChanges++;
+			}
+			memory.commit(position);
+			valid += HEADER_SIZE + length;
+			content.position(valid);
+		}
+		// Drop a torn frame, new frames are appended after the last valid one
+		channel.truncate(valid);
+		channel.position(valid);
+	}
+
+	private void closeQuietly() {
+		try {
+			if (channel != null) channel.close();
+		} catch (IOException ignored) {
+			// The open failure is reported instead
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.pdoming.kernel.core.projection;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link View} kept in memory.
+ *
+ * Entries may be read concurrently with the projection updating them, in
+ * which case readers may see a batch partially applied. The previous value
+ * of every key changed in the current batch is kept, so that a rollback
+ * restores them.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public final class MapView<K, V> implements View<K, V> {
+
+	private static final Object ABSENT = new Object();
+
+	private final ConcurrentHashMap<K, V> entries = new ConcurrentHashMap<>();
+	private final Map<K, Object> undo = new HashMap<>();
+	private volatile long position;
+
+	@Override
+	public V get(K key) {
+		return entries.get(key);
+	}
+
+	@Override
+	public void put(K key, V value) {
+		Objects.requireNonNull(value);
+		V previous = entries.put(key, value);
+		undo.putIfAbsent(key, previous == null ? ABSENT : previous);
+	}
+
+	@Override
+	public void remove(K key) {
+		V previous = entries.remove(key);
+		if (previous != null) {
+			undo.putIfAbsent(key, previous);
+		}
+	}
+
+	@Override
+	public int size() {
+		return entries.size();
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		entries.forEach(action);
+	}
+
+	/**
+	 * @return a read only view of the entries
+	 */
+	public Map<K, V> asMap() {
+		return Collections.unmodifiableMap(entries);
+	}
+
+	@Override
+	public long position() {
+		return position;
+	}
+
+	@Override
+	public void commit(long position) {
+		if (position < this.position) throw new IllegalArgumentException("Position " + position + " is behind " + this.position);
+		undo.clear();
+		this.position = position;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void rollback() {
+		undo.forEach((key, previous) -> {
+			if (previous == ABSENT) {
+				entries.remove(key);
+			} else {
+				entries.put(key, (V) previous);
+			}
+		});
+		undo.clear();
+	}
+}
@@ -0,0 +1,157 @@
+package com.pdoming.kernel.core.projection;
+
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.ddd.Identifiable;
+import com.pdoming.kernel.core.eventstore.EventSource;
+import com.pdoming.kernel.core.util.DispatchTable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a {@link View} up to date with the events of an {@link EventSource}.
+ *
+ * Handlers are registered per event type, and resolved through a
+ * {@link DispatchTable} the first time the projection runs. Each call to
+ * {@link #catchUp(EventSource)} applies the events appended since the
+ * position of the view, so calling it periodically updates the view
+ * incrementally. Events are applied in batches: the view is committed,
+ * along with the position of the next event, every {@code batchSize}
+ * events. If a handler fails the current batch is rolled back.
+ *
+ * Events before the position of the view are never applied twice, even
+ * when catching up from an earlier offset, so handlers do not need to be
+ * idempotent.
+ *
+ * @param <ID> the type of the source identifier of the events
+ */
+public final class Projection<ID extends Identifiable> {
+
+	private static final int DEFAULT_BATCH_SIZE = 512;
+
+	private final View<?, ?> view;
+	private final int batchSize;
+	private final Map<Class<?>, List<Consumer<Object>>> registrations = new LinkedHashMap<>();
+	private DispatchTable<Consumer<Object>> table;
+
+	/**
+	 * Creates a new {@link Projection}
+	 * @param view the view updated by the handlers
+	 */
+	public Projection(View<?, ?> view) {
+		this(view, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Creates a new {@link Projection}
+	 * @param view the view updated by the handlers
+	 * @param batchSize the number of events applied between commits
+	 */
+	public Projection(View<?, ?> view, int batchSize) {
+		if (batchSize < 1) throw new IllegalArgumentException("Batch size must be positive");
+		this.view = Objects.requireNonNull(view);
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Registers a handler of the events of the given type and its subtypes.
+	 * Handlers are invoked in registration order
+	 * @param type the type of the events
+	 * @param handler the function that applies an event to the view
+	 * @param <E> the type of the events
+	 * @return this projection
+	 * @throws IllegalStateException if the projection has already run
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized <E extends DomainEvent<ID>> Projection<ID> on(Class<E> type, Consumer<? super E> handler) {
+		Objects.requireNonNull(type);
+		Objects.requireNonNull(handler);
+		if (table != null) throw new IllegalStateException("Handlers must be registered before the projection runs");
+		registrations.computeIfAbsent(type, key -> new ArrayList<>()).add((Consumer<Object>) handler);
+		return this;
+	}
+
+	/**
+	 * @return the position the view is up to date with
+	 */
+	public long position() {
+		return view.position();
+	}
+
+	/**
+	 * Applies the events from the position of the view up to the end of the log
+	 * @param source the log of events
+	 * @return the number of events applied
+	 * @throws IllegalStateException if a handler failed, the view is then
+	 *                               left at the last committed batch
+	 */
+	public long catchUp(EventSource<ID> source) {
+		return catchUp(source, view.position());
+	}
+
+	/**
+	 * Applies the events from the given offset up to the end of the log. The
+	 * events between the offset and the position of the view, if any, are skipped
+	 * @param source the log of events
+	 * @param fromPosition the position of an event, or the end of the log
+	 * @return the number of events applied
+	 * @throws IllegalStateException if a handler failed, the view is then
+	 *                               left at the last committed batch
+	 */
+	public synchronized long catchUp(EventSource<ID> source, long fromPosition) {
+		Objects.requireNonNull(source);
+		if (table == null) {
+			table = new DispatchTable<>(registrations);
+		}
+		Applier applier = new Applier(view.position());
+		long end;
+		try {
+			end = source.scan(Math.max(fromPosition, 0), applier);
+		} catch (RuntimeException ex) {
+			view.rollback();
+			throw new IllegalStateException("Projection failed at position " + applier.current
+					+ ", it resumes from position " + view.position(), ex);
+		}
+		if (end > view.position()) {
+			view.commit(end);
+		}
+		return applier.applied;
+	}
+
+	/**
+	 * Applies the events visited by a scan, committing every batch
+	 */
+	private final class Applier implements EventSource.Visitor<ID> {
+
+		private final long skipBefore;
+		private long current = -1;
+		private long applied;
+		private int pending;
+
+		private Applier(long skipBefore) {
+			this.skipBefore = skipBefore;
+		}
+
+		@Override
+		public boolean visit(long position, DomainEvent<ID> event) {
+			if (position < skipBefore) return true;
+			current = position;
+			if (pending == batchSize) {
+				// Every event before this one has been applied
+				view.commit(position);
+				pending = 0;
+			}
+			List<Consumer<Object>> handlers = table.handlersFor(event.getClass());
+			for (int i = 0, n = handlers.size(); i < n; i++) {
+				handlers.get(i).accept(event);
+			}
+			pending++;
+			applied++;
+			return true;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.pdoming.kernel.core.projection;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * Read model maintained by a {@link Projection}: a map of entries together
+ * with the position of the log the entries are up to date with.
+ *
+ * Changes are applied in batches. The changes made since the last
+ * {@link #commit(long) commit} are discarded by a {@link #rollback()}, so a
+ * batch is either applied as a whole, along with its position, or not at all.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public interface View<K, V> {
+
+	/**
+	 * @param key a key
+	 * @return the value of the key, or null if absent
+	 */
+	V get(K key);
+
+	/**
+	 * @param key a key
+	 * @param value the new value of the key, not null
+	 */
+	void put(K key, V value);
+
+	/**
+	 * @param key the key to remove, possibly absent
+	 */
+	void remove(K key);
+
+	/**
+	 * Computes the new value of a key from its current one
+	 * @param key a key
+	 * @param remapping computes the new value from the current one, which may
+	 *                  be null; returning null removes the key
+	 * @return the new value, or null if the key was removed
+	 */
+	default V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+		Objects.requireNonNull(remapping);
+		V value = remapping.apply(key, get(key));
+		if (value == null) {
+			remove(key);
+		} else {
+			put(key, value);
+		}
+		return value;
+	}
+
+	/**
+	 * @return the number of entries
+	 */
+	int size();
+
+	/**
+	 * @param action the function to apply to every entry
+	 */
+	void forEach(BiConsumer<? super K, ? super V> action);
+
+	/**
+	 * @return the position to resume the projection from: every event before it
+	 *         is reflected in the committed entries
+	 */
+	long position();
+
+	/**
+	 * Makes the changes since the last commit permanent
+	 * @param position the position to resume the projection from, not lower
+	 *                 than the current one
+	 */
+	void commit(long position);
+
+	/**
+	 * Discards the changes since the last commit
+	 */
+	void rollback();
+}
@@ -0,0 +1,38 @@
+package com.pdoming.kernel.core.replay;
+
+/**
+ * Durable record of how far a replay went, so that an interrupted replay
+ * resumes from there instead of starting over.
+ */
+public interface CheckpointStore {
+
+	/**
+	 * @return the position to resume the replay from, 0 if there is no checkpoint
+	 */
+	long load();
+
+	/**
+	 * Records that every event before the given position has been replayed
+	 * @param position the position to resume the replay from
+	 */
+	void save(long position);
+
+	/**
+	 * @return a store that keeps the checkpoint in memory only
+	 */
+	static CheckpointStore inMemory() {
+		return new CheckpointStore() {
+			private volatile long position;
+
+			@Override
+			public long load() {
+				return position;
+			}
+
+			@Override
+			public void save(long position) {
+				this.position = position;
+			}
+		};
+	}
+}
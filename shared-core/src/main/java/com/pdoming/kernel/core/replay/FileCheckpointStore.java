@@ -0,0 +1,67 @@
+package com.pdoming.kernel.core.replay;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * {@link CheckpointStore} that keeps the checkpoint in a file.
+ *
+ * A checkpoint is written to a temporary file, flushed to disk and moved
+ * over the previous one, so a crash leaves either the old or the new
+ * checkpoint, never a torn one.
+ */
+public final class FileCheckpointStore implements CheckpointStore {
+
+	private final Path file;
+	private final Path temporary;
+
+	/**
+	 * Creates a new {@link FileCheckpointStore}
+	 * @param file the file holding the checkpoint, created on the first save
+	 */
+	public FileCheckpointStore(Path file) {
+		this.file = Objects.requireNonNull(file);
+		this.temporary = file.resolveSibling(file.getFileName() + ".tmp");
+	}
+
+	@Override
+	public long load() {
+		try {
+			if (!Files.exists(file)) return 0;
+			return Long.parseLong(Files.readString(file).trim());
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Cannot read checkpoint " + file, ex);
+		}
+	}
+
+	@Override
+	public synchronized void save(long position) {
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer content = ByteBuffer.wrap(Long.toString(position).getBytes());
+			while (content.hasRemaining()) {
+				channel.write(content);
+			}
+			channel.force(true);
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Cannot write checkpoint " + temporary, ex);
+		}
+		try {
+			try {
+				Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException ex) {
+				Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Cannot write checkpoint " + file, ex);
+		}
+	}
+}
@@ -0,0 +1,367 @@
+package com.pdoming.kernel.core.replay;
+
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.ddd.Identifiable;
+import com.pdoming.kernel.core.eventstore.EventSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Replays the events of an {@link EventSource} in parallel, for instance to
+ * rebuild read models.
+ *
+ * Events are partitioned by the hash of their source identifier, and every
+ * partition is replayed by a thread of its own. The events of an aggregate
+ * always land in the same partition, so they are handled in the order they
+ * were appended, while different aggregates are replayed in parallel. The
+ * calling thread reads the log and hands the events to the partitions in
+ * batches, through bounded queues, so a slow partition slows the reading
+ * down instead of piling up events in memory.
+ *
+ * Every {@code checkpointInterval} events a barrier goes through all the
+ * partitions. Once every partition has handled the events before it, its
+ * position is saved in the {@link CheckpointStore}, and the next replay
+ * resumes from there. Handlers must therefore tolerate seeing again the
+ * events after the last checkpoint.
+ *
+ * An engine runs a single replay.
+ *
+ * @param <ID> the type of the source identifier of the events
+ */
+public final class ReplayEngine<ID extends Identifiable> {
+
+	private static final int BATCH_SIZE = 256;
+	private static final int QUEUE_CAPACITY = 64;
+	private static final Object STOP = new Object();
+
+	private final EventSource<ID> source;
+	private final CheckpointStore checkpoints;
+	private final long checkpointInterval;
+	private final List<Partition> partitions;
+
+	private final AtomicBoolean started = new AtomicBoolean();
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+	private volatile boolean stopRequested;
+	private volatile long startNanos;
+	private volatile long endNanos;
+
+	/* Guarded by this */
+	private long lastCheckpoint;
+
+	/**
+	 * Creates a new {@link ReplayEngine} that replays the whole log, with no checkpoints
+	 * @param source the log of events
+	 * @param partitions the number of partitions replayed in parallel
+	 * @param handlers creates the handler of the events of each partition,
+	 *                 given the index of the partition
+	 */
+	public ReplayEngine(EventSource<ID> source,
+	                    int partitions,
+	                    IntFunction<? extends Consumer<? super DomainEvent<ID>>> handlers) {
+		this(source, partitions, handlers, CheckpointStore.inMemory(), Long.MAX_VALUE);
+	}
+
+	/**
+	 * Creates a new {@link ReplayEngine}
+	 * @param source the log of events
+	 * @param partitions the number of partitions replayed in parallel
+	 * @param handlers creates the handler of the events of each partition,
+	 *                 given the index of the partition
+	 * @param checkpoints the store of the checkpoints, where the replay resumes from
+	 * @param checkpointInterval the number of events between checkpoints
+	 */
+	public ReplayEngine(EventSource<ID> source,
+	                    int partitions,
+	                    IntFunction<? extends Consumer<? super DomainEvent<ID>>> handlers,
+	                    CheckpointStore checkpoints,
+	                    long checkpointInterval) {
+		if (partitions < 1) throw new IllegalArgumentException("There must be at least one partition");
+		if (checkpointInterval < 1) throw new IllegalArgumentException("Checkpoint interval must be positive");
+		Objects.requireNonNull(handlers);
+		this.source = Objects.requireNonNull(source);
+		this.checkpoints = Objects.requireNonNull(checkpoints);
+		this.checkpointInterval = checkpointInterval;
+		this.partitions = new ArrayList<>(partitions);
+		for (int i = 0; i < partitions; i++) {
+			this.partitions.add(new Partition(i, Objects.requireNonNull(handlers.apply(i))));
+		}
+	}
+
+	/**
+	 * @param sourceId the source identifier of an event
+	 * @param partitions the number of partitions
+	 * @return the partition the events of that aggregate are replayed in
+	 */
+	public static int partitionOf(Object sourceId, int partitions) {
+		// Mix the hash, then map it to [0, partitions) with a multiplication instead of a division
+		long hash = (sourceId.hashCode() * 0x9E3779B9L) & 0xFFFFFFFFL;
+		return (int) ((hash * partitions) >>> 32);
+	}
+
+	/* ------------------------ Replay ------------------------ */
+
+	/**
+	 * Replays the events from the last checkpoint up to the end of the log,
+	 * or until the replay is {@link #stop() stopped}, and saves a final
+	 * checkpoint. Blocks the calling thread, which reads the log
+	 * @return the statistics of the replay
+	 * @throws IllegalStateException if a handler or the scan of the log failed,
+	 *                               the replay may then be resumed from the last
+	 *                               checkpoint by a new engine
+	 */
+	public ReplayStats run() {
+		if (!started.compareAndSet(false, true)) throw new IllegalStateException("The engine has already run");
+		long from = checkpoints.load();
+		synchronized (this) {
+			lastCheckpoint = from;
+		}
+
+		startNanos = System.nanoTime();
+		for (Partition partition : partitions) {
+			Thread thread = new Thread(partition, "replay-partition-" + partition.index);
+			thread.setDaemon(true);
+			partition.thread = thread;
+			thread.start();
+		}
+
+		Reader reader = new Reader();
+		try {
+			long end = source.scan(from, reader);
+			if (reader.stoppedAt >= 0) {
+				end = reader.stoppedAt;
+			}
+			if (failure.get() == null) {
+				reader.barrier(end);
+			}
+		} catch (RuntimeException | Error ex) {
+			// E.g. a record that cannot be decoded, the partitions must still be stopped
+			fail(ex);
+		}
+		for (Partition partition : partitions) {
+			reader.enqueue(partition, STOP);
+		}
+		reader.awaitPartitions();
+		endNanos = System.nanoTime();
+
+		Throwable error = failure.get();
+		if (error != null) throw new IllegalStateException("Replay failed, it may resume from position " + lastCheckpoint(), error);
+		return stats();
+	}
+
+	/**
+	 * Asks the replay to stop. It stops after the events already read, and
+	 * saves a checkpoint so that a new replay resumes from there
+	 */
+	public void stop() {
+		stopRequested = true;
+	}
+
+	/**
+	 * @return a snapshot of the progress of the replay, valid while it runs
+	 */
+	public ReplayStats stats() {
+		long[] events = new long[partitions.size()];
+		for (int i = 0; i < events.length; i++) {
+			events[i] = partitions.get(i).processed;
+		}
+		long start = startNanos;
+		long end = endNanos;
+		long elapsed = start == 0 ? 0 : (end == 0 ? System.nanoTime() : end) - start;
+		return new ReplayStats(events, elapsed, lastCheckpoint());
+	}
+
+	/* ------------------------ Internals ------------------------ */
+
+	private synchronized long lastCheckpoint() {
+		return lastCheckpoint;
+	}
+
+	private void checkpoint(long position) {
+		synchronized (this) {
+			// Barriers complete in order, but the threads saving them may race
+			if (failure.get() != null || position <= lastCheckpoint) return;
+			try {
+				checkpoints.save(position);
+				lastCheckpoint = position;
+			} catch (RuntimeException ex) {
+				fail(ex);
+			}
+		}
+	}
+
+	private void fail(Throwable error) {
+		failure.compareAndSet(null, error);
+	}
+
+	/**
+	 * Reads the log in the calling thread and spreads its events among the
+	 * partitions
+	 */
+	private final class Reader implements EventSource.Visitor<ID> {
+
+		private long sinceCheckpoint;
+		private long stoppedAt = -1;
+		private boolean interrupted;
+
+		@Override
+		public boolean visit(long position, DomainEvent<ID> event) {
+			if (stopRequested || failure.get() != null) {
+				stoppedAt = position;
+				return false;
+			}
+			if (sinceCheckpoint == checkpointInterval) {
+				// Every event before this one is now in the queues
+				barrier(position);
+				sinceCheckpoint = 0;
+			}
+			Partition partition = partitions.get(partitionOf(event.getSourceId(), partitions.size()));
+			partition.pending[partition.pendingSize++] = event;
+			if (partition.pendingSize == BATCH_SIZE) {
+				flush(partition);
+			}
+			sinceCheckpoint++;
+			return true;
+		}
+
+		private void barrier(long position) {
+			Barrier barrier = new Barrier(ReplayEngine.this, position, partitions.size());
+			for (Partition partition : partitions) {
+				flush(partition);
+				enqueue(partition, barrier);
+			}
+		}
+
+		private void flush(Partition partition) {
+			if (partition.pendingSize == 0) return;
+			Batch batch = new Batch(partition.pending, partition.pendingSize);
+			partition.pending = new DomainEvent<?>[BATCH_SIZE];
+			partition.pendingSize = 0;
+			enqueue(partition, batch);
+		}
+
+		private void enqueue(Partition partition, Object item) {
+			while (true) {
+				try {
+					partition.queue.put(item);
+					break;
+				} catch (InterruptedException ex) {
+					// Stop reading, but let the partitions drain what they have
+					interrupted = true;
+					stopRequested = true;
+				}
+			}
+		}
+
+		private void awaitPartitions() {
+			for (Partition partition : partitions) {
+				while (true) {
+					try {
+						partition.thread.join();
+						break;
+					} catch (InterruptedException ex) {
+						interrupted = true;
+					}
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Replays the events of a partition in a thread of its own
+	 */
+	private final class Partition implements Runnable {
+
+		private final int index;
+		private final Consumer<? super DomainEvent<ID>> handler;
+		private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+		private Thread thread;
+
+		/* Owned by the reader */
+		private DomainEvent<?>[] pending = new DomainEvent<?>[BATCH_SIZE];
+		private int pendingSize;
+
+		/* Written by the partition thread only */
+		private volatile long processed;
+
+		private Partition(int index, Consumer<? super DomainEvent<ID>> handler) {
+			this.index = index;
+			this.handler = handler;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public void run() {
+			while (true) {
+				Object item;
+				try {
+					item = queue.take();
+				} catch (InterruptedException ex) {
+					fail(ex);
+					continue;
+				}
+				if (item == STOP) return;
+				if (item instanceof Barrier) {
+					((Barrier) item).arrive();
+				} else if (failure.get() == null) {
+					// After a failure batches are only drained, so the reader never blocks
+					Batch batch = (Batch) item;
+					try {
+						for (int i = 0; i < batch.size; i++) {
+							handler.accept((DomainEvent<ID>) batch.events[i]);
+						}
+						processed += batch.size;
+					} catch (Throwable error) {
+						fail(error);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Group of consecutive events of a partition
+	 */
+	private static final class Batch {
+		private final DomainEvent<?>[] events;
+		private final int size;
+
+		private Batch(DomainEvent<?>[] events, int size) {
+			this.events = events;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * Marks a position of the log in every partition. The last partition to
+	 * reach it saves the checkpoint
+	 */
+	private static final class Barrier {
+		private final ReplayEngine<?> engine;
+		private final long position;
+		private final AtomicInteger remaining;
+
+		private Barrier(ReplayEngine<?> engine, long position, int partitions) {
+			this.engine = engine;
+			this.position = position;
+			this.remaining = new AtomicInteger(partitions);
+		}
+
+		private void arrive() {
+			if (remaining.decrementAndGet() == 0) {
+				engine.checkpoint(position);
+			}
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.pdoming.kernel.core.replay;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Immutable snapshot of the progress of a replay
+ */
+public final class ReplayStats {
+
+	private final long[] events;
+	private final long elapsedNanos;
+	private final long checkpoint;
+
+	ReplayStats(long[] events, long elapsedNanos, long checkpoint) {
+		this.events = events;
+		this.elapsedNanos = elapsedNanos;
+		this.checkpoint = checkpoint;
+	}
+
+	/**
+	 * @return the number of partitions
+	 */
+	public int partitions() {
+		return events.length;
+	}
+
+	/**
+	 * @param partition the index of a partition
+	 * @return the number of events replayed by the partition
+	 */
+	public long events(int partition) {
+		return events[partition];
+	}
+
+	/**
+	 * @return the number of events replayed by all partitions
+	 */
+	public long totalEvents() {
+		long total = 0;
+		for (long count : events) {
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * @param partition the index of a partition
+	 * @return the events replayed per second by the partition
+	 */
+	public double eventsPerSecond(int partition) {
+		return perSecond(events[partition]);
+	}
+
+	/**
+	 * @return the events replayed per second by all partitions
+	 */
+	public double eventsPerSecond() {
+		return perSecond(totalEvents());
+	}
+
+	/**
+	 * @return the time the replay has been running
+	 */
+	public Duration elapsed() {
+		return Duration.ofNanos(elapsedNanos);
+	}
+
+	/**
+	 * @return the position of the last checkpoint saved
+	 */
+	public long checkpoint() {
+		return checkpoint;
+	}
+
+	private double perSecond(long count) {
+		return elapsedNanos == 0 ? 0.0 : count * 1e9 / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return "ReplayStats{" +
+				"events=" + Arrays.toString(events) +
+				", elapsed=" + elapsed() +
+				", eventsPerSecond=" + eventsPerSecond() +
+				", checkpoint=" + checkpoint +
+				'}';
+	}
+}
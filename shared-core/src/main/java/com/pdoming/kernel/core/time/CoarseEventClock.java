@@ -0,0 +1,60 @@
+package com.pdoming.kernel.core.time;
+
+import com.pdoming.kernel.core.util.MoreExecutors;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EventClock} that caches the system time, refreshed by a background
+ * ticker thread at a fixed rate.
+ *
+ * Reading the time is then a single volatile read, which is cheaper than a
+ * call to {@link System#currentTimeMillis()}, at the cost of a resolution no
+ * finer than the tick. Its stamps have no logical counter; wrap it in a
+ * {@link HybridLogicalClock} to get unique, monotonic stamps:
+ * <pre>{@code new HybridLogicalClock(coarseClock::millis)}</pre>
+ */
+public final class CoarseEventClock implements EventClock, AutoCloseable {
+
+	private final ScheduledExecutorService ticker;
+	private volatile long millis = System.currentTimeMillis();
+
+	private CoarseEventClock(Duration resolution) {
+		long nanos = resolution.toNanos();
+		if (nanos <= 0) throw new IllegalArgumentException("Resolution must be positive");
+		this.ticker = Executors.newSingleThreadScheduledExecutor(MoreExecutors.daemonThreadFactory("coarse-event-clock-"));
+		ticker.scheduleAtFixedRate(() -> millis = System.currentTimeMillis(), nanos, nanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Creates a new {@link CoarseEventClock} and starts its ticker
+	 * @param resolution the time between updates of the cached time
+	 * @return a new clock, to be closed once not needed
+	 */
+	public static CoarseEventClock start(Duration resolution) {
+		return new CoarseEventClock(resolution);
+	}
+
+	/**
+	 * @return the cached time, in milliseconds since the epoch
+	 */
+	public long millis() {
+		return millis;
+	}
+
+	@Override
+	public long stamp() {
+		return EventClock.stamp(millis, 0);
+	}
+
+	/**
+	 * Stops the ticker, the cached time is not updated anymore
+	 */
+	@Override
+	public void close() {
+		ticker.shutdownNow();
+	}
+}
@@ -0,0 +1,80 @@
+package com.pdoming.kernel.core.time;
+
+import java.time.Instant;
+
+/**
+ * Source of the timestamps of domain events.
+ *
+ * Timestamps are packed in a single {@code long}, a stamp: the upper 48 bits
+ * hold milliseconds since the epoch and the lower 16 bits a logical counter
+ * that orders events within the same millisecond. Stamps compare as plain
+ * longs, with no allocation involved, and convert to an {@link Instant} with
+ * {@link #toInstant(long)}.
+ *
+ * Implementations are registered as a {@link java.util.ServiceLoader service}
+ * or set through {@link EventClocks#set(EventClock)}, so that for instance
+ * replays and tests can fix the time.
+ */
+public interface EventClock {
+
+	/**
+	 * Number of bits of the logical counter of a stamp
+	 */
+	int LOGICAL_BITS = 16;
+
+	/**
+	 * @return the stamp of an event happening now
+	 */
+	long stamp();
+
+	/* ------------------------ Static helpers ------------------------ */
+
+	/**
+	 * @param millis milliseconds since the epoch
+	 * @param logical the logical counter, within [0, 65535]
+	 * @return the stamp
+	 */
+	static long stamp(long millis, int logical) {
+		return (millis << LOGICAL_BITS) | (logical & 0xFFFF);
+	}
+
+	/**
+	 * @param stamp a stamp
+	 * @return the milliseconds since the epoch of the stamp
+	 */
+	static long millisOf(long stamp) {
+		return stamp >>> LOGICAL_BITS;
+	}
+
+	/**
+	 * @param stamp a stamp
+	 * @return the logical counter of the stamp
+	 */
+	static int logicalOf(long stamp) {
+		return (int) stamp & 0xFFFF;
+	}
+
+	/**
+	 * @param stamp a stamp
+	 * @return the instant of the stamp, truncated to milliseconds
+	 */
+	static Instant toInstant(long stamp) {
+		return Instant.ofEpochMilli(millisOf(stamp));
+	}
+
+	/**
+	 * @param instant an instant after the epoch
+	 * @return the stamp of the instant, truncated to milliseconds, with no logical counter
+	 */
+	static long fromInstant(Instant instant) {
+		return stamp(instant.toEpochMilli(), 0);
+	}
+
+	/**
+	 * @return a clock that reads the system time on every stamp, with no
+	 *         logical counter, so its stamps are neither unique nor monotonic
+	 */
+	static EventClock system() {
+		return () -> stamp(System.currentTimeMillis(), 0);
+	}
+}
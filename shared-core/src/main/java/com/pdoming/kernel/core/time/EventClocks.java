@@ -0,0 +1,45 @@
+package com.pdoming.kernel.core.time;
+
+import java.util.Objects;
+import java.util.ServiceLoader;
+
+/**
+ * Holder of the {@link EventClock} that stamps new domain events.
+ *
+ * The default clock is the first one registered as a {@link ServiceLoader}
+ * provider of {@link EventClock}, or a {@link HybridLogicalClock} following
+ * the system time if there is none.
+ */
+public final class EventClocks {
+
+	private static volatile EventClock clock = loadDefault();
+
+	private EventClocks() {
+	}
+
+	/**
+	 * @return the clock in use
+	 */
+	public static EventClock get() {
+		return clock;
+	}
+
+	/**
+	 * Replaces the clock in use, for instance to fix the time during a replay
+	 * @param eventClock the new clock
+	 */
+	public static void set(EventClock eventClock) {
+		clock = Objects.requireNonNull(eventClock);
+	}
+
+	/**
+	 * @return the stamp of an event happening now, according to the clock in use
+	 */
+	public static long stamp() {
+		return clock.stamp();
+	}
+
+	private static EventClock loadDefault() {
+		return ServiceLoader.load(EventClock.class).findFirst().orElseGet(HybridLogicalClock::new);
+	}
+}
@@ -0,0 +1,70 @@
+package com.pdoming.kernel.core.time;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Hybrid logical clock, an {@link EventClock} whose stamps are strictly
+ * increasing and stay close to the physical time.
+ *
+ * A stamp is the physical time when it is ahead of the last stamp issued,
+ * or the last stamp plus one otherwise, which bumps its logical counter.
+ * Nodes exchanging events {@link #update(long) merge} the stamps they
+ * receive, so that an event is always stamped after the events its node
+ * has seen, whatever the skew between the physical clocks of the nodes.
+ *
+ * Stamps are issued with a compare-and-set loop, without locking.
+ */
+public final class HybridLogicalClock implements EventClock {
+
+	private final LongSupplier physicalMillis;
+	private final AtomicLong last = new AtomicLong();
+
+	/**
+	 * Creates a new {@link HybridLogicalClock} following the system time
+	 */
+	public HybridLogicalClock() {
+		this(System::currentTimeMillis);
+	}
+
+	/**
+	 * Creates a new {@link HybridLogicalClock}
+	 * @param physicalMillis the source of the physical time, in milliseconds since the epoch
+	 */
+	public HybridLogicalClock(LongSupplier physicalMillis) {
+		this.physicalMillis = Objects.requireNonNull(physicalMillis);
+	}
+
+	@Override
+	public long stamp() {
+		long physical = EventClock.stamp(physicalMillis.getAsLong(), 0);
+		while (true) {
+			long current = last.get();
+			long next = Math.max(physical, current + 1);
+			if (last.compareAndSet(current, next)) return next;
+		}
+	}
+
+	/**
+	 * Merges the stamp of an event received from another node, so that the
+	 * following stamps of this clock are greater than it
+	 * @param remoteStamp the stamp of the received event
+	 * @return a stamp greater than both the received one and any previous one
+	 */
+	public long update(long remoteStamp) {
+		long physical = EventClock.stamp(physicalMillis.getAsLong(), 0);
+		while (true) {
+			long current = last.get();
+			long next = Math.max(physical, Math.max(current, remoteStamp) + 1);
+			if (last.compareAndSet(current, next)) return next;
+		}
+	}
+
+	/**
+	 * @return the last stamp issued, 0 if there is none
+	 */
+	public long lastStamp() {
+		return last.get();
+	}
+}
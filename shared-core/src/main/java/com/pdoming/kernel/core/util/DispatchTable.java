@@ -0,0 +1,64 @@
+package com.pdoming.kernel.core.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable table that resolves the handlers registered for a type and all
+ * its supertypes.
+ *
+ * The handlers of a concrete class are computed the first time the class is
+ * looked up and cached in a {@link ClassValue}, so later lookups are a plain
+ * field read with no reflection nor {@code instanceof} chains involved.
+ *
+ * @param <H> the type of the handlers
+ */
+public final class DispatchTable<H> {
+
+	private final Map<Class<?>, List<H>> registrations;
+
+	private final ClassValue<List<H>> table = new ClassValue<>() {
+		@Override
+		protected List<H> computeValue(Class<?> type) {
+			List<H> handlers = new ArrayList<>();
+			registrations.forEach((registered, registeredHandlers) -> {
+				if (registered.isAssignableFrom(type)) {
+					handlers.addAll(registeredHandlers);
+				}
+			});
+			return handlers.isEmpty() ? Collections.emptyList() : List.copyOf(handlers);
+		}
+	};
+
+	/**
+	 * Creates a new {@link DispatchTable}
+	 * @param registrations the handlers registered for each type, iterated in
+	 *                      the order handlers must be invoked
+	 */
+	public DispatchTable(Map<Class<?>, ? extends List<? extends H>> registrations) {
+		Objects.requireNonNull(registrations);
+		Map<Class<?>, List<H>> copy = new LinkedHashMap<>();
+		registrations.forEach((type, handlers) -> copy.put(type, List.copyOf(handlers)));
+		this.registrations = copy;
+	}
+
+	/**
+	 * Returns the handlers registered for the given type or any of its supertypes
+	 * @param type a concrete class
+	 * @return an immutable, possibly empty, list of handlers
+	 */
+	public List<H> handlersFor(Class<?> type) {
+		return table.get(type);
+	}
+
+	/**
+	 * @return whether no handler has been registered
+	 */
+	public boolean isEmpty() {
+		return registrations.isEmpty();
+	}
+}
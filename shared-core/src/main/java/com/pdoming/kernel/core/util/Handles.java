@@ -0,0 +1,24 @@
+package com.pdoming.kernel.core.util;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method handling the events of the type of its single parameter,
+ * and its subtypes.
+ *
+ * For every class or interface declaring such methods, the {@code shared-processor}
+ * annotation processor generates at build time the class {@code <Handler>Dispatcher}
+ * of the same package. It wraps a handler and gives the list of the types of
+ * events handled and, for each of them, a {@code Consumer} invoking the
+ * methods taking it, meant to be registered in a {@link DispatchTable}, so
+ * that no reflection is needed to find the handler methods.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.CLASS)
+public @interface Handles {
+}
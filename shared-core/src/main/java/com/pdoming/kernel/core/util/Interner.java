@@ -0,0 +1,145 @@
+package com.pdoming.kernel.core.util;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Canonicalizes equal instances of an immutable type, so that large numbers
+ * of equal values share a single instance.
+ *
+ * Canonical instances are only weakly referenced and are garbage collected
+ * once nothing else uses them. The table is split in shards, each guarded by
+ * its own lock, so that threads interning different values rarely contend.
+ *
+ * @param <T> the type of the values, which must be immutable and implement
+ *            {@link Object#equals(Object)} and {@link Object#hashCode()}
+ */
+public final class Interner<T> {
+
+	private final Shard<T>[] shards;
+	private final int mask;
+
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder hits = new LongAdder();
+
+	/**
+	 * Creates a new {@link Interner} with a number of shards suited to the
+	 * available processors
+	 */
+	public Interner() {
+		this(4 * Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a new {@link Interner}
+	 * @param concurrency the expected number of threads interning at once,
+	 *                    rounded up to a power of 2 to get the number of shards
+	 */
+	@SuppressWarnings("unchecked")
+	public Interner(int concurrency) {
+		if (concurrency <= 0) throw new IllegalArgumentException("Concurrency must be positive");
+		int count = concurrency == 1 ? 1 : Integer.highestOneBit(concurrency - 1) << 1;
+		this.shards = (Shard<T>[]) new Shard<?>[count];
+		for (int i = 0; i < count; i++) {
+			shards[i] = new Shard<>();
+		}
+		this.mask = count - 1;
+	}
+
+	/**
+	 * Returns the canonical instance equal to the given value, which becomes
+	 * the canonical one if there is none yet
+	 * @param value a non null value
+	 * @return the canonical instance
+	 */
+	public T intern(T value) {
+		Objects.requireNonNull(value);
+		requests.increment();
+		int hash = value.hashCode();
+		Shard<T> shard = shards[(hash ^ (hash >>> 16)) & mask];
+		synchronized (shard) {
+			WeakReference<T> reference = shard.table.get(value);
+			T canonical = reference == null ? null : reference.get();
+			if (canonical != null) {
+				hits.increment();
+				return canonical;
+			}
+			shard.table.put(value, new WeakReference<>(value));
+			return value;
+		}
+	}
+
+	/**
+	 * @return a snapshot of the counters of this interner
+	 */
+	public Stats stats() {
+		long size = 0;
+		for (Shard<T> shard : shards) {
+			synchronized (shard) {
+				size += shard.table.size();
+			}
+		}
+		return new Stats(requests.sum(), hits.sum(), size);
+	}
+
+	private static final class Shard<T> {
+		private final Map<T, WeakReference<T>> table = new WeakHashMap<>();
+	}
+
+	/**
+	 * Immutable snapshot of the counters of an {@link Interner}
+	 */
+	public static final class Stats {
+
+		private final long requestCount;
+		private final long hitCount;
+		private final long size;
+
+		private Stats(long requestCount, long hitCount, long size) {
+			this.requestCount = requestCount;
+			this.hitCount = hitCount;
+			this.size = size;
+		}
+
+		/**
+		 * @return the number of values interned
+		 */
+		public long requestCount() {
+			return requestCount;
+		}
+
+		/**
+		 * @return the number of values replaced by an existing canonical instance
+		 */
+		public long hitCount() {
+			return hitCount;
+		}
+
+		/**
+		 * @return the number of live canonical instances
+		 */
+		public long size() {
+			return size;
+		}
+
+		/**
+		 * @return the ratio of interned values that were duplicates, 0 when there were none
+		 */
+		public double dedupRatio() {
+			return requestCount == 0 ? 0.0 : (double) hitCount / requestCount;
+		}
+
+		@Override
+		public String toString() {
+			return "Interner.Stats{" +
+					"requestCount=" + requestCount +
+					", hitCount=" + hitCount +
+					", size=" + size +
+					", dedupRatio=" + dedupRatio() +
+					'}';
+		}
+	}
+}
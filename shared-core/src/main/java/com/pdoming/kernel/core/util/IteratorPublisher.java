@@ -0,0 +1,153 @@
+package com.pdoming.kernel.core.util;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * {@link Flow.Publisher} of the elements of an iterator, created for every
+ * subscriber, which are emitted only as they are requested. Large sources
+ * are thus consumed incrementally, at the pace of the subscriber, instead of
+ * being materialized in memory.
+ *
+ * Elements are emitted either by the thread requesting them or by a given
+ * executor. In both cases a subscriber requesting more elements from
+ * {@code onNext} does not recurse: the emission loop picks the new demand up.
+ *
+ * @param <T> the type of the elements
+ */
+public final class IteratorPublisher<T> implements Flow.Publisher<T> {
+
+	private final Supplier<? extends Iterator<? extends T>> source;
+	private final Executor executor;
+
+	/**
+	 * Creates a new {@link IteratorPublisher} emitting in the requesting thread
+	 * @param source creates the iterator of the elements of a subscriber
+	 */
+	public IteratorPublisher(Supplier<? extends Iterator<? extends T>> source) {
+		this.source = Objects.requireNonNull(source);
+		this.executor = null;
+	}
+
+	/**
+	 * Creates a new {@link IteratorPublisher}
+	 * @param source creates the iterator of the elements of a subscriber
+	 * @param executor runs the emission of the elements
+	 */
+	public IteratorPublisher(Supplier<? extends Iterator<? extends T>> source, Executor executor) {
+		this.source = Objects.requireNonNull(source);
+		this.executor = Objects.requireNonNull(executor);
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		Objects.requireNonNull(subscriber);
+		IteratorSubscription subscription = new IteratorSubscription(subscriber);
+		subscriber.onSubscribe(subscription);
+	}
+
+	/**
+	 * Emits the elements of an iterator to a subscriber as they are requested
+	 */
+	private final class IteratorSubscription implements Flow.Subscription, Runnable {
+
+		private final Flow.Subscriber<? super T> subscriber;
+		private final AtomicLong requested = new AtomicLong();
+		private final AtomicInteger pendingDrains = new AtomicInteger();
+		private volatile boolean cancelled;
+		private volatile Throwable invalidRequest;
+
+		/* Owned by the draining thread */
+		private Iterator<? extends T> iterator;
+		private boolean done;
+
+		private IteratorSubscription(Flow.Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				invalidRequest = new IllegalArgumentException("Non positive request " + n);
+			} else {
+				requested.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+			}
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+		}
+
+		private void drain() {
+			if (pendingDrains.getAndIncrement() != 0) return;
+			if (executor == null) {
+				run();
+				return;
+			}
+			try {
+				executor.execute(this);
+			} catch (RejectedExecutionException ex) {
+				cancelled = true;
+				subscriber.onError(ex);
+			}
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+			do {
+				if (!done && !cancelled) {
+					emit();
+				}
+				missed = pendingDrains.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void emit() {
+			long emitted = 0;
+			try {
+				if (iterator == null) {
+					iterator = Objects.requireNonNull(source.get(), "Null iterator");
+				}
+				while (true) {
+					if (invalidRequest != null) {
+						terminate(invalidRequest);
+						return;
+					}
+					if (cancelled) return;
+					if (!iterator.hasNext()) {
+						terminate(null);
+						return;
+					}
+					if (emitted == requested.get()) {
+						requested.addAndGet(-emitted);
+						return;
+					}
+					T element = iterator.next();
+					subscriber.onNext(element);
+					emitted++;
+				}
+			} catch (RuntimeException ex) {
+				if (!done) terminate(ex);
+			}
+		}
+
+		private void terminate(Throwable error) {
+			done = true;
+			cancelled = true;
+			if (error == null) {
+				subscriber.onComplete();
+			} else {
+				subscriber.onError(error);
+			}
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package com.pdoming.kernel.core.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factories of executors suited to blocking, I/O bound tasks.
+ *
+ * On runtimes with virtual threads every task runs in a virtual thread of
+ * its own, so blocking calls are cheap. Otherwise tasks run on a cached pool
+ * of daemon platform threads. Virtual threads are looked up reflectively, and
+ * probed once, since runtimes where they are a preview feature have them
+ * throw unless previews are enabled, so this class works the same on every
+ * supported runtime.
+ */
+public final class MoreExecutors {
+
+	private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualThreadPerTaskExecutor();
+
+	private MoreExecutors() {
+	}
+
+	/**
+	 * @return whether the runtime supports virtual threads
+	 */
+	public static boolean virtualThreadsAvailable() {
+		return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+	}
+
+	/**
+	 * Creates an executor that starts a virtual thread per task or, where
+	 * they are not available, a cached pool of daemon threads
+	 * @param threadNamePrefix the prefix of the names of the platform threads
+	 * @return a new executor, to be shut down by the caller
+	 */
+	public static ExecutorService newVirtualThreadPerTaskExecutor(String threadNamePrefix) {
+		if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null) {
+			try {
+				return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invokeExact();
+			} catch (Throwable ex) {
+				throw new IllegalStateException("Cannot create a virtual thread executor", ex);
+			}
+		}
+		return Executors.newCachedThreadPool(daemonThreadFactory(threadNamePrefix));
+	}
+
+	/**
+	 * @return an executor shared by the whole application that starts a
+	 *         virtual thread per task, see {@link #newVirtualThreadPerTaskExecutor(String)}
+	 */
+	public static Executor sharedVirtualThreadExecutor() {
+		return SharedExecutorHolder.EXECUTOR;
+	}
+
+	/**
+	 * @param threadNamePrefix the prefix of the names of the threads
+	 * @return a factory of daemon threads named after the prefix and a sequence number
+	 */
+	public static ThreadFactory daemonThreadFactory(String threadNamePrefix) {
+		AtomicInteger sequence = new AtomicInteger();
+		return task -> {
+			Thread thread = new Thread(task, threadNamePrefix + sequence.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	private static MethodHandle findVirtualThreadPerTaskExecutor() {
+		MethodHandle handle;
+		try {
+			handle = MethodHandles.publicLookup().findStatic(Executors.class,
+					"newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+		} catch (NoSuchMethodException | IllegalAccessException ex) {
+			return null;
+		}
+		// On JDK 19 and 20 the method throws an UnsupportedOperationException without --enable-preview
+		try {
+			((ExecutorService) handle.invokeExact()).shutdown();
+			return handle;
+		} catch (Error ex) {
+			throw ex;
+		} catch (Throwable ex) {
+			return null;
+		}
+	}
+
+	private static final class SharedExecutorHolder {
+		// Only its execute method is exposed, so that it cannot be shut down
+		private static final Executor EXECUTOR = newVirtualThreadPerTaskExecutor("shared-io-")::execute;
+	}
+}
@@ -1,14 +1,48 @@
 package com.pdoming.kernel.core.vobjects;
 
+import com.pdoming.kernel.core.util.Interner;
+
+import java.util.Objects;
+
 public class Address {
 
+	private static final Interner<Address> INTERNER = new Interner<>();
+
 	private final String shippingAddress;
 
 	public Address(String shippingAddress) {
 		this.shippingAddress = shippingAddress;
 	}
 
+	/**
+	 * @param shippingAddress a shipping address
+	 * @return the canonical instance of the address
+	 */
 	public static Address valueOf(String shippingAddress) {
-		return new Address(shippingAddress);
+		return INTERNER.intern(new Address(shippingAddress));
+	}
+
+	/**
+	 * @return the counters of the instances created by {@link #valueOf(String)}
+	 */
+	public static Interner.Stats internerStats() {
+		return INTERNER.stats();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		return Objects.equals(shippingAddress, ((Address) o).shippingAddress);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(shippingAddress);
+	}
+
+	@Override
+	public String toString() {
+		return shippingAddress;
 	}
 }
@@ -0,0 +1,72 @@
+package com.pdoming.kernel.core.vobjects;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Table of the country calling codes assigned by the ITU, loaded once from
+ * the {@code country-calling-codes.txt} resource.
+ *
+ * Calling codes have one to three digits and none is the prefix of another,
+ * so the first three digits of an international number are enough to tell
+ * the length of its code. The table is that trie flattened into an array
+ * indexed by those three digits.
+ */
+final class CountryCallingCodes {
+
+	private static final String RESOURCE = "country-calling-codes.txt";
+
+	private static final byte[] CODE_LENGTHS = load();
+
+	private CountryCallingCodes() {
+	}
+
+	/**
+	 * @param firstThreeDigits the first three digits of an international number, as an int
+	 * @return the length of the calling code the number starts with, 0 if it is not assigned
+	 */
+	static int codeLength(int firstThreeDigits) {
+		return CODE_LENGTHS[firstThreeDigits];
+	}
+
+	/**
+	 * @param code a candidate calling code
+	 * @return whether it is an assigned calling code
+	 */
+	static boolean isAssigned(int code) {
+		if (code <= 0 || code > 999) return false;
+		int length = code < 10 ? 1 : code < 100 ? 2 : 3;
+		int prefix = length == 1 ? code * 100 : length == 2 ? code * 10 : code;
+		return CODE_LENGTHS[prefix] == length;
+	}
+
+	private static byte[] load() {
+		byte[] lengths = new byte[1000];
+		try (InputStream input = CountryCallingCodes.class.getResourceAsStream(RESOURCE)) {
+			if (input == null) throw new IllegalStateException("Missing resource " + RESOURCE);
+			BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.US_ASCII));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) continue;
+				for (String token : line.split("\\s+")) {
+					int length = token.length();
+					int code = Integer.parseInt(token);
+					int span = length == 1 ? 100 : length == 2 ? 10 : 1;
+					for (int prefix = code * span; prefix < (code + 1) * span; prefix++) {
+						if (lengths[prefix] != 0)
+							throw new IllegalStateException("Calling code " + code + " overlaps another one");
+						lengths[prefix] = (byte) length;
+					}
+				}
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Cannot load " + RESOURCE, ex);
+		}
+		return lengths;
+	}
+}
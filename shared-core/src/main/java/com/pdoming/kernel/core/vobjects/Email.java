@@ -1,23 +1,57 @@
 package com.pdoming.kernel.core.vobjects;
 
+import com.pdoming.kernel.core.util.Interner;
+
+import java.util.Objects;
+
 /**
- *
+ * An email address. Its domain part, which is case insensitive, is
+ * normalized to lower case. See {@link EmailValidator} for the accepted syntax
  */
 public class Email {
 
-	private String email;
+	private static final Interner<Email> INTERNER = new Interner<>();
+
+	private final String email;
 
 	public Email(String email) {
-		this.email = email;
+		this.email = email == null ? null : EmailValidator.normalize(email);
 	}
 
+	/**
+	 * @param email an email address
+	 * @return the canonical instance of the normalized address
+	 */
 	public static Email valueOf(String email) {
-		return new Email(email);
+		return INTERNER.intern(new Email(email));
+	}
+
+	/**
+	 * @return the counters of the instances created by {@link #valueOf(String)}
+	 */
+	public static Interner.Stats internerStats() {
+		return INTERNER.stats();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		return Objects.equals(email, ((Email) o).email);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(email);
+	}
+
+	@Override
+	public String toString() {
+		return email;
 	}
 
 	public boolean isValid() {
-		// TODO
-		return true;
+		return EmailValidator.isValid(email);
 	}
 
 	public void validate() throws InvalidEmailException {
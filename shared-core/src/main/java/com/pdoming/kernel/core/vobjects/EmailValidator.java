@@ -0,0 +1,192 @@
+package com.pdoming.kernel.core.vobjects;
+
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Validator of email addresses following the {@code addr-spec} rule of
+ * RFC 5322, with the length limits of RFC 5321.
+ *
+ * The local part may be a dot-atom or a quoted string, the domain may be a
+ * host name or a domain literal. Comments, folding white space and the
+ * obsolete syntax are not accepted, nor are non ASCII characters.
+ *
+ * Validation is a single pass over the characters of the address, with no
+ * backtracking nor allocation, so its cost is linear even on hostile input.
+ */
+public final class EmailValidator {
+
+	private static final int MAX_LENGTH = 254;
+	private static final int MAX_LOCAL_PART_LENGTH = 64;
+	private static final int MAX_LABEL_LENGTH = 63;
+
+	private static final boolean[] ATEXT = new boolean[128];
+
+	static {
+		for (char c = 'a'; c <= 'z'; c++) ATEXT[c] = true;
+		for (char c = 'A'; c <= 'Z'; c++) ATEXT[c] = true;
+		for (char c = '0'; c <= '9'; c++) ATEXT[c] = true;
+		for (char c : "!#$%&'*+-/=?^_`{|}~".toCharArray()) ATEXT[c] = true;
+	}
+
+	private EmailValidator() {
+	}
+
+	/**
+	 * @param email a candidate email address, possibly null
+	 * @return whether the address is valid
+	 */
+	public static boolean isValid(CharSequence email) {
+		if (email == null) return false;
+		int length = email.length();
+		if (length == 0 || length > MAX_LENGTH) return false;
+
+		int at = email.charAt(0) == '"' ? quotedLocalPartEnd(email, length) : dotAtomLocalPartEnd(email, length);
+		if (at <= 0 || at > MAX_LOCAL_PART_LENGTH || at >= length || email.charAt(at) != '@') return false;
+
+		int domain = at + 1;
+		if (domain == length) return false;
+		return email.charAt(domain) == '['
+				? isDomainLiteral(email, domain, length)
+				: isHostName(email, domain, length);
+	}
+
+	/**
+	 * Validates a batch of addresses
+	 * @param emails the candidate addresses
+	 * @param results receives at every index whether the address at that index is valid
+	 */
+	public static void isValid(CharSequence[] emails, boolean[] results) {
+		Objects.requireNonNull(emails);
+		Objects.requireNonNull(results);
+		if (results.length < emails.length) throw new IllegalArgumentException("Results array is too small");
+		for (int i = 0; i < emails.length; i++) {
+			results[i] = isValid(emails[i]);
+		}
+	}
+
+	/**
+	 * Validates a batch of addresses
+	 * @param emails the candidate addresses
+	 * @return whether the address at every index is valid
+	 */
+	public static boolean[] isValid(CharSequence[] emails) {
+		boolean[] results = new boolean[emails.length];
+		isValid(emails, results);
+		return results;
+	}
+
+	/**
+	 * Validates a stream of addresses
+	 * @param emails the candidate addresses, in encounter order
+	 * @return a set with the indexes of the valid addresses
+	 */
+	public static BitSet validIndexes(Stream<? extends CharSequence> emails) {
+		BitSet valid = new BitSet();
+		int[] index = { 0 };
+		emails.sequential().forEachOrdered(email -> {
+			if (isValid(email)) valid.set(index[0]);
+			index[0]++;
+		});
+		return valid;
+	}
+
+	/**
+	 * Lower-cases the domain part of an address, which is case insensitive,
+	 * leaving its local part untouched
+	 * @param email an email address
+	 * @return the normalized address, the same instance if it is already normalized
+	 */
+	public static String normalize(String email) {
+		Objects.requireNonNull(email);
+		int at = email.lastIndexOf('@');
+		int i = at + 1;
+		while (i < email.length() && (email.charAt(i) < 'A' || email.charAt(i) > 'Z')) {
+			i++;
+		}
+		if (at < 0 || i == email.length()) {
+			return email;
+		}
+		char[] chars = email.toCharArray();
+		for (; i < chars.length; i++) {
+			if (chars[i] >= 'A' && chars[i] <= 'Z') {
+				chars[i] += 'a' - 'A';
+			}
+		}
+		return new String(chars);
+	}
+
+	/* ------------------------ Internals ------------------------ */
+
+	/**
+	 * @return the index right after a dot-atom local part, or -1 if malformed
+	 */
+	private static int dotAtomLocalPartEnd(CharSequence email, int length) {
+		boolean previousDot = true;
+		for (int i = 0; i < length; i++) {
+			char c = email.charAt(i);
+			if (c == '@') {
+				return previousDot ? -1 : i;
+			} else if (c == '.') {
+				if (previousDot) return -1;
+				previousDot = true;
+			} else if (c < 128 && ATEXT[c]) {
+				previousDot = false;
+			} else {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the index right after a quoted local part, or -1 if malformed
+	 */
+	private static int quotedLocalPartEnd(CharSequence email, int length) {
+		for (int i = 1; i < length; i++) {
+			char c = email.charAt(i);
+			if (c == '"') {
+				return i + 1;
+			} else if (c == '\\') {
+				if (++i == length) return -1;
+				char escaped = email.charAt(i);
+				if (escaped != '\t' && (escaped < ' ' || escaped > '~')) return -1;
+			} else if (c != '\t' && (c < ' ' || c > '~')) {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean isHostName(CharSequence email, int from, int length) {
+		int labelLength = 0;
+		char previous = '.';
+		for (int i = from; i < length; i++) {
+			char c = email.charAt(i);
+			if (c == '.') {
+				if (labelLength == 0 || previous == '-') return false;
+				labelLength = 0;
+			} else if (c == '-') {
+				if (labelLength == 0) return false;
+				labelLength++;
+			} else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+				labelLength++;
+			} else {
+				return false;
+			}
+			if (labelLength > MAX_LABEL_LENGTH) return false;
+			previous = c;
+		}
+		return labelLength > 0 && previous != '-';
+	}
+
+	private static boolean isDomainLiteral(CharSequence email, int from, int length) {
+		if (length - from < 3 || email.charAt(length - 1) != ']') return false;
+		for (int i = from + 1; i < length - 1; i++) {
+			char c = email.charAt(i);
+			if (c < '!' || c > '~' || c == '[' || c == ']' || c == '\\') return false;
+		}
+		return true;
+	}
+}
@@ -1,9 +1,409 @@
 package com.pdoming.kernel.core.vobjects;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An amount of money in a given currency, stored as a {@code long} number
+ * of minor units (e.g. cents for EUR, yen for JPY).
+ *
+ * Arithmetic is exact and allocation free, except for the returned instance
+ * itself: operations that overflow a {@code long} throw an
+ * {@link ArithmeticException} and operations that need rounding take a
+ * {@link RoundingMode}. Small amounts, zero included, are cached per currency.
+ * Operating on amounts of different currencies throws an
+ * {@link IllegalArgumentException}.
+ *
+ * Bulk operations such as {@link #sum(Currency, long[])} work directly on
+ * arrays of minor units, so totalling large batches creates no intermediate
+ * objects at all.
+ */
 public final class Money implements Comparable<Money> {
 
+	private static final long CACHE_LOW = -128;
+	private static final long CACHE_HIGH = 1024;
+
+	private static final ConcurrentHashMap<Currency, Money[]> CACHE = new ConcurrentHashMap<>();
+
+	private static final long[] POWERS_OF_TEN = {
+			1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L };
+
+	private final long minorUnits;
+	private final Currency currency;
+
+	private Money(long minorUnits, Currency currency) {
+		this.minorUnits = minorUnits;
+		this.currency = currency;
+	}
+
+	/* ------------------------ Static constructors ------------------------ */
+
+	/**
+	 * @param minorUnits the amount in minor units of the currency
+	 * @param currency the currency
+	 * @return the amount of money
+	 */
+	public static Money ofMinor(long minorUnits, Currency currency) {
+		Objects.requireNonNull(currency);
+		if (minorUnits >= CACHE_LOW && minorUnits < CACHE_HIGH) {
+			return CACHE.computeIfAbsent(currency, Money::cacheOf)[(int) (minorUnits - CACHE_LOW)];
+		}
+		return new Money(minorUnits, currency);
+	}
+
+	/**
+	 * @param minorUnits the amount in minor units of the currency
+	 * @param currencyCode the ISO 4217 code of the currency
+	 * @return the amount of money
+	 */
+	public static Money ofMinor(long minorUnits, String currencyCode) {
+		return ofMinor(minorUnits, Currency.getInstance(currencyCode));
+	}
+
+	/**
+	 * @param majorUnits the amount in major units of the currency (e.g. euros)
+	 * @param currency the currency
+	 * @return the amount of money
+	 * @throws ArithmeticException if the amount overflows
+	 */
+	public static Money ofMajor(long majorUnits, Currency currency) {
+		return ofMinor(Math.multiplyExact(majorUnits, POWERS_OF_TEN[scaleOf(currency)]), currency);
+	}
+
+	/**
+	 * @param amount the amount in major units of the currency
+	 * @param currency the currency
+	 * @param rounding how to round the amount to minor units
+	 * @return the amount of money
+	 * @throws ArithmeticException if the amount overflows, or needs rounding with {@link RoundingMode#UNNECESSARY}
+	 */
+	public static Money of(BigDecimal amount, Currency currency, RoundingMode rounding) {
+		Objects.requireNonNull(amount);
+		Objects.requireNonNull(rounding);
+		return ofMinor(amount.setScale(scaleOf(currency), rounding).unscaledValue().longValueExact(), currency);
+	}
+
+	/**
+	 * @param currency the currency
+	 * @return the zero amount of the currency
+	 */
+	public static Money zero(Currency currency) {
+		return ofMinor(0, currency);
+	}
+
+	/* ------------------------ Accessors ------------------------ */
+
+	public long minorUnits() {
+		return minorUnits;
+	}
+
+	public Currency currency() {
+		return currency;
+	}
+
+	/**
+	 * @return the amount in major units, with the scale of the currency
+	 */
+	public BigDecimal amount() {
+		return BigDecimal.valueOf(minorUnits, scaleOf(currency));
+	}
+
+	public int signum() {
+		return Long.signum(minorUnits);
+	}
+
+	public boolean isZero() {
+		return minorUnits == 0;
+	}
+
+	public boolean isNegative() {
+		return minorUnits < 0;
+	}
+
+	/* ------------------------ Arithmetic ------------------------ */
+
+	public Money add(Money other) {
+		checkSameCurrency(other);
+		return with(Math.addExact(minorUnits, other.minorUnits));
+	}
+
+	public Money subtract(Money other) {
+		checkSameCurrency(other);
+		return with(Math.subtractExact(minorUnits, other.minorUnits));
+	}
+
+	public Money negate() {
+		return with(Math.negateExact(minorUnits));
+	}
+
+	public Money abs() {
+		return minorUnits < 0 ? negate() : this;
+	}
+
+	/**
+	 * @param multiplier an integer factor, such as a quantity
+	 * @return this amount times the multiplier
+	 * @throws ArithmeticException if the result overflows
+	 */
+	public Money multiply(long multiplier) {
+		return with(Math.multiplyExact(minorUnits, multiplier));
+	}
+
+	/**
+	 * Multiplies this amount by a rational factor, such as a tax rate expressed
+	 * in basis points ({@code multiply(2100, 10_000, HALF_EVEN)} for 21%)
+	 * @param numerator the numerator of the factor
+	 * @param denominator the denominator of the factor, non zero
+	 * @param rounding how to round the result to minor units
+	 * @return this amount times {@code numerator / denominator}
+	 * @throws ArithmeticException if the result overflows, or needs rounding with {@link RoundingMode#UNNECESSARY}
+	 */
+	public Money multiply(long numerator, long denominator, RoundingMode rounding) {
+		return with(multiply(minorUnits, numerator, denominator, Objects.requireNonNull(rounding)));
+	}
+
+	/**
+	 * Multiplies this amount by an arbitrary factor. Allocates intermediate
+	 * {@link BigDecimal}s, prefer {@link #multiply(long, long, RoundingMode)} on hot paths
+	 * @param factor the factor
+	 * @param rounding how to round the result to minor units
+	 * @return this amount times the factor
+	 */
+	public Money multiply(BigDecimal factor, RoundingMode rounding) {
+		Objects.requireNonNull(factor);
+		Objects.requireNonNull(rounding);
+		return with(BigDecimal.valueOf(minorUnits).multiply(factor)
+				.setScale(0, rounding)
+				.longValueExact());
+	}
+
+	/**
+	 * @param divisor the divisor, non zero
+	 * @param rounding how to round the result to minor units
+	 * @return this amount divided by the divisor
+	 * @throws ArithmeticException if the result overflows, or needs rounding with {@link RoundingMode#UNNECESSARY}
+	 */
+	public Money divide(long divisor, RoundingMode rounding) {
+		return with(divide(minorUnits, divisor, Objects.requireNonNull(rounding)));
+	}
+
+	/**
+	 * Splits this amount in {@code parts} amounts as equal as possible, whose
+	 * sum is exactly this amount. The leftover minor units go to the first parts
+	 * @param parts the number of parts, positive
+	 * @return the parts
+	 */
+	public Money[] allocate(int parts) {
+		if (parts <= 0) throw new IllegalArgumentException("Parts must be positive");
+		long[] ratios = new long[parts];
+		Arrays.fill(ratios, 1);
+		return allocate(ratios);
+	}
+
+	/**
+	 * Splits this amount proportionally to the given ratios, without losing
+	 * any minor unit: the leftover units are given one by one to the first parts
+	 * @param ratios the non negative ratios of the parts, with a positive sum
+	 * @return the parts, in the order of the ratios
+	 */
+	public Money[] allocate(long... ratios) {
+		long total = 0;
+		for (long ratio : ratios) {
+			if (ratio < 0) throw new IllegalArgumentException("Ratios cannot be negative");
+			total = Math.addExact(total, ratio);
+		}
+		if (total == 0) throw new IllegalArgumentException("The sum of the ratios must be positive");
+
+		long[] shares = new long[ratios.length];
+		long remainder = minorUnits;
+		for (int i = 0; i < ratios.length; i++) {
+			shares[i] = multiply(minorUnits, ratios[i], total, RoundingMode.DOWN);
+			remainder -= shares[i];
+		}
+		long unit = Long.signum(remainder);
+		for (int i = 0; remainder != 0; i = (i + 1) % shares.length) {
+			if (ratios[i] != 0) {
+				shares[i] += unit;
+				remainder -= unit;
+			}
+		}
+
+		Money[] parts = new Money[shares.length];
+		for (int i = 0; i < shares.length; i++) {
+			parts[i] = with(shares[i]);
+		}
+		return parts;
+	}
+
+	/* ------------------------ Bulk operations ------------------------ */
+
+	/**
+	 * @param currency the currency of the amounts
+	 * @param minorUnits amounts in minor units
+	 * @return the sum of the amounts
+	 * @throws ArithmeticException if the sum overflows
+	 */
+	public static Money sum(Currency currency, long[] minorUnits) {
+		return ofMinor(sumExact(minorUnits, 0, minorUnits.length), currency);
+	}
+
+	/**
+	 * Computes the total of a batch of line items
+	 * @param currency the currency of the unit prices
+	 * @param unitPrices unit prices in minor units
+	 * @param quantities the quantity of every line, same length as {@code unitPrices}
+	 * @return the sum of every unit price times its quantity
+	 * @throws ArithmeticException if the total overflows
+	 */
+	public static Money sumProducts(Currency currency, long[] unitPrices, long[] quantities) {
+		if (unitPrices.length != quantities.length)
+			throw new IllegalArgumentException("Unit prices and quantities differ in length");
+		long total = 0;
+		for (int i = 0; i < unitPrices.length; i++) {
+			total = Math.addExact(total, Math.multiplyExact(unitPrices[i], quantities[i]));
+		}
+		return ofMinor(total, currency);
+	}
+
+	/**
+	 * @param currency the currency of the amounts
+	 * @param amounts amounts of the given currency
+	 * @return the sum of the amounts, zero if there are none
+	 */
+	public static Money sum(Currency currency, Iterable<Money> amounts) {
+		long total = 0;
+		for (Money amount : amounts) {
+			if (!amount.currency.equals(currency))
+				throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + amount.currency);
+			total = Math.addExact(total, amount.minorUnits);
+		}
+		return ofMinor(total, currency);
+	}
+
+	/**
+	 * @param minorUnits amounts in minor units
+	 * @param from the first index, inclusive
+	 * @param to the last index, exclusive
+	 * @return the sum of the amounts in the range
+	 * @throws ArithmeticException if the sum overflows
+	 */
+	public static long sumExact(long[] minorUnits, int from, int to) {
+		Objects.checkFromToIndex(from, to, minorUnits.length);
+		long total = 0;
+		for (int i = from; i < to; i++) {
+			total = Math.addExact(total, minorUnits[i]);
+		}
+		return total;
+	}
+
+	/* ------------------------ Object methods ------------------------ */
+
 	@Override
 	public int compareTo(Money o) {
-		return 0;
+		checkSameCurrency(o);
+		return Long.compare(minorUnits, o.minorUnits);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		Money that = (Money) o;
+		return minorUnits == that.minorUnits && currency.equals(that.currency);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * currency.hashCode() + Long.hashCode(minorUnits);
+	}
+
+	@Override
+	public String toString() {
+		return currency.getCurrencyCode() + " " + amount().toPlainString();
+	}
+
+	/* ------------------------ Internals ------------------------ */
+
+	private Money with(long minorUnits) {
+		return minorUnits == this.minorUnits ? this : ofMinor(minorUnits, currency);
+	}
+
+	private void checkSameCurrency(Money other) {
+		if (!currency.equals(other.currency))
+			throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+	}
+
+	private static int scaleOf(Currency currency) {
+		return Math.max(0, currency.getDefaultFractionDigits());
+	}
+
+	private static Money[] cacheOf(Currency currency) {
+		Money[] cache = new Money[(int) (CACHE_HIGH - CACHE_LOW)];
+		for (int i = 0; i < cache.length; i++) {
+			cache[i] = new Money(CACHE_LOW + i, currency);
+		}
+		return cache;
+	}
+
+	/**
+	 * Computes {@code value * numerator / denominator} rounding the result
+	 * with the given mode
+	 */
+	private static long multiply(long value, long numerator, long denominator, RoundingMode rounding) {
+		long high = Math.multiplyHigh(value, numerator);
+		long low = value * numerator;
+		if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+			return divide(low, denominator, rounding);
+		}
+		// The intermediate product does not fit in a long, the result still may
+		return BigDecimal.valueOf(value)
+				.multiply(BigDecimal.valueOf(numerator))
+				.divide(BigDecimal.valueOf(denominator), 0, rounding)
+				.longValueExact();
+	}
+
+	/**
+	 * Divides two longs rounding the quotient with the given mode
+	 */
+	private static long divide(long dividend, long divisor, RoundingMode rounding) {
+		if (divisor == 0) throw new ArithmeticException("Division by zero");
+		if (divisor == Long.MIN_VALUE) throw new ArithmeticException("Divisor out of range");
+		if (dividend == Long.MIN_VALUE && divisor == -1) throw new ArithmeticException("Quotient out of range");
+		long quotient = dividend / divisor;
+		long remainder = dividend - quotient * divisor;
+		if (remainder == 0) return quotient;
+
+		int signum = ((dividend ^ divisor) >> 63) == 0 ? 1 : -1;
+		boolean increment;
+		switch (rounding) {
+			case UNNECESSARY:
+				throw new ArithmeticException("Rounding necessary");
+			case DOWN:
+				increment = false;
+				break;
+			case UP:
+				increment = true;
+				break;
+			case FLOOR:
+				increment = signum < 0;
+				break;
+			case CEILING:
+				increment = signum > 0;
+				break;
+			default:
+				long absRemainder = Math.abs(remainder);
+				int half = Long.compare(absRemainder, Math.abs(divisor) - absRemainder);
+				if (half == 0) {
+					increment = rounding == RoundingMode.HALF_UP
+							|| (rounding == RoundingMode.HALF_EVEN && (quotient & 1) != 0);
+				} else {
+					increment = half > 0;
+				}
+		}
+		return increment ? quotient + signum : quotient;
 	}
 }
@@ -1,18 +1,270 @@
 package com.pdoming.kernel.core.vobjects;
 
+import com.pdoming.kernel.core.util.Interner;
+
+import java.util.Objects;
+
+/**
+ * A phone number normalized to the E.164 format: a country calling code
+ * followed by a national significant number, fifteen digits at most.
+ *
+ * The number is stored packed in a single {@code long}, so comparing or
+ * hashing phone numbers is a primitive operation regardless of how they
+ * were written. {@link #parse(CharSequence)} reads a number without
+ * allocating, accepting the usual separators (spaces, dashes, dots, slashes
+ * and parentheses) and both the {@code +} and {@code 00} international prefixes.
+ *
+ * Like {@link Email}, creating a phone number does not validate it: a text
+ * that is not a valid number is kept as is, and rejected by {@link #validate()}.
+ * Invalid numbers cannot be packed, nor encoded.
+ */
 public class PhoneNumber {
 
-	private final String phoneNumber;
+	/**
+	 * Value returned by the parse methods when the input is not a valid number
+	 */
+	public static final long INVALID = -1L;
+
+	private static final int MIN_NATIONAL_LENGTH = 4;
+	private static final int MAX_LENGTH = 15;
+
+	/* Packed layout: [national number: 47 bits][national length: 4 bits][calling code: 10 bits] */
+	private static final int LENGTH_SHIFT = 10;
+	private static final int NATIONAL_SHIFT = 14;
+
+	private static final Interner<PhoneNumber> INTERNER = new Interner<>();
+
+	private static final long[] POWERS_OF_TEN = new long[MAX_LENGTH + 1];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	private final long packed;
+
+	/**
+	 * The text of an invalid number, null for valid ones
+	 */
+	private final String invalid;
 
 	public PhoneNumber(String phoneNumber) {
-		this.phoneNumber = phoneNumber;
+		this(phoneNumber, 0);
+	}
+
+	private PhoneNumber(CharSequence phoneNumber, int defaultCountryCode) {
+		this.packed = parse(phoneNumber, defaultCountryCode);
+		this.invalid = packed == INVALID ? String.valueOf(phoneNumber) : null;
+	}
+
+	private PhoneNumber(long packed) {
+		this.packed = packed;
+		this.invalid = null;
 	}
 
+	/* ------------------------ Static constructors ------------------------ */
+
+	/**
+	 * @param phoneNumber a phone number in international format
+	 * @return the canonical instance of the normalized phone number, which
+	 *         may be invalid, see {@link #validate()}
+	 */
 	public static PhoneNumber valueOf(String phoneNumber) {
-		return new PhoneNumber(phoneNumber);
+		return INTERNER.intern(new PhoneNumber(phoneNumber));
+	}
+
+	/**
+	 * @param phoneNumber a phone number in international or national format
+	 * @param defaultCountryCode the calling code of national numbers
+	 * @return the canonical instance of the normalized phone number, which
+	 *         may be invalid, see {@link #validate()}
+	 */
+	public static PhoneNumber valueOf(CharSequence phoneNumber, int defaultCountryCode) {
+		return INTERNER.intern(new PhoneNumber(phoneNumber, defaultCountryCode));
+	}
+
+	/**
+	 * @param packed a value returned by {@link #packed()} or a parse method
+	 * @return the canonical instance of the phone number
+	 * @throws InvalidPhoneNumberException if the value is not a valid packed number
+	 */
+	public static PhoneNumber fromPacked(long packed) {
+		int code = (int) (packed & 0x3FF);
+		int length = (int) ((packed >>> LENGTH_SHIFT) & 0xF);
+		long national = packed >>> NATIONAL_SHIFT;
+		if (packed < 0 || !CountryCallingCodes.isAssigned(code) || length < MIN_NATIONAL_LENGTH
+				|| national >= POWERS_OF_TEN[length] || digits(code) + length > MAX_LENGTH)
+			throw new InvalidPhoneNumberException("Invalid packed phone number " + packed);
+		return INTERNER.intern(new PhoneNumber(packed));
+	}
+
+	/**
+	 * @return the counters of the instances created by the static constructors
+	 */
+	public static Interner.Stats internerStats() {
+		return INTERNER.stats();
+	}
+
+	/* ------------------------ Parsing ------------------------ */
+
+	/**
+	 * Parses a phone number in international format
+	 * @param text the text to parse
+	 * @return the packed phone number, or {@link #INVALID}
+	 */
+	public static long parse(CharSequence text) {
+		return parse(text, 0);
+	}
+
+	/**
+	 * Parses a phone number in international or national format. A leading
+	 * trunk prefix {@code 0} of national numbers is dropped, except for the
+	 * countries that keep it in international format, such as Italy
+	 * @param text the text to parse
+	 * @param defaultCountryCode the calling code of national numbers, 0 if they are not accepted
+	 * @return the packed phone number, or {@link #INVALID}
+	 */
+	public static long parse(CharSequence text, int defaultCountryCode) {
+		if (text == null) return INVALID;
+		int n = text.length();
+		int i = 0;
+		while (i < n && text.charAt(i) == ' ') i++;
+
+		boolean international = false;
+		if (i < n && text.charAt(i) == '+') {
+			international = true;
+			i++;
+		} else if (i + 1 < n && text.charAt(i) == '0' && text.charAt(i + 1) == '0') {
+			international = true;
+			i += 2;
+		}
+
+		long digits = 0;
+		int count = 0;
+		boolean leadingZero = false;
+		for (; i < n; i++) {
+			char c = text.charAt(i);
+			if (c >= '0' && c <= '9') {
+				if (count == 0) leadingZero = c == '0';
+				if (++count > MAX_LENGTH) return INVALID;
+				digits = digits * 10 + (c - '0');
+			} else if (c != ' ' && c != '-' && c != '.' && c != '/' && c != '(' && c != ')') {
+				return INVALID;
+			}
+		}
+
+		int code, nationalLength;
+		if (international) {
+			if (count < 3 || leadingZero) return INVALID;
+			int codeLength = CountryCallingCodes.codeLength((int) (digits / POWERS_OF_TEN[count - 3]));
+			if (codeLength == 0) return INVALID;
+			nationalLength = count - codeLength;
+			code = (int) (digits / POWERS_OF_TEN[nationalLength]);
+		} else {
+			if (!CountryCallingCodes.isAssigned(defaultCountryCode)) return INVALID;
+			code = defaultCountryCode;
+			nationalLength = leadingZero && !keepsTrunkPrefix(code) ? count - 1 : count;
+			if (digits(code) + nationalLength > MAX_LENGTH) return INVALID;
+		}
+		if (nationalLength < MIN_NATIONAL_LENGTH) return INVALID;
+
+		long national = digits % POWERS_OF_TEN[nationalLength];
+		return (national << NATIONAL_SHIFT) | ((long) nationalLength << LENGTH_SHIFT) | code;
+	}
+
+	/**
+	 * @param text a candidate phone number in international format
+	 * @return whether it is a valid phone number
+	 */
+	public static boolean isValid(CharSequence text) {
+		return parse(text) != INVALID;
+	}
+
+	/* ------------------------ Accessors ------------------------ */
+
+	/**
+	 * @return this phone number packed in a long, see {@link #fromPacked(long)}
+	 * @throws InvalidPhoneNumberException if the number is not valid
+	 */
+	public long packed() {
+		validate();
+		return packed;
+	}
+
+	/**
+	 * @throws InvalidPhoneNumberException if the number is not valid
+	 */
+	public int countryCode() {
+		return (int) (packed() & 0x3FF);
+	}
+
+	/**
+	 * @return the national significant number, whose leading zeros are
+	 *         only kept by {@link #toString()}
+	 * @throws InvalidPhoneNumberException if the number is not valid
+	 */
+	public long nationalNumber() {
+		return packed() >>> NATIONAL_SHIFT;
+	}
+
+	public boolean isValid() {
+		return packed != INVALID;
+	}
+
+	public void validate() throws InvalidPhoneNumberException {
+		if (!isValid()) {
+			throw new InvalidPhoneNumberException("Invalid phone number <" + invalid + ">");
+		}
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		PhoneNumber that = (PhoneNumber) o;
+		return packed == that.packed && Objects.equals(invalid, that.invalid);
+	}
+
+	@Override
+	public int hashCode() {
+		return invalid == null ? Long.hashCode(packed) : invalid.hashCode();
+	}
+
+	/**
+	 * @return the phone number in E.164 format, e.g. {@code +34600123456},
+	 *         or the text it was created from if it is not valid
+	 */
+	@Override
+	public String toString() {
+		if (invalid != null) return invalid;
+		int length = (int) ((packed >>> LENGTH_SHIFT) & 0xF);
+		String national = Long.toString(nationalNumber());
+		StringBuilder builder = new StringBuilder(1 + MAX_LENGTH).append('+').append(countryCode());
+		for (int i = national.length(); i < length; i++) {
+			builder.append('0');
+		}
+		return builder.append(national).toString();
 	}
 
-	public void validate() {
-		// TODO
+	/* ------------------------ Internals ------------------------ */
+
+	private static boolean keepsTrunkPrefix(int code) {
+		// Italy, San Marino and Vatican City keep the leading 0 in international format
+		return code == 39 || code == 378 || code == 379;
+	}
+
+	private static int digits(int code) {
+		return code < 10 ? 1 : code < 100 ? 2 : 3;
+	}
+
+	public static class InvalidPhoneNumberException extends IllegalArgumentException {
+
+		private static final long serialVersionUID = 1L;
+
+		public InvalidPhoneNumberException(String message) {
+			super(message);
+		}
 	}
 }
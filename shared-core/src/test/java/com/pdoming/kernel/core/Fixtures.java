@@ -0,0 +1,183 @@
+package com.pdoming.kernel.core;
+
+import com.pdoming.kernel.core.ddd.AggregateRoot;
+import com.pdoming.kernel.core.ddd.BaseDomainEvent;
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.ddd.EventId;
+import com.pdoming.kernel.core.ddd.LongIdentifier;
+import com.pdoming.kernel.core.ddd.Snapshot;
+import com.pdoming.kernel.core.eventstore.EventSerializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Identifiers, events and serializers shared by the tests of this module
+ */
+public final class Fixtures {
+
+	private Fixtures() {
+	}
+
+	public static final class Id extends LongIdentifier {
+		public Id(long value) {
+			super(value);
+		}
+	}
+
+	/**
+	 * Event carrying a note, compared by its identifier, source and note
+	 */
+	public static final class Noted extends BaseDomainEvent<Id> {
+
+		private final String note;
+
+		public Noted(Id sourceId, String note) {
+			super(sourceId);
+			this.note = note;
+		}
+
+		public Noted(Id sourceId, EventId eventId, String note) {
+			super(sourceId, eventId);
+			this.note = note;
+		}
+
+		public String getNote() {
+			return note;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			Noted that = (Noted) o;
+			return getEventId().equals(that.getEventId()) && getSourceId().equals(that.getSourceId()) && note.equals(that.note);
+		}
+
+		@Override
+		public int hashCode() {
+			return getEventId().hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return "Noted[" + getSourceId() + ", " + note + "]";
+		}
+	}
+
+	/**
+	 * Event the {@link #serializer() serializer} refuses to write
+	 */
+	public static final class Unserializable extends BaseDomainEvent<Id> {
+		public Unserializable(Id sourceId) {
+			super(sourceId);
+		}
+	}
+
+	/**
+	 * Event sourced aggregate keeping its last note and the number of notes
+	 */
+	public static final class Account extends AggregateRoot<Id> {
+
+		private final Id id;
+		private int notes;
+		private String lastNote;
+
+		public Account(Id id) {
+			this.id = id;
+		}
+
+		@Override
+		public Id id() {
+			return id;
+		}
+
+		public void note(String note) {
+			record(new Noted(id, note));
+		}
+
+		public int notes() {
+			return notes;
+		}
+
+		public String lastNote() {
+			return lastNote;
+		}
+
+		/**
+		 * @return a copy of this aggregate at its committed version, restored from a snapshot
+		 */
+		public Account copy() {
+			Account copy = new Account(id);
+			copy.replay(new State(committedVersion(), notes, lastNote), List.of());
+			return copy;
+		}
+
+		@Override
+		protected void apply(DomainEvent<Id> event) {
+			notes++;
+			lastNote = ((Noted) event).getNote();
+		}
+
+		@Override
+		protected void restore(Snapshot snapshot) {
+			State state = (State) snapshot;
+			this.notes = state.notes;
+			this.lastNote = state.lastNote;
+		}
+
+		private static final class State implements Snapshot {
+			private final long version;
+			private final int notes;
+			private final String lastNote;
+
+			private State(long version, int notes, String lastNote) {
+				this.version = version;
+				this.notes = notes;
+				this.lastNote = lastNote;
+			}
+
+			@Override
+			public long version() {
+				return version;
+			}
+		}
+	}
+
+	public static Noted noted(long sourceId, String note) {
+		return new Noted(new Id(sourceId), note);
+	}
+
+	/**
+	 * @return a serializer of {@link Noted} events
+	 */
+	public static EventSerializer<Id> serializer() {
+		return new EventSerializer<>() {
+			@Override
+			public void writeSourceId(Id sourceId, ByteBuffer target) {
+				target.putLong(sourceId.getValue());
+			}
+
+			@Override
+			public Id readSourceId(ByteBuffer source) {
+				return new Id(source.getLong());
+			}
+
+			@Override
+			public void writeEvent(DomainEvent<Id> event, ByteBuffer target) {
+				if (!(event instanceof Noted)) throw new IllegalArgumentException("Cannot serialize " + event);
+				byte[] note = ((Noted) event).getNote().getBytes(StandardCharsets.UTF_8);
+				target.putLong(event.getStamp()).putLong(event.getEventId().origin()).putInt(note.length).put(note);
+			}
+
+			@Override
+			public DomainEvent<Id> readEvent(Id sourceId, ByteBuffer source) {
+				EventId eventId = EventId.of(source.getLong(), source.getLong());
+				byte[] note = new byte[source.getInt()];
+				source.get(note);
+				return new Noted(sourceId, eventId, new String(note, StandardCharsets.UTF_8));
+			}
+		};
+	}
+}
@@ -0,0 +1,179 @@
+package com.pdoming.kernel.core.bus;
+
+import com.pdoming.kernel.core.Fixtures.Id;
+import com.pdoming.kernel.core.Fixtures.Noted;
+import com.pdoming.kernel.core.Fixtures.Unserializable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.pdoming.kernel.core.Fixtures.noted;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(10)
+class CommandBusTest {
+
+	@Test
+	void commandsOfAnAggregateAreHandledInOrderOneAtATime() throws Exception {
+		int aggregates = 16;
+		int commands = 500;
+		Map<Long, List<String>> handled = new ConcurrentHashMap<>();
+		Map<Long, AtomicBoolean> running = new ConcurrentHashMap<>();
+		AtomicBoolean overlapped = new AtomicBoolean();
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		// A batch size of 3 makes the tasks hand their mailboxes over all the time
+		try (CommandBus bus = new CommandBus(64, 3, executor)) {
+			bus.register(Noted.class, command -> {
+				long id = command.getSourceId().getValue();
+				AtomicBoolean busy = running.computeIfAbsent(id, key -> new AtomicBoolean());
+				if (!busy.compareAndSet(false, true)) overlapped.set(true);
+				handled.computeIfAbsent(id, key -> new ArrayList<>()).add(command.getNote());
+				busy.set(false);
+			});
+			List<CompletableFuture<Void>> futures = new ArrayList<>();
+			for (int i = 0; i < commands; i++) {
+				for (long id = 0; id < aggregates; id++) {
+					futures.add(bus.send(noted(id, Integer.toString(i))));
+				}
+			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get();
+		} finally {
+			executor.shutdown();
+		}
+
+		assertFalse(overlapped.get());
+		for (long id = 0; id < aggregates; id++) {
+			List<String> notes = handled.get(id);
+			assertEquals(commands, notes.size());
+			for (int i = 0; i < commands; i++) {
+				assertEquals(Integer.toString(i), notes.get(i));
+			}
+		}
+	}
+
+	@Test
+	void drainedMailboxIsReplacedByTheNextCommand() throws Exception {
+		List<String> handled = new ArrayList<>();
+		try (CommandBus bus = new CommandBus(4, 4)) {
+			bus.register(Noted.class, command -> handled.add(command.getNote()));
+			bus.send(noted(1, "a")).get();
+			Thread.sleep(20);
+			// The mailbox of the aggregate was retired once empty, a new one takes the next commands
+			bus.send(noted(1, "b"));
+			bus.send(noted(1, "c")).get();
+		}
+		assertEquals(List.of("a", "b", "c"), handled);
+	}
+
+	@Test
+	void fullMailboxRejectsTrySendAndBlocksSend() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		try (CommandBus bus = new CommandBus(2, 8)) {
+			bus.register(Noted.class, command -> {
+				started.countDown();
+				await(release);
+			});
+			bus.send(noted(1, "a"));
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			bus.send(noted(1, "b"));
+
+			ExecutionException rejected = assertThrows(ExecutionException.class, () -> bus.trySend(noted(1, "c")).get());
+			assertInstanceOf(RejectedExecutionException.class, rejected.getCause());
+			// Other aggregates have their own mailboxes
+			CompletableFuture<Void> other = bus.trySend(noted(2, "d"));
+
+			CompletableFuture<CompletableFuture<Void>> blocked = CompletableFuture.supplyAsync(() -> bus.send(noted(1, "e")));
+			Thread.sleep(50);
+			assertFalse(blocked.isDone());
+			release.countDown();
+			blocked.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+			other.get(5, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	void interruptedSenderGetsARejectedCommand() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		try (CommandBus bus = new CommandBus(1, 8)) {
+			bus.register(Noted.class, command -> await(release));
+			bus.send(noted(1, "a"));
+
+			AtomicReference<CompletableFuture<Void>> result = new AtomicReference<>();
+			AtomicBoolean interrupted = new AtomicBoolean();
+			Thread sender = new Thread(() -> {
+				result.set(bus.send(noted(1, "b")));
+				interrupted.set(Thread.currentThread().isInterrupted());
+			});
+			sender.start();
+			Thread.sleep(50);
+			sender.interrupt();
+			sender.join();
+
+			ExecutionException error = assertThrows(ExecutionException.class, () -> result.get().get());
+			assertInstanceOf(RejectedExecutionException.class, error.getCause());
+			assertTrue(interrupted.get());
+			release.countDown();
+		}
+	}
+
+	@Test
+	void closeWaitsForThePendingCommands() {
+		List<String> handled = new ArrayList<>();
+		CommandBus bus = new CommandBus(1000, 10);
+		bus.register(Noted.class, command -> {
+			sleep();
+			handled.add(command.getNote());
+		});
+		for (int i = 0; i < 20; i++) {
+			bus.send(noted(1, Integer.toString(i)));
+		}
+		bus.close();
+		assertEquals(20, handled.size());
+		assertThrows(IllegalStateException.class, () -> bus.send(noted(1, "late")));
+	}
+
+	@Test
+	void commandWithoutHandlerFails() {
+		try (CommandBus bus = new CommandBus(4, 4)) {
+			bus.register(Noted.class, command -> {});
+			ExecutionException error = assertThrows(ExecutionException.class,
+					() -> bus.send(new Unserializable(new Id(1))).get());
+			assertInstanceOf(IllegalStateException.class, error.getCause());
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleep() {
+		try {
+			Thread.sleep(2);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
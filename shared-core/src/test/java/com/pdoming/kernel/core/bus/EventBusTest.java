@@ -0,0 +1,109 @@
+package com.pdoming.kernel.core.bus;
+
+import com.pdoming.kernel.core.Fixtures.Noted;
+import com.pdoming.kernel.core.ddd.BaseDomainEvent;
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.pdoming.kernel.core.Fixtures.noted;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(10)
+class EventBusTest {
+
+	static Stream<WaitStrategy> strategies() {
+		return Stream.of(WaitStrategy.busySpin(), WaitStrategy.yielding(), WaitStrategy.blocking());
+	}
+
+	@ParameterizedTest
+	@MethodSource("strategies")
+	void deliversEveryEventInOrderAcrossLaps(WaitStrategy strategy) throws InterruptedException {
+		List<Noted> events = IntStream.range(0, 1000).mapToObj(i -> noted(1, "event " + i)).collect(Collectors.toList());
+		List<DomainEvent<?>> received = new ArrayList<>();
+		List<DomainEvent<?>> receivedAsBase = new ArrayList<>();
+		CountDownLatch done = new CountDownLatch(2 * events.size());
+
+		EventBus bus = EventBus.singleProducer(8, 2, strategy);
+		bus.subscribe(Noted.class, event -> {
+			received.add(event);
+			done.countDown();
+		});
+		bus.subscribe(BaseDomainEvent.class, event -> {
+			receivedAsBase.add(event);
+			done.countDown();
+		});
+		bus.start();
+		for (Noted event : events.subList(0, 500)) {
+			bus.publish(event);
+		}
+		bus.publishAll(events.subList(500, 1000));
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		bus.close();
+		assertEquals(events, received);
+		assertEquals(events, receivedAsBase);
+	}
+
+	@Test
+	void batchWithANullEventPublishesNothing() throws InterruptedException {
+		List<DomainEvent<?>> received = new ArrayList<>();
+		EventBus bus = EventBus.singleProducer(8, 1, WaitStrategy.blocking());
+		bus.subscribe(Noted.class, received::add);
+		bus.start();
+
+		assertThrows(NullPointerException.class, () -> bus.publishAll(Arrays.asList(noted(1, "a"), null)));
+		Noted last = noted(1, "b");
+		bus.publish(last);
+		bus.close();
+		assertEquals(List.of(last), received);
+	}
+
+	@ParameterizedTest
+	@MethodSource("strategies")
+	void interruptedReaderStopsThePublication(WaitStrategy strategy) throws InterruptedException {
+		CountDownLatch interrupted = new CountDownLatch(1);
+		EventBus bus = EventBus.singleProducer(8, 1, strategy);
+		bus.subscribe(Noted.class, event -> {
+			Thread.currentThread().interrupt();
+			interrupted.countDown();
+		});
+		bus.start();
+		bus.publish(noted(1, "a"));
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+
+		// The reader stops once it sees its interrupt status, then every publication fails
+		IllegalStateException error = null;
+		while (error == null) {
+			try {
+				bus.publish(noted(1, "b"));
+			} catch (IllegalStateException ex) {
+				error = ex;
+			}
+		}
+		assertTrue(error.getMessage().contains("event-bus-reader-0"), error.getMessage());
+		bus.close();
+	}
+
+	@Test
+	void closedBusRejectsEvents() {
+		EventBus bus = EventBus.multiProducer(8, 1, WaitStrategy.yielding());
+		bus.subscribe(Noted.class, event -> {});
+		bus.start();
+		bus.close();
+		assertThrows(IllegalStateException.class, () -> bus.publish(noted(1, "a")));
+	}
+}
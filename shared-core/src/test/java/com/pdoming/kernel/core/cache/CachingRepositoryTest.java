@@ -0,0 +1,108 @@
+package com.pdoming.kernel.core.cache;
+
+import com.pdoming.kernel.core.Fixtures.Account;
+import com.pdoming.kernel.core.Fixtures.Id;
+import com.pdoming.kernel.core.ddd.InMemoryRepository;
+import com.pdoming.kernel.core.ddd.Repository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.pdoming.kernel.core.Fixtures.noted;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachingRepositoryTest {
+
+	private static final int ACCOUNTS = 2000;
+
+	private final InMemoryRepository<Account, Id> store = new InMemoryRepository<>(Account::new);
+	private final AtomicInteger loads = new AtomicInteger();
+	private final Repository<Account, Id> counting = new Repository<>() {
+		@Override
+		public Optional<Account> findById(Id id) {
+			loads.incrementAndGet();
+			return store.findById(id);
+		}
+
+		@Override
+		public void save(Account aggregate) {
+			store.save(aggregate);
+		}
+	};
+
+	@BeforeEach
+	void createAccounts() {
+		for (int i = 0; i < ACCOUNTS; i++) {
+			Account account = new Account(new Id(i));
+			account.note("opened");
+			store.save(account);
+		}
+	}
+
+	@Test
+	void frequentAggregatesSurviveAScan() {
+		CachingRepository<Account, Id> cache = new CachingRepository<>(counting, 100, Account::copy);
+		for (int round = 0; round < 10; round++) {
+			for (int i = 0; i < 50; i++) {
+				cache.findById(new Id(i));
+			}
+		}
+		// One-off lookups, each seen once, must not push out the hot aggregates
+		for (int i = 50; i < ACCOUNTS; i++) {
+			cache.findById(new Id(i));
+		}
+
+		loads.set(0);
+		for (int i = 0; i < 50; i++) {
+			cache.findById(new Id(i));
+		}
+		assertTrue(loads.get() <= 5, loads.get() + " hot aggregates were evicted");
+		assertTrue(cache.stats().estimatedSize() <= 100);
+		assertTrue(cache.stats().evictionCount() >= ACCOUNTS - 100);
+	}
+
+	@Test
+	void weightBoundsTheCache() {
+		CachingRepository<Account, Id> cache = new CachingRepository<>(counting, 30, account -> 3, null, Account::copy);
+		for (int i = 0; i < 100; i++) {
+			cache.findById(new Id(i));
+			assertTrue(cache.stats().weightedSize() <= 30);
+		}
+		assertEquals(10, cache.stats().estimatedSize());
+	}
+
+	@Test
+	void callersGetTheirOwnCopies() {
+		CachingRepository<Account, Id> cache = new CachingRepository<>(counting, 10, Account::copy);
+		Account first = cache.findById(new Id(1)).orElseThrow();
+		Account second = cache.findById(new Id(1)).orElseThrow();
+		assertNotSame(first, second);
+
+		first.note("changed");
+		assertEquals("opened", cache.findById(new Id(1)).orElseThrow().lastNote());
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void savedAndInvalidatedAggregatesAreNotServedStale() {
+		CachingRepository<Account, Id> cache = new CachingRepository<>(counting, 10, Account::copy);
+		Account account = cache.findById(new Id(1)).orElseThrow();
+		account.note("saved");
+		cache.save(account);
+		assertEquals("saved", cache.findById(new Id(1)).orElseThrow().lastNote());
+		assertEquals(1, loads.get());
+
+		Account other = store.findById(new Id(1)).orElseThrow();
+		other.note("elsewhere");
+		store.save(other);
+		cache.onEvent(noted(1, "elsewhere"));
+		Account reloaded = cache.findById(new Id(1)).orElseThrow();
+		assertEquals("elsewhere", reloaded.lastNote());
+		assertEquals(3, reloaded.committedVersion());
+		assertEquals(2, loads.get());
+	}
+}
@@ -0,0 +1,71 @@
+package com.pdoming.kernel.core.ddd;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdSetTest {
+
+	@Test
+	void longSetBehavesLikeHashSet() {
+		Random random = new Random(42);
+		LongIdSet set = new LongIdSet();
+		Set<Long> expected = new HashSet<>();
+		for (int i = 0; i < 200_000; i++) {
+			// A small range so that adds, removes and probe chains collide, zero included
+			long id = random.nextInt(5_000) - 100;
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(id), set.remove(id), "remove " + id);
+			} else {
+				assertEquals(expected.add(id), set.add(id), "add " + id);
+			}
+			assertEquals(expected.size(), set.size());
+		}
+		for (long id = -100; id < 4_900; id++) {
+			assertEquals(expected.contains(id), set.contains(id), "contains " + id);
+		}
+		Set<Long> visited = new HashSet<>();
+		set.forEach(id -> assertTrue(visited.add(id)));
+		assertEquals(expected, visited);
+
+		set.clear();
+		assertTrue(set.isEmpty());
+		assertFalse(set.contains(0));
+	}
+
+	@Test
+	void uuidSetBehavesLikeHashSet() {
+		Random random = new Random(42);
+		UuidIdSet set = new UuidIdSet();
+		Set<UUID> expected = new HashSet<>();
+		for (int i = 0; i < 200_000; i++) {
+			// The nil UUID is among them
+			UUID id = new UUID(random.nextInt(50), random.nextInt(100));
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(id), set.remove(id.getMostSignificantBits(), id.getLeastSignificantBits()), "remove " + id);
+			} else {
+				assertEquals(expected.add(id), set.add(id.getMostSignificantBits(), id.getLeastSignificantBits()), "add " + id);
+			}
+			assertEquals(expected.size(), set.size());
+		}
+		for (long high = 0; high < 50; high++) {
+			for (long low = 0; low < 100; low++) {
+				assertEquals(expected.contains(new UUID(high, low)), set.contains(high, low));
+			}
+		}
+		Set<UUID> visited = new HashSet<>();
+		set.forEach(id -> assertTrue(visited.add(id)));
+		assertEquals(expected, visited);
+
+		set.clear();
+		assertTrue(set.isEmpty());
+		assertFalse(set.contains(0, 0));
+	}
+}
@@ -0,0 +1,89 @@
+package com.pdoming.kernel.core.ddd;
+
+import com.pdoming.kernel.core.Fixtures.Account;
+import com.pdoming.kernel.core.Fixtures.Id;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InMemoryRepositoryTest {
+
+	private final InMemoryRepository<Account, Id> repository = new InMemoryRepository<>(Account::new);
+	private final Id id = new Id(1);
+
+	@Test
+	void staleSaveIsRejectedAndStoresNothing() {
+		Account created = new Account(id);
+		created.note("opened");
+		repository.save(created);
+
+		Account first = repository.findById(id).orElseThrow();
+		Account second = repository.findById(id).orElseThrow();
+		first.note("first");
+		repository.save(first);
+		assertEquals(2, first.committedVersion());
+		assertFalse(first.hasUncommittedEvents());
+
+		second.note("second");
+		StaleAggregateException error = assertThrows(StaleAggregateException.class, () -> repository.save(second));
+		assertEquals(id, error.getAggregateId());
+		assertEquals(1, error.getExpectedVersion());
+		assertEquals(2, error.getActualVersion());
+		assertEquals(1, second.committedVersion());
+
+		Account stored = repository.findById(id).orElseThrow();
+		assertEquals(2, stored.version());
+		assertEquals("first", stored.lastNote());
+	}
+
+	@Test
+	void newAggregateCannotOverwriteAnExistingOne() {
+		Account created = new Account(id);
+		created.note("opened");
+		repository.save(created);
+
+		Account twin = new Account(id);
+		twin.note("twin");
+		assertThrows(StaleAggregateException.class, () -> repository.save(twin));
+	}
+
+	@Test
+	void concurrentSavesAreSerializedByRetries() throws Exception {
+		int writers = 8;
+		int notes = 200;
+		ExecutorService executor = Executors.newFixedThreadPool(writers);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int w = 0; w < writers; w++) {
+				futures.add(executor.submit(() -> {
+					for (int n = 0; n < notes; n++) {
+						while (true) {
+							Account account = repository.findById(id).orElseGet(() -> new Account(id));
+							account.note("note");
+							try {
+								repository.save(account);
+								break;
+							} catch (StaleAggregateException ex) {
+								// Retried on a freshly loaded aggregate
+							}
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(writers * notes, repository.findById(id).orElseThrow().notes());
+	}
+}
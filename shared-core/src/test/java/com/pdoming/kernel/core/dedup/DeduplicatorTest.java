@@ -0,0 +1,149 @@
+package com.pdoming.kernel.core.dedup;
+
+import com.pdoming.kernel.core.Fixtures;
+import com.pdoming.kernel.core.ddd.EventId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(10)
+class DeduplicatorTest {
+
+	private static EventId id(long stamp) {
+		return EventId.of(stamp, EventId.nextOrigin());
+	}
+
+	@Test
+	void detectsRecentDuplicatesWithinTheWindow() {
+		Deduplicator deduplicator = new Deduplicator(100, 1_000, 0.01, id -> {
+			throw new AssertionError("Fallback asked for " + id);
+		});
+		EventId first = id(1);
+		EventId second = id(2);
+		assertTrue(deduplicator.markIfNew(first));
+		assertTrue(deduplicator.markIfNew(second));
+		assertFalse(deduplicator.markIfNew(first));
+		assertTrue(deduplicator.isDuplicate(second));
+		assertEquals(2, deduplicator.windowHitCount());
+		assertEquals(0, deduplicator.fallbackCount());
+	}
+
+	@Test
+	void asksTheFallbackForEventsOutOfTheWindow() {
+		Set<EventId> store = new HashSet<>();
+		Deduplicator deduplicator = new Deduplicator(10, 1_000, 0.01, store::contains);
+		List<EventId> ids = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			EventId eventId = id(i);
+			ids.add(eventId);
+			store.add(eventId);
+			assertTrue(deduplicator.markIfNew(eventId));
+		}
+		// Only the last 10 are in the window, the older ones are confirmed by the store
+		for (EventId eventId : ids) {
+			assertTrue(deduplicator.isDuplicate(eventId));
+		}
+		assertEquals(90, deduplicator.fallbackCount());
+		assertEquals(10, deduplicator.windowHitCount());
+
+		// A fallback that forgot the event lets it through again
+		store.remove(ids.get(0));
+		assertTrue(deduplicator.markIfNew(ids.get(0)));
+		assertTrue(deduplicator.isDuplicate(ids.get(0)));
+	}
+
+	@Test
+	void newEventsAreDecidedByTheFilter() {
+		Deduplicator deduplicator = new Deduplicator(10, 100_000, 0.001, id -> true);
+		int duplicates = 0;
+		for (int i = 0; i < 10_000; i++) {
+			if (!deduplicator.markIfNew(id(i))) duplicates++;
+		}
+		// The fallback says every false positive of the filter is a duplicate
+		assertTrue(duplicates < 50, duplicates + " events taken for duplicates");
+		assertEquals(10_000 - duplicates, deduplicator.negativeCount());
+	}
+
+	@Test
+	void idempotentHandlerSkipsDuplicatesAndRetriesFailures() {
+		Deduplicator deduplicator = new Deduplicator(100, 1_000, 0.01, id -> false);
+		AtomicInteger calls = new AtomicInteger();
+		AtomicInteger failures = new AtomicInteger(1);
+		Consumer<Fixtures.Noted> handler = deduplicator.idempotent(event -> {
+			calls.incrementAndGet();
+			if (failures.getAndDecrement() > 0) throw new IllegalStateException("Failed");
+		});
+		Fixtures.Noted event = Fixtures.noted(1, "a");
+
+		assertThrows(IllegalStateException.class, () -> handler.accept(event));
+		assertFalse(deduplicator.isDuplicate(event.getEventId()));
+		handler.accept(event);
+		handler.accept(event);
+		assertEquals(2, calls.get());
+		assertTrue(deduplicator.isDuplicate(event.getEventId()));
+	}
+
+	@Test
+	void concurrentCopyIsIgnoredWhileTheEventIsHandled() throws InterruptedException {
+		Deduplicator deduplicator = new Deduplicator(100, 1_000, 0.01, id -> false);
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+		Consumer<Fixtures.Noted> handler = deduplicator.idempotent(event -> {
+			calls.incrementAndGet();
+			entered.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		Fixtures.Noted event = Fixtures.noted(1, "a");
+
+		Thread first = new Thread(() -> handler.accept(event));
+		first.start();
+		entered.await();
+		handler.accept(event);
+		release.countDown();
+		first.join();
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void fallbackIsAskedWithoutTheLock() throws InterruptedException {
+		CountDownLatch asked = new CountDownLatch(1);
+		CountDownLatch answer = new CountDownLatch(1);
+		Deduplicator deduplicator = new Deduplicator(1, 1_000, 0.01, id -> {
+			asked.countDown();
+			try {
+				answer.await();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return false;
+		});
+		EventId old = id(1);
+		deduplicator.markSeen(old);
+		deduplicator.markSeen(id(2));
+
+		Thread slow = new Thread(() -> deduplicator.isDuplicate(old));
+		slow.start();
+		asked.await();
+		// Another thread is not held back by the slow fallback
+		assertTrue(deduplicator.markIfNew(id(3)));
+		answer.countDown();
+		slow.join();
+	}
+}
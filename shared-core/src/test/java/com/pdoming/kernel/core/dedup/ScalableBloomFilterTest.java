@@ -0,0 +1,56 @@
+package com.pdoming.kernel.core.dedup;
+
+import com.pdoming.kernel.core.ddd.EventId;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScalableBloomFilterTest {
+
+	private static long hash(long i) {
+		return EventId.of(i, EventId.NO_ORIGIN).hash64();
+	}
+
+	@Test
+	void growsWithoutFalseNegatives() {
+		ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+		for (long i = 0; i < 20_000; i++) {
+			filter.put(hash(i));
+		}
+		assertTrue(filter.stageCount() > 1);
+		for (long i = 0; i < 20_000; i++) {
+			assertTrue(filter.mightContain(hash(i)), "Element " + i + " lost");
+		}
+	}
+
+	@Test
+	void keepsTheFalsePositiveRateBounded() {
+		ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+		for (long i = 0; i < 20_000; i++) {
+			filter.put(hash(i));
+		}
+		int falsePositives = 0;
+		int probes = 100_000;
+		for (long i = 0; i < probes; i++) {
+			if (filter.mightContain(hash(-1 - i))) falsePositives++;
+		}
+		assertTrue(falsePositives < probes * 0.01, falsePositives + " false positives out of " + probes);
+	}
+
+	@Test
+	void putTellsWhetherTheElementWasNew() {
+		ScalableBloomFilter filter = new ScalableBloomFilter(10, 0.01);
+		assertTrue(filter.put(hash(1)));
+		assertFalse(filter.put(hash(1)));
+		assertTrue(filter.mightContain(hash(1)));
+	}
+
+	@Test
+	void rejectsInvalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter(0, 0.01));
+		assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter(10, 0));
+		assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter(10, 1));
+	}
+}
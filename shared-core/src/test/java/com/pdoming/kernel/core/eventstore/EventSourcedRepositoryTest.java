@@ -0,0 +1,46 @@
+package com.pdoming.kernel.core.eventstore;
+
+import com.pdoming.kernel.core.Fixtures.Account;
+import com.pdoming.kernel.core.Fixtures.Id;
+import com.pdoming.kernel.core.ddd.StaleAggregateException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static com.pdoming.kernel.core.Fixtures.serializer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventSourcedRepositoryTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void staleSaveIsRejectedAndStoresNothing() {
+		Id id = new Id(1);
+		try (MappedEventStore<Id> store = MappedEventStore.open(directory, 4096, false, serializer())) {
+			EventSourcedRepository<Account, Id> repository = new EventSourcedRepository<>(store, Account::new);
+			Account created = new Account(id);
+			created.note("opened");
+			repository.save(created);
+
+			Account first = repository.findById(id).orElseThrow();
+			Account second = repository.findById(id).orElseThrow();
+			first.note("first");
+			repository.save(first);
+
+			second.note("second");
+			long position = store.position();
+			StaleAggregateException error = assertThrows(StaleAggregateException.class, () -> repository.save(second));
+			assertEquals(1, error.getExpectedVersion());
+			assertEquals(2, error.getActualVersion());
+			assertEquals(position, store.position());
+
+			Account stored = repository.findById(id).orElseThrow();
+			assertEquals(2, stored.committedVersion());
+			assertEquals("first", stored.lastNote());
+		}
+	}
+}
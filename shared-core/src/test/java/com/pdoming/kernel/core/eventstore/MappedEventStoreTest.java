@@ -0,0 +1,137 @@
+package com.pdoming.kernel.core.eventstore;
+
+import com.pdoming.kernel.core.Fixtures.Id;
+import com.pdoming.kernel.core.Fixtures.Noted;
+import com.pdoming.kernel.core.Fixtures.Unserializable;
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.pdoming.kernel.core.Fixtures.noted;
+import static com.pdoming.kernel.core.Fixtures.serializer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedEventStoreTest {
+
+	private static final int SEGMENT_SIZE = 4096;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void reopenedStoreRebuildsTheHistories() {
+		List<DomainEvent<Id>> first = new ArrayList<>();
+		List<DomainEvent<Id>> second = new ArrayList<>();
+		long position;
+		try (MappedEventStore<Id> store = open()) {
+			for (int i = 0; i < 100; i++) {
+				Noted event = noted(i % 2, "note " + i);
+				(i % 2 == 0 ? first : second).add(event);
+				store.append(event);
+			}
+			position = store.position();
+		}
+
+		try (MappedEventStore<Id> store = open()) {
+			assertEquals(first, store.read(new Id(0)));
+			assertEquals(second, store.read(new Id(1)));
+			assertEquals(50, store.count(new Id(1)));
+			assertEquals(position, store.position());
+		}
+	}
+
+	@Test
+	void recoveryStopsAtATornRecord() throws IOException {
+		Noted kept = noted(1, "kept");
+		long torn;
+		try (MappedEventStore<Id> store = open()) {
+			store.append(kept);
+			torn = store.append(noted(1, "torn"));
+		}
+		// A crash while the record was written leaves bytes that do not match its checksum
+		corrupt(torn + 20);
+
+		try (MappedEventStore<Id> store = open()) {
+			assertEquals(List.of(kept), store.read(new Id(1)));
+			assertEquals(torn, store.position());
+
+			Noted next = noted(1, "next");
+			assertEquals(torn, store.append(next));
+		}
+		try (MappedEventStore<Id> store = open()) {
+			assertEquals(2, store.count(new Id(1)));
+			assertEquals("next", ((Noted) store.read(new Id(1), 1).get(0)).getNote());
+		}
+	}
+
+	@Test
+	void recordsSpanSeveralSegments() {
+		List<DomainEvent<Id>> history = new ArrayList<>();
+		try (MappedEventStore<Id> store = open()) {
+			for (int i = 0; i < 200; i++) {
+				history.add(noted(7, "a note long enough to fill a few segments " + i));
+			}
+			store.appendAll(history);
+			assertTrue(store.position() > 2L * SEGMENT_SIZE);
+		}
+
+		try (MappedEventStore<Id> store = open()) {
+			assertEquals(history, store.read(new Id(7)));
+			List<DomainEvent<Id>> scanned = new ArrayList<>();
+			store.scan(0, (position, event) -> scanned.add(event));
+			assertEquals(history, scanned);
+		}
+	}
+
+	@Test
+	void failedBatchLeavesTheLogUntouched() {
+		try (MappedEventStore<Id> store = open()) {
+			store.append(noted(1, "first"));
+			long position = store.position();
+
+			assertThrows(IllegalArgumentException.class,
+					() -> store.appendAll(List.of(noted(1, "second"), new Unserializable(new Id(1)))));
+			assertEquals(position, store.position());
+			assertEquals(1, store.count(new Id(1)));
+
+			store.append(noted(1, "third"));
+			assertEquals("third", ((Noted) store.read(new Id(1)).get(1)).getNote());
+		}
+	}
+
+	@Test
+	void versionedAppendRejectsStaleVersions() {
+		try (MappedEventStore<Id> store = open()) {
+			Id id = new Id(3);
+			assertTrue(store.appendAll(id, 0, List.of(noted(3, "a"), noted(3, "b"))));
+			assertEquals(false, store.appendAll(id, 1, List.of(noted(3, "c"))));
+			assertTrue(store.appendAll(id, 2, List.of(noted(3, "c"))));
+			assertEquals(3, store.count(id));
+		}
+	}
+
+	private MappedEventStore<Id> open() {
+		return MappedEventStore.open(directory, SEGMENT_SIZE, false, serializer());
+	}
+
+	private void corrupt(long position) throws IOException {
+		Path segment = directory.resolve(String.format("%020d", position / SEGMENT_SIZE) + ".log");
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.allocate(1);
+			long offset = position % SEGMENT_SIZE;
+			channel.read(buffer, offset);
+			buffer.put(0, (byte) ~buffer.get(0)).position(0);
+			channel.write(buffer, offset);
+		}
+	}
+}
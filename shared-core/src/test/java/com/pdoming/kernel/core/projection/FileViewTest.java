@@ -0,0 +1,135 @@
+package com.pdoming.kernel.core.projection;
+
+import com.pdoming.kernel.core.codec.ValueCodecs;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileViewTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void reopenedViewHasTheCommittedEntries() {
+		Path file = directory.resolve("view");
+		try (FileView<String, Long> view = open(file)) {
+			view.put("a", 1L);
+			view.put("b", 2L);
+			view.commit(10);
+			view.put("a", 3L);
+			view.remove("b");
+			view.put("c", 4L);
+			view.commit(20);
+			// Neither committed nor kept
+			view.put("d", 5L);
+		}
+
+		try (FileView<String, Long> view = open(file)) {
+			assertEquals(Map.of("a", 3L, "c", 4L), view.asMap());
+			assertEquals(20, view.position());
+		}
+	}
+
+	@Test
+	void rollbackRestoresTheLastCommit() {
+		try (FileView<String, Long> view = open(directory.resolve("view"))) {
+			view.put("a", 1L);
+			view.commit(1);
+			view.put("a", 2L);
+			view.put("b", 3L);
+			view.rollback();
+			assertEquals(Map.of("a", 1L), view.asMap());
+			assertEquals(1, view.position());
+		}
+	}
+
+	@Test
+	void tornFrameIsDroppedOnReload() throws IOException {
+		Path file = directory.resolve("view");
+		long committed;
+		try (FileView<String, Long> view = open(file)) {
+			view.put("a", 1L);
+			view.commit(1);
+			committed = Files.size(file);
+			view.put("b", 2L);
+			view.commit(2);
+		}
+		// A crash in the middle of the second frame
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(Files.size(file) - 3);
+		}
+
+		try (FileView<String, Long> view = open(file)) {
+			assertEquals(Map.of("a", 1L), view.asMap());
+			assertEquals(1, view.position());
+			assertEquals(committed, Files.size(file));
+			view.put("c", 3L);
+			view.commit(3);
+		}
+		try (FileView<String, Long> view = open(file)) {
+			assertEquals(Map.of("a", 1L, "c", 3L), view.asMap());
+			assertEquals(3, view.position());
+		}
+	}
+
+	@Test
+	void corruptedFrameIsDroppedWithTheFollowingOnes() throws IOException {
+		Path file = directory.resolve("view");
+		long committed;
+		try (FileView<String, Long> view = open(file)) {
+			view.put("a", 1L);
+			view.commit(1);
+			committed = Files.size(file);
+			view.put("b", 2L);
+			view.commit(2);
+			view.put("c", 3L);
+			view.commit(3);
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), committed + 10);
+		}
+
+		try (FileView<String, Long> view = open(file)) {
+			assertEquals(Map.of("a", 1L), view.asMap());
+			assertEquals(1, view.position());
+		}
+	}
+
+	@Test
+	void journalIsCompactedOnceMostChangesAreOverwritten() throws IOException {
+		Path file = directory.resolve("view");
+		try (FileView<String, Long> view = open(file)) {
+			for (long i = 0; i < 100_000; i++) {
+				view.put("key " + (i % 10), i);
+				if (i % 1000 == 999) {
+					view.commit(i);
+				}
+			}
+		}
+		// Every change takes about 10 bytes, the changes before the compaction are gone
+		assertTrue(Files.size(file) < 500_000, Files.size(file) + " bytes");
+
+		try (FileView<String, Long> view = open(file)) {
+			assertEquals(10, view.size());
+			assertEquals(99_999L, view.get("key 9"));
+			assertEquals(99_999, view.position());
+			assertNull(view.get("key 10"));
+		}
+	}
+
+	private static FileView<String, Long> open(Path file) {
+		return FileView.open(file, ValueCodecs.string(), ValueCodecs.varLong());
+	}
+}
@@ -0,0 +1,110 @@
+package com.pdoming.kernel.core.vobjects;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+	private static final Currency EUR = Currency.getInstance("EUR");
+
+	private static final long[] VALUES = {
+			0, 1, -1, 2, -2, 5, -5, 7, -7, 15, -15, 25, -25, 99, -99, 1_000_003, -1_000_003,
+			Long.MAX_VALUE, Long.MIN_VALUE + 1, Long.MAX_VALUE / 3, Long.MIN_VALUE / 3
+	};
+	private static final long[] DIVISORS = {1, -1, 2, -2, 3, -3, 4, 10, -10, 100, 7, 1_000_000_007L, Long.MAX_VALUE};
+
+	@ParameterizedTest
+	@EnumSource(RoundingMode.class)
+	void divisionRoundsLikeBigDecimal(RoundingMode rounding) {
+		for (long value : VALUES) {
+			for (long divisor : DIVISORS) {
+				Money amount = Money.ofMinor(value, EUR);
+				if (rounding == RoundingMode.UNNECESSARY && value % divisor != 0) {
+					assertThrows(ArithmeticException.class, () -> amount.divide(divisor, rounding));
+				} else {
+					long expected = BigDecimal.valueOf(value).divide(BigDecimal.valueOf(divisor), 0, rounding).longValueExact();
+					assertEquals(expected, amount.divide(divisor, rounding).minorUnits(), value + " / " + divisor);
+				}
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(value = RoundingMode.class, names = "UNNECESSARY", mode = EnumSource.Mode.EXCLUDE)
+	void rationalMultiplicationRoundsLikeBigDecimal(RoundingMode rounding) {
+		long[][] factors = {{2100, 10_000}, {-1, 3}, {2, 3}, {7, 2}, {Long.MAX_VALUE, Long.MAX_VALUE}, {3, 4}};
+		for (long value : VALUES) {
+			for (long[] factor : factors) {
+				BigDecimal expected = BigDecimal.valueOf(value).multiply(BigDecimal.valueOf(factor[0]))
+						.divide(BigDecimal.valueOf(factor[1]), 0, rounding);
+				Money amount = Money.ofMinor(value, EUR);
+				if (expected.toBigInteger().bitLength() > 63) {
+					assertThrows(ArithmeticException.class, () -> amount.multiply(factor[0], factor[1], rounding));
+				} else {
+					assertEquals(expected.longValueExact(), amount.multiply(factor[0], factor[1], rounding).minorUnits(),
+							value + " * " + factor[0] + " / " + factor[1]);
+				}
+			}
+		}
+	}
+
+	@Test
+	void taxRateInBasisPoints() {
+		Money price = Money.ofMinor(1999, "EUR");
+		assertEquals(Money.ofMinor(420, "EUR"), price.multiply(2100, 10_000, RoundingMode.HALF_EVEN));
+		assertEquals(Money.ofMinor(419, "EUR"), price.multiply(2100, 10_000, RoundingMode.DOWN));
+		assertEquals(new BigDecimal("19.99"), price.amount());
+	}
+
+	@Test
+	void overflowsThrow() {
+		Money max = Money.ofMinor(Long.MAX_VALUE, EUR);
+		Money min = Money.ofMinor(Long.MIN_VALUE, EUR);
+		assertThrows(ArithmeticException.class, () -> max.add(Money.ofMinor(1, EUR)));
+		assertThrows(ArithmeticException.class, () -> min.subtract(Money.ofMinor(1, EUR)));
+		assertThrows(ArithmeticException.class, min::negate);
+		assertThrows(ArithmeticException.class, () -> max.multiply(2));
+		assertThrows(ArithmeticException.class, () -> min.divide(-1, RoundingMode.DOWN));
+		assertThrows(ArithmeticException.class, () -> max.multiply(new BigDecimal("1.5"), RoundingMode.HALF_UP));
+		assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1e30"), EUR, RoundingMode.HALF_UP));
+		assertThrows(ArithmeticException.class, () -> Money.sum(EUR, new long[]{Long.MAX_VALUE, 1}));
+		assertThrows(ArithmeticException.class, () -> Money.sumProducts(EUR, new long[]{Long.MAX_VALUE / 2}, new long[]{3}));
+		assertThrows(ArithmeticException.class, () -> max.divide(0, RoundingMode.DOWN));
+
+		// The intermediate product overflows, the result does not
+		assertEquals(Long.MAX_VALUE, max.multiply(3, 3, RoundingMode.UNNECESSARY).minorUnits());
+	}
+
+	@Test
+	void conversionFromDecimalsRoundsToMinorUnits() {
+		assertEquals(Money.ofMinor(1235, EUR), Money.of(new BigDecimal("12.345"), EUR, RoundingMode.HALF_UP));
+		assertEquals(Money.ofMinor(1234, EUR), Money.of(new BigDecimal("12.345"), EUR, RoundingMode.HALF_EVEN));
+		assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("12.345"), EUR, RoundingMode.UNNECESSARY));
+		assertEquals(Money.ofMinor(12, "JPY"), Money.of(new BigDecimal("12.4"), Currency.getInstance("JPY"), RoundingMode.HALF_UP));
+	}
+
+	@Test
+	void allocationLosesNoMinorUnit() {
+		Money total = Money.ofMinor(100, EUR);
+		assertEquals(Arrays.asList(Money.ofMinor(34, EUR), Money.ofMinor(33, EUR), Money.ofMinor(33, EUR)),
+				Arrays.asList(total.allocate(3)));
+		assertEquals(Arrays.asList(Money.ofMinor(-34, EUR), Money.ofMinor(-33, EUR), Money.ofMinor(-33, EUR)),
+				Arrays.asList(total.negate().allocate(3)));
+		assertEquals(Arrays.asList(Money.ofMinor(0, EUR), Money.ofMinor(34, EUR), Money.ofMinor(66, EUR)),
+				Arrays.asList(total.allocate(0, 1, 2)));
+	}
+
+	@Test
+	void currenciesCannotBeMixed() {
+		assertThrows(IllegalArgumentException.class, () -> Money.ofMinor(1, EUR).add(Money.ofMinor(1, "USD")));
+	}
+}
@@ -1,10 +1,13 @@
 package com.pdomingo.kernel.event.client;
 
+import com.pdoming.kernel.core.codec.EventType;
 import com.pdoming.kernel.core.ddd.BaseDomainEvent;
+import com.pdoming.kernel.core.ddd.EventId;
 import com.pdoming.kernel.core.ddd.Identifiable;
 
 import java.time.Instant;
 
+@EventType(2)
 public abstract class ClientDataUpdated<ID extends Identifiable, T> extends BaseDomainEvent<ID> {
 
 	protected Field updatedField;
@@ -18,7 +21,25 @@ public abstract class ClientDataUpdated<ID extends Identifiable, T> extends Base
 	}
 
 	public ClientDataUpdated(ID sourceId, Field updatedField, T updatedValue) {
-		super(sourceId, Instant.now());
+		super(sourceId);
+		this.updatedField = updatedField;
+		this.updatedValue = updatedValue;
+	}
+
+	public ClientDataUpdated(ID sourceId, long stamp, Field updatedField, T updatedValue) {
+		super(sourceId, stamp);
+		this.updatedField = updatedField;
+		this.updatedValue = updatedValue;
+	}
+
+	public ClientDataUpdated(ID sourceId, Instant timestamp, Field updatedField, T updatedValue) {
+		super(sourceId, timestamp);
+		this.updatedField = updatedField;
+		this.updatedValue = updatedValue;
+	}
+
+	protected ClientDataUpdated(ID sourceId, EventId eventId, Field updatedField, T updatedValue) {
+		super(sourceId, eventId);
 		this.updatedField = updatedField;
 		this.updatedValue = updatedValue;
 	}
@@ -1,6 +1,8 @@
 package com.pdomingo.kernel.event.client;
 
+import com.pdoming.kernel.core.codec.EventType;
 import com.pdoming.kernel.core.ddd.BaseDomainEvent;
+import com.pdoming.kernel.core.ddd.EventId;
 import com.pdoming.kernel.core.ddd.Identifiable;
 import com.pdoming.kernel.core.vobjects.Address;
 import com.pdoming.kernel.core.vobjects.Email;
@@ -8,12 +10,20 @@ import com.pdoming.kernel.core.vobjects.PhoneNumber;
 
 import java.time.Instant;
 
+@EventType(1)
 public abstract class ClientRegistered<ID extends Identifiable> extends BaseDomainEvent<ID> {
 
 	protected Email       email;
 	protected PhoneNumber phoneNumber;
 	protected Address     shippingAddress;
 
+	public ClientRegistered(ID sourceId, long stamp, Email email, PhoneNumber phoneNumber, Address shippingAddress) {
+		super(sourceId, stamp);
+		this.email = email;
+		this.phoneNumber = phoneNumber;
+		this.shippingAddress = shippingAddress;
+	}
+
 	public ClientRegistered(ID sourceId, Instant timestamp, Email email, PhoneNumber phoneNumber, Address shippingAddress) {
 		super(sourceId, timestamp);
 		this.email = email;
@@ -21,6 +31,13 @@ public abstract class ClientRegistered<ID extends Identifiable> extends BaseDoma
 		this.shippingAddress = shippingAddress;
 	}
 
+	protected ClientRegistered(ID sourceId, EventId eventId, Email email, PhoneNumber phoneNumber, Address shippingAddress) {
+		super(sourceId, eventId);
+		this.email = email;
+		this.phoneNumber = phoneNumber;
+		this.shippingAddress = shippingAddress;
+	}
+
 	public Email getEmail() {
 		return email;
 	}
@@ -1,12 +1,23 @@
 package com.pdomingo.kernel.event.client;
 
+import com.pdoming.kernel.core.codec.EventType;
 import com.pdoming.kernel.core.ddd.BaseDomainEvent;
+import com.pdoming.kernel.core.ddd.EventId;
 import com.pdoming.kernel.core.ddd.Identifiable;
 
 import java.time.Instant;
 
+@EventType(4)
 public abstract class ClientUnregisterCommand<ID extends Identifiable> extends BaseDomainEvent<ID> {
 
+	public ClientUnregisterCommand(ID sourceId, long stamp) {
+		super(sourceId, stamp);
+	}
+
+	protected ClientUnregisterCommand(ID sourceId, EventId eventId) {
+		super(sourceId, eventId);
+	}
+
 	public ClientUnregisterCommand(ID sourceId, Instant timestamp) {
 		super(sourceId, timestamp);
 	}
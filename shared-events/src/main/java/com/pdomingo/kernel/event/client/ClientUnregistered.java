@@ -1,13 +1,24 @@
 package com.pdomingo.kernel.event.client;
 
+import com.pdoming.kernel.core.codec.EventType;
 import com.pdoming.kernel.core.ddd.BaseDomainEvent;
 import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.ddd.EventId;
 import com.pdoming.kernel.core.ddd.Identifiable;
 
 import java.time.Instant;
 
+@EventType(3)
 public abstract class ClientUnregistered<ID extends Identifiable> extends BaseDomainEvent<ID> {
 
+	public ClientUnregistered(ID sourceId, long stamp) {
+		super(sourceId, stamp);
+	}
+
+	protected ClientUnregistered(ID sourceId, EventId eventId) {
+		super(sourceId, eventId);
+	}
+
 	public ClientUnregistered(ID sourceId, Instant timestamp) {
 		super(sourceId, timestamp);
 	}
@@ -1,13 +1,28 @@
 package com.pdomingo.kernel.event.invoice;
 
+import com.pdoming.kernel.core.codec.EventType;
 import com.pdoming.kernel.core.ddd.BaseDomainEvent;
+import com.pdoming.kernel.core.ddd.EventId;
 import com.pdoming.kernel.core.ddd.Identifiable;
 
 import java.time.Instant;
 
+@EventType(7)
 public abstract class InvoiceCreated<ID extends Identifiable> extends BaseDomainEvent<ID> {
 
 	public InvoiceCreated(ID sourceId) {
-		super(sourceId, Instant.now());
+		super(sourceId);
+	}
+
+	public InvoiceCreated(ID sourceId, long stamp) {
+		super(sourceId, stamp);
+	}
+
+	protected InvoiceCreated(ID sourceId, EventId eventId) {
+		super(sourceId, eventId);
+	}
+
+	public InvoiceCreated(ID sourceId, Instant timestamp) {
+		super(sourceId, timestamp);
 	}
 }
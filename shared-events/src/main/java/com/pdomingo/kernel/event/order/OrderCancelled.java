@@ -1,13 +1,28 @@
 package com.pdomingo.kernel.event.order;
 
+import com.pdoming.kernel.core.codec.EventType;
 import com.pdoming.kernel.core.ddd.BaseDomainEvent;
+import com.pdoming.kernel.core.ddd.EventId;
 import com.pdoming.kernel.core.ddd.Identifiable;
 
 import java.time.Instant;
 
+@EventType(6)
 public abstract class OrderCancelled<ID extends Identifiable> extends BaseDomainEvent<ID> {
 
 	public OrderCancelled(ID sourceId) {
-		super(sourceId, Instant.now());
+		super(sourceId);
+	}
+
+	public OrderCancelled(ID sourceId, long stamp) {
+		super(sourceId, stamp);
+	}
+
+	protected OrderCancelled(ID sourceId, EventId eventId) {
+		super(sourceId, eventId);
+	}
+
+	public OrderCancelled(ID sourceId, Instant timestamp) {
+		super(sourceId, timestamp);
 	}
 }
@@ -1,13 +1,28 @@
 package com.pdomingo.kernel.event.order;
 
+import com.pdoming.kernel.core.codec.EventType;
 import com.pdoming.kernel.core.ddd.BaseDomainEvent;
+import com.pdoming.kernel.core.ddd.EventId;
 import com.pdoming.kernel.core.ddd.Identifiable;
 
 import java.time.Instant;
 
+@EventType(5)
 public abstract class OrderCreated<ID extends Identifiable> extends BaseDomainEvent<ID> {
 
 	public OrderCreated(ID sourceId) {
-		super(sourceId, Instant.now());
+		super(sourceId);
+	}
+
+	public OrderCreated(ID sourceId, long stamp) {
+		super(sourceId, stamp);
+	}
+
+	protected OrderCreated(ID sourceId, EventId eventId) {
+		super(sourceId, eventId);
+	}
+
+	public OrderCreated(ID sourceId, Instant timestamp) {
+		super(sourceId, timestamp);
 	}
 }
@@ -0,0 +1,63 @@
+package com.pdomingo.kernel.event.projection;
+
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.ddd.Identifiable;
+import com.pdoming.kernel.core.projection.Projection;
+import com.pdoming.kernel.core.util.Handles;
+import com.pdomingo.kernel.event.client.ClientDataUpdated;
+import com.pdomingo.kernel.event.client.ClientRegistered;
+import com.pdomingo.kernel.event.invoice.InvoiceCreated;
+import com.pdomingo.kernel.event.order.OrderCancelled;
+import com.pdomingo.kernel.event.order.OrderCreated;
+
+/**
+ * Typed handler of the shared events, to be {@link #bind(Projection, EventProjectionHandler) bound}
+ * to a {@link Projection}. Read models override the methods of the events
+ * they are interested in, the others ignore their events. Events are routed
+ * to the methods by the {@link EventProjectionHandlerDispatcher} generated
+ * at build time.
+ *
+ * @param <ID> the type of the source identifier of the events
+ */
+public interface EventProjectionHandler<ID extends Identifiable> {
+
+	@Handles
+	default void onClientRegistered(ClientRegistered<ID> event) {
+	}
+
+	@Handles
+	default void onClientDataUpdated(ClientDataUpdated<ID, ?> event) {
+	}
+
+	@Handles
+	default void onOrderCreated(OrderCreated<ID> event) {
+	}
+
+	@Handles
+	default void onOrderCancelled(OrderCancelled<ID> event) {
+	}
+
+	@Handles
+	default void onInvoiceCreated(InvoiceCreated<ID> event) {
+	}
+
+	/**
+	 * Registers the methods of a handler in a projection
+	 * @param projection the projection
+	 * @param handler the handler of the shared events
+	 * @param <ID> the type of the source identifier of the events
+	 * @return the projection
+	 */
+	static <ID extends Identifiable> Projection<ID> bind(Projection<ID> projection, EventProjectionHandler<ID> handler) {
+		EventProjectionHandlerDispatcher<ID> dispatcher = new EventProjectionHandlerDispatcher<>(handler);
+		for (Class<?> type : EventProjectionHandlerDispatcher.handledTypes()) {
+			projection.on(EventProjectionHandler.<ID>eventType(type), dispatcher.handlerFor(type));
+		}
+		return projection;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <ID extends Identifiable> Class<DomainEvent<ID>> eventType(Class<?> type) {
+		return (Class<DomainEvent<ID>>) type;
+	}
+}
@@ -0,0 +1,145 @@
+package com.pdomingo.kernel.event.snapshot;
+
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.ddd.Identifiable;
+import com.pdoming.kernel.core.eventstore.EventSource;
+import com.pdoming.kernel.core.projection.Projection;
+import com.pdoming.kernel.core.projection.View;
+import com.pdomingo.kernel.event.client.ClientDataUpdated;
+import com.pdomingo.kernel.event.client.ClientRegistered;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Compacts the histories of the clients into {@link ClientSnapshot}s, kept
+ * in a {@link View} by source identifier.
+ *
+ * Compaction is a {@link Projection} of the log: every run folds the events
+ * appended since the previous one, so it is cheap to run periodically in
+ * the background, see {@link #schedule}. A {@link ClientRegistered} event is
+ * expected to be the first event of a client, and starts its snapshot. Its
+ * following {@link ClientDataUpdated} events are folded into it, until
+ * an event of another type seals it.
+ *
+ * A sealed snapshot no longer follows its client, whose loads replay a
+ * longer tail as the client grows. Sealed clients are reported to the
+ * listener given to the compaction as they are sealed, and listed by
+ * {@link #sealedClients()}, for them to be snapshotted again from their
+ * rehydrated aggregates, or their snapshots to be removed.
+ *
+ * The snapshots feed an {@link com.pdoming.kernel.core.eventstore.EventSourcedRepository}
+ * through {@link #snapshotOf(Identifiable)}. A snapshot of a batch rolled
+ * back after a failure is still a valid prefix of the history of its client,
+ * so loading aggregates concurrently with compaction is safe.
+ *
+ * @param <ID> the type of the source identifier of the events
+ */
+public final class ClientCompaction<ID extends Identifiable> {
+
+	private final View<ID, ClientSnapshot> snapshots;
+	private final Consumer<? super ID> sealedListener;
+	private final Projection<ID> projection;
+
+	/**
+	 * Creates a new {@link ClientCompaction}
+	 * @param snapshots the view of the snapshots, e.g. a
+	 *                  {@link com.pdoming.kernel.core.projection.FileView} with {@link ClientSnapshot#codec()}
+	 */
+	public ClientCompaction(View<ID, ClientSnapshot> snapshots) {
+		this(snapshots, sourceId -> {});
+	}
+
+	/**
+	 * Creates a new {@link ClientCompaction}
+	 * @param snapshots the view of the snapshots, e.g. a
+	 *                  {@link com.pdoming.kernel.core.projection.FileView} with {@link ClientSnapshot#codec()}
+	 * @param sealedListener called with the identifier of a client when its snapshot
+	 *                       is sealed, by the thread compacting the log. A client
+	 *                       is reported again if its batch is rolled back and folded again
+	 */
+	public ClientCompaction(View<ID, ClientSnapshot> snapshots, Consumer<? super ID> sealedListener) {
+		this.snapshots = Objects.requireNonNull(snapshots);
+		this.sealedListener = Objects.requireNonNull(sealedListener);
+		this.projection = new Projection<ID>(snapshots).on(ClientCompaction.<ID>anyEvent(), this::fold);
+	}
+
+	/**
+	 * Folds the events appended since the last compaction
+	 * @param source the log of events
+	 * @return the number of events read
+	 * @throws IllegalStateException if the compaction failed, it then resumes
+	 *                               from the last committed batch on the next run
+	 */
+	public long compact(EventSource<ID> source) {
+		return projection.catchUp(source);
+	}
+
+	/**
+	 * Compacts the log periodically. The task stops at the first failed compaction
+	 * @param executor the executor running the compactions
+	 * @param source the log of events
+	 * @param delay the delay between the end of a compaction and the start of the next
+	 * @param unit the unit of the delay
+	 * @return the future of the periodic task, to cancel it
+	 */
+	public ScheduledFuture<?> schedule(ScheduledExecutorService executor, EventSource<ID> source, long delay, TimeUnit unit) {
+		Objects.requireNonNull(source);
+		return executor.scheduleWithFixedDelay(() -> compact(source), 0, delay, unit);
+	}
+
+	/**
+	 * @param sourceId the identifier of a client
+	 * @return the latest snapshot of the client, null if it has none
+	 */
+	public ClientSnapshot snapshotOf(ID sourceId) {
+		return snapshots.get(sourceId);
+	}
+
+	/**
+	 * @return the identifiers of the clients whose snapshots are sealed
+	 */
+	public List<ID> sealedClients() {
+		List<ID> sealed = new ArrayList<>();
+		snapshots.forEach((sourceId, snapshot) -> {
+			if (snapshot.isSealed()) {
+				sealed.add(sourceId);
+			}
+		});
+		return sealed;
+	}
+
+	/**
+	 * @return the position of the log the snapshots are up to date with
+	 */
+	public long position() {
+		return projection.position();
+	}
+
+	private void fold(DomainEvent<ID> event) {
+		ID sourceId = event.getSourceId();
+		ClientSnapshot current = snapshots.get(sourceId);
+		if (current == null) {
+			if (event instanceof ClientRegistered) {
+				snapshots.put(sourceId, ClientSnapshot.of((ClientRegistered<?>) event));
+			}
+		} else if (!current.isSealed()) {
+			if (event instanceof ClientDataUpdated && current.canFold((ClientDataUpdated<?, ?>) event)) {
+				snapshots.put(sourceId, current.with((ClientDataUpdated<?, ?>) event));
+			} else {
+				snapshots.put(sourceId, current.seal());
+				sealedListener.accept(sourceId);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <ID extends Identifiable> Class<DomainEvent<ID>> anyEvent() {
+		return (Class<DomainEvent<ID>>) (Class<?>) DomainEvent.class;
+	}
+}
@@ -0,0 +1,232 @@
+package com.pdomingo.kernel.event.snapshot;
+
+import com.pdoming.kernel.core.codec.BinaryReader;
+import com.pdoming.kernel.core.codec.BinaryWriter;
+import com.pdoming.kernel.core.codec.ValueCodec;
+import com.pdoming.kernel.core.codec.ValueCodecs;
+import com.pdoming.kernel.core.ddd.Snapshot;
+import com.pdoming.kernel.core.vobjects.Address;
+import com.pdoming.kernel.core.vobjects.Email;
+import com.pdoming.kernel.core.vobjects.PhoneNumber;
+import com.pdomingo.kernel.event.client.ClientDataUpdated;
+import com.pdomingo.kernel.event.client.ClientRegistered;
+
+import java.util.Objects;
+
+/**
+ * Latest value of every field of a client, folded from its {@link ClientRegistered}
+ * event and the {@link ClientDataUpdated} events that follow it.
+ *
+ * A snapshot only folds an uninterrupted prefix of the history of a client:
+ * the first event of another type {@link #seal() seals} it, and the events
+ * from there on are left to be replayed by the aggregate. Snapshots are
+ * immutable, folding an event returns a new one.
+ *
+ * The values of the updates must have the types of the fields of
+ * {@link ClientRegistered}, and names must be {@link String}s.
+ */
+public final class ClientSnapshot implements Snapshot {
+
+	private static final ValueCodec<String>      NAME         = ValueCodecs.nullable(ValueCodecs.string());
+	private static final ValueCodec<Email>       EMAIL        = ValueCodecs.nullable(ValueCodecs.email());
+	private static final ValueCodec<PhoneNumber> PHONE_NUMBER = ValueCodecs.nullable(ValueCodecs.phoneNumber());
+	private static final ValueCodec<Address>     ADDRESS      = ValueCodecs.nullable(ValueCodecs.address());
+
+	private static final ValueCodec<ClientSnapshot> CODEC = new ValueCodec<>() {
+		@Override
+		public void write(ClientSnapshot snapshot, BinaryWriter writer) {
+			writer.writeVarLong(snapshot.version);
+			writer.writeBoolean(snapshot.sealed);
+			NAME.write(snapshot.name, writer);
+			EMAIL.write(snapshot.email, writer);
+			PHONE_NUMBER.write(snapshot.phoneNumber, writer);
+			ADDRESS.write(snapshot.shippingAddress, writer);
+		}
+
+		@Override
+		public ClientSnapshot read(BinaryReader reader) {
+			long version = reader.readVarLong();
+			boolean sealed = reader.readBoolean();
+			String name = NAME.read(reader);
+			Email email = EMAIL.read(reader);
+			PhoneNumber phoneNumber = PHONE_NUMBER.read(reader);
+			return new ClientSnapshot(version, sealed, name, email, phoneNumber, ADDRESS.read(reader));
+		}
+	};
+
+	private final long version;
+	private final boolean sealed;
+	private final String name;
+	private final Email email;
+	private final PhoneNumber phoneNumber;
+	private final Address shippingAddress;
+
+	private ClientSnapshot(long version, boolean sealed, String name, Email email, PhoneNumber phoneNumber, Address shippingAddress) {
+		this.version = version;
+		this.sealed = sealed;
+		this.name = name;
+		this.email = email;
+		this.phoneNumber = phoneNumber;
+		this.shippingAddress = shippingAddress;
+	}
+
+	/* ------------------------ Static constructors ------------------------ */
+
+	/**
+	 * @param event the first event of a client
+	 * @return the snapshot of the client at version 1
+	 */
+	public static ClientSnapshot of(ClientRegistered<?> event) {
+		return new ClientSnapshot(1, false, null, event.getEmail(), event.getPhoneNumber(), event.getShippingAddress());
+	}
+
+	/**
+	 * @return the codec of the snapshots, e.g. to keep them in a
+	 *         {@link com.pdoming.kernel.core.projection.FileView}
+	 */
+	public static ValueCodec<ClientSnapshot> codec() {
+		return CODEC;
+	}
+
+	/* ------------------------ Folding ------------------------ */
+
+	/**
+	 * @param event the next event of the client
+	 * @return the snapshot with the updated field, one version ahead
+	 * @throws IllegalStateException if this snapshot is sealed
+	 * @throws IllegalArgumentException if the value does not have the type of the field
+	 */
+	public ClientSnapshot with(ClientDataUpdated<?, ?> event) {
+		if (sealed) throw new IllegalStateException("Snapshot is sealed at version " + version);
+		Object value = event.getUpdatedValue();
+		String name = this.name;
+		Email email = this.email;
+		PhoneNumber phoneNumber = this.phoneNumber;
+		Address shippingAddress = this.shippingAddress;
+		switch (event.getUpdatedField()) {
+			case NAME:
+				name = cast(value, String.class, event);
+				break;
+			case EMAIL:
+				email = cast(value, Email.class, event);
+				break;
+			case PHONE_NUMBER:
+				phoneNumber = cast(value, PhoneNumber.class, event);
+				break;
+			case SHIPPING_ADDRESS:
+				shippingAddress = cast(value, Address.class, event);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown field " + event.getUpdatedField());
+		}
+		return new ClientSnapshot(version + 1, false, name, email, phoneNumber, shippingAddress);
+	}
+
+	/**
+	 * @param event the next event of the client
+	 * @return whether {@link #with(ClientDataUpdated)} can fold it
+	 */
+	public boolean canFold(ClientDataUpdated<?, ?> event) {
+		Object value = event.getUpdatedValue();
+		return !sealed && (value == null || typeOf(event.getUpdatedField()).isInstance(value));
+	}
+
+	/**
+	 * @return this snapshot, no longer folding events, for it to stop before
+	 *         an event it cannot fold
+	 */
+	public ClientSnapshot seal() {
+		return sealed ? this : new ClientSnapshot(version, true, name, email, phoneNumber, shippingAddress);
+	}
+
+	/* ------------------------ Accessors ------------------------ */
+
+	@Override
+	public long version() {
+		return version;
+	}
+
+	/**
+	 * @return whether events of the client were left out of this snapshot
+	 */
+	public boolean isSealed() {
+		return sealed;
+	}
+
+	/**
+	 * @param field a field of the client
+	 * @return the latest value of the field, null if it was never set
+	 */
+	public Object get(ClientDataUpdated.Field field) {
+		switch (field) {
+			case NAME:
+				return name;
+			case EMAIL:
+				return email;
+			case PHONE_NUMBER:
+				return phoneNumber;
+			case SHIPPING_ADDRESS:
+				return shippingAddress;
+			default:
+				throw new IllegalArgumentException("Unknown field " + field);
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Email getEmail() {
+		return email;
+	}
+
+	public PhoneNumber getPhoneNumber() {
+		return phoneNumber;
+	}
+
+	public Address getShippingAddress() {
+		return shippingAddress;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		ClientSnapshot that = (ClientSnapshot) o;
+		return version == that.version && sealed == that.sealed && Objects.equals(name, that.name)
+				&& Objects.equals(email, that.email) && Objects.equals(phoneNumber, that.phoneNumber)
+				&& Objects.equals(shippingAddress, that.shippingAddress);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(version, sealed, name, email, phoneNumber, shippingAddress);
+	}
+
+	@Override
+	public String toString() {
+		return "ClientSnapshot[version=" + version + (sealed ? ", sealed" : "") + ", name=" + name + ", email=" + email
+				+ ", phoneNumber=" + phoneNumber + ", shippingAddress=" + shippingAddress + "]";
+	}
+
+	private static Class<?> typeOf(ClientDataUpdated.Field field) {
+		switch (field) {
+			case NAME:
+				return String.class;
+			case EMAIL:
+				return Email.class;
+			case PHONE_NUMBER:
+				return PhoneNumber.class;
+			case SHIPPING_ADDRESS:
+				return Address.class;
+			default:
+				throw new IllegalArgumentException("Unknown field " + field);
+		}
+	}
+
+	private static <T> T cast(Object value, Class<T> type, ClientDataUpdated<?, ?> event) {
+		if (value != null && !type.isInstance(value))
+			throw new IllegalArgumentException("Value of field " + event.getUpdatedField() + " is not a " + type.getSimpleName());
+		return type.cast(value);
+	}
+}
@@ -0,0 +1,139 @@
+package com.pdomingo.kernel.processor;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Generates the dispatcher of a class or interface with methods annotated with {@code @Handles}.
+ *
+ * The dispatcher wraps an instance of the handler type and gives, for every
+ * type of event handled, a {@code Consumer} invoking the handler methods
+ * taking that type, in declaration order. It is meant to be registered once
+ * per handled type in a table resolving the handlers of every event class,
+ * such as a {@code DispatchTable}, so that events are routed by their class
+ * rather than tested against every handler method. It has the type
+ * parameters of the handler type, so that handler methods taking events of
+ * a generic identifier are invoked without unchecked warnings in user code.
+ */
+final class DispatcherGenerator {
+
+	private final Elements elements;
+	private final Types types;
+	private final Messager messager;
+
+	DispatcherGenerator(Elements elements, Types types, Messager messager) {
+		this.elements = elements;
+		this.types = types;
+		this.messager = messager;
+	}
+
+	/**
+	 * @param handler the type declaring the handler methods
+	 * @param methods the handler methods, in declaration order
+	 * @param dispatcherName the simple name of the dispatcher
+	 * @return the source of the dispatcher, or null if a method is not valid
+	 */
+	String generate(TypeElement handler, List<ExecutableElement> methods, String dispatcherName) {
+		if (handler.getModifiers().contains(Modifier.PRIVATE)) return error("Handler type must not be private", handler);
+		TypeMirror domainEvent = types.erasure(elements.getTypeElement(EventProcessor.DOMAIN_EVENT).asType());
+		// Handler methods grouped by the erasure of their parameter, in order of first appearance
+		Map<String, List<ExecutableElement>> byType = new LinkedHashMap<>();
+		for (ExecutableElement method : methods) {
+			if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC))
+				return error("Handler method must be neither private nor static", method);
+			if (method.getParameters().size() != 1)
+				return error("Handler method must take a single event", method);
+			TypeMirror parameter = method.getParameters().get(0).asType();
+			if (parameter.getKind() != TypeKind.DECLARED || !types.isAssignable(types.erasure(parameter), domainEvent))
+				return error("Handler method must take a DomainEvent", method);
+			byType.computeIfAbsent(types.erasure(parameter).toString(), key -> new ArrayList<>()).add(method);
+		}
+
+		String pkg = EventProcessor.packageOf(elements, handler);
+		List<? extends TypeParameterElement> typeParameters = handler.getTypeParameters();
+		String handlerType = handler.getQualifiedName() + EventProcessor.usedTypeParameters(typeParameters, "");
+
+		StringBuilder source = new StringBuilder();
+		if (!pkg.isEmpty()) {
+			source.append("package ").append(pkg).append(";\n\n");
+		}
+		source.append("import com.pdoming.kernel.core.ddd.DomainEvent;\n\n")
+				.append("import java.util.List;\n")
+				.append("import java.util.Objects;\n")
+				.append("import java.util.function.Consumer;\n\n")
+				.append("/**\n")
+				.append(" * Routes events to the {@code @Handles} methods of {@link ").append(handler.getQualifiedName()).append("},\n")
+				.append(" * through one handler per type of event handled\n")
+				.append(" */\n")
+				.append(EventProcessor.GENERATED).append('\n')
+				.append("public final class ").append(dispatcherName)
+				.append(EventProcessor.declaredTypeParameters(typeParameters, "")).append(" {\n\n")
+				.append("\tprivate static final List<Class<?>> HANDLED_TYPES = List.of(\n")
+				.append(byType.keySet().stream()
+						.map(type -> "\t\t\t" + type + ".class")
+						.collect(Collectors.joining(",\n")))
+				.append(");\n\n")
+				.append("\tprivate final ").append(handlerType).append(" handler;\n\n")
+				.append("\tpublic ").append(dispatcherName).append('(').append(handlerType).append(" handler) {\n")
+				.append("\t\tthis.handler = Objects.requireNonNull(handler);\n")
+				.append("\t}\n\n")
+				.append("\t/**\n")
+				.append("\t * @return the classes of the events handled, in declaration order, to register\n")
+				.append("\t *         the {@link #handlerFor(Class) handler} of each of them\n")
+				.append("\t */\n")
+				.append("\tpublic static List<Class<?>> handledTypes() {\n")
+				.append("\t\treturn HANDLED_TYPES;\n")
+				.append("\t}\n\n")
+				.append("\t/**\n")
+				.append("\t * @param type one of the {@link #handledTypes() handled types}\n")
+				.append("\t * @return the handler of the events of that type and its subtypes, which invokes\n")
+				.append("\t *         the methods taking them in declaration order\n")
+				.append("\t * @throws IllegalArgumentException if no method takes events of that type\n")
+				.append("\t */\n")
+				.append("\t@SuppressWarnings(\"unchecked\")\n")
+				.append("\tpublic Consumer<DomainEvent<?>> handlerFor(Class<?> type) {\n");
+		byType.forEach((type, handlers) -> {
+			source.append("\t\tif (type == ").append(type).append(".class) {\n");
+			if (handlers.size() == 1) {
+				source.append("\t\t\treturn event -> ").append(invocation(handlers.get(0))).append(";\n");
+			} else {
+				source.append("\t\t\treturn event -> {\n");
+				for (ExecutableElement method : handlers) {
+					source.append("\t\t\t\t").append(invocation(method)).append(";\n");
+				}
+				source.append("\t\t\t};\n");
+			}
+			source.append("\t\t}\n");
+		});
+		return source.append("\t\tthrow new IllegalArgumentException(\"No method of ").append(handler.getSimpleName())
+				.append(" handles \" + type.getName());\n")
+				.append("\t}\n")
+				.append("}\n")
+				.toString();
+	}
+
+	/* ------------------------ Internals ------------------------ */
+
+	private String invocation(ExecutableElement method) {
+		return "handler." + method.getSimpleName() + "((" + method.getParameters().get(0).asType() + ") event)";
+	}
+
+	private String error(String message, Element element) {
+		messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+		return null;
+	}
+}
@@ -0,0 +1,184 @@
+package com.pdomingo.kernel.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Annotation processor that generates, at build time, the code the kernel
+ * would otherwise resolve at run time:
+ * <ul>
+ *     <li>the {@code EventSchema} of every event class annotated with {@code @EventType},
+ *     and the view of its fields over an {@code EventView}, see {@link SchemaGenerator}</li>
+ *     <li>the dispatcher of every class or interface with methods annotated
+ *     with {@code @Handles}, see {@link DispatcherGenerator}</li>
+ * </ul>
+ *
+ * The processor only works on the names of the kernel types, so it does not
+ * depend on the kernel itself. Errors are reported on the offending elements
+ * and fail the build.
+ */
+@SupportedAnnotationTypes({EventProcessor.EVENT_TYPE, EventProcessor.HANDLES})
+public final class EventProcessor extends AbstractProcessor {
+
+	static final String EVENT_TYPE = "com.pdoming.kernel.core.codec.EventType";
+	static final String HANDLES = "com.pdoming.kernel.core.util.Handles";
+	static final String DOMAIN_EVENT = "com.pdoming.kernel.core.ddd.DomainEvent";
+	static final String EVENT_ID = "com.pdoming.kernel.core.ddd.EventId";
+	static final String GENERATED = "@javax.annotation.processing.Generated(\"" + EventProcessor.class.getName() + "\")";
+
+	private SchemaGenerator schemas;
+	private DispatcherGenerator dispatchers;
+
+	@Override
+	public synchronized void init(ProcessingEnvironment environment) {
+		super.init(environment);
+		this.schemas = new SchemaGenerator(environment.getElementUtils(), environment.getTypeUtils(), environment.getMessager());
+		this.dispatchers = new DispatcherGenerator(environment.getElementUtils(), environment.getTypeUtils(), environment.getMessager());
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+		Elements elements = processingEnv.getElementUtils();
+		TypeElement eventType = elements.getTypeElement(EVENT_TYPE);
+		TypeElement handles = elements.getTypeElement(HANDLES);
+
+		if (eventType != null) {
+			for (Element element : round.getElementsAnnotatedWith(eventType)) {
+				if (element.getKind() != ElementKind.CLASS) {
+					error("@EventType only applies to classes", element);
+					continue;
+				}
+				TypeElement type = (TypeElement) element;
+				Map<String, String> sources = schemas.generate(type, typeIdOf(type, eventType));
+				if (sources != null) {
+					sources.forEach((name, source) -> write(type, name, source));
+				}
+			}
+		}
+
+		if (handles != null) {
+			// Group the handler methods by the type declaring them, in declaration order
+			Map<TypeElement, List<ExecutableElement>> handlers = new LinkedHashMap<>();
+			for (Element element : round.getElementsAnnotatedWith(handles)) {
+				TypeElement owner = (TypeElement) element.getEnclosingElement();
+				handlers.computeIfAbsent(owner, key -> new ArrayList<>()).add((ExecutableElement) element);
+			}
+			handlers.forEach((owner, methods) -> {
+				String source = dispatchers.generate(owner, methods, generatedName(owner, "Dispatcher"));
+				if (source != null) {
+					write(owner, generatedName(owner, "Dispatcher"), source);
+				}
+			});
+		}
+		return true;
+	}
+
+	/* ------------------------ Helpers ------------------------ */
+
+	/**
+	 * @return the simple name of the class generated for a type, prefixed by
+	 *         the names of its enclosing types so that nested types do not clash
+	 */
+	static String generatedName(TypeElement type, String suffix) {
+		StringBuilder name = new StringBuilder(type.getSimpleName());
+		for (Element enclosing = type.getEnclosingElement(); enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+			name.insert(0, enclosing.getSimpleName() + "_");
+		}
+		return name.append(suffix).toString();
+	}
+
+	static String packageOf(Elements elements, TypeElement type) {
+		PackageElement pkg = elements.getPackageOf(type);
+		return pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+	}
+
+	/**
+	 * @param parameters the type parameters of a type
+	 * @param extra an additional declaration, or empty
+	 * @return the declaration of the parameters with their bounds, as {@code <A extends B, C>}, or empty
+	 */
+	static String declaredTypeParameters(List<? extends TypeParameterElement> parameters, String extra) {
+		return join(parameters.stream().map(EventProcessor::declaration), extra);
+	}
+
+	/**
+	 * @param parameters the type parameters of a type
+	 * @param extra an additional type argument, or empty
+	 * @return the parameters as type arguments, as {@code <A, C>}, or empty
+	 */
+	static String usedTypeParameters(List<? extends TypeParameterElement> parameters, String extra) {
+		return join(parameters.stream().map(parameter -> parameter.getSimpleName().toString()), extra);
+	}
+
+	private static String declaration(TypeParameterElement parameter) {
+		List<? extends TypeMirror> bounds = parameter.getBounds();
+		String name = parameter.getSimpleName().toString();
+		if (bounds.size() == 1 && bounds.get(0).toString().equals("java.lang.Object")) return name;
+		return name + " extends " + bounds.stream().map(TypeMirror::toString).collect(Collectors.joining(" & "));
+	}
+
+	private static String join(Stream<String> parameters, String extra) {
+		List<String> all = parameters.collect(Collectors.toCollection(ArrayList::new));
+		if (!extra.isEmpty()) {
+			all.add(extra);
+		}
+		return all.isEmpty() ? "" : all.stream().collect(Collectors.joining(", ", "<", ">"));
+	}
+
+	private int typeIdOf(TypeElement type, TypeElement eventType) {
+		return type.getAnnotationMirrors().stream()
+				.filter(mirror -> mirror.getAnnotationType().asElement().equals(eventType))
+				.flatMap(mirror -> mirror.getElementValues().values().stream())
+				.map(value -> (Integer) value.getValue())
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private void write(TypeElement origin, String simpleName, String source) {
+		String pkg = packageOf(processingEnv.getElementUtils(), origin);
+		String name = pkg.isEmpty() ? simpleName : pkg + "." + simpleName;
+		Filer filer = processingEnv.getFiler();
+		try {
+			JavaFileObject file = filer.createSourceFile(name, origin);
+			try (Writer writer = file.openWriter()) {
+				writer.write(source);
+			}
+		} catch (IOException ex) {
+			error("Cannot write " + name + ": " + ex.getMessage(), origin);
+		}
+	}
+
+	private void error(String message, Element element) {
+		Messager messager = processingEnv.getMessager();
+		messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+}
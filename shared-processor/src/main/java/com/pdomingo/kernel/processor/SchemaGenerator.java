@@ -0,0 +1,601 @@
+package com.pdomingo.kernel.processor;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Generates the {@code EventSchema} of an event class annotated with {@code @EventType},
+ * and a view of its fields over an {@code EventView}.
+ *
+ * The payload is made of the parameters of the constructor that follow the
+ * source identifier and the {@code EventId}, written in order from the
+ * getters of the same name. Primitives are written as varints, or as fixed
+ * longs for floating point numbers, enums as their ordinal plus one, 0 being
+ * null, and the other supported types through their nullable {@code ValueCodecs}.
+ *
+ * A concrete class gets a schema class implementing {@code EventSchema}. An
+ * abstract class, typically a shared event subclassed by every service, gets
+ * a class of static factories of schemas instead, given the concrete class
+ * and a factory calling its decoding constructor. Fields whose type is a
+ * type variable of the abstract class are written by a codec given to the
+ * factory too.
+ *
+ * The view decodes a single field of an encoded event, skipping the ones
+ * before it. It is generated from the same fields as the schema, so both
+ * always agree on the layout of the payload.
+ */
+final class SchemaGenerator {
+
+	private static final Map<String, String> VALUE_CODECS = Map.of(
+			"java.lang.String", "string()",
+			"java.lang.Long", "varLong()",
+			"java.time.Instant", "instant()",
+			"java.util.UUID", "uuid()",
+			"com.pdoming.kernel.core.vobjects.Email", "email()",
+			"com.pdoming.kernel.core.vobjects.PhoneNumber", "phoneNumber()",
+			"com.pdoming.kernel.core.vobjects.Address", "address()");
+
+	private final Elements elements;
+	private final Types types;
+	private final Messager messager;
+
+	SchemaGenerator(Elements elements, Types types, Messager messager) {
+		this.elements = elements;
+		this.types = types;
+		this.messager = messager;
+	}
+
+	/**
+	 * @param event the annotated event class
+	 * @param typeId the identifier of its type on the wire
+	 * @return the sources of the schema and of the view by their simple names,
+	 *         or null if the class is not valid
+	 */
+	Map<String, String> generate(TypeElement event, int typeId) {
+		boolean concrete = !event.getModifiers().contains(Modifier.ABSTRACT);
+		if (concrete && !event.getTypeParameters().isEmpty()) return error("Concrete event class must not be generic", event);
+		if (event.getModifiers().contains(Modifier.PRIVATE)) return error("Event class must not be private", event);
+		if (event.getNestingKind().isNested() && !event.getModifiers().contains(Modifier.STATIC))
+			return error("Nested event class must be static", event);
+
+		DeclaredType eventType = (DeclaredType) event.asType();
+		TypeMirror idType = sourceIdType(eventType);
+		if (idType == null || (concrete && idType.getKind() != TypeKind.DECLARED))
+			return error("Event class must implement DomainEvent with a concrete identifier type or a type variable", event);
+
+		ExecutableElement constructor = constructorOf(event, idType);
+		if (constructor == null)
+			return error("Event class needs a non private constructor taking the source identifier, the EventId and its fields", event);
+
+		List<Field> fields = fieldsOf(event, eventType, constructor, concrete);
+		if (fields == null) return null;
+
+		String schemaName = EventProcessor.generatedName(event, "Schema");
+		String viewName = EventProcessor.generatedName(event, "View");
+		Map<String, String> sources = new LinkedHashMap<>();
+		sources.put(schemaName, schema(event, typeId, idType.toString(), fields, concrete, schemaName));
+		sources.put(viewName, view(event, idType.toString(), fields, concrete, schemaName, viewName));
+		return sources;
+	}
+
+	private String schema(TypeElement event, int typeId, String idType, List<Field> fields, boolean concrete, String schemaName) {
+		StringBuilder source = new StringBuilder();
+		packageDeclaration(source, event);
+		source.append("import com.pdoming.kernel.core.codec.BinaryReader;\n")
+				.append("import com.pdoming.kernel.core.codec.BinaryWriter;\n")
+				.append("import com.pdoming.kernel.core.codec.EventSchema;\n")
+				.append("import com.pdoming.kernel.core.codec.ValueCodec;\n")
+				.append("import com.pdoming.kernel.core.codec.ValueCodecs;\n")
+				.append("import com.pdoming.kernel.core.ddd.EventId;\n\n")
+				.append("import java.util.Objects;\n\n");
+		if (concrete) {
+			concreteSchema(source, event, typeId, idType, fields, schemaName);
+		} else {
+			schemaFactories(source, event, typeId, idType, fields, schemaName);
+		}
+		return source.append("}\n").toString();
+	}
+
+	private void packageDeclaration(StringBuilder source, TypeElement event) {
+		String pkg = EventProcessor.packageOf(elements, event);
+		if (!pkg.isEmpty()) {
+			source.append("package ").append(pkg).append(";\n\n");
+		}
+	}
+
+	/* ------------------------ Schema classes ------------------------ */
+
+	private void concreteSchema(StringBuilder source, TypeElement event, int typeId, String idType, List<Field> fields, String schemaName) {
+		String eventName = event.getQualifiedName().toString();
+		source.append("/**\n")
+				.append(" * {@link EventSchema} of {@link ").append(eventName).append("}, generated from its constructor\n")
+				.append(" */\n")
+				.append(EventProcessor.GENERATED).append('\n')
+				.append("public final class ").append(schemaName).append(" implements EventSchema<").append(idType).append(", ")
+				.append(eventName).append("> {\n\n");
+		if (constants(source, fields)) {
+			source.append('\n');
+		}
+		source.append("\t@Override\n")
+				.append("\tpublic int typeId() {\n")
+				.append("\t\treturn ").append(typeId).append(";\n")
+				.append("\t}\n\n")
+				.append("\t@Override\n")
+				.append("\tpublic Class<").append(eventName).append("> type() {\n")
+				.append("\t\treturn ").append(eventName).append(".class;\n")
+				.append("\t}\n\n");
+		methods(source, "\t", eventName, idType, fields, "new " + eventName);
+		helpers(source, fields);
+	}
+
+	private void schemaFactories(StringBuilder source, TypeElement event, int typeId, String idType, List<Field> fields, String schemaName) {
+		String eventName = event.getQualifiedName().toString();
+		String declared = EventProcessor.declaredTypeParameters(event.getTypeParameters(), "E extends " + eventName
+				+ EventProcessor.usedTypeParameters(event.getTypeParameters(), ""));
+		String used = EventProcessor.usedTypeParameters(event.getTypeParameters(), "E");
+		StringBuilder codecParameters = new StringBuilder();
+		StringBuilder codecArguments = new StringBuilder();
+		for (Field field : fields) {
+			if (field.kind == Kind.VARIABLE) {
+				codecParameters.append("ValueCodec<").append(field.type).append("> ").append(field.name).append("Codec, ");
+				codecArguments.append(field.name).append("Codec, ");
+			}
+		}
+
+		source.append("/**\n")
+				.append(" * Factories of the {@link EventSchema}s of the subclasses of {@link ").append(eventName)
+				.append("},\n * generated from its constructor\n")
+				.append(" */\n")
+				.append(EventProcessor.GENERATED).append('\n')
+				.append("public final class ").append(schemaName).append(" {\n\n")
+				.append("\t/**\n")
+				.append("\t * Identifier of the type on the wire, unless the schema is given another one\n")
+				.append("\t */\n")
+				.append("\tpublic static final int TYPE_ID = ").append(typeId).append(";\n\n");
+		if (constants(source, fields)) {
+			source.append('\n');
+		}
+		source.append("\tprivate ").append(schemaName).append("() {\n")
+				.append("\t}\n\n")
+				.append("\t/**\n")
+				.append("\t * @return the schema of the events of the given class, with the identifier {@link #TYPE_ID}\n")
+				.append("\t */\n")
+				.append("\tpublic static ").append(declared).append(" EventSchema<").append(idType).append(", E> of(Class<E> type, ")
+				.append(codecParameters).append("Factory").append(used).append(" factory) {\n")
+				.append("\t\treturn of(TYPE_ID, type, ").append(codecArguments).append("factory);\n")
+				.append("\t}\n\n")
+				.append("\t/**\n")
+				.append("\t * @return the schema of the events of the given class, for services that register several subclasses\n")
+				.append("\t */\n")
+				.append("\tpublic static ").append(declared).append(" EventSchema<").append(idType).append(", E> of(int typeId, Class<E> type, ")
+				.append(codecParameters).append("Factory").append(used).append(" factory) {\n")
+				.append("\t\tObjects.requireNonNull(type);\n")
+				.append("\t\tObjects.requireNonNull(factory);\n");
+		for (Field field : fields) {
+			if (field.kind == Kind.VARIABLE) {
+				source.append("\t\tValueCodec<").append(field.type).append("> ").append(field.constant)
+						.append(" = ValueCodecs.nullable(").append(field.name).append("Codec);\n");
+			}
+		}
+		source.append("\t\treturn new EventSchema<>() {\n")
+				.append("\t\t\t@Override\n")
+				.append("\t\t\tpublic int typeId() {\n")
+				.append("\t\t\t\treturn typeId;\n")
+				.append("\t\t\t}\n\n")
+				.append("\t\t\t@Override\n")
+				.append("\t\t\tpublic Class<E> type() {\n")
+				.append("\t\t\t\treturn type;\n")
+				.append("\t\t\t}\n\n");
+		methods(source, "\t\t\t", "E", idType, fields, "factory.create");
+		source.append("\t\t};\n")
+				.append("\t}\n");
+		helpers(source, fields);
+
+		source.append("\n\t/**\n")
+				.append("\t * Builds an event through the decoding constructor of its class\n")
+				.append("\t */\n")
+				.append("\t@FunctionalInterface\n")
+				.append("\tpublic interface Factory").append(declared).append(" {\n")
+				.append("\t\tE create(").append(idType).append(" sourceId, EventId eventId");
+		for (Field field : fields) {
+			source.append(", ").append(field.type).append(' ').append(field.name);
+		}
+		source.append(");\n")
+				.append("\t}\n");
+	}
+
+	/* ------------------------ View classes ------------------------ */
+
+	private String view(TypeElement event, String idType, List<Field> fields, boolean concrete, String schemaName, String viewName) {
+		String eventName = event.getQualifiedName().toString();
+		String declared = concrete ? "" : EventProcessor.declaredTypeParameters(event.getTypeParameters(), "");
+		String used = concrete ? "" : EventProcessor.usedTypeParameters(event.getTypeParameters(), "");
+		String staticDeclared = declared.isEmpty() ? "" : declared + " ";
+		boolean variables = fields.stream().anyMatch(field -> field.kind == Kind.VARIABLE);
+
+		StringBuilder source = new StringBuilder();
+		packageDeclaration(source, event);
+		source.append("import com.pdoming.kernel.core.codec.BinaryReader;\n")
+				.append("import com.pdoming.kernel.core.codec.EventView;\n")
+				.append("import com.pdoming.kernel.core.codec.ValueCodec;\n")
+				.append("import com.pdoming.kernel.core.codec.ValueCodecs;\n\n")
+				.append("import java.util.Objects;\n\n")
+				.append("/**\n")
+				.append(" * Reads the fields of a {@link ").append(eventName).append("} from an {@link EventView},\n")
+				.append(" * decoding only the requested field, and skipping the ones before it. It is\n")
+				.append(" * generated along with {@link ").append(schemaName).append("}, so it follows the layout of its payload.\n")
+				.append(" *\n")
+				.append(" * It follows the event the view is pointed to, so a single instance serves\n")
+				.append(" * a whole scan. Like the view, it is not thread safe.\n")
+				.append(" */\n")
+				.append(EventProcessor.GENERATED).append('\n')
+				.append("public final class ").append(viewName).append(declared).append(" {\n\n");
+		if (constants(source, fields)) {
+			source.append('\n');
+		}
+		source.append("\tprivate final EventView<").append(idType).append("> view;\n");
+		StringBuilder codecParameters = new StringBuilder();
+		StringBuilder codecArguments = new StringBuilder();
+		StringBuilder nullArguments = new StringBuilder();
+		for (Field field : fields) {
+			if (field.kind == Kind.VARIABLE) {
+				source.append("\tprivate final ValueCodec<").append(field.type).append("> ").append(field.constant).append(";\n");
+				codecParameters.append(", ValueCodec<").append(field.type).append("> ").append(field.name).append("Codec");
+				codecArguments.append(", Objects.requireNonNull(").append(field.name).append("Codec)");
+				nullArguments.append(", null");
+			}
+		}
+		source.append('\n')
+				.append("\tprivate ").append(viewName).append("(EventView<").append(idType).append("> view").append(codecParameters).append(") {\n")
+				.append("\t\tthis.view = view;\n");
+		for (Field field : fields) {
+			if (field.kind == Kind.VARIABLE) {
+				source.append("\t\tthis.").append(field.constant).append(" = ").append(field.name).append("Codec == null ? null : ValueCodecs.nullable(")
+						.append(field.name).append("Codec);\n");
+			}
+		}
+		source.append("\t}\n\n")
+				.append("\t/**\n")
+				.append("\t * @param view the view of the events, encoded with {@link ").append(schemaName).append("}\n")
+				.append("\t * @return a new view of the fields of the events");
+		if (variables) {
+			source.append(", which cannot read the fields\n\t *         whose type is a type variable, nor the ones after them");
+		}
+		source.append("\n\t */\n")
+				.append("\tpublic static ").append(staticDeclared).append(viewName).append(used).append(" over(EventView<").append(idType).append("> view) {\n")
+				.append("\t\treturn new ").append(viewName).append(used.isEmpty() ? "" : "<>").append("(Objects.requireNonNull(view)").append(nullArguments).append(");\n")
+				.append("\t}\n\n");
+		if (variables) {
+			source.append("\t/**\n")
+					.append("\t * @param view the view of the events, encoded with {@link ").append(schemaName).append("}\n")
+					.append("\t * @return a new view of the fields of the events, given the codecs the schema was given\n")
+					.append("\t */\n")
+					.append("\tpublic static ").append(staticDeclared).append(viewName).append(used).append(" over(EventView<").append(idType).append("> view")
+					.append(codecParameters).append(") {\n")
+					.append("\t\treturn new ").append(viewName).append("<>(Objects.requireNonNull(view)").append(codecArguments).append(");\n")
+					.append("\t}\n\n");
+		}
+		source.append("\t/**\n")
+				.append("\t * @return whether the current event of the view is a {@link ").append(eventName).append("}\n")
+				.append("\t */\n")
+				.append("\tpublic boolean matches() {\n")
+				.append("\t\treturn view.is(").append(eventName).append(".class);\n")
+				.append("\t}\n\n")
+				.append("\tpublic ").append(idType).append(" getSourceId() {\n")
+				.append("\t\treturn view.getSourceId();\n")
+				.append("\t}\n");
+		for (int i = 0; i < fields.size(); i++) {
+			Field field = fields.get(i);
+			source.append("\n\tpublic ").append(field.type).append(' ').append(field.getter).append("() {\n")
+					.append("\t\tBinaryReader reader = payload();\n");
+			for (Field skipped : fields.subList(0, i)) {
+				source.append("\t\t").append(skip(skipped)).append(";\n");
+			}
+			source.append("\t\treturn ").append(read(field)).append(";\n")
+					.append("\t}\n");
+		}
+		source.append("\n\tprivate BinaryReader payload() {\n")
+				.append("\t\tif (!matches()) throw new IllegalStateException(\"Event \" + view + \" is not a ")
+				.append(event.getSimpleName()).append("\");\n")
+				.append("\t\treturn view.payload();\n")
+				.append("\t}\n");
+		if (variables) {
+			source.append("\n\tprivate static <T> ValueCodec<T> codec(ValueCodec<T> codec, String field) {\n")
+					.append("\t\tif (codec == null) throw new IllegalStateException(\"The view was created without the codec of \" + field);\n")
+					.append("\t\treturn codec;\n")
+					.append("\t}\n");
+		}
+		helpers(source, fields);
+		return source.append("}\n").toString();
+	}
+
+	private static String skip(Field field) {
+		switch (field.kind) {
+			case PRIMITIVE:
+				switch (field.type.getKind()) {
+					case BOOLEAN:
+						return "reader.readBoolean()";
+					case DOUBLE:
+						return "reader.readFixedLong()";
+					default:
+						return "reader.readSignedVarLong()";
+				}
+			case ENUM:
+				return "reader.readVarInt()";
+			case VARIABLE:
+				return "codec(" + field.constant + ", \"" + field.name + "\").skip(reader)";
+			default:
+				return field.constant + ".skip(reader)";
+		}
+	}
+
+	private static String read(Field field) {
+		switch (field.kind) {
+			case PRIMITIVE:
+				return readPrimitive(field.type.getKind());
+			case ENUM:
+				return "constant(reader.readVarInt(), " + field.constant + ")";
+			case VARIABLE:
+				return "codec(" + field.constant + ", \"" + field.name + "\").read(reader)";
+			default:
+				return field.constant + ".read(reader)";
+		}
+	}
+
+	/**
+	 * Appends the static constants of the fields
+	 * @return whether there were any
+	 */
+	private boolean constants(StringBuilder source, List<Field> fields) {
+		boolean any = false;
+		for (Field field : fields) {
+			if (field.kind == Kind.ENUM) {
+				String erased = types.erasure(field.type).toString();
+				source.append("\tprivate static final ").append(erased).append("[] ").append(field.constant).append(" = ")
+						.append(erased).append(".values();\n");
+				any = true;
+			} else if (field.kind == Kind.CODEC) {
+				source.append("\tprivate static final ValueCodec<").append(field.type).append("> ").append(field.constant)
+						.append(" = ValueCodecs.nullable(ValueCodecs.").append(field.codec).append(");\n");
+				any = true;
+			}
+		}
+		return any;
+	}
+
+	private void methods(StringBuilder source, String indent, String eventName, String idType, List<Field> fields, String create) {
+		source.append(indent).append("@Override\n")
+				.append(indent).append("public void writePayload(").append(eventName).append(" event, BinaryWriter writer) {\n");
+		for (Field field : fields) {
+			String value = "event." + field.getter + "()";
+			String local = field.local;
+			switch (field.kind) {
+				case PRIMITIVE:
+					source.append(indent).append('\t').append(writePrimitive(field.type.getKind(), value)).append(";\n");
+					break;
+				case ENUM:
+					source.append(indent).append('\t').append(types.erasure(field.type)).append(' ').append(local).append(" = ").append(value).append(";\n")
+							.append(indent).append("\twriter.writeVarInt(").append(local).append(" == null ? 0 : ").append(local).append(".ordinal() + 1);\n");
+					break;
+				default:
+					source.append(indent).append('\t').append(field.constant).append(".write(").append(value).append(", writer);\n");
+			}
+		}
+		source.append(indent).append("}\n\n")
+				.append(indent).append("@Override\n")
+				.append(indent).append("public ").append(eventName).append(" read(").append(idType).append(" sourceId, EventId eventId, BinaryReader reader) {\n");
+		StringBuilder arguments = new StringBuilder("sourceId, eventId");
+		for (Field field : fields) {
+			source.append(indent).append('\t').append(field.type).append(' ').append(field.local).append(" = ");
+			switch (field.kind) {
+				case PRIMITIVE:
+					source.append(readPrimitive(field.type.getKind()));
+					break;
+				case ENUM:
+					source.append("constant(reader.readVarInt(), ").append(field.constant).append(')');
+					break;
+				default:
+					source.append(field.constant).append(".read(reader)");
+			}
+			source.append(";\n");
+			arguments.append(", ").append(field.local);
+		}
+		source.append(indent).append("\treturn ").append(create).append('(').append(arguments).append(");\n")
+				.append(indent).append("}\n");
+	}
+
+	private void helpers(StringBuilder source, List<Field> fields) {
+		if (fields.stream().anyMatch(field -> field.kind == Kind.ENUM)) {
+			source.append("\n\tprivate static <T> T constant(int ordinalPlusOne, T[] values) {\n")
+					.append("\t\treturn ordinalPlusOne == 0 ? null : values[ordinalPlusOne - 1];\n")
+					.append("\t}\n");
+		}
+	}
+
+	/* ------------------------ Fields ------------------------ */
+
+	private enum Kind {
+		PRIMITIVE, ENUM, CODEC, VARIABLE
+	}
+
+	/**
+	 * Field of the payload, a parameter of the constructor read back through a getter
+	 */
+	private static final class Field {
+		private final String name;
+		private final String local;
+		private final TypeMirror type;
+		private final String getter;
+		private final Kind kind;
+		private final String constant;
+		private final String codec;
+
+		private Field(String name, int index, TypeMirror type, String getter, Kind kind, String constant, String codec) {
+			this.name = name;
+			// Locals are numbered so that they never clash with the parameters of the methods
+			this.local = "field" + index;
+			this.type = type;
+			this.getter = getter;
+			this.kind = kind;
+			this.constant = constant;
+			this.codec = codec;
+		}
+	}
+
+	/**
+	 * @return the fields of the payload, or null if one is not supported
+	 */
+	private List<Field> fieldsOf(TypeElement event, DeclaredType eventType, ExecutableElement constructor, boolean concrete) {
+		List<? extends VariableElement> parameters = constructor.getParameters();
+		List<? extends TypeMirror> parameterTypes = ((ExecutableType) types.asMemberOf(eventType, constructor)).getParameterTypes();
+		List<Field> fields = new ArrayList<>();
+		for (int i = 2; i < parameters.size(); i++) {
+			VariableElement parameter = parameters.get(i);
+			TypeMirror type = parameterTypes.get(i);
+			String name = parameter.getSimpleName().toString();
+			ExecutableElement getter = getterOf(event, eventType, name, type);
+			if (getter == null)
+				return error("No getter of " + type + " for field " + name + " of " + event.getSimpleName(), parameter);
+			String getterName = getter.getSimpleName().toString();
+
+			if (type.getKind().isPrimitive()) {
+				fields.add(new Field(name, i, type, getterName, Kind.PRIMITIVE, null, null));
+			} else if (isEnum(type)) {
+				fields.add(new Field(name, i, type, getterName, Kind.ENUM, constantName(name, "_VALUES"), null));
+			} else if (type.getKind() == TypeKind.TYPEVAR && !concrete) {
+				fields.add(new Field(name, i, type, getterName, Kind.VARIABLE, name + "Values", null));
+			} else {
+				String codec = VALUE_CODECS.get(types.erasure(type).toString());
+				if (codec == null) return error("No codec for field " + name + " of type " + type, parameter);
+				fields.add(new Field(name, i, type, getterName, Kind.CODEC, constantName(name, "_CODEC"), codec));
+			}
+		}
+		return fields;
+	}
+
+	/**
+	 * @return the type argument of {@code DomainEvent} among the supertypes of the event, or null
+	 */
+	private TypeMirror sourceIdType(TypeMirror type) {
+		for (TypeMirror supertype : types.directSupertypes(type)) {
+			DeclaredType declared = (DeclaredType) supertype;
+			if (((TypeElement) declared.asElement()).getQualifiedName().contentEquals(EventProcessor.DOMAIN_EVENT)) {
+				List<? extends TypeMirror> arguments = declared.getTypeArguments();
+				if (arguments.size() != 1) return null;
+				TypeKind kind = arguments.get(0).getKind();
+				return kind == TypeKind.DECLARED || kind == TypeKind.TYPEVAR ? arguments.get(0) : null;
+			}
+			TypeMirror found = sourceIdType(supertype);
+			if (found != null) return found;
+		}
+		return null;
+	}
+
+	private ExecutableElement constructorOf(TypeElement event, TypeMirror idType) {
+		ExecutableElement best = null;
+		for (ExecutableElement constructor : ElementFilter.constructorsIn(event.getEnclosedElements())) {
+			List<? extends VariableElement> parameters = constructor.getParameters();
+			if (constructor.getModifiers().contains(Modifier.PRIVATE) || parameters.size() < 2) continue;
+			if (!types.isAssignable(idType, parameters.get(0).asType())) continue;
+			if (!isEventId(parameters.get(1).asType())) continue;
+			// Prefer the constructor with the most fields
+			if (best == null || parameters.size() > best.getParameters().size()) {
+				best = constructor;
+			}
+		}
+		return best;
+	}
+
+	private boolean isEventId(TypeMirror type) {
+		return type.getKind() == TypeKind.DECLARED
+				&& ((TypeElement) types.asElement(type)).getQualifiedName().contentEquals(EventProcessor.EVENT_ID);
+	}
+
+	private ExecutableElement getterOf(TypeElement event, DeclaredType eventType, String field, TypeMirror fieldType) {
+		String capitalized = field.substring(0, 1).toUpperCase(Locale.ROOT) + field.substring(1);
+		List<String> candidates = List.of("get" + capitalized, "is" + capitalized, field);
+		for (String candidate : candidates) {
+			for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(event))) {
+				if (!method.getSimpleName().contentEquals(candidate) || !method.getParameters().isEmpty()) continue;
+				if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) continue;
+				TypeMirror returned = ((ExecutableType) types.asMemberOf(eventType, method)).getReturnType();
+				if (types.isAssignable(returned, fieldType)) return method;
+			}
+		}
+		return null;
+	}
+
+	private boolean isEnum(TypeMirror type) {
+		Element element = types.asElement(type);
+		return element != null && element.getKind() == ElementKind.ENUM;
+	}
+
+	private static String writePrimitive(TypeKind kind, String value) {
+		switch (kind) {
+			case BOOLEAN:
+				return "writer.writeBoolean(" + value + ")";
+			case DOUBLE:
+				return "writer.writeFixedLong(Double.doubleToRawLongBits(" + value + "))";
+			case FLOAT:
+				return "writer.writeSignedVarLong(Float.floatToRawIntBits(" + value + "))";
+			default:
+				return "writer.writeSignedVarLong(" + value + ")";
+		}
+	}
+
+	private static String readPrimitive(TypeKind kind) {
+		switch (kind) {
+			case BOOLEAN:
+				return "reader.readBoolean()";
+			case DOUBLE:
+				return "Double.longBitsToDouble(reader.readFixedLong())";
+			case FLOAT:
+				return "Float.intBitsToFloat((int) reader.readSignedVarLong())";
+			case LONG:
+				return "reader.readSignedVarLong()";
+			case INT:
+				return "(int) reader.readSignedVarLong()";
+			case SHORT:
+				return "(short) reader.readSignedVarLong()";
+			case BYTE:
+				return "(byte) reader.readSignedVarLong()";
+			case CHAR:
+				return "(char) reader.readSignedVarLong()";
+			default:
+				throw new IllegalArgumentException("Unsupported primitive " + kind);
+		}
+	}
+
+	private static String constantName(String field, String suffix) {
+		StringBuilder constant = new StringBuilder(field.length() + 8);
+		for (int i = 0; i < field.length(); i++) {
+			char c = field.charAt(i);
+			if (Character.isUpperCase(c) && i > 0) constant.append('_');
+			constant.append(Character.toUpperCase(c));
+		}
+		return constant.append(suffix).toString();
+	}
+
+	private <T> T error(String message, Element element) {
+		messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+		return null;
+	}
+}
@@ -0,0 +1,165 @@
+package com.pdomingo.kernel.processor;
+
+import com.pdoming.kernel.core.codec.EventCodec;
+import com.pdoming.kernel.core.codec.EventType;
+import com.pdoming.kernel.core.codec.EventView;
+import com.pdoming.kernel.core.codec.ValueCodecs;
+import com.pdoming.kernel.core.ddd.BaseDomainEvent;
+import com.pdoming.kernel.core.ddd.DomainEvent;
+import com.pdoming.kernel.core.ddd.EventId;
+import com.pdoming.kernel.core.ddd.Identifiable;
+import com.pdoming.kernel.core.ddd.LongIdentifier;
+import com.pdoming.kernel.core.util.Handles;
+import com.pdoming.kernel.core.vobjects.Email;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Sources processed by the {@link EventProcessor} when the tests of this
+ * module are compiled, so that the build fails if the generated schemas, views
+ * or dispatchers do not compile, or do not have the expected signatures. It
+ * covers every kind of field, concrete and abstract events, and generic
+ * handlers with several methods for the same type.
+ */
+final class CompileCheck {
+
+	private CompileCheck() {
+	}
+
+	static final class Id extends LongIdentifier {
+		Id(long value) {
+			super(value);
+		}
+	}
+
+	enum Priority {
+		LOW, HIGH
+	}
+
+	@EventType(1)
+	static final class Shipped extends BaseDomainEvent<Id> {
+
+		private final Priority priority;
+		private final int quantity;
+		private final double weight;
+		private final boolean express;
+		private final String note;
+		private final Email contact;
+		private final Instant due;
+
+		Shipped(Id sourceId, EventId eventId, Priority priority, int quantity, double weight, boolean express,
+		        String note, Email contact, Instant due) {
+			super(sourceId, eventId);
+			this.priority = priority;
+			this.quantity = quantity;
+			this.weight = weight;
+			this.express = express;
+			this.note = note;
+			this.contact = contact;
+			this.due = due;
+		}
+
+		Priority getPriority() {
+			return priority;
+		}
+
+		int getQuantity() {
+			return quantity;
+		}
+
+		double getWeight() {
+			return weight;
+		}
+
+		boolean isExpress() {
+			return express;
+		}
+
+		String note() {
+			return note;
+		}
+
+		Email getContact() {
+			return contact;
+		}
+
+		Instant getDue() {
+			return due;
+		}
+	}
+
+	@EventType(2)
+	abstract static class Tagged<ID extends Identifiable, T> extends BaseDomainEvent<ID> {
+
+		private final Priority priority;
+		private final T tag;
+
+		protected Tagged(ID sourceId, EventId eventId, Priority priority, T tag) {
+			super(sourceId, eventId);
+			this.priority = priority;
+			this.tag = tag;
+		}
+
+		public Priority getPriority() {
+			return priority;
+		}
+
+		public T getTag() {
+			return tag;
+		}
+	}
+
+	static final class NoteTagged extends Tagged<Id, String> {
+		NoteTagged(Id sourceId, EventId eventId, Priority priority, String tag) {
+			super(sourceId, eventId, priority, tag);
+		}
+	}
+
+	interface Handler<ID extends Identifiable> {
+
+		@Handles
+		void onTagged(Tagged<ID, ?> event);
+
+		@Handles
+		void onShipped(Shipped event);
+
+		@Handles
+		void onTaggedAgain(Tagged<ID, ?> event);
+	}
+
+	/**
+	 * Uses the generated classes through their expected signatures
+	 */
+	static void check(Handler<Id> handler) {
+		EventCodec<Id> codec = EventCodec.of(ValueCodecs.mapped(ValueCodecs.varLong(), Id::getValue, Id::new),
+				new CompileCheck_ShippedSchema(),
+				CompileCheck_TaggedSchema.of(NoteTagged.class, ValueCodecs.string(), NoteTagged::new),
+				CompileCheck_TaggedSchema.of(CompileCheck_TaggedSchema.TYPE_ID + 1, NoteTagged.class, ValueCodecs.string(), NoteTagged::new));
+
+		EventView<Id> view = codec.view();
+		CompileCheck_ShippedView shipped = CompileCheck_ShippedView.over(view);
+		if (shipped.matches()) {
+			Id sourceId = shipped.getSourceId();
+			Priority priority = shipped.getPriority();
+			int quantity = shipped.getQuantity();
+			double weight = shipped.getWeight();
+			boolean express = shipped.isExpress();
+			String note = shipped.note();
+			Email contact = shipped.getContact();
+			Instant due = shipped.getDue();
+		}
+		CompileCheck_TaggedView<Id, String> tagged = CompileCheck_TaggedView.over(view, ValueCodecs.string());
+		if (tagged.matches()) {
+			Priority priority = CompileCheck_TaggedView.<Id, String>over(view).getPriority();
+			String tag = tagged.getTag();
+		}
+
+		CompileCheck_HandlerDispatcher<Id> dispatcher = new CompileCheck_HandlerDispatcher<>(handler);
+		List<Class<?>> types = CompileCheck_HandlerDispatcher.handledTypes();
+		for (Class<?> type : types) {
+			Consumer<DomainEvent<?>> consumer = dispatcher.handlerFor(type);
+		}
+	}
+}